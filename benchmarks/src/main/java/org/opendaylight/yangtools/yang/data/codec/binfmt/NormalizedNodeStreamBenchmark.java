@@ -0,0 +1,244 @@
+/*
+ * Copyright (c) 2018 Pantheon Technologies, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.codec.binfmt;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.util.concurrent.TimeUnit;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.schema.ContainerNode;
+import org.opendaylight.yangtools.yang.data.api.schema.MapEntryNode;
+import org.opendaylight.yangtools.yang.data.api.schema.MapNode;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.stream.NormalizedNodeWriter;
+import org.opendaylight.yangtools.yang.data.codec.gson.JSONCodecFactory;
+import org.opendaylight.yangtools.yang.data.codec.gson.JSONCodecFactorySupplier;
+import org.opendaylight.yangtools.yang.data.codec.gson.JSONNormalizedNodeStreamWriter;
+import org.opendaylight.yangtools.yang.data.codec.gson.JsonParserStream;
+import org.opendaylight.yangtools.yang.data.codec.xml.XMLStreamNormalizedNodeStreamWriter;
+import org.opendaylight.yangtools.yang.data.codec.xml.XmlCodecFactory;
+import org.opendaylight.yangtools.yang.data.codec.xml.XmlParserStream;
+import org.opendaylight.yangtools.yang.data.impl.schema.Builders;
+import org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes;
+import org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNormalizedNodeStreamWriter;
+import org.opendaylight.yangtools.yang.data.impl.schema.NormalizedNodeResult;
+import org.opendaylight.yangtools.yang.data.impl.schema.builder.api.CollectionNodeBuilder;
+import org.opendaylight.yangtools.yang.model.api.DataSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.SchemaContext;
+import org.opendaylight.yangtools.yang.model.api.SchemaPath;
+import org.opendaylight.yangtools.yang.test.util.YangParserTestUtils;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.runner.IterationType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Comparison of the binary NormalizedNode stream format with the XML and JSON codecs, both in terms of throughput and
+ * encoded size. Encoded sizes are reported as the {@code encodedBytes} secondary result of write benchmarks.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+public class NormalizedNodeStreamBenchmark {
+    private static final QName TEST_QNAME = QName.create(
+        "urn:opendaylight:params:xml:ns:yang:controller:md:sal:dom:store:test", "2014-03-13", "test").intern();
+    private static final QName OUTER_LIST_QNAME = QName.create(TEST_QNAME, "outer-list").intern();
+    private static final QName INNER_LIST_QNAME = QName.create(TEST_QNAME, "inner-list").intern();
+    private static final QName ID_QNAME = QName.create(TEST_QNAME, "id").intern();
+    private static final QName NAME_QNAME = QName.create(TEST_QNAME, "name").intern();
+    private static final QName VALUE_QNAME = QName.create(TEST_QNAME, "value").intern();
+
+    private static final XMLInputFactory XML_INPUT_FACTORY = XMLInputFactory.newFactory();
+    private static final XMLOutputFactory XML_OUTPUT_FACTORY;
+
+    static {
+        XML_OUTPUT_FACTORY = XMLOutputFactory.newFactory();
+        XML_OUTPUT_FACTORY.setProperty(XMLOutputFactory.IS_REPAIRING_NAMESPACES, Boolean.TRUE);
+    }
+
+    /**
+     * Size of the last encoded document. JMH sums secondary results over measurement iterations, hence the value is
+     * reported only in the first one.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class EncodedSize {
+        public long encodedBytes;
+
+        private boolean report;
+        private boolean reported;
+
+        @Setup(Level.Iteration)
+        public void setupIteration(final IterationParams params) {
+            encodedBytes = 0;
+            report = params.getType() == IterationType.MEASUREMENT && !reported;
+            reported |= report;
+        }
+
+        void record(final long bytes) {
+            if (report) {
+                encodedBytes = bytes;
+            }
+        }
+    }
+
+    @Param({ "1000", "10000" })
+    private int outerListSize;
+
+    private SchemaContext schemaContext;
+    private XmlCodecFactory codecs;
+    private JSONCodecFactory jsonCodecs;
+    private DataSchemaNode testSchema;
+    private ContainerNode data;
+    private byte[] binary;
+    private byte[] xml;
+    private byte[] json;
+
+    public static void main(final String... args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+            .include(".*" + NormalizedNodeStreamBenchmark.class.getSimpleName() + ".*")
+            .forks(1)
+            .build();
+
+        new Runner(opt).run();
+    }
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        schemaContext = YangParserTestUtils.parseYangResource("/odl-datastore-test.yang");
+        codecs = XmlCodecFactory.create(schemaContext);
+        jsonCodecs = JSONCodecFactorySupplier.RFC7951.getShared(schemaContext);
+        testSchema = schemaContext.findDataChildByName(TEST_QNAME).get();
+
+        final CollectionNodeBuilder<MapEntryNode, MapNode> outerList = ImmutableNodes.mapNodeBuilder(
+            OUTER_LIST_QNAME);
+        for (int i = 0; i < outerListSize; ++i) {
+            final CollectionNodeBuilder<MapEntryNode, MapNode> innerList = ImmutableNodes.mapNodeBuilder(
+                INNER_LIST_QNAME);
+            for (int j = 0; j < 5; ++j) {
+                innerList.withChild(ImmutableNodes.mapEntryBuilder(INNER_LIST_QNAME, NAME_QNAME, j)
+                    .withChild(ImmutableNodes.leafNode(VALUE_QNAME, "value-" + i + "-" + j)).build());
+            }
+            outerList.withChild(ImmutableNodes.mapEntryBuilder(OUTER_LIST_QNAME, ID_QNAME, i)
+                .withChild(innerList.build()).build());
+        }
+        data = Builders.containerBuilder().withNodeIdentifier(new NodeIdentifier(TEST_QNAME))
+                .withChild(outerList.build()).build();
+
+        binary = encodeBinary();
+        xml = encodeXml();
+        json = encodeJson();
+    }
+
+    @Benchmark
+    public byte[] writeBinary(final EncodedSize size) throws IOException {
+        return recordSize(size, encodeBinary());
+    }
+
+    @Benchmark
+    public NormalizedNode<?, ?> readBinary() throws IOException {
+        return NormalizedNodeDataInput.newDataInput(new DataInputStream(new ByteArrayInputStream(binary)))
+                .readNormalizedNode();
+    }
+
+    @Benchmark
+    public byte[] writeXml(final EncodedSize size) throws Exception {
+        return recordSize(size, encodeXml());
+    }
+
+    @Benchmark
+    public NormalizedNode<?, ?> readXml() throws Exception {
+        final XMLStreamReader reader = XML_INPUT_FACTORY.createXMLStreamReader(new ByteArrayInputStream(xml));
+        final NormalizedNodeResult result = new NormalizedNodeResult();
+        XmlParserStream.create(ImmutableNormalizedNodeStreamWriter.from(result), codecs, testSchema)
+            .parse(reader);
+        reader.close();
+        return result.getResult();
+    }
+
+    @Benchmark
+    public byte[] writeJson(final EncodedSize size) throws IOException {
+        return recordSize(size, encodeJson());
+    }
+
+    @Benchmark
+    public NormalizedNode<?, ?> readJson() throws IOException {
+        final NormalizedNodeResult result = new NormalizedNodeResult();
+        try (JsonParserStream parser = JsonParserStream.create(ImmutableNormalizedNodeStreamWriter.from(result),
+                jsonCodecs)) {
+            parser.parse(new JsonReader(new InputStreamReader(new ByteArrayInputStream(json), UTF_8)));
+        }
+        return result.getResult();
+    }
+
+    private static byte[] recordSize(final EncodedSize size, final byte[] encoded) {
+        size.record(encoded.length);
+        return encoded;
+    }
+
+    private byte[] encodeBinary() throws IOException {
+        final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try (NormalizedNodeDataOutput out = NormalizedNodeDataOutput.newDataOutput(new DataOutputStream(bos))) {
+            out.writeNormalizedNode(data);
+        }
+        return bos.toByteArray();
+    }
+
+    private byte[] encodeXml() throws Exception {
+        final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        final XMLStreamWriter xmlWriter = XML_OUTPUT_FACTORY.createXMLStreamWriter(bos, "UTF-8");
+        try (NormalizedNodeWriter writer = NormalizedNodeWriter.forStreamWriter(
+                XMLStreamNormalizedNodeStreamWriter.create(xmlWriter, schemaContext))) {
+            writer.write(data);
+        }
+        xmlWriter.close();
+        return bos.toByteArray();
+    }
+
+    private byte[] encodeJson() throws IOException {
+        final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        final JsonWriter jsonWriter = new JsonWriter(new OutputStreamWriter(bos, UTF_8));
+        try (NormalizedNodeWriter writer = NormalizedNodeWriter.forStreamWriter(
+                JSONNormalizedNodeStreamWriter.createExclusiveWriter(jsonCodecs, SchemaPath.ROOT, null, jsonWriter))) {
+            writer.write(data);
+        }
+        return bos.toByteArray();
+    }
+}
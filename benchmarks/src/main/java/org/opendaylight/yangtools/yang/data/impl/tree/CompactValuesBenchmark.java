@@ -0,0 +1,176 @@
+/*
+ * Copyright (c) 2018 Pantheon Technologies, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.impl.tree;
+
+import java.util.concurrent.TimeUnit;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifierWithPredicates;
+import org.opendaylight.yangtools.yang.data.api.schema.MapEntryNode;
+import org.opendaylight.yangtools.yang.data.api.schema.MapNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTree;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeConfiguration;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeModification;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataValidationFailedException;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.TreeType;
+import org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes;
+import org.opendaylight.yangtools.yang.data.impl.schema.builder.api.CollectionNodeBuilder;
+import org.opendaylight.yangtools.yang.data.impl.schema.builder.impl.ImmutableContainerNodeBuilder;
+import org.opendaylight.yangtools.yang.data.impl.schema.tree.InMemoryDataTreeFactory;
+import org.opendaylight.yangtools.yang.model.api.SchemaContext;
+import org.opendaylight.yangtools.yang.model.api.SchemaNode;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.runner.IterationType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Benchmarking of the heap footprint and leaf update performance of an InMemoryDataTree with and without compact
+ * storage of leaf values. The tree is populated with outer list entries, each holding an inner list, and every inner
+ * list value leaf is then updated in its own commit, so that all containers retain their modified children. The heap
+ * retained by the populated tree, excluding the schema, is estimated once and reported as the {@code retainedBytes}
+ * secondary result.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+public class CompactValuesBenchmark {
+    private static final int WARMUP_ITERATIONS = 5;
+    private static final int MEASUREMENT_ITERATIONS = 10;
+
+    private static final int OUTER_LIST_ITEMS = 10000;
+    private static final int INNER_LIST_ITEMS = 10;
+
+    /**
+     * Estimated heap retained by the populated tree. JMH sums secondary results over measurement iterations, hence
+     * the value is reported only in the first one.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Footprint {
+        public long retainedBytes;
+
+        private boolean report;
+        private boolean reported;
+
+        @Setup(Level.Iteration)
+        public void setupIteration(final IterationParams params) {
+            retainedBytes = 0;
+            report = params.getType() == IterationType.MEASUREMENT && !reported;
+            reported |= report;
+        }
+
+        void record(final long bytes) {
+            if (report) {
+                retainedBytes = bytes;
+            }
+        }
+    }
+
+    @Param({ "false", "true" })
+    public boolean compactValues;
+
+    private YangInstanceIdentifier[] valuePaths;
+    private DataTree datastore;
+    private long retainedBytes;
+    private int counter;
+
+    public static void main(final String... args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+            .include(".*" + CompactValuesBenchmark.class.getSimpleName() + ".*")
+            .forks(1)
+            .build();
+
+        new Runner(opt).run();
+    }
+
+    @Setup(Level.Trial)
+    public void setup() throws DataValidationFailedException {
+        final CollectionNodeBuilder<MapEntryNode, MapNode> outerList = ImmutableNodes.mapNodeBuilder(
+            BenchmarkModel.OUTER_LIST);
+        valuePaths = new YangInstanceIdentifier[OUTER_LIST_ITEMS * INNER_LIST_ITEMS];
+        for (int i = 0; i < OUTER_LIST_ITEMS; ++i) {
+            final NodeIdentifierWithPredicates outerId = new NodeIdentifierWithPredicates(
+                BenchmarkModel.OUTER_LIST_QNAME, BenchmarkModel.ID_QNAME, i);
+            final CollectionNodeBuilder<MapEntryNode, MapNode> innerList = ImmutableNodes.mapNodeBuilder(
+                BenchmarkModel.INNER_LIST);
+            for (int j = 0; j < INNER_LIST_ITEMS; ++j) {
+                final NodeIdentifierWithPredicates innerId = new NodeIdentifierWithPredicates(
+                    BenchmarkModel.INNER_LIST_QNAME, BenchmarkModel.NAME_QNAME, "name" + j);
+                innerList.withChild(ImmutableNodes.mapEntryBuilder().withNodeIdentifier(innerId)
+                    .withChild(ImmutableNodes.leafNode(BenchmarkModel.NAME_QNAME, "name" + j))
+                    .withChild(ImmutableNodes.leafNode(BenchmarkModel.VALUE_QNAME, "value"))
+                    .build());
+                valuePaths[i * INNER_LIST_ITEMS + j] = BenchmarkModel.OUTER_LIST_PATH.node(outerId)
+                        .node(BenchmarkModel.INNER_LIST).node(innerId).node(BenchmarkModel.VALUE_QNAME).toOptimized();
+            }
+            outerList.withChild(ImmutableNodes.mapEntryBuilder().withNodeIdentifier(outerId)
+                .withChild(ImmutableNodes.leafNode(BenchmarkModel.ID_QNAME, i))
+                .withChild(innerList.build()).build());
+        }
+
+        datastore = new InMemoryDataTreeFactory().create(new DataTreeConfiguration.Builder(TreeType.OPERATIONAL)
+            .setCompactValues(compactValues).build(), BenchmarkModel.createTestContext());
+
+        final DataTreeModification modification = datastore.takeSnapshot().newModification();
+        modification.write(BenchmarkModel.TEST_PATH, ImmutableContainerNodeBuilder.create()
+            .withNodeIdentifier(BenchmarkModel.TEST).withChild(outerList.build()).build());
+        commit(modification);
+
+        for (int i = 0; i < valuePaths.length; ++i) {
+            updateValue(i);
+        }
+
+        retainedBytes = RetainedSize.of(datastore.takeSnapshot(),
+            obj -> obj instanceof SchemaNode || obj instanceof SchemaContext);
+    }
+
+    @TearDown
+    public void tearDown() {
+        datastore = null;
+        valuePaths = null;
+    }
+
+    @Benchmark
+    @Warmup(iterations = WARMUP_ITERATIONS)
+    @Measurement(iterations = MEASUREMENT_ITERATIONS)
+    public void updateValueBenchmark(final Footprint footprint) throws DataValidationFailedException {
+        footprint.record(retainedBytes);
+        updateValue(counter);
+        counter = (counter + 1) % valuePaths.length;
+    }
+
+    private void updateValue(final int index) throws DataValidationFailedException {
+        final DataTreeModification modification = datastore.takeSnapshot().newModification();
+        modification.write(valuePaths[index], ImmutableNodes.leafNode(BenchmarkModel.VALUE_QNAME,
+            "value" + index));
+        commit(modification);
+    }
+
+    private void commit(final DataTreeModification modification) throws DataValidationFailedException {
+        modification.ready();
+        datastore.validate(modification);
+        datastore.commit(datastore.prepare(modification));
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2018 Pantheon Technologies, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.impl.tree;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Deterministic estimate of the heap retained by an object graph. The graph is walked through instance fields and
+ * object sizes are estimated for a 64-bit JVM with compressed references: 12-byte object headers, 16-byte array
+ * headers, 4-byte references and 8-byte alignment. Unlike measuring heap usage, this does not depend on when garbage
+ * collection runs.
+ */
+final class RetainedSize {
+    private static final int OBJECT_HEADER = 12;
+    private static final int ARRAY_HEADER = 16;
+    private static final int REFERENCE = 4;
+
+    private final Map<Class<?>, List<Field>> referenceFields = new HashMap<>();
+    private final Map<Class<?>, Long> shallowSizes = new HashMap<>();
+    private final Predicate<Object> exclude;
+
+    private RetainedSize(final Predicate<Object> exclude) {
+        this.exclude = exclude;
+    }
+
+    /**
+     * Estimate the size of all objects reachable from a root object.
+     *
+     * @param root Root object
+     * @param exclude Predicate selecting objects which should not be counted nor traversed
+     * @return Estimated size in bytes
+     */
+    static long of(final Object root, final Predicate<Object> exclude) {
+        return new RetainedSize(exclude).walk(root);
+    }
+
+    private long walk(final Object root) {
+        final Set<Object> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        final Deque<Object> queue = new ArrayDeque<>();
+        queue.add(root);
+        seen.add(root);
+
+        long size = 0;
+        while (!queue.isEmpty()) {
+            final Object obj = queue.poll();
+            final Class<?> clazz = obj.getClass();
+            final List<Object> children = new ArrayList<>();
+            if (clazz.isArray()) {
+                final int length = Array.getLength(obj);
+                final Class<?> component = clazz.getComponentType();
+                size += align(ARRAY_HEADER + (long) length * fieldSize(component));
+                if (!component.isPrimitive()) {
+                    for (Object child : (Object[]) obj) {
+                        children.add(child);
+                    }
+                }
+            } else {
+                size += shallowSizes.computeIfAbsent(clazz, RetainedSize::shallowSize);
+                for (Field field : referenceFields.computeIfAbsent(clazz, RetainedSize::referenceFields)) {
+                    try {
+                        children.add(field.get(obj));
+                    } catch (IllegalAccessException e) {
+                        throw new IllegalStateException("Failed to access " + field, e);
+                    }
+                }
+            }
+
+            for (Object child : children) {
+                if (child != null && !(child instanceof Class) && !exclude.test(child) && seen.add(child)) {
+                    queue.add(child);
+                }
+            }
+        }
+        return size;
+    }
+
+    private static long shallowSize(final Class<?> clazz) {
+        long size = OBJECT_HEADER;
+        for (Class<?> cls = clazz; cls != null; cls = cls.getSuperclass()) {
+            for (Field field : cls.getDeclaredFields()) {
+                if (!Modifier.isStatic(field.getModifiers())) {
+                    size += fieldSize(field.getType());
+                }
+            }
+        }
+        return align(size);
+    }
+
+    private static List<Field> referenceFields(final Class<?> clazz) {
+        final List<Field> ret = new ArrayList<>();
+        for (Class<?> cls = clazz; cls != null; cls = cls.getSuperclass()) {
+            for (Field field : cls.getDeclaredFields()) {
+                if (!Modifier.isStatic(field.getModifiers()) && !field.getType().isPrimitive()) {
+                    field.setAccessible(true);
+                    ret.add(field);
+                }
+            }
+        }
+        return ret;
+    }
+
+    private static int fieldSize(final Class<?> type) {
+        if (!type.isPrimitive()) {
+            return REFERENCE;
+        }
+        if (type == long.class || type == double.class) {
+            return 8;
+        }
+        if (type == int.class || type == float.class) {
+            return 4;
+        }
+        if (type == short.class || type == char.class) {
+            return 2;
+        }
+        return 1;
+    }
+
+    private static long align(final long size) {
+        return (size + 7) & ~7L;
+    }
+}
@@ -0,0 +1,201 @@
+/*
+ * Copyright (c) 2018 Pantheon Technologies, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.parser.repo;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.opendaylight.yangtools.util.concurrent.FluentFutures.immediateFluentFuture;
+
+import com.google.common.io.ByteSource;
+import com.google.common.io.MoreFiles;
+import com.google.common.io.RecursiveDeleteOption;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.opendaylight.yangtools.yang.common.Revision;
+import org.opendaylight.yangtools.yang.model.api.SchemaContext;
+import org.opendaylight.yangtools.yang.model.repo.api.RevisionSourceIdentifier;
+import org.opendaylight.yangtools.yang.model.repo.api.SchemaContextFactoryConfiguration;
+import org.opendaylight.yangtools.yang.model.repo.api.SourceIdentifier;
+import org.opendaylight.yangtools.yang.model.repo.api.YangTextSchemaSource;
+import org.opendaylight.yangtools.yang.model.repo.spi.PotentialSchemaSource;
+import org.opendaylight.yangtools.yang.model.repo.spi.PotentialSchemaSource.Costs;
+import org.opendaylight.yangtools.yang.parser.rfc7950.repo.ASTSchemaSource;
+import org.opendaylight.yangtools.yang.parser.rfc7950.repo.TextToASTTransformer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measurement of what the persistent source set cache saves when assembling a SchemaContext from a generated set of
+ * modules, each of which imports a common types module and augments its predecessor.
+ *
+ * <ul>
+ *   <li>{@code parseAndAssemble} parses all texts and runs the reactor, which is what happens without a cache</li>
+ *   <li>{@code persistentCacheHit} reads texts to compute the cache key, loads ASTs from the cache and runs
+ *       the reactor</li>
+ *   <li>{@code assembleOnly} runs the reactor on already-available ASTs, which is the lower bound for
+ *       {@code persistentCacheHit}</li>
+ * </ul>
+ *
+ * <p>
+ * Each invocation uses a new repository, so that no in-memory caches are involved.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+public class SchemaContextFactoryBenchmark {
+    private static final Revision REVISION = Revision.of("2018-01-01");
+    private static final int CONTAINERS = 20;
+    private static final int LEAVES = 10;
+
+    @Param({ "50", "200" })
+    private int moduleCount;
+
+    private final List<YangTextSchemaSource> texts = new ArrayList<>();
+    private final List<ASTSchemaSource> asts = new ArrayList<>();
+    private final List<SourceIdentifier> sourceIds = new ArrayList<>();
+    private Path cacheDirectory;
+    private SchemaContextFactoryConfiguration cacheConfig;
+
+    public static void main(final String... args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+            .include(".*" + SchemaContextFactoryBenchmark.class.getSimpleName() + ".*")
+            .forks(1)
+            .build();
+
+        new Runner(opt).run();
+    }
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        addSource("bench-types", typesModule());
+        for (int i = 0; i < moduleCount; ++i) {
+            addSource("bench-module-" + i, module(i));
+        }
+        for (YangTextSchemaSource text : texts) {
+            asts.add(TextToASTTransformer.transformText(text));
+        }
+
+        // Populate the cache
+        cacheDirectory = Files.createTempDirectory("yang-cache");
+        cacheConfig = SchemaContextFactoryConfiguration.builder().setPersistentCacheDirectory(cacheDirectory).build();
+        textRepository().createSchemaContextFactory(cacheConfig).createSchemaContext(sourceIds).get();
+    }
+
+    @TearDown(Level.Trial)
+    public void teardown() throws Exception {
+        MoreFiles.deleteRecursively(cacheDirectory, RecursiveDeleteOption.ALLOW_INSECURE);
+    }
+
+    @Benchmark
+    public SchemaContext parseAndAssemble() throws Exception {
+        return textRepository().createSchemaContextFactory(SchemaContextFactoryConfiguration.getDefault())
+                .createSchemaContext(sourceIds).get();
+    }
+
+    @Benchmark
+    public SchemaContext persistentCacheHit() throws Exception {
+        return textRepository().createSchemaContextFactory(cacheConfig).createSchemaContext(sourceIds).get();
+    }
+
+    @Benchmark
+    public SchemaContext assembleOnly() throws Exception {
+        final SharedSchemaRepository repository = new SharedSchemaRepository("bench");
+        for (ASTSchemaSource ast : asts) {
+            repository.registerSchemaSource(id -> immediateFluentFuture(ast),
+                PotentialSchemaSource.create(ast.getIdentifier(), ASTSchemaSource.class, Costs.IMMEDIATE.getValue()));
+        }
+        return repository.createSchemaContextFactory(SchemaContextFactoryConfiguration.getDefault())
+                .createSchemaContext(sourceIds).get();
+    }
+
+    private SharedSchemaRepository textRepository() {
+        final SharedSchemaRepository repository = new SharedSchemaRepository("bench");
+        repository.registerSchemaSourceListener(TextToASTTransformer.create(repository, repository));
+        for (YangTextSchemaSource text : texts) {
+            repository.registerSchemaSource(id -> immediateFluentFuture(text),
+                PotentialSchemaSource.create(text.getIdentifier(), YangTextSchemaSource.class,
+                    Costs.IMMEDIATE.getValue()));
+        }
+        return repository;
+    }
+
+    private void addSource(final String name, final String text) {
+        final SourceIdentifier id = RevisionSourceIdentifier.create(name, REVISION);
+        sourceIds.add(id);
+        texts.add(YangTextSchemaSource.delegateForByteSource(id, ByteSource.wrap(text.getBytes(UTF_8))));
+    }
+
+    private static String typesModule() {
+        return "module bench-types {\n"
+            + "  namespace \"urn:bench:types\";\n"
+            + "  prefix bt;\n"
+            + "  revision " + REVISION + ";\n"
+            + "  typedef percent { type uint8 { range \"0..100\"; } }\n"
+            + "  typedef name-string { type string { length \"1..64\"; pattern '[a-zA-Z][a-zA-Z0-9\\-]*'; } }\n"
+            + "  grouping address {\n"
+            + "    leaf ip { type string; }\n"
+            + "    leaf port { type uint16; default 830; }\n"
+            + "  }\n"
+            + "}\n";
+    }
+
+    private static String module(final int index) {
+        final StringBuilder sb = new StringBuilder()
+            .append("module bench-module-").append(index).append(" {\n")
+            .append("  namespace \"urn:bench:module:").append(index).append("\";\n")
+            .append("  prefix m").append(index).append(";\n")
+            .append("  import bench-types { prefix bt; }\n");
+        if (index != 0) {
+            sb.append("  import bench-module-").append(index - 1).append(" { prefix p; }\n");
+        }
+        sb.append("  revision ").append(REVISION).append(" { description \"Generated module\"; }\n");
+
+        for (int i = 0; i < CONTAINERS; ++i) {
+            sb.append("  container c").append(i).append(" {\n")
+                .append("    description \"Container ").append(i).append(" of module ").append(index).append("\";\n");
+            for (int j = 0; j < LEAVES; ++j) {
+                sb.append("    leaf l").append(j).append(" { type ")
+                    .append(j % 2 == 0 ? "bt:percent" : "bt:name-string")
+                    .append("; description \"Leaf ").append(j).append("\"; }\n");
+            }
+            sb.append("    list entry {\n")
+                .append("      key name;\n")
+                .append("      leaf name { type bt:name-string; }\n")
+                .append("      uses bt:address;\n")
+                .append("    }\n")
+                .append("  }\n");
+        }
+
+        if (index != 0) {
+            sb.append("  augment \"/p:c0\" {\n")
+                .append("    leaf augmented-").append(index).append(" { type string; }\n")
+                .append("  }\n");
+        }
+        return sb.append("}\n").toString();
+    }
+}
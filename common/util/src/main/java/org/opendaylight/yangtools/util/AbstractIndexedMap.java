@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2018 Pantheon Technologies, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.util;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * Common implementation of {@link ImmutableIndexedMap} and {@link MutableIndexedMap}. Mappings are kept in a persistent
+ * {@link IndexedNode} tree ordered by insertion labels, while a TrieMap provides the key-to-label index.
+ *
+ * @param <K> the type of keys maintained by this map
+ * @param <V> the type of mapped values
+ */
+abstract class AbstractIndexedMap<K, V> extends AbstractMap<K, V> {
+    private final class EntrySet extends AbstractSet<Entry<K, V>> {
+        @Override
+        public Iterator<Entry<K, V>> iterator() {
+            return new IndexedNode.EntryIterator<>(root());
+        }
+
+        @Override
+        public int size() {
+            return IndexedNode.size(root());
+        }
+
+        @Override
+        public boolean contains(final Object obj) {
+            if (!(obj instanceof Entry)) {
+                return false;
+            }
+            final Entry<?, ?> entry = (Entry<?, ?>) obj;
+            final V value = AbstractIndexedMap.this.get(entry.getKey());
+            return value != null && value.equals(entry.getValue());
+        }
+    }
+
+    abstract Map<K, Long> labels();
+
+    abstract @Nullable IndexedNode<K, V> root();
+
+    /**
+     * Return the value at specified position in iteration order. This operation completes in logarithmic time.
+     *
+     * @param index position of the value
+     * @return Value at specified position
+     * @throws IndexOutOfBoundsException if index is negative or not smaller than {@link #size()}
+     */
+    public final V valueAt(final int index) {
+        return IndexedNode.select(root(), index).value();
+    }
+
+    @Override
+    public final int size() {
+        return IndexedNode.size(root());
+    }
+
+    @Override
+    public final boolean isEmpty() {
+        return root() == null;
+    }
+
+    @Override
+    public final boolean containsKey(final Object key) {
+        return labels().containsKey(key);
+    }
+
+    @Override
+    public final V get(final Object key) {
+        final Long label = labels().get(key);
+        if (label == null) {
+            return null;
+        }
+        final IndexedNode<K, V> node = IndexedNode.find(root(), label);
+        return node == null ? null : node.value();
+    }
+
+    @Override
+    public final Set<Entry<K, V>> entrySet() {
+        return new EntrySet();
+    }
+}
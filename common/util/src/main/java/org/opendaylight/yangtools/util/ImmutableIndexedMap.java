@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2018 Pantheon Technologies, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.util;
+
+import static java.util.Objects.requireNonNull;
+
+import com.google.common.annotations.Beta;
+import java.util.Map;
+import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.jdt.annotation.Nullable;
+import tech.pantheon.triemap.ImmutableTrieMap;
+import tech.pantheon.triemap.TrieMap;
+
+/**
+ * An unmodifiable {@link Map}, which retains insertion order and provides access to values by their position in
+ * logarithmic time via {@link #valueAt(int)}. Conversion to and from {@link MutableIndexedMap} is a constant-time
+ * operation, as both share their internal structures, making this class suitable for large maps which are frequently
+ * updated by small increments.
+ *
+ * @param <K> the type of keys maintained by this map
+ * @param <V> the type of mapped values
+ */
+@Beta
+public final class ImmutableIndexedMap<K, V> extends AbstractIndexedMap<K, V> implements UnmodifiableMapPhase<K, V> {
+    private final @NonNull ImmutableTrieMap<K, Long> labels;
+    private final @Nullable IndexedNode<K, V> root;
+    private final long nextLabel;
+    private int hashCode;
+
+    ImmutableIndexedMap(final ImmutableTrieMap<K, Long> labels, final @Nullable IndexedNode<K, V> root,
+            final long nextLabel) {
+        this.labels = requireNonNull(labels);
+        this.root = root;
+        this.nextLabel = nextLabel;
+    }
+
+    /**
+     * Return an empty {@link ImmutableIndexedMap}.
+     *
+     * @param <K> the type of keys maintained by this map
+     * @param <V> the type of mapped values
+     * @return An empty map
+     */
+    public static <K, V> @NonNull ImmutableIndexedMap<K, V> of() {
+        return new ImmutableIndexedMap<>(TrieMap.<K, Long>create().immutableSnapshot(), null, 0);
+    }
+
+    /**
+     * Create an {@link ImmutableIndexedMap} as a copy of an existing map. If the input is an
+     * {@link ImmutableIndexedMap}, it is returned as is. If it is a {@link MutableIndexedMap}, an efficient snapshot
+     * of its contents is returned. All other maps are copied, retaining their iteration order.
+     *
+     * @param map Input map, may not be null.
+     * @return An isolated, immutable copy of the input map
+     */
+    public static <K, V> @NonNull ImmutableIndexedMap<K, V> copyOf(final @NonNull Map<K, V> map) {
+        if (map instanceof ImmutableIndexedMap) {
+            return (ImmutableIndexedMap<K, V>) map;
+        }
+        if (map instanceof MutableIndexedMap) {
+            return ((MutableIndexedMap<K, V>) map).toUnmodifiableMap();
+        }
+
+        final MutableIndexedMap<K, V> tmp = MutableIndexedMap.create();
+        tmp.putAll(map);
+        return tmp.toUnmodifiableMap();
+    }
+
+    @Override
+    public @NonNull MutableIndexedMap<K, V> toModifiableMap() {
+        return new MutableIndexedMap<>(labels.mutableSnapshot(), root, nextLabel);
+    }
+
+    @Override
+    Map<K, Long> labels() {
+        return labels;
+    }
+
+    @Override
+    @Nullable IndexedNode<K, V> root() {
+        return root;
+    }
+
+    @Override
+    public V put(final K key, final V value) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public V remove(final Object key) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void putAll(final Map<? extends K, ? extends V> map) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void clear() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public int hashCode() {
+        if (hashCode != 0) {
+            return hashCode;
+        }
+
+        final int result = super.hashCode();
+        hashCode = result;
+        return result;
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (obj == this) {
+            return true;
+        }
+        if (obj instanceof ImmutableIndexedMap) {
+            final ImmutableIndexedMap<?, ?> other = (ImmutableIndexedMap<?, ?>) obj;
+            if (root == other.root) {
+                return true;
+            }
+            if (size() != other.size() || hashCode() != other.hashCode()) {
+                return false;
+            }
+        }
+        return super.equals(obj);
+    }
+}
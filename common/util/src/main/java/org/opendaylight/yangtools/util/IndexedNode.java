@@ -0,0 +1,233 @@
+/*
+ * Copyright (c) 2018 Pantheon Technologies, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.util;
+
+import static com.google.common.base.Preconditions.checkElementIndex;
+import static java.util.Objects.requireNonNull;
+
+import com.google.common.collect.UnmodifiableIterator;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map.Entry;
+import java.util.NoSuchElementException;
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * A node in a persistent AVL tree ordered by insertion labels and annotated with subtree sizes. The tree is used by
+ * {@link ImmutableIndexedMap} and {@link MutableIndexedMap} to provide logarithmic-time access by position. Nodes are
+ * never modified once constructed, hence all operations return a new root, sharing all untouched subtrees with the
+ * original.
+ *
+ * @param <K> the type of keys
+ * @param <V> the type of values
+ */
+final class IndexedNode<K, V> {
+    private final @Nullable IndexedNode<K, V> left;
+    private final @Nullable IndexedNode<K, V> right;
+    private final long label;
+    private final K key;
+    private final V value;
+    private final int size;
+    private final int height;
+
+    private IndexedNode(final long label, final K key, final V value, final @Nullable IndexedNode<K, V> left,
+            final @Nullable IndexedNode<K, V> right) {
+        this.label = label;
+        this.key = requireNonNull(key);
+        this.value = requireNonNull(value);
+        this.left = left;
+        this.right = right;
+        this.size = size(left) + size(right) + 1;
+        this.height = Math.max(height(left), height(right)) + 1;
+    }
+
+    V value() {
+        return value;
+    }
+
+    static int size(final @Nullable IndexedNode<?, ?> node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private static int height(final @Nullable IndexedNode<?, ?> node) {
+        return node == null ? 0 : node.height;
+    }
+
+    /**
+     * Find the node with specified label.
+     *
+     * @param root tree root
+     * @param label node label
+     * @return Node with specified label, or null if not found
+     */
+    static <K, V> @Nullable IndexedNode<K, V> find(final @Nullable IndexedNode<K, V> root, final long label) {
+        IndexedNode<K, V> node = root;
+        while (node != null) {
+            if (label < node.label) {
+                node = node.left;
+            } else if (label > node.label) {
+                node = node.right;
+            } else {
+                return node;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Find the node at specified position.
+     *
+     * @param root tree root
+     * @param index node position
+     * @return Node at specified position
+     * @throws IndexOutOfBoundsException if index is negative or not smaller than tree size
+     */
+    static <K, V> IndexedNode<K, V> select(final @Nullable IndexedNode<K, V> root, final int index) {
+        checkElementIndex(index, size(root));
+
+        IndexedNode<K, V> node = root;
+        int offset = index;
+        while (true) {
+            final int leftSize = size(node.left);
+            if (offset < leftSize) {
+                node = node.left;
+            } else if (offset > leftSize) {
+                offset -= leftSize + 1;
+                node = node.right;
+            } else {
+                return node;
+            }
+        }
+    }
+
+    /**
+     * Insert or replace the mapping for specified label.
+     *
+     * @param root tree root
+     * @param label node label
+     * @param key node key
+     * @param value node value
+     * @return New tree root
+     */
+    static <K, V> IndexedNode<K, V> put(final @Nullable IndexedNode<K, V> root, final long label, final K key,
+            final V value) {
+        if (root == null) {
+            return new IndexedNode<>(label, key, value, null, null);
+        }
+        if (label < root.label) {
+            return balance(root.label, root.key, root.value, put(root.left, label, key, value), root.right);
+        }
+        if (label > root.label) {
+            return balance(root.label, root.key, root.value, root.left, put(root.right, label, key, value));
+        }
+        return new IndexedNode<>(label, key, value, root.left, root.right);
+    }
+
+    /**
+     * Remove the mapping for specified label.
+     *
+     * @param root tree root
+     * @param label node label
+     * @return New tree root, null if the tree has become empty
+     */
+    static <K, V> @Nullable IndexedNode<K, V> remove(final @Nullable IndexedNode<K, V> root, final long label) {
+        if (root == null) {
+            return null;
+        }
+        if (label < root.label) {
+            return balance(root.label, root.key, root.value, remove(root.left, label), root.right);
+        }
+        if (label > root.label) {
+            return balance(root.label, root.key, root.value, root.left, remove(root.right, label));
+        }
+        if (root.left == null) {
+            return root.right;
+        }
+        if (root.right == null) {
+            return root.left;
+        }
+
+        IndexedNode<K, V> successor = root.right;
+        while (successor.left != null) {
+            successor = successor.left;
+        }
+        return balance(successor.label, successor.key, successor.value, root.left, removeMin(root.right));
+    }
+
+    private static <K, V> @Nullable IndexedNode<K, V> removeMin(final IndexedNode<K, V> node) {
+        if (node.left == null) {
+            return node.right;
+        }
+        return balance(node.label, node.key, node.value, removeMin(node.left), node.right);
+    }
+
+    private static <K, V> IndexedNode<K, V> balance(final long label, final K key, final V value,
+            final @Nullable IndexedNode<K, V> left, final @Nullable IndexedNode<K, V> right) {
+        final int diff = height(left) - height(right);
+        if (diff > 1) {
+            // Left-heavy, left is guaranteed to be non-null
+            if (height(left.left) >= height(left.right)) {
+                return new IndexedNode<>(left.label, left.key, left.value, left.left,
+                    new IndexedNode<>(label, key, value, left.right, right));
+            }
+
+            final IndexedNode<K, V> pivot = left.right;
+            return new IndexedNode<>(pivot.label, pivot.key, pivot.value,
+                new IndexedNode<>(left.label, left.key, left.value, left.left, pivot.left),
+                new IndexedNode<>(label, key, value, pivot.right, right));
+        }
+        if (diff < -1) {
+            // Right-heavy, right is guaranteed to be non-null
+            if (height(right.right) >= height(right.left)) {
+                return new IndexedNode<>(right.label, right.key, right.value,
+                    new IndexedNode<>(label, key, value, left, right.left), right.right);
+            }
+
+            final IndexedNode<K, V> pivot = right.left;
+            return new IndexedNode<>(pivot.label, pivot.key, pivot.value,
+                new IndexedNode<>(label, key, value, left, pivot.left),
+                new IndexedNode<>(right.label, right.key, right.value, pivot.right, right.right));
+        }
+        return new IndexedNode<>(label, key, value, left, right);
+    }
+
+    /**
+     * In-order iterator over the entries of a tree.
+     */
+    static final class EntryIterator<K, V> extends UnmodifiableIterator<Entry<K, V>> {
+        private final Deque<IndexedNode<K, V>> stack = new ArrayDeque<>();
+
+        EntryIterator(final @Nullable IndexedNode<K, V> root) {
+            pushLeft(root);
+        }
+
+        private void pushLeft(final @Nullable IndexedNode<K, V> start) {
+            IndexedNode<K, V> node = start;
+            while (node != null) {
+                stack.push(node);
+                node = node.left;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !stack.isEmpty();
+        }
+
+        @Override
+        public Entry<K, V> next() {
+            final IndexedNode<K, V> node = stack.poll();
+            if (node == null) {
+                throw new NoSuchElementException();
+            }
+            pushLeft(node.right);
+            return new SimpleImmutableEntry<>(node.key, node.value);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2018 Pantheon Technologies, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.util;
+
+import static java.util.Objects.requireNonNull;
+
+import com.google.common.annotations.Beta;
+import java.util.Map;
+import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.jdt.annotation.Nullable;
+import tech.pantheon.triemap.MutableTrieMap;
+import tech.pantheon.triemap.TrieMap;
+
+/**
+ * A modifiable version of {@link ImmutableIndexedMap}. New mappings are appended at the end of iteration order, while
+ * replacing the value of an existing mapping retains its position. All modifications complete in logarithmic time and
+ * leave any {@link ImmutableIndexedMap} previously obtained from {@link #toUnmodifiableMap()} unaffected. This map does
+ * not support modification through its {@link #entrySet()}, {@link #keySet()} or {@link #values()} views.
+ *
+ * @param <K> the type of keys maintained by this map
+ * @param <V> the type of mapped values
+ */
+@Beta
+public final class MutableIndexedMap<K, V> extends AbstractIndexedMap<K, V> implements ModifiableMapPhase<K, V> {
+    private @NonNull MutableTrieMap<K, Long> labels;
+    private @Nullable IndexedNode<K, V> root;
+    private long nextLabel;
+
+    MutableIndexedMap(final MutableTrieMap<K, Long> labels, final @Nullable IndexedNode<K, V> root,
+            final long nextLabel) {
+        this.labels = requireNonNull(labels);
+        this.root = root;
+        this.nextLabel = nextLabel;
+    }
+
+    /**
+     * Create a new empty {@link MutableIndexedMap}.
+     *
+     * @param <K> the type of keys maintained by this map
+     * @param <V> the type of mapped values
+     * @return An empty map
+     */
+    public static <K, V> @NonNull MutableIndexedMap<K, V> create() {
+        return new MutableIndexedMap<>(TrieMap.create(), null, 0);
+    }
+
+    @Override
+    public @NonNull ImmutableIndexedMap<K, V> toUnmodifiableMap() {
+        return new ImmutableIndexedMap<>(labels.immutableSnapshot(), root, nextLabel);
+    }
+
+    @Override
+    Map<K, Long> labels() {
+        return labels;
+    }
+
+    @Override
+    @Nullable IndexedNode<K, V> root() {
+        return root;
+    }
+
+    @Override
+    public V put(final K key, final V value) {
+        requireNonNull(value);
+        final Long existing = labels.get(requireNonNull(key));
+        if (existing != null) {
+            final V prev = IndexedNode.find(root, existing).value();
+            root = IndexedNode.put(root, existing, key, value);
+            return prev;
+        }
+
+        final long label = nextLabel++;
+        labels.put(key, label);
+        root = IndexedNode.put(root, label, key, value);
+        return null;
+    }
+
+    @Override
+    public V remove(final Object key) {
+        final Long label = labels.remove(requireNonNull(key));
+        if (label == null) {
+            return null;
+        }
+
+        final V prev = IndexedNode.find(root, label).value();
+        root = IndexedNode.remove(root, label);
+        return prev;
+    }
+
+    @Override
+    public void clear() {
+        labels = TrieMap.create();
+        root = null;
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2018 Pantheon Technologies, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.ImmutableList;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.junit.Test;
+
+public class IndexedMapTest {
+    @Test
+    public void testEmpty() {
+        final ImmutableIndexedMap<String, String> map = ImmutableIndexedMap.of();
+        assertTrue(map.isEmpty());
+        assertEquals(0, map.size());
+        assertNull(map.get("foo"));
+        assertFalse(map.containsKey("foo"));
+        assertEquals(new LinkedHashMap<>(), map);
+        assertEquals(0, map.hashCode());
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testEmptyValueAt() {
+        ImmutableIndexedMap.of().valueAt(0);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testImmutablePut() {
+        ImmutableIndexedMap.of().put("foo", "bar");
+    }
+
+    @Test
+    public void testInsertionOrder() {
+        final MutableIndexedMap<String, String> mutable = MutableIndexedMap.create();
+        assertNull(mutable.put("c", "1"));
+        assertNull(mutable.put("a", "2"));
+        assertNull(mutable.put("b", "3"));
+        assertEquals("2", mutable.put("a", "4"));
+
+        final ImmutableIndexedMap<String, String> map = mutable.toUnmodifiableMap();
+        assertEquals(ImmutableList.of("c", "a", "b"), ImmutableList.copyOf(map.keySet()));
+        assertEquals(ImmutableList.of("1", "4", "3"), ImmutableList.copyOf(map.values()));
+        assertEquals("1", map.valueAt(0));
+        assertEquals("4", map.valueAt(1));
+        assertEquals("3", map.valueAt(2));
+    }
+
+    @Test
+    public void testIsolation() {
+        final MutableIndexedMap<String, String> mutable = MutableIndexedMap.create();
+        mutable.put("a", "1");
+        mutable.put("b", "2");
+        final ImmutableIndexedMap<String, String> first = mutable.toUnmodifiableMap();
+
+        mutable.put("c", "3");
+        assertEquals("2", mutable.remove("b"));
+        assertEquals(2, first.size());
+        assertEquals("2", first.get("b"));
+        assertFalse(first.containsKey("c"));
+
+        final MutableIndexedMap<String, String> second = first.toModifiableMap();
+        second.clear();
+        assertTrue(second.isEmpty());
+        assertEquals(2, first.size());
+        assertEquals(ImmutableList.of("a", "c"), ImmutableList.copyOf(mutable.keySet()));
+    }
+
+    @Test
+    public void testCopyOf() {
+        final Map<String, String> source = new LinkedHashMap<>();
+        source.put("z", "1");
+        source.put("y", "2");
+
+        final ImmutableIndexedMap<String, String> map = ImmutableIndexedMap.copyOf(source);
+        assertEquals(source, map);
+        assertEquals(source.hashCode(), map.hashCode());
+        assertEquals(ImmutableList.copyOf(source.keySet()), ImmutableList.copyOf(map.keySet()));
+        assertSame(map, ImmutableIndexedMap.copyOf(map));
+    }
+
+    @Test
+    public void testRandomOperations() {
+        final Random random = new Random(42);
+        final Map<Integer, Integer> expected = new LinkedHashMap<>();
+        final MutableIndexedMap<Integer, Integer> actual = MutableIndexedMap.create();
+
+        for (int i = 0; i < 10000; ++i) {
+            final Integer key = random.nextInt(500);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), actual.remove(key));
+            } else {
+                assertEquals(expected.put(key, i), actual.put(key, i));
+            }
+        }
+
+        assertEquals(expected.size(), actual.size());
+        assertEquals(expected, actual);
+
+        final List<Integer> values = new ArrayList<>(expected.values());
+        final ImmutableIndexedMap<Integer, Integer> snapshot = actual.toUnmodifiableMap();
+        for (int i = 0; i < values.size(); ++i) {
+            assertEquals(values.get(i), snapshot.valueAt(i));
+        }
+        assertEquals(ImmutableList.copyOf(expected.entrySet()), ImmutableList.copyOf(snapshot.entrySet()));
+    }
+}
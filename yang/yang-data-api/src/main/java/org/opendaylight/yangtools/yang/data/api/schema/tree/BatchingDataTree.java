@@ -0,0 +1,45 @@
+/*
+ * Copyright (c) 2018 Pantheon Technologies, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.api.schema.tree;
+
+import com.google.common.annotations.Beta;
+import java.util.List;
+import org.eclipse.jdt.annotation.NonNull;
+
+/**
+ * A {@link DataTree} which can coalesce a number of ready modifications into a single {@link DataTreeCandidate}.
+ * Committing the resulting candidate has the same effect as committing each of the successful modifications in turn,
+ * but the cost of applying the modifications to the tree is paid only once.
+ */
+@Beta
+public interface BatchingDataTree extends DataTree {
+    /**
+     * Prepare a batch of modifications. Each modification is validated against the state resulting from applying
+     * the modifications which precede it and have not failed. Failure of a modification does not affect the remaining
+     * modifications, but rather is reported in the returned {@link DataTreeBatch}.
+     *
+     * <p>
+     * Constraints enforced by {@link #prepare(DataTreeModification)} are evaluated on the outcome of the batch. Only if
+     * that fails are they evaluated after each modification, so that the failure can be attributed to the modifications
+     * which caused it. Hence a constraint which is transiently violated within the batch is not reported.
+     *
+     * <p>
+     * Modifications may be chained on top of each other within the batch. Since the candidate does not retain
+     * the identity of individual modifications, any modification chained on top of a batched modification, but not
+     * part of the batch, will conflict with the batch once it is committed.
+     *
+     * <p>
+     * Similar to {@link #prepare(DataTreeModification)}, this method must not be invoked concurrently with
+     * {@link #commit(DataTreeCandidate)}.
+     *
+     * @param modifications Sealed modifications, in the order in which they should be applied
+     * @return A prepared batch
+     * @throws IllegalArgumentException if any of the modifications is not sealed or has not been created by this tree
+     */
+    @NonNull DataTreeBatch prepareBatch(@NonNull List<? extends DataTreeModification> modifications);
+}
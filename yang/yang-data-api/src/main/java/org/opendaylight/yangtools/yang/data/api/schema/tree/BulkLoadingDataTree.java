@@ -0,0 +1,28 @@
+/*
+ * Copyright (c) 2018 Pantheon Technologies, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.api.schema.tree;
+
+import com.google.common.annotations.Beta;
+import org.eclipse.jdt.annotation.NonNull;
+
+/**
+ * A {@link DataTree} which supports replacing its entire contents through a {@link DataTreeLoader}. This is cheaper
+ * than writing the same data through a {@link DataTreeModification}, as the data is streamed directly into immutable
+ * nodes, while it is validated the same way. This makes it suitable for initial population of a tree, for example
+ * from a backup.
+ */
+@Beta
+public interface BulkLoadingDataTree extends DataTree {
+    /**
+     * Create a new loader, which will replace the contents of this tree as of this call. Loaders are available
+     * regardless of the type of this tree's root node.
+     *
+     * @return A new loader
+     */
+    @NonNull DataTreeLoader newLoader();
+}
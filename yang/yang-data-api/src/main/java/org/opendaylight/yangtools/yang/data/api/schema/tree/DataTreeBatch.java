@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) 2018 Pantheon Technologies, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.api.schema.tree;
+
+import static java.util.Objects.requireNonNull;
+
+import com.google.common.annotations.Beta;
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableMap;
+import java.util.Map;
+import org.eclipse.jdt.annotation.NonNull;
+import org.opendaylight.yangtools.concepts.Immutable;
+
+/**
+ * Outcome of {@link BatchingDataTree#prepareBatch(java.util.List)}, comprised of a single candidate covering all
+ * successful modifications and the failures encountered by the others.
+ */
+@Beta
+public final class DataTreeBatch implements Immutable {
+    private final @NonNull DataTreeCandidateTip candidate;
+    private final @NonNull ImmutableMap<DataTreeModification, Exception> failures;
+
+    public DataTreeBatch(final DataTreeCandidateTip candidate,
+            final Map<DataTreeModification, Exception> failures) {
+        this.candidate = requireNonNull(candidate);
+        this.failures = ImmutableMap.copyOf(failures);
+    }
+
+    /**
+     * Return the candidate covering all modifications which have not failed. The candidate needs to be committed
+     * to the tree which has produced it.
+     *
+     * @return A data tree candidate
+     */
+    public @NonNull DataTreeCandidateTip getCandidate() {
+        return candidate;
+    }
+
+    /**
+     * Return modifications which have failed, with the reason for each failure. This is typically
+     * a {@link DataValidationFailedException}, or an {@link IllegalArgumentException} if a constraint has been
+     * violated.
+     *
+     * @return Failed modifications, in the order in which they were submitted
+     */
+    public @NonNull Map<DataTreeModification, Exception> getFailures() {
+        return failures;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this).add("candidate", candidate).add("failures", failures.keySet())
+                .toString();
+    }
+}
@@ -7,10 +7,12 @@
  */
 package org.opendaylight.yangtools.yang.data.api.schema.tree;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static java.util.Objects.requireNonNull;
 
 import com.google.common.annotations.Beta;
 import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableSetMultimap;
 import javax.annotation.Nonnull;
 import org.opendaylight.yangtools.concepts.Immutable;
 import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
@@ -24,6 +26,10 @@ import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
  * <li>treeType</li>
  * <li>enable/disable unique indexes and unique constraint validation</li>
  * <li>enable/disable mandatory nodes validation</li>
+ * <li>enable/disable must and when constraint validation</li>
+ * <li>enable/disable leafref validation</li>
+ * <li>secondary indexes on list leaves</li>
+ * <li>parallel processing of large modifications</li>
  * </ul>
  *
  * <p>
@@ -50,13 +56,25 @@ public class DataTreeConfiguration implements Immutable {
     private final YangInstanceIdentifier rootPath;
     private final boolean uniqueIndexes;
     private final boolean mandatoryNodesValidation;
+    private final boolean mustWhenValidation;
+    private final boolean leafRefValidation;
+    private final ImmutableSetMultimap<YangInstanceIdentifier, YangInstanceIdentifier> leafIndexes;
+    private final int parallelismThreshold;
+    private final boolean compactValues;
 
     DataTreeConfiguration(final TreeType treeType, final YangInstanceIdentifier rootPath, final boolean uniqueIndexes,
-            final boolean mandatoryNodesValidation) {
+            final boolean mandatoryNodesValidation, final boolean mustWhenValidation, final boolean leafRefValidation,
+            final ImmutableSetMultimap<YangInstanceIdentifier, YangInstanceIdentifier> leafIndexes,
+            final int parallelismThreshold, final boolean compactValues) {
         this.treeType = requireNonNull(treeType);
         this.rootPath = requireNonNull(rootPath);
         this.uniqueIndexes = uniqueIndexes;
         this.mandatoryNodesValidation = mandatoryNodesValidation;
+        this.mustWhenValidation = mustWhenValidation;
+        this.leafRefValidation = leafRefValidation;
+        this.leafIndexes = requireNonNull(leafIndexes);
+        this.parallelismThreshold = parallelismThreshold;
+        this.compactValues = compactValues;
     }
 
     public @Nonnull YangInstanceIdentifier getRootPath() {
@@ -75,11 +93,69 @@ public class DataTreeConfiguration implements Immutable {
         return mandatoryNodesValidation;
     }
 
+    /**
+     * Check whether must and when constraints should be enforced. When enabled, only constraints whose dependencies
+     * intersect with the nodes touched by a modification are re-evaluated when that modification is prepared.
+     *
+     * @return True if must and when constraints are enforced.
+     */
+    public boolean isMustWhenValidationEnabled() {
+        return mustWhenValidation;
+    }
+
+    /**
+     * Check whether leafref values should be validated. When enabled, the values of leafref targets are indexed
+     * across commits, so that only leafrefs and targets touched by a modification are validated when that
+     * modification is prepared.
+     *
+     * @return True if leafref values are validated.
+     */
+    public boolean isLeafRefValidationEnabled() {
+        return leafRefValidation;
+    }
+
+    /**
+     * Return the secondary indexes maintained on list leaves. Keys are paths to list instances, values are paths
+     * of the indexed leaves relative to the list entries.
+     *
+     * @return Declared leaf indexes
+     */
+    public @Nonnull ImmutableSetMultimap<YangInstanceIdentifier, YangInstanceIdentifier> getLeafIndexes() {
+        return leafIndexes;
+    }
+
+    /**
+     * Return the minimum number of child modifications of a single node, which are validated and applied in parallel.
+     * Smaller modifications are processed sequentially. A value of zero indicates parallel processing is disabled.
+     *
+     * @return Parallelism threshold, zero if disabled
+     */
+    public int getParallelismThreshold() {
+        return parallelismThreshold;
+    }
+
+    /**
+     * Check whether leaves and leaf-set entries are stored compactly. When enabled, modified value nodes are retained
+     * only in the data of their parent and their versions are tracked at the parent level, which reduces the heap
+     * footprint of trees with many individually-modified leaves. Concurrent modifications of value nodes sharing
+     * a parent are then considered conflicting.
+     *
+     * @return True if value nodes are stored compactly.
+     */
+    public boolean isCompactValuesEnabled() {
+        return compactValues;
+    }
+
     @Override
     public String toString() {
         return MoreObjects.toStringHelper(this).add("type", treeType).add("root", rootPath)
                 .add("mandatory", mandatoryNodesValidation)
-                .add("unique", uniqueIndexes).toString();
+                .add("mustWhen", mustWhenValidation)
+                .add("leafRef", leafRefValidation)
+                .add("unique", uniqueIndexes)
+                .add("leafIndexes", leafIndexes)
+                .add("parallelismThreshold", parallelismThreshold)
+                .add("compactValues", compactValues).toString();
     }
 
     public static DataTreeConfiguration getDefault(final TreeType treeType) {
@@ -89,7 +165,8 @@ public class DataTreeConfiguration implements Immutable {
             case OPERATIONAL:
                 return DEFAULT_OPERATIONAL;
             default:
-                return new DataTreeConfiguration(treeType, YangInstanceIdentifier.EMPTY, false, true);
+                return new DataTreeConfiguration(treeType, YangInstanceIdentifier.EMPTY, false, true, false, false,
+                    ImmutableSetMultimap.of(), 0, false);
         }
     }
 
@@ -100,8 +177,13 @@ public class DataTreeConfiguration implements Immutable {
     public Builder copyBuilder() {
         return new Builder(treeType)
                 .setMandatoryNodesValidation(isMandatoryNodesValidationEnabled())
+                .setMustWhenValidation(isMustWhenValidationEnabled())
+                .setLeafRefValidation(isLeafRefValidationEnabled())
                 .setUniqueIndexes(isUniqueIndexEnabled())
-                .setRootPath(getRootPath());
+                .setRootPath(getRootPath())
+                .addLeafIndexes(getLeafIndexes())
+                .setParallelismThreshold(getParallelismThreshold())
+                .setCompactValues(isCompactValuesEnabled());
     }
 
     public static class Builder implements org.opendaylight.yangtools.concepts.Builder<DataTreeConfiguration> {
@@ -109,6 +191,12 @@ public class DataTreeConfiguration implements Immutable {
         private YangInstanceIdentifier rootPath;
         private boolean uniqueIndexes;
         private boolean mandatoryNodesValidation;
+        private boolean mustWhenValidation;
+        private boolean leafRefValidation;
+        private int parallelismThreshold;
+        private boolean compactValues;
+        private final ImmutableSetMultimap.Builder<YangInstanceIdentifier, YangInstanceIdentifier> leafIndexes =
+                ImmutableSetMultimap.builder();
 
         public Builder(final TreeType treeType) {
             this.treeType = requireNonNull(treeType);
@@ -125,14 +213,70 @@ public class DataTreeConfiguration implements Immutable {
             return this;
         }
 
+        public Builder setMustWhenValidation(final boolean mustWhenValidation) {
+            this.mustWhenValidation = mustWhenValidation;
+            return this;
+        }
+
+        public Builder setLeafRefValidation(final boolean leafRefValidation) {
+            this.leafRefValidation = leafRefValidation;
+            return this;
+        }
+
+        /**
+         * Enable parallel validation and application of nodes with a large number of child modifications, such as
+         * a single modification replacing many list entries. Work is distributed using
+         * {@link java.util.concurrent.ForkJoinPool#commonPool()}.
+         *
+         * @param parallelismThreshold Minimum number of child modifications to process in parallel, zero to disable
+         * @return This builder
+         * @throws IllegalArgumentException if the threshold is negative
+         */
+        public Builder setParallelismThreshold(final int parallelismThreshold) {
+            checkArgument(parallelismThreshold >= 0, "Invalid parallelism threshold %s", parallelismThreshold);
+            this.parallelismThreshold = parallelismThreshold;
+            return this;
+        }
+
+        /**
+         * Enable compact storage of leaves and leaf-set entries. See
+         * {@link DataTreeConfiguration#isCompactValuesEnabled()} for the implications.
+         *
+         * @param compactValues True if value nodes should be stored compactly
+         * @return This builder
+         */
+        public Builder setCompactValues(final boolean compactValues) {
+            this.compactValues = compactValues;
+            return this;
+        }
+
         public Builder setRootPath(final YangInstanceIdentifier rootPath) {
             this.rootPath = rootPath.toOptimized();
             return this;
         }
 
+        /**
+         * Declare a secondary index on a list leaf. Snapshots and modifications of the resulting data tree implement
+         * {@link IndexedDataTreeSnapshot}, allowing entries to be looked up by the value of the leaf.
+         *
+         * @param listPath Path to the list instance
+         * @param leafPath Path to the indexed leaf, relative to the list entry
+         * @return This builder
+         */
+        public Builder addLeafIndex(final YangInstanceIdentifier listPath, final YangInstanceIdentifier leafPath) {
+            leafIndexes.put(listPath.toOptimized(), leafPath.toOptimized());
+            return this;
+        }
+
+        Builder addLeafIndexes(final ImmutableSetMultimap<YangInstanceIdentifier, YangInstanceIdentifier> indexes) {
+            leafIndexes.putAll(indexes);
+            return this;
+        }
+
         @Override
         public DataTreeConfiguration build() {
-            return new DataTreeConfiguration(treeType, rootPath, uniqueIndexes, mandatoryNodesValidation);
+            return new DataTreeConfiguration(treeType, rootPath, uniqueIndexes, mandatoryNodesValidation,
+                mustWhenValidation, leafRefValidation, leafIndexes.build(), parallelismThreshold, compactValues);
         }
     }
 }
@@ -0,0 +1,32 @@
+/*
+ * Copyright (c) 2018 Pantheon Technologies, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.api.schema.tree;
+
+import com.google.common.annotations.Beta;
+import org.eclipse.jdt.annotation.NonNull;
+import org.opendaylight.yangtools.yang.data.api.schema.stream.NormalizedNodeStreamWriter;
+
+/**
+ * A {@link NormalizedNodeStreamWriter} which collects the new contents of a {@link BulkLoadingDataTree}. The writer is
+ * positioned at the root of the tree, hence the events it receives describe the children of the tree's root node.
+ * Once all data has been written, {@link #prepare()} produces a candidate, which needs to be committed to the tree.
+ */
+@Beta
+public interface DataTreeLoader extends NormalizedNodeStreamWriter {
+    /**
+     * Validate the loaded data and prepare a candidate replacing the contents of the tree. The data is subject to
+     * the same validation as a {@link DataTreeModification} writing it at the root of the tree. This method may be
+     * invoked only once, after which this loader cannot be used anymore.
+     *
+     * @return A candidate, which needs to be {@link DataTree#commit(DataTreeCandidate) committed}
+     * @throws DataValidationFailedException if the loaded data fails validation
+     * @throws IllegalArgumentException if the loaded data does not conform to the schema
+     * @throws IllegalStateException if this loader has already been prepared or some nodes have not been ended
+     */
+    @NonNull DataTreeCandidateTip prepare() throws DataValidationFailedException;
+}
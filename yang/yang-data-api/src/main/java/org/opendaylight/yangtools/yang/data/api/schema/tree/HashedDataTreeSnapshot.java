@@ -0,0 +1,45 @@
+/*
+ * Copyright (c) 2018 Pantheon Technologies, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.api.schema.tree;
+
+import com.google.common.annotations.Beta;
+import java.util.OptionalLong;
+import org.eclipse.jdt.annotation.NonNull;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+
+/**
+ * A {@link DataTreeSnapshot} which can provide content hashes of its subtrees. Hashes depend only on the data in
+ * a subtree and are stable across JVM instances, hence two replicas can determine which subtrees differ between them
+ * by exchanging hashes, starting at the root and descending only into subtrees whose hashes do not match. Hashes are
+ * computed on first request and are subsequently maintained incrementally as the tree is modified.
+ */
+@Beta
+public interface HashedDataTreeSnapshot extends DataTreeSnapshot {
+    /**
+     * Return the content hash of a subtree. Subtrees with differing hashes are guaranteed to hold different data,
+     * subtrees with equal hashes hold equal data with very high probability.
+     *
+     * @param path Path to the subtree root
+     * @return Subtree content hash, or empty if there is no data at specified path
+     * @throws NullPointerException if {@code path} is null
+     */
+    @NonNull OptionalLong readSubtreeHash(@NonNull YangInstanceIdentifier path);
+
+    /**
+     * Compute the difference between another snapshot and this snapshot. The difference is expressed as
+     * a {@link DataTreeCandidate} rooted at the tree root, with data before the change coming from {@code other} and
+     * data after the change coming from this snapshot. Only subtrees whose content hashes differ are examined, hence
+     * the cost of this operation is proportional to the size of the difference, not to the size of the tree.
+     *
+     * @param other Snapshot to compare against
+     * @return Candidate describing the difference
+     * @throws NullPointerException if {@code other} is null
+     * @throws IllegalArgumentException if {@code other} does not originate from a compatible implementation
+     */
+    @NonNull DataTreeCandidate diffFrom(@NonNull DataTreeSnapshot other);
+}
@@ -0,0 +1,38 @@
+/*
+ * Copyright (c) 2018 Pantheon Technologies, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.api.schema.tree;
+
+import com.google.common.annotations.Beta;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import org.eclipse.jdt.annotation.NonNull;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.schema.MapEntryNode;
+
+/**
+ * A {@link DataTreeSnapshot} which maintains secondary indexes on lists, such as those derived from YANG
+ * {@code unique} statements when {@link DataTreeConfiguration#isUniqueIndexEnabled()} is set, or those declared by
+ * {@link DataTreeConfiguration#getLeafIndexes()}, and allows them to be used to look up list entries by values of their
+ * non-key leaves. When implemented by a {@link DataTreeModification}, lookups reflect its uncommitted changes.
+ */
+@Beta
+public interface IndexedDataTreeSnapshot extends DataTreeSnapshot {
+    /**
+     * Look up entries of a list by values of their descendant leaves. The set of leaves has to exactly match the leaves
+     * covered by an index maintained on the list.
+     *
+     * @param listPath Path to the list
+     * @param leafValues Map of leaf values, keyed by paths of the leaves relative to the list entry. Path arguments
+     *                   corresponding to augmentations may be omitted.
+     * @return Matching list entries, or empty if there is no index covering the specified leaves.
+     * @throws NullPointerException if any argument is null
+     */
+    @NonNull Optional<Collection<MapEntryNode>> lookupIndex(@NonNull YangInstanceIdentifier listPath,
+            @NonNull Map<YangInstanceIdentifier, Object> leafValues);
+}
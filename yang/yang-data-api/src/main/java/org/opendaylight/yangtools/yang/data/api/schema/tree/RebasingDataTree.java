@@ -0,0 +1,41 @@
+/*
+ * Copyright (c) 2018 Pantheon Technologies, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.api.schema.tree;
+
+import com.google.common.annotations.Beta;
+import org.eclipse.jdt.annotation.NonNull;
+
+/**
+ * A {@link DataTree} which can commit candidates prepared against a state which is no longer current. This allows
+ * independent writers to prepare their modifications concurrently and commit them without coordination, as long as
+ * they do not conflict.
+ */
+@Beta
+public interface RebasingDataTree extends DataTree {
+    /**
+     * Commit a data tree candidate. Unlike {@link #commit(DataTreeCandidate)}, which requires the candidate to have
+     * been prepared against the current state of the tree, this method rebases the candidate onto the current state
+     * if other candidates have been committed in the meantime. Rebasing succeeds if the modification from which
+     * the candidate has been prepared does not conflict with the candidates committed since, as determined by
+     * {@link DataTreeTip#validate(DataTreeModification)}, and the result satisfies all constraints enforced by
+     * {@link DataTreeTip#prepare(DataTreeModification)}.
+     *
+     * <p>
+     * A rebased candidate shares state with the candidate it was rebased from, hence the latter must not be used once
+     * this method returns.
+     *
+     * @param candidate data tree candidate
+     * @return The candidate which has actually been committed, which is {@code candidate} itself if it did not need
+     *         to be rebased.
+     * @throws DataValidationFailedException if the candidate conflicts with the current state of the tree
+     * @throws IllegalArgumentException if the rebased candidate violates a constraint
+     * @throws IllegalStateException if the candidate needs to be rebased, but it cannot be, for example because it
+     *                               was not prepared from a modification, or the tree's schema has changed
+     */
+    @NonNull DataTreeCandidate commitRebased(@NonNull DataTreeCandidate candidate) throws DataValidationFailedException;
+}
@@ -7,6 +7,11 @@
  */
 package org.opendaylight.yangtools.yang.data.api.schema.tree.spi;
 
+import static java.util.Objects.requireNonNull;
+
+import com.google.common.collect.ImmutableMap;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Optional;
 import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
 import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
@@ -17,8 +22,66 @@ import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNodeContainer;
  * changed is tracked by the subtree version.
  */
 abstract class AbstractContainerNode extends AbstractTreeNode {
-    protected AbstractContainerNode(final NormalizedNode<?, ?> data, final Version version) {
+    private final boolean compactValues;
+
+    // Memoized subtree hash, SubtreeHash.UNKNOWN if it has not been computed yet
+    private volatile long subtreeHash;
+    // Values attached by their owners, replaced on update
+    private volatile ImmutableMap<Object, Object> attachments = ImmutableMap.of();
+
+    protected AbstractContainerNode(final NormalizedNode<?, ?> data, final Version version,
+            final boolean compactValues) {
         super(data, version);
+        this.compactValues = compactValues;
+    }
+
+    /**
+     * Check whether this node stores its value children compactly, e.g. without retaining their TreeNodes.
+     *
+     * @return True if value children are stored compactly
+     */
+    protected final boolean isCompactValues() {
+        return compactValues;
+    }
+
+    @Override
+    public final long getSubtreeHash() {
+        long local = subtreeHash;
+        if (local == SubtreeHash.UNKNOWN) {
+            local = SubtreeHash.of(getData(), this::knownChildHash);
+            subtreeHash = local;
+        }
+        return local;
+    }
+
+    @Override
+    public final Object getAttachment(final Object owner) {
+        return attachments.get(owner);
+    }
+
+    @Override
+    public final synchronized void attach(final Object owner, final Object value) {
+        final Map<Object, Object> updated = new HashMap<>(attachments);
+        updated.put(requireNonNull(owner), requireNonNull(value));
+        attachments = ImmutableMap.copyOf(updated);
+    }
+
+    /**
+     * Return the subtree hash of a child, if it can be obtained without walking the child's data.
+     *
+     * @param childId Child identifier
+     * @return Child subtree hash, or {@link SubtreeHash#UNKNOWN}
+     */
+    protected long knownChildHash(final PathArgument childId) {
+        return SubtreeHash.UNKNOWN;
+    }
+
+    final long knownSubtreeHash() {
+        return subtreeHash;
+    }
+
+    final void setSubtreeHash(final long subtreeHash) {
+        this.subtreeHash = subtreeHash;
     }
 
     @SuppressWarnings("unchecked")
@@ -28,12 +91,24 @@ abstract class AbstractContainerNode extends AbstractTreeNode {
 
     protected final Optional<TreeNode> getChildFromData(final PathArgument childId) {
         // We do not cache the instantiated node as it is dirt cheap
-        return Optional.ofNullable(getChildFromData(castData(), childId, getVersion()));
+        return Optional.ofNullable(getChildFromData(castData(), childId, getVersion(), getSubtreeVersion(),
+            compactValues));
     }
 
     static TreeNode getChildFromData(final NormalizedNodeContainer<?, PathArgument, NormalizedNode<?, ?>> data,
-            final PathArgument childId, final Version version) {
+            final PathArgument childId, final Version version, final Version subtreeVersion,
+            final boolean compactValues) {
         final Optional<NormalizedNode<?, ?>> child = data.getChild(childId);
-        return child.isPresent() ? TreeNodeFactory.createTreeNode(child.get(), version) : null;
+        if (!child.isPresent()) {
+            return null;
+        }
+
+        final NormalizedNode<?, ?> childData = child.get();
+        if (compactValues && !TreeNodeFactory.isContainer(childData)) {
+            // Versions of compact value children are not tracked, hence they may have been modified any time up to
+            // the last modification of this node's children
+            return new ValueNode(childData, subtreeVersion);
+        }
+        return TreeNodeFactory.createTreeNode(childData, version, compactValues);
     }
 }
@@ -23,8 +23,8 @@ abstract class AbstractModifiedContainerNode extends AbstractContainerNode {
     private final Version subtreeVersion;
 
     protected AbstractModifiedContainerNode(final NormalizedNode<?, ?> data, final Version version,
-            final Map<PathArgument, TreeNode> children, final Version subtreeVersion) {
-        super(data, version);
+            final Map<PathArgument, TreeNode> children, final Version subtreeVersion, final boolean compactValues) {
+        super(data, version, compactValues);
         this.subtreeVersion = requireNonNull(subtreeVersion);
         this.children = requireNonNull(children);
     }
@@ -33,6 +33,13 @@ abstract class AbstractModifiedContainerNode extends AbstractContainerNode {
         return children.get(childId);
     }
 
+    @Override
+    protected final long knownChildHash(final PathArgument childId) {
+        // Retained children memoize their hashes
+        final TreeNode child = children.get(childId);
+        return child != null ? child.getSubtreeHash() : SubtreeHash.UNKNOWN;
+    }
+
     protected final Map<PathArgument, TreeNode> snapshotChildren() {
         return MapAdaptor.getDefaultInstance().takeSnapshot(children);
     }
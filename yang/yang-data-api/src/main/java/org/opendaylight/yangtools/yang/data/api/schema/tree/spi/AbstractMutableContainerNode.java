@@ -11,6 +11,7 @@ import static com.google.common.base.Verify.verify;
 import static java.util.Objects.requireNonNull;
 
 import java.util.Map;
+import java.util.Optional;
 import org.opendaylight.yangtools.util.MapAdaptor;
 import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
 import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
@@ -22,22 +23,39 @@ import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNodeContainer;
  */
 abstract class AbstractMutableContainerNode implements MutableTreeNode {
     private final Version version;
+    private final boolean compactValues;
     private Map<PathArgument, TreeNode> children;
     private NormalizedNode<?, ?> data;
     private Version subtreeVersion;
+    // Incrementally-maintained subtree hash, SubtreeHash.UNKNOWN if it is not being tracked
+    private long subtreeHash;
 
     protected AbstractMutableContainerNode(final AbstractContainerNode parent,
             final Map<PathArgument, TreeNode> children) {
         this.data = parent.getData();
         this.version = parent.getVersion();
         this.subtreeVersion = parent.getSubtreeVersion();
+        this.compactValues = parent.isCompactValues();
         this.children = requireNonNull(children);
+
+        // Maintain the hash only if someone has asked for it and it can be updated without looking at siblings
+        if (SubtreeHash.isIncremental(data)) {
+            this.subtreeHash = parent.knownSubtreeHash();
+        }
     }
 
     protected final Version getVersion() {
         return version;
     }
 
+    protected final Version getSubtreeVersion() {
+        return subtreeVersion;
+    }
+
+    protected final boolean isCompactValues() {
+        return compactValues;
+    }
+
     protected final TreeNode getModifiedChild(final PathArgument child) {
         return children.get(child);
     }
@@ -54,11 +72,23 @@ abstract class AbstractMutableContainerNode implements MutableTreeNode {
 
     @Override
     public final void addChild(final TreeNode child) {
-        children.put(child.getIdentifier(), child);
+        if (subtreeHash != SubtreeHash.UNKNOWN) {
+            subtreeHash += SubtreeHash.contribution(child.getSubtreeHash()) - previousContribution(
+                child.getIdentifier());
+        }
+        if (compactValues && child instanceof ValueNode) {
+            // The value is retained in data, drop any previous TreeNode
+            children.remove(child.getIdentifier());
+        } else {
+            children.put(child.getIdentifier(), child);
+        }
     }
 
     @Override
     public final void removeChild(final PathArgument id) {
+        if (subtreeHash != SubtreeHash.UNKNOWN) {
+            subtreeHash -= previousContribution(id);
+        }
         children.remove(id);
     }
 
@@ -69,7 +99,7 @@ abstract class AbstractMutableContainerNode implements MutableTreeNode {
 
     @Override
     public final TreeNode seal() {
-        final TreeNode ret;
+        final AbstractContainerNode ret;
 
         /*
          * Decide which implementation:
@@ -85,16 +115,23 @@ abstract class AbstractMutableContainerNode implements MutableTreeNode {
             if (dataSize != newChildren.size()) {
                 verify(dataSize > newChildren.size(), "Detected %s modified children, data has only %s",
                     newChildren.size(), dataSize);
-                ret = new LazyContainerNode(data, version, newChildren, subtreeVersion);
+                ret = new LazyContainerNode(data, version, newChildren, subtreeVersion, compactValues);
             } else {
-                ret = new MaterializedContainerNode(data, version, newChildren, subtreeVersion);
+                ret = new MaterializedContainerNode(data, version, newChildren, subtreeVersion, compactValues);
             }
         } else {
-            ret = new SimpleContainerNode(data, version);
+            ret = new SimpleContainerNode(data, version, compactValues);
         }
 
+        ret.setSubtreeHash(subtreeHash);
+
         // This forces a NPE if this class is accessed again. Better than corruption.
         children = null;
         return ret;
     }
+
+    private long previousContribution(final PathArgument id) {
+        final Optional<TreeNode> prev = getChild(id);
+        return prev.isPresent() ? SubtreeHash.contribution(prev.get().getSubtreeHash()) : 0;
+    }
 }
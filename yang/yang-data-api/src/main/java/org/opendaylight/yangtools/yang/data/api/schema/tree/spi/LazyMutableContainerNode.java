@@ -32,6 +32,7 @@ final class LazyMutableContainerNode extends AbstractMutableContainerNode {
             return Optional.of(modified);
         }
 
-        return Optional.ofNullable(AbstractContainerNode.getChildFromData(getData(), childId, getVersion()));
+        return Optional.ofNullable(AbstractContainerNode.getChildFromData(getData(), childId, getVersion(),
+            getSubtreeVersion(), isCompactValues()));
     }
 }
@@ -17,8 +17,8 @@ import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
  */
 final class MaterializedContainerNode extends AbstractModifiedContainerNode {
     protected MaterializedContainerNode(final NormalizedNode<?, ?> data, final Version version,
-            final Map<PathArgument, TreeNode> children, final Version subtreeVersion) {
-        super(data, version, children, subtreeVersion);
+            final Map<PathArgument, TreeNode> children, final Version subtreeVersion, final boolean compactValues) {
+        super(data, version, children, subtreeVersion, compactValues);
     }
 
     @Override
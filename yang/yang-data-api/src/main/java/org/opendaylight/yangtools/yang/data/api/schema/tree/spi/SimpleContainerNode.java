@@ -16,8 +16,9 @@ import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
  * A container node which has not seen a modification. All nodes underneath it share the same subtree version.
  */
 final class SimpleContainerNode extends AbstractContainerNode {
-    protected SimpleContainerNode(final NormalizedNode<?, ?> data, final Version version) {
-        super(data, version);
+    protected SimpleContainerNode(final NormalizedNode<?, ?> data, final Version version,
+            final boolean compactValues) {
+        super(data, version, compactValues);
     }
 
     @Override
@@ -0,0 +1,196 @@
+/*
+ * Copyright (c) 2018 Pantheon Technologies, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.api.schema.tree.spi;
+
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.function.ToLongFunction;
+import org.opendaylight.yangtools.yang.common.Empty;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.AugmentationIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifierWithPredicates;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeWithValue;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNodeContainer;
+import org.opendaylight.yangtools.yang.data.api.schema.OrderedNodeContainer;
+
+/**
+ * Content hashes of NormalizedNode subtrees. Hashes depend only on the content of a subtree, not on the way it was
+ * built, and are stable across JVM instances, so they can be compared between replicas.
+ *
+ * <p>
+ * The hash of an unordered container is the sum of a seed derived from its identifier and of mixed hashes of its
+ * children. It can therefore be updated incrementally as individual children are replaced, without looking at any
+ * other children. Hashes of ordered containers also account for positions of children and need to be recomputed
+ * when the container changes.
+ */
+final class SubtreeHash {
+    /**
+     * Hash value reserved to denote a hash which has not been computed.
+     */
+    static final long UNKNOWN = 0;
+
+    private static final long GOLDEN = 0x9e3779b97f4a7c15L;
+    private static final long CONTAINER_SEED = 0x2545f4914f6cdd1dL;
+    private static final long ORDERED_SEED = 0x3c6ef372fe94f82bL;
+    private static final long VALUE_SEED = 0x5851f42d4c957f2dL;
+    private static final long EMPTY_HASH = 0x14057b7ef767814fL;
+
+    private SubtreeHash() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Compute the hash of a subtree.
+     *
+     * @param data Subtree root
+     * @return Subtree hash
+     */
+    static long of(final NormalizedNode<?, ?> data) {
+        return of(data, id -> UNKNOWN);
+    }
+
+    /**
+     * Compute the hash of a subtree, reusing known hashes of its children.
+     *
+     * @param data Subtree root
+     * @param knownChildren Function returning known hash of a child, or {@link #UNKNOWN}
+     * @return Subtree hash
+     */
+    static long of(final NormalizedNode<?, ?> data, final ToLongFunction<PathArgument> knownChildren) {
+        if (data instanceof OrderedNodeContainer) {
+            long hash = seed(ORDERED_SEED, data.getIdentifier());
+            long position = 0;
+            for (NormalizedNode<?, ?> child : ((OrderedNodeContainer<?>) data).getValue()) {
+                hash += mix(childHash(child, knownChildren) + ++position * GOLDEN);
+            }
+            return hash;
+        }
+        if (data instanceof NormalizedNodeContainer) {
+            long hash = seed(CONTAINER_SEED, data.getIdentifier());
+            for (Object child : ((NormalizedNodeContainer<?, ?, ?>) data).getValue()) {
+                hash += contribution(childHash((NormalizedNode<?, ?>) child, knownChildren));
+            }
+            return hash;
+        }
+        return mix(seed(VALUE_SEED, data.getIdentifier()) + valueHash(data.getValue()));
+    }
+
+    /**
+     * Check whether the hash of a node can be updated incrementally as its children change.
+     *
+     * @param data Node data
+     * @return True if the hash can be updated using {@link #contribution(long)} of children
+     */
+    static boolean isIncremental(final NormalizedNode<?, ?> data) {
+        return data instanceof NormalizedNodeContainer && !(data instanceof OrderedNodeContainer);
+    }
+
+    /**
+     * Return the contribution of a child's hash to the hash of an unordered container.
+     *
+     * @param childHash Child hash
+     * @return Contribution to parent hash
+     */
+    static long contribution(final long childHash) {
+        return mix(childHash);
+    }
+
+    private static long childHash(final NormalizedNode<?, ?> child, final ToLongFunction<PathArgument> knownChildren) {
+        final long known = knownChildren.applyAsLong(child.getIdentifier());
+        return known != UNKNOWN ? known : of(child);
+    }
+
+    private static long seed(final long kind, final PathArgument identifier) {
+        return mix(kind + identifierHash(identifier));
+    }
+
+    private static long identifierHash(final PathArgument identifier) {
+        if (identifier instanceof NodeIdentifier) {
+            return qnameHash(identifier.getNodeType());
+        }
+        if (identifier instanceof NodeIdentifierWithPredicates) {
+            long hash = qnameHash(identifier.getNodeType());
+            for (Entry<QName, Object> entry : ((NodeIdentifierWithPredicates) identifier).getKeyValues().entrySet()) {
+                hash += mix(qnameHash(entry.getKey()) * GOLDEN + valueHash(entry.getValue()));
+            }
+            return hash;
+        }
+        if (identifier instanceof NodeWithValue) {
+            return qnameHash(identifier.getNodeType()) * GOLDEN + valueHash(((NodeWithValue<?>) identifier).getValue());
+        }
+        if (identifier instanceof AugmentationIdentifier) {
+            long hash = GOLDEN;
+            for (QName child : ((AugmentationIdentifier) identifier).getPossibleChildNames()) {
+                hash += mix(qnameHash(child));
+            }
+            return hash;
+        }
+        return identifier.hashCode();
+    }
+
+    private static long qnameHash(final QName qname) {
+        return mix(stringHash(qname.getNamespace().toString()) + stringHash(qname.getLocalName()) * GOLDEN
+            + qname.getRevision().map(rev -> stringHash(rev.toString())).orElse(0L));
+    }
+
+    private static long valueHash(final Object value) {
+        if (value instanceof String) {
+            return stringHash((String) value);
+        }
+        if (value instanceof byte[]) {
+            long hash = VALUE_SEED;
+            for (byte b : (byte[]) value) {
+                hash = (hash + b) * GOLDEN;
+            }
+            return hash;
+        }
+        if (value instanceof Set) {
+            long hash = VALUE_SEED;
+            for (Object item : (Set<?>) value) {
+                hash += mix(valueHash(item));
+            }
+            return hash;
+        }
+        if (value instanceof List) {
+            long hash = VALUE_SEED;
+            for (Object item : (List<?>) value) {
+                hash = (hash + valueHash(item)) * GOLDEN;
+            }
+            return hash;
+        }
+        if (value instanceof QName) {
+            return qnameHash((QName) value);
+        }
+        if (value instanceof Enum) {
+            // Enum hash codes are identity-based
+            return stringHash(((Enum<?>) value).name());
+        }
+        if (value instanceof Empty) {
+            return EMPTY_HASH;
+        }
+        return value == null ? 0 : value.hashCode();
+    }
+
+    private static long stringHash(final String str) {
+        long hash = VALUE_SEED;
+        for (int i = 0; i < str.length(); ++i) {
+            hash = (hash + str.charAt(i)) * GOLDEN;
+        }
+        return mix(hash);
+    }
+
+    private static long mix(final long value) {
+        long ret = (value ^ value >>> 30) * 0xbf58476d1ce4e5b9L;
+        ret = (ret ^ ret >>> 27) * 0x94d049bb133111ebL;
+        return ret ^ ret >>> 31;
+    }
+}
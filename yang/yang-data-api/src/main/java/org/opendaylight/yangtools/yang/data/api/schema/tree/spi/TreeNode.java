@@ -7,6 +7,8 @@
  */
 package org.opendaylight.yangtools.yang.data.api.schema.tree.spi;
 
+import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.jdt.annotation.Nullable;
 import org.opendaylight.yangtools.concepts.Identifiable;
 import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
 import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
@@ -55,6 +57,45 @@ public interface TreeNode extends Identifiable<PathArgument>, StoreTreeNode<Tree
      */
     NormalizedNode<?, ?> getData();
 
+    /**
+     * Get the content hash of this node's subtree. The hash depends only on the data in the subtree, hence nodes with
+     * equal data have equal hashes, even if they are in different data trees or in different JVMs. Nodes whose hashes
+     * differ are guaranteed to hold different data, while nodes with equal hashes hold equal data with very high
+     * probability. Ordering of entries in lists ordered by user is taken into account.
+     *
+     * <p>
+     * The default implementation computes the hash from the data each time it is invoked. Implementations are
+     * encouraged to retain computed hashes and to maintain them incrementally as the subtree is modified.
+     *
+     * @return Subtree content hash
+     */
+    default long getSubtreeHash() {
+        return SubtreeHash.of(getData());
+    }
+
+    /**
+     * Get a value attached to this node by an owner. Attachments allow components maintaining auxiliary state derived
+     * from the data, such as secondary indexes, to keep that state with the node version it corresponds to.
+     *
+     * @param owner Owner of the attachment
+     * @return Attached value, or null if the owner has not attached a value to this node
+     */
+    default @Nullable Object getAttachment(final @NonNull Object owner) {
+        return null;
+    }
+
+    /**
+     * Attach a value to this node, replacing any value previously attached by the same owner. The value is retained
+     * by this node only, it is not carried over to nodes derived from it, hence it needs to be derived from the data of
+     * this node. Implementations are not required to retain attachments, the default implementation ignores them.
+     *
+     * @param owner Owner of the attachment
+     * @param value Value to attach
+     */
+    default void attach(final @NonNull Object owner, final @NonNull Object value) {
+        // No-op
+    }
+
     /**
      * Get a mutable, isolated copy of the node.
      *
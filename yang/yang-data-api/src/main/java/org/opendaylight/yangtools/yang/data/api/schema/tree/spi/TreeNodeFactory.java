@@ -28,18 +28,40 @@ public final class TreeNodeFactory {
      * @return new AbstractTreeNode instance, covering the data tree provided
      */
     public static TreeNode createTreeNode(final NormalizedNode<?, ?> data, final Version version) {
+        return createTreeNode(data, version, false);
+    }
+
+    /**
+     * Create a new AbstractTreeNode from a data node, optionally storing value children compactly. Containers which
+     * store their value children, i.e. leaves and leaf-set entries, compactly do not retain a TreeNode for each
+     * modified value child, but rather keep them only in their data and instantiate them on demand. Versions of such
+     * children are not tracked individually, hence they report the subtree version of their parent. This trades
+     * heap footprint for coarser conflict detection: concurrent modifications of two value children of the same
+     * container are considered to be conflicting.
+     *
+     * @param data data node
+     * @param version data node version
+     * @param compactValues true if value children should be stored compactly
+     * @return new AbstractTreeNode instance, covering the data tree provided
+     */
+    public static TreeNode createTreeNode(final NormalizedNode<?, ?> data, final Version version,
+            final boolean compactValues) {
         if (data instanceof NormalizedNodeContainer<?, ?, ?>) {
             @SuppressWarnings("unchecked")
             final NormalizedNodeContainer<?, ?, NormalizedNode<?, ?>> container =
                     (NormalizedNodeContainer<?, ?, NormalizedNode<?, ?>>) data;
-            return new SimpleContainerNode(container, version);
+            return new SimpleContainerNode(container, version, compactValues);
         }
         if (data instanceof OrderedNodeContainer<?>) {
             @SuppressWarnings("unchecked")
             final OrderedNodeContainer<NormalizedNode<?, ?>> container =
                     (OrderedNodeContainer<NormalizedNode<?, ?>>) data;
-            return new SimpleContainerNode(container, version);
+            return new SimpleContainerNode(container, version, compactValues);
         }
         return new ValueNode(data, version);
     }
+
+    static boolean isContainer(final NormalizedNode<?, ?> data) {
+        return data instanceof NormalizedNodeContainer || data instanceof OrderedNodeContainer;
+    }
 }
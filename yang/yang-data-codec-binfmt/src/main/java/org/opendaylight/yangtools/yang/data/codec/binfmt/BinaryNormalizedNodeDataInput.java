@@ -0,0 +1,385 @@
+/*
+ * Copyright (c) 2018 Pantheon Technologies, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.codec.binfmt;
+
+import static java.util.Objects.requireNonNull;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import java.io.DataInput;
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import javax.xml.transform.dom.DOMSource;
+import org.opendaylight.yangtools.util.xml.UntrustedXML;
+import org.opendaylight.yangtools.yang.common.Decimal64;
+import org.opendaylight.yangtools.yang.common.Empty;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.common.QNameModule;
+import org.opendaylight.yangtools.yang.common.Revision;
+import org.opendaylight.yangtools.yang.common.Uint16;
+import org.opendaylight.yangtools.yang.common.Uint32;
+import org.opendaylight.yangtools.yang.common.Uint64;
+import org.opendaylight.yangtools.yang.common.Uint8;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.AugmentationIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifierWithPredicates;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeWithValue;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
+import org.opendaylight.yangtools.yang.data.api.schema.stream.NormalizedNodeStreamWriter;
+import org.w3c.dom.Document;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+
+/**
+ * {@link NormalizedNodeDataInput} implementing {@link NormalizedNodeStreamVersion#FLUORINE}.
+ */
+final class BinaryNormalizedNodeDataInput implements NormalizedNodeDataInput {
+    private final List<QNameModule> modules = new ArrayList<>();
+    private final List<QName> qnames = new ArrayList<>();
+    private final NormalizedNodeStreamVersion version;
+    private final DataInput input;
+
+    private List<PathArgument> lastPath = new ArrayList<>();
+
+    BinaryNormalizedNodeDataInput(final DataInput input) throws IOException {
+        this.input = requireNonNull(input);
+        final byte marker = input.readByte();
+        if (marker != Tokens.SIGNATURE_MARKER) {
+            throw new InvalidNormalizedNodeStreamException(String.format("Invalid signature marker: %d", marker));
+        }
+        version = NormalizedNodeStreamVersion.forValue(input.readShort());
+    }
+
+    @Override
+    public NormalizedNodeStreamVersion getVersion() {
+        return version;
+    }
+
+    @Override
+    public void streamNormalizedNode(final NormalizedNodeStreamWriter writer) throws IOException {
+        final byte type = input.readByte();
+        if (type == Tokens.END_NODE) {
+            throw new InvalidNormalizedNodeStreamException("Unexpected end of node");
+        }
+        streamNode(requireNonNull(writer), type);
+    }
+
+    @SuppressWarnings("checkstyle:cyclomaticComplexity")
+    private void streamNode(final NormalizedNodeStreamWriter writer, final byte type) throws IOException {
+        switch (type) {
+            case Tokens.LEAF:
+                writer.leafNode(readNodeIdentifier(), readObject());
+                return;
+            case Tokens.LEAF_SET_ENTRY:
+                writer.leafSetEntryNode(readQName(), readObject());
+                return;
+            case Tokens.ANYXML:
+                writer.anyxmlNode(readNodeIdentifier(), readDOMSource());
+                return;
+            case Tokens.LEAF_SET:
+                writer.startLeafSet(readNodeIdentifier(), NormalizedNodeStreamWriter.UNKNOWN_SIZE);
+                break;
+            case Tokens.ORDERED_LEAF_SET:
+                writer.startOrderedLeafSet(readNodeIdentifier(), NormalizedNodeStreamWriter.UNKNOWN_SIZE);
+                break;
+            case Tokens.CONTAINER:
+                writer.startContainerNode(readNodeIdentifier(), NormalizedNodeStreamWriter.UNKNOWN_SIZE);
+                break;
+            case Tokens.UNKEYED_LIST:
+                writer.startUnkeyedList(readNodeIdentifier(), NormalizedNodeStreamWriter.UNKNOWN_SIZE);
+                break;
+            case Tokens.UNKEYED_LIST_ITEM:
+                writer.startUnkeyedListItem(readNodeIdentifier(), NormalizedNodeStreamWriter.UNKNOWN_SIZE);
+                break;
+            case Tokens.MAP:
+                writer.startMapNode(readNodeIdentifier(), NormalizedNodeStreamWriter.UNKNOWN_SIZE);
+                break;
+            case Tokens.ORDERED_MAP:
+                writer.startOrderedMapNode(readNodeIdentifier(), NormalizedNodeStreamWriter.UNKNOWN_SIZE);
+                break;
+            case Tokens.MAP_ENTRY:
+                writer.startMapEntryNode(readNodeIdentifierWithPredicates(), NormalizedNodeStreamWriter.UNKNOWN_SIZE);
+                break;
+            case Tokens.CHOICE:
+                writer.startChoiceNode(readNodeIdentifier(), NormalizedNodeStreamWriter.UNKNOWN_SIZE);
+                break;
+            case Tokens.AUGMENTATION:
+                writer.startAugmentationNode(readAugmentationIdentifier());
+                break;
+            default:
+                throw new InvalidNormalizedNodeStreamException("Unhandled node type " + type);
+        }
+
+        for (byte child = input.readByte(); child != Tokens.END_NODE; child = input.readByte()) {
+            streamNode(writer, child);
+        }
+        writer.endNode();
+    }
+
+    @Override
+    public QName readQName() throws IOException {
+        final int code = VarInts.readUnsignedInt(input);
+        if (code != 0) {
+            return lookup(qnames, code, "QName");
+        }
+
+        final QName qname = QName.create(readModule(), readString()).intern();
+        qnames.add(qname);
+        return qname;
+    }
+
+    private QNameModule readModule() throws IOException {
+        final int code = VarInts.readUnsignedInt(input);
+        if (code != 0) {
+            return lookup(modules, code, "module");
+        }
+
+        final String namespace = readString();
+        final String revision = readString();
+        final QNameModule module;
+        try {
+            module = QNameModule.create(new URI(namespace), Revision.ofNullable(revision.isEmpty() ? null : revision))
+                    .intern();
+        } catch (URISyntaxException | IllegalArgumentException e) {
+            throw new InvalidNormalizedNodeStreamException("Invalid module " + namespace + "@" + revision, e);
+        }
+        modules.add(module);
+        return module;
+    }
+
+    private static <T> T lookup(final List<T> dictionary, final int code, final String what)
+            throws InvalidNormalizedNodeStreamException {
+        if (code > dictionary.size()) {
+            throw new InvalidNormalizedNodeStreamException("Reference to undefined " + what + " " + code);
+        }
+        return dictionary.get(code - 1);
+    }
+
+    @Override
+    public PathArgument readPathArgument() throws IOException {
+        final byte type = input.readByte();
+        switch (type) {
+            case Tokens.NODE_IDENTIFIER:
+                return readNodeIdentifier();
+            case Tokens.NODE_IDENTIFIER_WITH_PREDICATES:
+                return readNodeIdentifierWithPredicates();
+            case Tokens.NODE_WITH_VALUE:
+                return new NodeWithValue<>(readQName(), readObject());
+            case Tokens.AUGMENTATION_IDENTIFIER:
+                return readAugmentationIdentifier();
+            default:
+                throw new InvalidNormalizedNodeStreamException("Unhandled path argument type " + type);
+        }
+    }
+
+    private NodeIdentifier readNodeIdentifier() throws IOException {
+        return NodeIdentifier.create(readQName());
+    }
+
+    private NodeIdentifierWithPredicates readNodeIdentifierWithPredicates() throws IOException {
+        final QName qname = readQName();
+        final int size = VarInts.readUnsignedInt(input);
+        if (size == 1) {
+            return new NodeIdentifierWithPredicates(qname, readQName(), readObject());
+        }
+
+        final ImmutableMap.Builder<QName, Object> keys = ImmutableMap.builderWithExpectedSize(size);
+        for (int i = 0; i < size; ++i) {
+            keys.put(readQName(), readObject());
+        }
+        return new NodeIdentifierWithPredicates(qname, keys.build());
+    }
+
+    private AugmentationIdentifier readAugmentationIdentifier() throws IOException {
+        final int size = VarInts.readUnsignedInt(input);
+        final ImmutableSet.Builder<QName> children = ImmutableSet.builderWithExpectedSize(size);
+        for (int i = 0; i < size; ++i) {
+            children.add(readQName());
+        }
+        return new AugmentationIdentifier(children.build());
+    }
+
+    @Override
+    public YangInstanceIdentifier readYangInstanceIdentifier() throws IOException {
+        final int common = VarInts.readUnsignedInt(input);
+        final int remaining = VarInts.readUnsignedInt(input);
+        if (common > lastPath.size()) {
+            throw new InvalidNormalizedNodeStreamException("Common prefix " + common + " exceeds previous path "
+                + lastPath);
+        }
+
+        final List<PathArgument> path = new ArrayList<>(common + remaining);
+        path.addAll(lastPath.subList(0, common));
+        for (int i = 0; i < remaining; ++i) {
+            path.add(readPathArgument());
+        }
+        lastPath = path;
+        return YangInstanceIdentifier.create(path);
+    }
+
+    private String readString() throws IOException {
+        return new String(readByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private byte[] readByteArray() throws IOException {
+        final byte[] bytes = new byte[VarInts.readUnsignedInt(input)];
+        input.readFully(bytes);
+        return bytes;
+    }
+
+    @SuppressWarnings("checkstyle:cyclomaticComplexity")
+    private Object readObject() throws IOException {
+        final byte type = input.readByte();
+        switch (type) {
+            case Tokens.NULL:
+                return null;
+            case Tokens.STRING:
+                return readString();
+            case Tokens.BOOLEAN_FALSE:
+                return Boolean.FALSE;
+            case Tokens.BOOLEAN_TRUE:
+                return Boolean.TRUE;
+            case Tokens.BYTE:
+                return input.readByte();
+            case Tokens.SHORT:
+                return (short) VarInts.readSigned(input);
+            case Tokens.INT:
+                return (int) VarInts.readSigned(input);
+            case Tokens.LONG:
+                return VarInts.readSigned(input);
+            case Tokens.BIG_INTEGER:
+                return new BigInteger(readByteArray());
+            case Tokens.BIG_DECIMAL:
+                final int scale = (int) VarInts.readSigned(input);
+                return new BigDecimal(new BigInteger(readByteArray()), scale);
+            case Tokens.UINT8:
+                return Uint8.fromByteBits(input.readByte());
+            case Tokens.UINT16:
+                return Uint16.fromShortBits((short) VarInts.readUnsigned(input));
+            case Tokens.UINT32:
+                return Uint32.fromIntBits((int) VarInts.readUnsigned(input));
+            case Tokens.UINT64:
+                return Uint64.fromLongBits(VarInts.readUnsigned(input));
+            case Tokens.DECIMAL64:
+                final byte fractionDigits = input.readByte();
+                return Decimal64.valueOf(BigDecimal.valueOf(VarInts.readSigned(input), fractionDigits));
+            case Tokens.EMPTY:
+                return Empty.getInstance();
+            case Tokens.QNAME:
+                return readQName();
+            case Tokens.YANG_IDENTIFIER:
+                return readYangInstanceIdentifier();
+            case Tokens.BITS:
+                final int size = VarInts.readUnsignedInt(input);
+                final ImmutableSet.Builder<String> bits = ImmutableSet.builderWithExpectedSize(size);
+                for (int i = 0; i < size; ++i) {
+                    bits.add(readString());
+                }
+                return bits.build();
+            case Tokens.BINARY:
+                return readByteArray();
+            default:
+                throw new InvalidNormalizedNodeStreamException("Unhandled value type " + type);
+        }
+    }
+
+    private DOMSource readDOMSource() throws IOException {
+        final String xml = readString();
+        final Document doc;
+        try {
+            doc = UntrustedXML.newDocumentBuilder().parse(new InputSource(new StringReader(xml)));
+        } catch (SAXException e) {
+            throw new InvalidNormalizedNodeStreamException("Invalid anyxml content", e);
+        }
+        return new DOMSource(doc.getDocumentElement());
+    }
+
+    @Override
+    public void readFully(final byte[] bytes) throws IOException {
+        input.readFully(bytes);
+    }
+
+    @Override
+    public void readFully(final byte[] bytes, final int off, final int len) throws IOException {
+        input.readFully(bytes, off, len);
+    }
+
+    @Override
+    public int skipBytes(final int num) throws IOException {
+        return input.skipBytes(num);
+    }
+
+    @Override
+    public boolean readBoolean() throws IOException {
+        return input.readBoolean();
+    }
+
+    @Override
+    public byte readByte() throws IOException {
+        return input.readByte();
+    }
+
+    @Override
+    public int readUnsignedByte() throws IOException {
+        return input.readUnsignedByte();
+    }
+
+    @Override
+    public short readShort() throws IOException {
+        return input.readShort();
+    }
+
+    @Override
+    public int readUnsignedShort() throws IOException {
+        return input.readUnsignedShort();
+    }
+
+    @Override
+    public char readChar() throws IOException {
+        return input.readChar();
+    }
+
+    @Override
+    public int readInt() throws IOException {
+        return input.readInt();
+    }
+
+    @Override
+    public long readLong() throws IOException {
+        return input.readLong();
+    }
+
+    @Override
+    public float readFloat() throws IOException {
+        return input.readFloat();
+    }
+
+    @Override
+    public double readDouble() throws IOException {
+        return input.readDouble();
+    }
+
+    @Override
+    @Deprecated
+    public String readLine() throws IOException {
+        return input.readLine();
+    }
+
+    @Override
+    public String readUTF() throws IOException {
+        return input.readUTF();
+    }
+}
@@ -0,0 +1,439 @@
+/*
+ * Copyright (c) 2018 Pantheon Technologies, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.codec.binfmt;
+
+import static java.util.Objects.requireNonNull;
+
+import java.io.DataOutput;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Optional;
+import java.util.Set;
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+import org.opendaylight.yangtools.yang.common.Decimal64;
+import org.opendaylight.yangtools.yang.common.Empty;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.common.QNameModule;
+import org.opendaylight.yangtools.yang.common.Revision;
+import org.opendaylight.yangtools.yang.common.Uint16;
+import org.opendaylight.yangtools.yang.common.Uint32;
+import org.opendaylight.yangtools.yang.common.Uint64;
+import org.opendaylight.yangtools.yang.common.Uint8;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.AugmentationIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifierWithPredicates;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeWithValue;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.stream.NormalizedNodeStreamWriter;
+import org.opendaylight.yangtools.yang.data.api.schema.stream.NormalizedNodeWriter;
+
+/**
+ * {@link NormalizedNodeDataOutput} implementing {@link NormalizedNodeStreamVersion#FLUORINE}. It also acts as the
+ * {@link NormalizedNodeStreamWriter} emitting nodes, so that {@link #writeNormalizedNode(NormalizedNode)} does not need
+ * any intermediate state.
+ */
+final class BinaryNormalizedNodeDataOutput implements NormalizedNodeDataOutput, NormalizedNodeStreamWriter {
+    private final Map<QNameModule, Integer> moduleCodes = new HashMap<>();
+    private final Map<QName, Integer> qnameCodes = new HashMap<>();
+    private final DataOutput output;
+
+    private List<PathArgument> lastPath = new ArrayList<>();
+    private NormalizedNodeWriter normalizedNodeWriter;
+
+    BinaryNormalizedNodeDataOutput(final DataOutput output) throws IOException {
+        this.output = requireNonNull(output);
+        output.writeByte(Tokens.SIGNATURE_MARKER);
+        output.writeShort(getVersion().getValue());
+    }
+
+    @Override
+    public NormalizedNodeStreamVersion getVersion() {
+        return NormalizedNodeStreamVersion.FLUORINE;
+    }
+
+    @Override
+    public void writeQName(final QName qname) throws IOException {
+        final Integer code = qnameCodes.get(qname);
+        if (code != null) {
+            VarInts.writeUnsigned(output, code + 1L);
+            return;
+        }
+
+        // Definition: a zero, followed by module and local name
+        output.writeByte(0);
+        writeModule(qname.getModule());
+        writeString(qname.getLocalName());
+        qnameCodes.put(qname, qnameCodes.size());
+    }
+
+    private void writeModule(final QNameModule module) throws IOException {
+        final Integer code = moduleCodes.get(module);
+        if (code != null) {
+            VarInts.writeUnsigned(output, code + 1L);
+            return;
+        }
+
+        output.writeByte(0);
+        writeString(module.getNamespace().toString());
+        final Optional<Revision> revision = module.getRevision();
+        writeString(revision.isPresent() ? revision.get().toString() : "");
+        moduleCodes.put(module, moduleCodes.size());
+    }
+
+    @Override
+    public void writeNormalizedNode(final NormalizedNode<?, ?> normalizedNode) throws IOException {
+        if (normalizedNodeWriter == null) {
+            normalizedNodeWriter = NormalizedNodeWriter.forStreamWriter(this);
+        }
+        normalizedNodeWriter.write(normalizedNode);
+    }
+
+    @Override
+    public NormalizedNodeStreamWriter asStreamWriter() {
+        return this;
+    }
+
+    @Override
+    public void writePathArgument(final PathArgument pathArgument) throws IOException {
+        if (pathArgument instanceof NodeIdentifier) {
+            output.writeByte(Tokens.NODE_IDENTIFIER);
+            writeQName(pathArgument.getNodeType());
+        } else if (pathArgument instanceof NodeIdentifierWithPredicates) {
+            output.writeByte(Tokens.NODE_IDENTIFIER_WITH_PREDICATES);
+            writeNodeIdentifierWithPredicates((NodeIdentifierWithPredicates) pathArgument);
+        } else if (pathArgument instanceof NodeWithValue) {
+            output.writeByte(Tokens.NODE_WITH_VALUE);
+            writeQName(pathArgument.getNodeType());
+            writeObject(((NodeWithValue<?>) pathArgument).getValue());
+        } else if (pathArgument instanceof AugmentationIdentifier) {
+            output.writeByte(Tokens.AUGMENTATION_IDENTIFIER);
+            writeAugmentationIdentifier((AugmentationIdentifier) pathArgument);
+        } else {
+            throw new IllegalArgumentException("Unhandled path argument " + pathArgument);
+        }
+    }
+
+    private void writeNodeIdentifierWithPredicates(final NodeIdentifierWithPredicates identifier) throws IOException {
+        writeQName(identifier.getNodeType());
+        final Map<QName, Object> keys = identifier.getKeyValues();
+        VarInts.writeUnsigned(output, keys.size());
+        for (Entry<QName, Object> entry : keys.entrySet()) {
+            writeQName(entry.getKey());
+            writeObject(entry.getValue());
+        }
+    }
+
+    private void writeAugmentationIdentifier(final AugmentationIdentifier identifier) throws IOException {
+        final Set<QName> qnames = identifier.getPossibleChildNames();
+        VarInts.writeUnsigned(output, qnames.size());
+        for (QName qname : qnames) {
+            writeQName(qname);
+        }
+    }
+
+    /*
+     * Identifiers are encoded relative to the previously-written one: we emit the length of the common prefix,
+     * followed by the remaining path arguments. Sequences of sibling paths, which are typical in data tree
+     * modifications, are thus reduced to their last component.
+     */
+    @Override
+    public void writeYangInstanceIdentifier(final YangInstanceIdentifier identifier) throws IOException {
+        final List<PathArgument> path = identifier.getPathArguments();
+        final int size = path.size();
+        final int max = Math.min(size, lastPath.size());
+        int common = 0;
+        while (common < max && path.get(common).equals(lastPath.get(common))) {
+            common++;
+        }
+
+        VarInts.writeUnsigned(output, common);
+        VarInts.writeUnsigned(output, size - common);
+        for (PathArgument arg : path.subList(common, size)) {
+            writePathArgument(arg);
+        }
+        lastPath = path;
+    }
+
+    private void writeString(final String str) throws IOException {
+        final byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+        VarInts.writeUnsigned(output, bytes.length);
+        output.write(bytes);
+    }
+
+    private void writeByteArray(final byte[] bytes) throws IOException {
+        VarInts.writeUnsigned(output, bytes.length);
+        output.write(bytes);
+    }
+
+    @SuppressWarnings("checkstyle:cyclomaticComplexity")
+    private void writeObject(final Object value) throws IOException {
+        if (value == null) {
+            output.writeByte(Tokens.NULL);
+        } else if (value instanceof String) {
+            output.writeByte(Tokens.STRING);
+            writeString((String) value);
+        } else if (value instanceof Boolean) {
+            output.writeByte((Boolean) value ? Tokens.BOOLEAN_TRUE : Tokens.BOOLEAN_FALSE);
+        } else if (value instanceof Byte) {
+            output.writeByte(Tokens.BYTE);
+            output.writeByte((Byte) value);
+        } else if (value instanceof Short) {
+            output.writeByte(Tokens.SHORT);
+            VarInts.writeSigned(output, (Short) value);
+        } else if (value instanceof Integer) {
+            output.writeByte(Tokens.INT);
+            VarInts.writeSigned(output, (Integer) value);
+        } else if (value instanceof Long) {
+            output.writeByte(Tokens.LONG);
+            VarInts.writeSigned(output, (Long) value);
+        } else if (value instanceof BigInteger) {
+            output.writeByte(Tokens.BIG_INTEGER);
+            writeByteArray(((BigInteger) value).toByteArray());
+        } else if (value instanceof BigDecimal) {
+            output.writeByte(Tokens.BIG_DECIMAL);
+            final BigDecimal decimal = (BigDecimal) value;
+            VarInts.writeSigned(output, decimal.scale());
+            writeByteArray(decimal.unscaledValue().toByteArray());
+        } else if (value instanceof Uint8) {
+            output.writeByte(Tokens.UINT8);
+            output.writeByte(((Uint8) value).byteValue());
+        } else if (value instanceof Uint16) {
+            output.writeByte(Tokens.UINT16);
+            VarInts.writeUnsigned(output, ((Uint16) value).intValue());
+        } else if (value instanceof Uint32) {
+            output.writeByte(Tokens.UINT32);
+            VarInts.writeUnsigned(output, ((Uint32) value).longValue());
+        } else if (value instanceof Uint64) {
+            output.writeByte(Tokens.UINT64);
+            VarInts.writeUnsigned(output, ((Uint64) value).longValue());
+        } else if (value instanceof Decimal64) {
+            output.writeByte(Tokens.DECIMAL64);
+            final BigDecimal decimal = ((Decimal64) value).decimalValue();
+            output.writeByte(decimal.scale());
+            VarInts.writeSigned(output, decimal.unscaledValue().longValueExact());
+        } else if (value instanceof Empty) {
+            output.writeByte(Tokens.EMPTY);
+        } else if (value instanceof QName) {
+            output.writeByte(Tokens.QNAME);
+            writeQName((QName) value);
+        } else if (value instanceof YangInstanceIdentifier) {
+            output.writeByte(Tokens.YANG_IDENTIFIER);
+            writeYangInstanceIdentifier((YangInstanceIdentifier) value);
+        } else if (value instanceof Set) {
+            output.writeByte(Tokens.BITS);
+            final Set<?> bits = (Set<?>) value;
+            VarInts.writeUnsigned(output, bits.size());
+            for (Object bit : bits) {
+                writeString((String) bit);
+            }
+        } else if (value instanceof byte[]) {
+            output.writeByte(Tokens.BINARY);
+            writeByteArray((byte[]) value);
+        } else {
+            throw new IllegalArgumentException("Unhandled value " + value + " of " + value.getClass());
+        }
+    }
+
+    @Override
+    public void leafNode(final NodeIdentifier name, final Object value) throws IOException {
+        output.writeByte(Tokens.LEAF);
+        writeQName(name.getNodeType());
+        writeObject(value);
+    }
+
+    @Override
+    public void startLeafSet(final NodeIdentifier name, final int childSizeHint) throws IOException {
+        startNode(Tokens.LEAF_SET, name);
+    }
+
+    @Override
+    public void startOrderedLeafSet(final NodeIdentifier name, final int childSizeHint) throws IOException {
+        startNode(Tokens.ORDERED_LEAF_SET, name);
+    }
+
+    @Override
+    public void leafSetEntryNode(final QName name, final Object value) throws IOException {
+        output.writeByte(Tokens.LEAF_SET_ENTRY);
+        writeQName(name);
+        writeObject(value);
+    }
+
+    @Override
+    public void startContainerNode(final NodeIdentifier name, final int childSizeHint) throws IOException {
+        startNode(Tokens.CONTAINER, name);
+    }
+
+    @Override
+    public void startUnkeyedList(final NodeIdentifier name, final int childSizeHint) throws IOException {
+        startNode(Tokens.UNKEYED_LIST, name);
+    }
+
+    @Override
+    public void startUnkeyedListItem(final NodeIdentifier name, final int childSizeHint) throws IOException {
+        startNode(Tokens.UNKEYED_LIST_ITEM, name);
+    }
+
+    @Override
+    public void startMapNode(final NodeIdentifier name, final int childSizeHint) throws IOException {
+        startNode(Tokens.MAP, name);
+    }
+
+    @Override
+    public void startMapEntryNode(final NodeIdentifierWithPredicates identifier, final int childSizeHint)
+            throws IOException {
+        output.writeByte(Tokens.MAP_ENTRY);
+        writeNodeIdentifierWithPredicates(identifier);
+    }
+
+    @Override
+    public void startOrderedMapNode(final NodeIdentifier name, final int childSizeHint) throws IOException {
+        startNode(Tokens.ORDERED_MAP, name);
+    }
+
+    @Override
+    public void startChoiceNode(final NodeIdentifier name, final int childSizeHint) throws IOException {
+        startNode(Tokens.CHOICE, name);
+    }
+
+    @Override
+    public void startAugmentationNode(final AugmentationIdentifier identifier) throws IOException {
+        output.writeByte(Tokens.AUGMENTATION);
+        writeAugmentationIdentifier(identifier);
+    }
+
+    @Override
+    public void anyxmlNode(final NodeIdentifier name, final Object value) throws IOException {
+        output.writeByte(Tokens.ANYXML);
+        writeQName(name.getNodeType());
+
+        final StringWriter writer = new StringWriter();
+        try {
+            final Transformer transformer = TransformerFactory.newInstance().newTransformer();
+            transformer.setOutputProperty(OutputKeys.OMIT_XML_DECLARATION, "yes");
+            transformer.transform((DOMSource) value, new StreamResult(writer));
+        } catch (TransformerException e) {
+            throw new IOException("Failed to serialize anyxml " + name, e);
+        }
+        writeString(writer.toString());
+    }
+
+    @Override
+    public void startYangModeledAnyXmlNode(final NodeIdentifier name, final int childSizeHint) throws IOException {
+        // The stream is schema-less and YANG-modeled anyxml nodes cannot be reconstructed without schema. Reject them
+        // before emitting anything, rather than have them read back as plain containers.
+        throw new InvalidNormalizedNodeStreamException("Cannot encode YANG-modeled anyxml node " + name);
+    }
+
+    @Override
+    public void endNode() throws IOException {
+        output.writeByte(Tokens.END_NODE);
+    }
+
+    private void startNode(final byte type, final NodeIdentifier name) throws IOException {
+        output.writeByte(type);
+        writeQName(name.getNodeType());
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (output instanceof Flushable) {
+            ((Flushable) output).flush();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+    }
+
+    @Override
+    public void write(final int value) throws IOException {
+        output.write(value);
+    }
+
+    @Override
+    public void write(final byte[] bytes) throws IOException {
+        output.write(bytes);
+    }
+
+    @Override
+    public void write(final byte[] bytes, final int off, final int len) throws IOException {
+        output.write(bytes, off, len);
+    }
+
+    @Override
+    public void writeBoolean(final boolean value) throws IOException {
+        output.writeBoolean(value);
+    }
+
+    @Override
+    public void writeByte(final int value) throws IOException {
+        output.writeByte(value);
+    }
+
+    @Override
+    public void writeShort(final int value) throws IOException {
+        output.writeShort(value);
+    }
+
+    @Override
+    public void writeChar(final int value) throws IOException {
+        output.writeChar(value);
+    }
+
+    @Override
+    public void writeInt(final int value) throws IOException {
+        output.writeInt(value);
+    }
+
+    @Override
+    public void writeLong(final long value) throws IOException {
+        output.writeLong(value);
+    }
+
+    @Override
+    public void writeFloat(final float value) throws IOException {
+        output.writeFloat(value);
+    }
+
+    @Override
+    public void writeDouble(final double value) throws IOException {
+        output.writeDouble(value);
+    }
+
+    @Override
+    public void writeBytes(final String str) throws IOException {
+        output.writeBytes(str);
+    }
+
+    @Override
+    public void writeChars(final String str) throws IOException {
+        output.writeChars(str);
+    }
+
+    @Override
+    public void writeUTF(final String str) throws IOException {
+        output.writeUTF(str);
+    }
+}
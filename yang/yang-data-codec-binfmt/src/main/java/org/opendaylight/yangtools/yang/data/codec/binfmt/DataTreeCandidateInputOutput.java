@@ -0,0 +1,311 @@
+/*
+ * Copyright (c) 2018 Pantheon Technologies, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.codec.binfmt;
+
+import static java.util.Objects.requireNonNull;
+
+import com.google.common.annotations.Beta;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Optional;
+import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.jdt.annotation.Nullable;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNodeContainer;
+import org.opendaylight.yangtools.yang.data.api.schema.OrderedNodeContainer;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.CursorAwareDataTreeModification;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidate;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidateNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeModificationCursor;
+
+/**
+ * Utility methods for encoding {@link DataTreeCandidate}s into a {@link NormalizedNodeDataOutput} and replaying them
+ * from a {@link NormalizedNodeDataInput}.
+ *
+ * <p>
+ * The encoding is a delta: it contains only the paths which were entered, deleted nodes' identifiers and the data
+ * of nodes which have been written. A write which replaced an existing unordered container is broken down into
+ * changes of its children, so that unchanged parts of the replaced subtree are not encoded at all. Replaying such
+ * an encoding is equivalent to applying the original candidate as long as the target tree has the same contents
+ * the candidate was computed against, which is the case when replicating commits to a follower or into a log.
+ *
+ * <p>
+ * The decoder applies the changes directly through a {@link DataTreeModificationCursor}, without re-creating the
+ * candidate or materializing subtrees which have not been written.
+ */
+@Beta
+public final class DataTreeCandidateInputOutput {
+    private DataTreeCandidateInputOutput() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Encode a {@link DataTreeCandidate}.
+     *
+     * @param out Target output
+     * @param candidate Candidate to encode
+     * @throws IOException if an I/O error occurs
+     */
+    public static void writeDataTreeCandidate(final @NonNull NormalizedNodeDataOutput out,
+            final @NonNull DataTreeCandidate candidate) throws IOException {
+        final YangInstanceIdentifier rootPath = candidate.getRootPath();
+        final DataTreeCandidateNode rootNode = candidate.getRootNode();
+        final DeltaWriter writer = new DeltaWriter(out);
+
+        if (rootPath.isEmpty()) {
+            // The root cannot be written nor deleted through a cursor, hence we encode changes of its children
+            out.writeYangInstanceIdentifier(rootPath);
+            writer.writeRoot(rootNode);
+        } else {
+            out.writeYangInstanceIdentifier(rootPath.getParent());
+            writer.writeNode(rootPath.getLastPathArgument(), rootNode);
+        }
+        out.writeByte(Tokens.MODIFICATION_END);
+    }
+
+    /**
+     * Decode a {@link DataTreeCandidate} and apply it to a modification.
+     *
+     * @param in Source input
+     * @param modification Target modification
+     * @throws IOException if an I/O error occurs or the stream is not well-formed
+     * @throws IllegalArgumentException if the candidate cannot be applied to the modification
+     */
+    public static void applyDataTreeCandidate(final @NonNull NormalizedNodeDataInput in,
+            final @NonNull CursorAwareDataTreeModification modification) throws IOException {
+        try (DataTreeModificationCursor cursor = modification.openCursor()) {
+            applyDataTreeCandidate(in, cursor);
+        }
+    }
+
+    /**
+     * Decode a {@link DataTreeCandidate} and apply it through a cursor. The candidate's root path is interpreted
+     * relative to the current position of the cursor, which is restored once the candidate has been applied.
+     *
+     * @param in Source input
+     * @param cursor Target cursor
+     * @throws IOException if an I/O error occurs or the stream is not well-formed
+     * @throws IllegalArgumentException if the candidate cannot be applied through the cursor
+     */
+    public static void applyDataTreeCandidate(final @NonNull NormalizedNodeDataInput in,
+            final @NonNull DataTreeModificationCursor cursor) throws IOException {
+        final YangInstanceIdentifier path = in.readYangInstanceIdentifier();
+        if (!path.isEmpty()) {
+            cursor.enter(path.getPathArguments());
+        }
+
+        int depth = 0;
+        while (true) {
+            final byte type = in.readByte();
+            switch (type) {
+                case Tokens.MODIFICATION_END:
+                    if (depth == 0) {
+                        if (!path.isEmpty()) {
+                            cursor.exit(path.getPathArguments().size());
+                        }
+                        return;
+                    }
+                    cursor.exit();
+                    depth--;
+                    break;
+                case Tokens.MODIFICATION_DELETE:
+                    cursor.delete(in.readPathArgument());
+                    break;
+                case Tokens.MODIFICATION_WRITE:
+                    final NormalizedNode<?, ?> node = in.readNormalizedNode();
+                    cursor.write(node.getIdentifier(), node);
+                    break;
+                case Tokens.MODIFICATION_SUBTREE:
+                    cursor.enter(in.readPathArgument());
+                    depth++;
+                    break;
+                default:
+                    throw new InvalidNormalizedNodeStreamException("Unexpected modification type " + type);
+            }
+        }
+    }
+
+    /**
+     * Writer of a single candidate. Subtree markers are emitted lazily, so that subtrees which turn out to have no
+     * changes do not leave any trace in the stream.
+     */
+    private static final class DeltaWriter {
+        private final Deque<PathArgument> pending = new ArrayDeque<>();
+        private final NormalizedNodeDataOutput out;
+
+        DeltaWriter(final NormalizedNodeDataOutput out) {
+            this.out = requireNonNull(out);
+        }
+
+        void writeRoot(final DataTreeCandidateNode root) throws IOException {
+            switch (root.getModificationType()) {
+                case APPEARED:
+                case DISAPPEARED:
+                case SUBTREE_MODIFIED:
+                    writeChildren(root);
+                    break;
+                case DELETE:
+                case WRITE:
+                    writeDelta(asContainer(root.getDataBefore().orElse(null)),
+                        asContainer(root.getDataAfter().orElse(null)));
+                    break;
+                case UNMODIFIED:
+                    // No-op
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unsupported modification " + root.getModificationType());
+            }
+        }
+
+        void writeNode(final PathArgument id, final DataTreeCandidateNode node) throws IOException {
+            switch (node.getModificationType()) {
+                case APPEARED:
+                case DISAPPEARED:
+                case SUBTREE_MODIFIED:
+                    enter(id);
+                    writeChildren(node);
+                    exit();
+                    break;
+                case DELETE:
+                    writeDelete(id);
+                    break;
+                case WRITE:
+                    writeReplace(id, node.getDataBefore().orElse(null), node.getDataAfter().get());
+                    break;
+                case UNMODIFIED:
+                    // No-op
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unsupported modification " + node.getModificationType());
+            }
+        }
+
+        private void writeChildren(final DataTreeCandidateNode node) throws IOException {
+            for (DataTreeCandidateNode child : node.getChildNodes()) {
+                writeNode(child.getIdentifier(), child);
+            }
+        }
+
+        private void writeReplace(final PathArgument id, final @Nullable NormalizedNode<?, ?> before,
+                final NormalizedNode<?, ?> after) throws IOException {
+            if (before == after) {
+                return;
+            }
+            if (before != null && isDeltaCapable(before) && isDeltaCapable(after)) {
+                enter(id);
+                writeDelta(asContainer(before), asContainer(after));
+                exit();
+            } else if (before == null || !sameData(before, after)) {
+                flush();
+                out.writeByte(Tokens.MODIFICATION_WRITE);
+                out.writeNormalizedNode(after);
+            }
+        }
+
+        private void writeDelta(final @Nullable NormalizedNodeContainer<?, PathArgument, NormalizedNode<?, ?>> before,
+                final @Nullable NormalizedNodeContainer<?, PathArgument, NormalizedNode<?, ?>> after)
+                        throws IOException {
+            if (after != null) {
+                for (NormalizedNode<?, ?> child : after.getValue()) {
+                    final PathArgument id = child.getIdentifier();
+                    writeReplace(id, before == null ? null : before.getChild(id).orElse(null), child);
+                }
+            }
+            if (before != null) {
+                for (NormalizedNode<?, ?> child : before.getValue()) {
+                    final PathArgument id = child.getIdentifier();
+                    if (after == null || !after.getChild(id).isPresent()) {
+                        writeDelete(id);
+                    }
+                }
+            }
+        }
+
+        private void writeDelete(final PathArgument id) throws IOException {
+            flush();
+            out.writeByte(Tokens.MODIFICATION_DELETE);
+            out.writePathArgument(id);
+        }
+
+        private void enter(final PathArgument id) {
+            pending.addLast(id);
+        }
+
+        private void exit() throws IOException {
+            // Any unflushed level has to be the innermost one, as flush() emits all of them
+            if (pending.pollLast() == null) {
+                out.writeByte(Tokens.MODIFICATION_END);
+            }
+        }
+
+        private void flush() throws IOException {
+            for (PathArgument id : pending) {
+                out.writeByte(Tokens.MODIFICATION_SUBTREE);
+                out.writePathArgument(id);
+            }
+            pending.clear();
+        }
+
+        /**
+         * Compare two nodes, taking into account ordering of ordered containers, which is not reflected in
+         * {@link NormalizedNode#equals(Object)}.
+         */
+        private static boolean sameData(final NormalizedNode<?, ?> first, final NormalizedNode<?, ?> second) {
+            if (first == second) {
+                return true;
+            }
+            if (!(first instanceof NormalizedNodeContainer)) {
+                return first.equals(second);
+            }
+            if (!(second instanceof NormalizedNodeContainer) || !first.getIdentifier().equals(second.getIdentifier())
+                    || first instanceof OrderedNodeContainer != second instanceof OrderedNodeContainer) {
+                return false;
+            }
+
+            final NormalizedNodeContainer<?, PathArgument, NormalizedNode<?, ?>> firstContainer = asContainer(first);
+            final NormalizedNodeContainer<?, PathArgument, NormalizedNode<?, ?>> secondContainer =
+                    asContainer(second);
+            if (firstContainer.getValue().size() != secondContainer.getValue().size()) {
+                return false;
+            }
+
+            if (first instanceof OrderedNodeContainer) {
+                final Iterator<NormalizedNode<?, ?>> it = secondContainer.getValue().iterator();
+                for (NormalizedNode<?, ?> child : firstContainer.getValue()) {
+                    if (!sameData(child, it.next())) {
+                        return false;
+                    }
+                }
+            } else {
+                for (NormalizedNode<?, ?> child : firstContainer.getValue()) {
+                    final Optional<NormalizedNode<?, ?>> other = secondContainer.getChild(child.getIdentifier());
+                    if (!other.isPresent() || !sameData(child, other.get())) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+
+        private static boolean isDeltaCapable(final NormalizedNode<?, ?> node) {
+            // Ordered containers need to be written as a whole to retain user ordering
+            return node instanceof NormalizedNodeContainer && !(node instanceof OrderedNodeContainer);
+        }
+
+        @SuppressWarnings("unchecked")
+        private static @Nullable NormalizedNodeContainer<?, PathArgument, NormalizedNode<?, ?>> asContainer(
+                final @Nullable NormalizedNode<?, ?> node) {
+            return node instanceof NormalizedNodeContainer
+                    ? (NormalizedNodeContainer<?, PathArgument, NormalizedNode<?, ?>>) node : null;
+        }
+    }
+}
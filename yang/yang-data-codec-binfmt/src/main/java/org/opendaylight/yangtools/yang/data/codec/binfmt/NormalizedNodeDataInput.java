@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2018 Pantheon Technologies, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.codec.binfmt;
+
+import com.google.common.annotations.Beta;
+import java.io.DataInput;
+import java.io.IOException;
+import org.eclipse.jdt.annotation.NonNull;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.stream.NormalizedNodeStreamWriter;
+import org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNormalizedNodeStreamWriter;
+import org.opendaylight.yangtools.yang.data.impl.schema.NormalizedNodeResult;
+
+/**
+ * Interface for reading {@link NormalizedNode}s, {@link YangInstanceIdentifier}s, {@link PathArgument}s
+ * and {@link QName}s written by a {@link NormalizedNodeDataOutput}.
+ */
+@Beta
+public interface NormalizedNodeDataInput extends DataInput {
+    /**
+     * Create a new input, reading and validating the stream header from specified {@link DataInput}.
+     *
+     * @param input Source input
+     * @return A new input
+     * @throws InvalidNormalizedNodeStreamException if the stream header is not recognized
+     * @throws IOException if the header cannot be read
+     */
+    static @NonNull NormalizedNodeDataInput newDataInput(final @NonNull DataInput input) throws IOException {
+        return new BinaryNormalizedNodeDataInput(input);
+    }
+
+    /**
+     * Return the version of the stream being read.
+     *
+     * @return Stream version
+     */
+    @NonNull NormalizedNodeStreamVersion getVersion();
+
+    /**
+     * Read a normalized node from the stream and emit it into specified writer.
+     *
+     * @param writer Receiving writer
+     * @throws IOException if an I/O error occurs
+     */
+    void streamNormalizedNode(@NonNull NormalizedNodeStreamWriter writer) throws IOException;
+
+    /**
+     * Read a normalized node from the stream.
+     *
+     * @return Normalized node
+     * @throws IOException if an I/O error occurs
+     */
+    default @NonNull NormalizedNode<?, ?> readNormalizedNode() throws IOException {
+        final NormalizedNodeResult result = new NormalizedNodeResult();
+        try (NormalizedNodeStreamWriter writer = ImmutableNormalizedNodeStreamWriter.from(result)) {
+            streamNormalizedNode(writer);
+        }
+        return result.getResult();
+    }
+
+    @NonNull QName readQName() throws IOException;
+
+    @NonNull PathArgument readPathArgument() throws IOException;
+
+    @NonNull YangInstanceIdentifier readYangInstanceIdentifier() throws IOException;
+}
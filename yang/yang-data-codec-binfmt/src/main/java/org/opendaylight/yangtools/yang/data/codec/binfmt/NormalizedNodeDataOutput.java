@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2018 Pantheon Technologies, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.codec.binfmt;
+
+import com.google.common.annotations.Beta;
+import java.io.DataOutput;
+import java.io.IOException;
+import org.eclipse.jdt.annotation.NonNull;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.stream.NormalizedNodeStreamWriter;
+
+/**
+ * Interface for emitting {@link NormalizedNode}s, {@link YangInstanceIdentifier}s, {@link PathArgument}s
+ * and {@link QName}s into a binary stream. Plain {@link DataOutput} methods can be freely interleaved with these,
+ * allowing users to embed the encoded objects in their own framing.
+ *
+ * <p>
+ * Instances are not thread-safe and hold per-stream dictionaries, hence the corresponding
+ * {@link NormalizedNodeDataInput} has to read all objects in the order in which they were written.
+ */
+@Beta
+public interface NormalizedNodeDataOutput extends AutoCloseable, DataOutput {
+    /**
+     * Create a new output, writing the stream header into specified {@link DataOutput}.
+     *
+     * @param output Target output
+     * @return A new output
+     * @throws IOException if the header cannot be written
+     */
+    static @NonNull NormalizedNodeDataOutput newDataOutput(final @NonNull DataOutput output) throws IOException {
+        return new BinaryNormalizedNodeDataOutput(output);
+    }
+
+    /**
+     * Return the version of the stream being written.
+     *
+     * @return Stream version
+     */
+    @NonNull NormalizedNodeStreamVersion getVersion();
+
+    void writeQName(@NonNull QName qname) throws IOException;
+
+    /**
+     * Write a {@link NormalizedNode}. YANG-modeled anyxml nodes cannot be represented in this format.
+     *
+     * @param normalizedNode Node to write
+     * @throws InvalidNormalizedNodeStreamException if the node contains a YANG-modeled anyxml node
+     * @throws IOException if an I/O error occurs
+     */
+    void writeNormalizedNode(@NonNull NormalizedNode<?, ?> normalizedNode) throws IOException;
+
+    void writePathArgument(@NonNull PathArgument pathArgument) throws IOException;
+
+    void writeYangInstanceIdentifier(@NonNull YangInstanceIdentifier identifier) throws IOException;
+
+    /**
+     * Return a {@link NormalizedNodeStreamWriter} which emits a single {@link NormalizedNode} into this output.
+     * Exactly one top-level node needs to be emitted into it before any other object is written into this output.
+     *
+     * @return A stream writer
+     */
+    @NonNull NormalizedNodeStreamWriter asStreamWriter();
+
+    /**
+     * Close this output. This method does not close the underlying {@link DataOutput}.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    @Override
+    void close() throws IOException;
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2018 Pantheon Technologies, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.codec.binfmt;
+
+import com.google.common.annotations.Beta;
+
+/**
+ * Enumeration of all stream versions this implementation supports on both input and output.
+ */
+@Beta
+public enum NormalizedNodeStreamVersion {
+    /**
+     * Initial version of the format.
+     */
+    FLUORINE((short) 1);
+
+    private final short value;
+
+    NormalizedNodeStreamVersion(final short value) {
+        this.value = value;
+    }
+
+    /**
+     * Return the value identifying this version in the stream header.
+     *
+     * @return Version value
+     */
+    short getValue() {
+        return value;
+    }
+
+    /**
+     * Return the latest version, which is used when producing new streams.
+     *
+     * @return Current version
+     */
+    public static NormalizedNodeStreamVersion current() {
+        return FLUORINE;
+    }
+
+    static NormalizedNodeStreamVersion forValue(final short value) throws InvalidNormalizedNodeStreamException {
+        for (NormalizedNodeStreamVersion version : values()) {
+            if (version.value == value) {
+                return version;
+            }
+        }
+        throw new InvalidNormalizedNodeStreamException("Unsupported stream version " + value);
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2018 Pantheon Technologies, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.codec.binfmt;
+
+/**
+ * Byte values of tokens used in the stream.
+ */
+final class Tokens {
+    // Stream header
+    static final byte SIGNATURE_MARKER = (byte) 0xab;
+
+    // Node types
+    static final byte END_NODE = 0;
+    static final byte LEAF = 1;
+    static final byte LEAF_SET = 2;
+    static final byte ORDERED_LEAF_SET = 3;
+    static final byte LEAF_SET_ENTRY = 4;
+    static final byte CONTAINER = 5;
+    static final byte UNKEYED_LIST = 6;
+    static final byte UNKEYED_LIST_ITEM = 7;
+    static final byte MAP = 8;
+    static final byte ORDERED_MAP = 9;
+    static final byte MAP_ENTRY = 10;
+    static final byte CHOICE = 11;
+    static final byte AUGMENTATION = 12;
+    static final byte ANYXML = 13;
+
+    // Path argument types
+    static final byte NODE_IDENTIFIER = 1;
+    static final byte NODE_IDENTIFIER_WITH_PREDICATES = 2;
+    static final byte NODE_WITH_VALUE = 3;
+    static final byte AUGMENTATION_IDENTIFIER = 4;
+
+    // Candidate node modification types
+    static final byte MODIFICATION_END = 0;
+    static final byte MODIFICATION_DELETE = 1;
+    static final byte MODIFICATION_WRITE = 2;
+    static final byte MODIFICATION_SUBTREE = 3;
+
+    // Value types
+    static final byte NULL = 0;
+    static final byte STRING = 1;
+    static final byte BOOLEAN_FALSE = 2;
+    static final byte BOOLEAN_TRUE = 3;
+    static final byte BYTE = 4;
+    static final byte SHORT = 5;
+    static final byte INT = 6;
+    static final byte LONG = 7;
+    static final byte BIG_INTEGER = 8;
+    static final byte BIG_DECIMAL = 9;
+    static final byte UINT8 = 10;
+    static final byte UINT16 = 11;
+    static final byte UINT32 = 12;
+    static final byte UINT64 = 13;
+    static final byte DECIMAL64 = 14;
+    static final byte EMPTY = 15;
+    static final byte QNAME = 16;
+    static final byte YANG_IDENTIFIER = 17;
+    static final byte BITS = 18;
+    static final byte BINARY = 19;
+
+    private Tokens() {
+        throw new UnsupportedOperationException();
+    }
+}
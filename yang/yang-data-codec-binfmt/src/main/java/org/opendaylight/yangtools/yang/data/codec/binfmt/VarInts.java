@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2018 Pantheon Technologies, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.codec.binfmt;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Utility methods for dealing with variable-length integers. Values are encoded in groups of 7 bits, least significant
+ * group first, with the most significant bit of each byte indicating whether another byte follows. Signed values are
+ * mapped to unsigned ones using ZigZag encoding, so that values of small magnitude have short encodings.
+ */
+final class VarInts {
+    private VarInts() {
+        throw new UnsupportedOperationException();
+    }
+
+    static void writeUnsigned(final DataOutput out, final long value) throws IOException {
+        long remaining = value;
+        while ((remaining & ~0x7FL) != 0) {
+            out.writeByte((int) (remaining & 0x7F | 0x80));
+            remaining >>>= 7;
+        }
+        out.writeByte((int) remaining);
+    }
+
+    static void writeSigned(final DataOutput out, final long value) throws IOException {
+        writeUnsigned(out, value << 1 ^ value >> 63);
+    }
+
+    static long readUnsigned(final DataInput in) throws IOException {
+        long ret = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            final byte b = in.readByte();
+            ret |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return ret;
+            }
+        }
+        throw new InvalidNormalizedNodeStreamException("Malformed variable-length integer");
+    }
+
+    static long readSigned(final DataInput in) throws IOException {
+        final long raw = readUnsigned(in);
+        return raw >>> 1 ^ -(raw & 1);
+    }
+
+    static int readUnsignedInt(final DataInput in) throws IOException {
+        final long value = readUnsigned(in);
+        if (value < 0 || value > Integer.MAX_VALUE) {
+            throw new InvalidNormalizedNodeStreamException("Value " + Long.toUnsignedString(value)
+                + " is out of range");
+        }
+        return (int) value;
+    }
+}
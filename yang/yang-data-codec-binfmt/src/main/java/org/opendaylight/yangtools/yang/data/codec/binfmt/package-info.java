@@ -0,0 +1,26 @@
+/*
+ * Copyright (c) 2018 Pantheon Technologies, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+/**
+ * Compact binary serialization of {@link org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode}s,
+ * {@link org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier}s and their constituents. The format is
+ * versioned, see {@link org.opendaylight.yangtools.yang.data.codec.binfmt.NormalizedNodeStreamVersion}.
+ *
+ * <p>
+ * Streams are produced by {@link org.opendaylight.yangtools.yang.data.codec.binfmt.NormalizedNodeDataOutput} and
+ * consumed by {@link org.opendaylight.yangtools.yang.data.codec.binfmt.NormalizedNodeDataInput}. Each stream maintains
+ * dictionaries of {@link org.opendaylight.yangtools.yang.common.QNameModule}s and
+ * {@link org.opendaylight.yangtools.yang.common.QName}s it has encountered, so that each of them is spelled out only
+ * once and subsequently referenced by its position. Integral values are encoded as variable-length integers and
+ * consecutive {@link org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier}s share their common prefix.
+ * Streams do not require a {@link org.opendaylight.yangtools.yang.model.api.SchemaContext}.
+ *
+ * <p>
+ * {@link org.opendaylight.yangtools.yang.data.codec.binfmt.DataTreeCandidateInputOutput} builds on top of these
+ * streams to encode {@link org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidate}s as deltas.
+ */
+package org.opendaylight.yangtools.yang.data.codec.binfmt;
@@ -0,0 +1,218 @@
+/*
+ * Copyright (c) 2018 Pantheon Technologies, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.codec.binfmt;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes.leafNode;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Optional;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.common.Uint32;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifierWithPredicates;
+import org.opendaylight.yangtools.yang.data.api.schema.ContainerNode;
+import org.opendaylight.yangtools.yang.data.api.schema.MapEntryNode;
+import org.opendaylight.yangtools.yang.data.api.schema.MapNode;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.OrderedMapNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.CursorAwareDataTreeModification;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTree;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidate;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidates;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeConfiguration;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeModification;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataValidationFailedException;
+import org.opendaylight.yangtools.yang.data.impl.schema.Builders;
+import org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes;
+import org.opendaylight.yangtools.yang.data.impl.schema.builder.api.CollectionNodeBuilder;
+import org.opendaylight.yangtools.yang.data.impl.schema.tree.InMemoryDataTreeFactory;
+import org.opendaylight.yangtools.yang.model.api.SchemaContext;
+import org.opendaylight.yangtools.yang.test.util.YangParserTestUtils;
+
+public class DataTreeCandidateInputOutputTest {
+    private static final QName ROOT = QName.create("urn:opendaylight:params:xml:ns:yang:candidate-test", "2018-09-17",
+        "root");
+    private static final QName TOP = QName.create(ROOT, "top");
+    private static final QName TAG = QName.create(ROOT, "tag");
+    private static final QName ITEM = QName.create(ROOT, "item");
+    private static final QName ID = QName.create(ROOT, "id");
+    private static final QName NAME = QName.create(ROOT, "name");
+    private static final QName CFG = QName.create(ROOT, "cfg");
+    private static final QName A = QName.create(ROOT, "a");
+    private static final QName B = QName.create(ROOT, "b");
+    private static final QName ORDERED = QName.create(ROOT, "ordered");
+
+    private static final YangInstanceIdentifier ROOT_PATH = YangInstanceIdentifier.of(ROOT);
+    private static final YangInstanceIdentifier ITEM_PATH = ROOT_PATH.node(ITEM);
+    private static final int ITEM_COUNT = 100;
+
+    private static SchemaContext schemaContext;
+
+    private DataTree leader;
+    private DataTree follower;
+
+    @BeforeClass
+    public static void beforeClass() {
+        schemaContext = YangParserTestUtils.parseYangResource("/candidate-test.yang");
+    }
+
+    @Before
+    public void before() throws DataValidationFailedException {
+        leader = new InMemoryDataTreeFactory().create(DataTreeConfiguration.DEFAULT_CONFIGURATION, schemaContext);
+        follower = new InMemoryDataTreeFactory().create(DataTreeConfiguration.DEFAULT_CONFIGURATION, schemaContext);
+
+        final ContainerNode root = rootNode(0, "initial", "a", "b");
+        for (DataTree tree : Arrays.asList(leader, follower)) {
+            final DataTreeModification mod = tree.takeSnapshot().newModification();
+            mod.write(ROOT_PATH, root);
+            commit(tree, mod);
+        }
+    }
+
+    @Test
+    public void testReplaceDelta() throws Exception {
+        final DataTreeModification mod = leader.takeSnapshot().newModification();
+        mod.write(ROOT_PATH, rootNode(ITEM_COUNT - 1, "changed", "a", "b"));
+        final byte[] bytes = encode(commit(leader, mod));
+        replicate(bytes);
+
+        // Only the changed item has been encoded
+        assertTrue("Delta encoding takes " + bytes.length + " bytes", bytes.length < 150);
+    }
+
+    @Test
+    public void testSubtreeModifications() throws Exception {
+        final DataTreeModification mod = leader.takeSnapshot().newModification();
+        mod.write(itemPath(3).node(NAME), leafNode(NAME, "three"));
+        mod.merge(itemPath(5).node(CFG), Builders.containerBuilder().withNodeIdentifier(new NodeIdentifier(CFG))
+            .withChild(leafNode(B, Uint32.valueOf(5))).build());
+        mod.delete(itemPath(7));
+        mod.delete(ROOT_PATH.node(TAG).node(new YangInstanceIdentifier.NodeWithValue<>(TAG, "a")));
+        mod.write(itemPath(ITEM_COUNT), item(ITEM_COUNT, "new"));
+        mod.write(ROOT_PATH.node(TOP), leafNode(TOP, "top"));
+        replicate(encode(commit(leader, mod)));
+    }
+
+    @Test
+    public void testOrderedReplace() throws Exception {
+        final DataTreeModification mod = leader.takeSnapshot().newModification();
+        mod.write(ROOT_PATH, rootNode(0, "initial", "b", "a"));
+        replicate(encode(commit(leader, mod)));
+
+        // Map equality does not consider ordering, make sure it has been retained
+        final OrderedMapNode list = (OrderedMapNode) follower.takeSnapshot().readNode(ROOT_PATH.node(ORDERED)).get();
+        assertEquals(new NodeIdentifierWithPredicates(ORDERED, ID, "b"), list.getChild(0).getIdentifier());
+        assertEquals(new NodeIdentifierWithPredicates(ORDERED, ID, "a"), list.getChild(1).getIdentifier());
+    }
+
+    @Test
+    public void testRootReplaceAndDelete() throws Exception {
+        DataTreeModification mod = leader.takeSnapshot().newModification();
+        mod.delete(ROOT_PATH);
+        replicate(encode(commit(leader, mod)));
+
+        mod = leader.takeSnapshot().newModification();
+        mod.write(YangInstanceIdentifier.EMPTY, Builders.containerBuilder()
+            .withNodeIdentifier(new NodeIdentifier(SchemaContext.NAME)).withChild(rootNode(0, "x", "a")).build());
+        replicate(encode(commit(leader, mod)));
+    }
+
+    @Test
+    public void testNonRootCandidate() throws Exception {
+        final MapEntryNode item = item(2, "rooted");
+        final byte[] bytes = encode(DataTreeCandidates.fromNormalizedNode(itemPath(2), item));
+
+        final DataTreeModification leaderMod = leader.takeSnapshot().newModification();
+        leaderMod.write(itemPath(2), item);
+        commit(leader, leaderMod);
+        replicate(bytes);
+    }
+
+    @Test
+    public void testUnmodified() throws Exception {
+        final DataTreeModification mod = leader.takeSnapshot().newModification();
+        mod.write(ROOT_PATH, rootNode(0, "initial", "a", "b"));
+        final byte[] bytes = encode(commit(leader, mod));
+        final byte[] empty = encode(DataTreeCandidates.fromNormalizedNode(YangInstanceIdentifier.EMPTY,
+            Builders.containerBuilder().withNodeIdentifier(new NodeIdentifier(SchemaContext.NAME)).build()));
+        assertEquals(empty.length, bytes.length);
+        replicate(bytes);
+    }
+
+    private void replicate(final byte[] bytes) throws IOException, DataValidationFailedException {
+        final DataTreeModification mod = follower.takeSnapshot().newModification();
+        final NormalizedNodeDataInput in = NormalizedNodeDataInput.newDataInput(new DataInputStream(
+            new ByteArrayInputStream(bytes)));
+        DataTreeCandidateInputOutput.applyDataTreeCandidate(in, (CursorAwareDataTreeModification) mod);
+        commit(follower, mod);
+
+        final Optional<NormalizedNode<?, ?>> expected = leader.takeSnapshot().readNode(YangInstanceIdentifier.EMPTY);
+        final Optional<NormalizedNode<?, ?>> actual = follower.takeSnapshot().readNode(YangInstanceIdentifier.EMPTY);
+        assertEquals(expected, actual);
+    }
+
+    private static byte[] encode(final DataTreeCandidate candidate) throws IOException {
+        final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try (NormalizedNodeDataOutput out = NormalizedNodeDataOutput.newDataOutput(new DataOutputStream(bos))) {
+            DataTreeCandidateInputOutput.writeDataTreeCandidate(out, candidate);
+        }
+        return bos.toByteArray();
+    }
+
+    private static DataTreeCandidate commit(final DataTree tree, final DataTreeModification mod)
+            throws DataValidationFailedException {
+        mod.ready();
+        tree.validate(mod);
+        final DataTreeCandidate candidate = tree.prepare(mod);
+        tree.commit(candidate);
+        return candidate;
+    }
+
+    private static YangInstanceIdentifier itemPath(final int id) {
+        return ITEM_PATH.node(new NodeIdentifierWithPredicates(ITEM, ID, id));
+    }
+
+    private static MapEntryNode item(final int id, final String name) {
+        return ImmutableNodes.mapEntryBuilder(ITEM, ID, id).withChild(leafNode(NAME, name))
+                .withChild(Builders.containerBuilder().withNodeIdentifier(new NodeIdentifier(CFG))
+                    .withChild(leafNode(A, "item-" + id)).withChild(leafNode(B, Uint32.valueOf(id))).build())
+                .build();
+    }
+
+    private static ContainerNode rootNode(final int changedItem, final String changedName,
+            final String... ordered) {
+        final CollectionNodeBuilder<MapEntryNode, MapNode> items = ImmutableNodes.mapNodeBuilder(ITEM);
+        for (int i = 0; i < ITEM_COUNT; ++i) {
+            items.withChild(item(i, i == changedItem ? changedName : "initial"));
+        }
+
+        final CollectionNodeBuilder<MapEntryNode, OrderedMapNode> orderedList = Builders.orderedMapBuilder()
+                .withNodeIdentifier(new NodeIdentifier(ORDERED));
+        for (String id : ordered) {
+            orderedList.withChild(ImmutableNodes.mapEntry(ORDERED, ID, id));
+        }
+
+        return Builders.containerBuilder().withNodeIdentifier(new NodeIdentifier(ROOT))
+                .withChild(Builders.leafSetBuilder().withNodeIdentifier(new NodeIdentifier(TAG))
+                    .withChildValue("a").withChildValue("b").build())
+                .withChild(items.build())
+                .withChild(orderedList.build())
+                .build();
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright (c) 2018 Pantheon Technologies, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.codec.binfmt;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes.leafNode;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import javax.xml.transform.dom.DOMSource;
+import org.junit.Test;
+import org.opendaylight.yangtools.util.xml.UntrustedXML;
+import org.opendaylight.yangtools.yang.common.Decimal64;
+import org.opendaylight.yangtools.yang.common.Empty;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.common.Uint16;
+import org.opendaylight.yangtools.yang.common.Uint32;
+import org.opendaylight.yangtools.yang.common.Uint64;
+import org.opendaylight.yangtools.yang.common.Uint8;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.AugmentationIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifierWithPredicates;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeWithValue;
+import org.opendaylight.yangtools.yang.data.api.schema.AnyXmlNode;
+import org.opendaylight.yangtools.yang.data.api.schema.ContainerNode;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.impl.schema.Builders;
+import org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes;
+import org.xml.sax.InputSource;
+
+public class NormalizedNodeStreamTest {
+    private static final QName ROOT = QName.create("urn:test", "2018-09-17", "root");
+    private static final QName LIST = QName.create(ROOT, "list");
+    private static final QName KEY1 = QName.create(ROOT, "key1");
+    private static final QName KEY2 = QName.create(ROOT, "key2");
+    private static final QName LEAF = QName.create(ROOT, "leaf");
+    private static final QName LEAF_LIST = QName.create(ROOT, "leaf-list");
+    private static final QName CHOICE = QName.create(ROOT, "choice");
+    private static final QName AUGMENTED = QName.create("urn:test:augment", "augmented");
+    private static final QName ANYXML = QName.create(ROOT, "anyxml");
+    private static final QName UNKEYED = QName.create(ROOT, "unkeyed");
+
+    @Test
+    public void testNormalizedNode() throws Exception {
+        final ContainerNode node = Builders.containerBuilder().withNodeIdentifier(new NodeIdentifier(ROOT))
+                .withChild(ImmutableNodes.mapNodeBuilder(LIST)
+                    .withChild(ImmutableNodes.mapEntryBuilder().withNodeIdentifier(
+                        new NodeIdentifierWithPredicates(LIST, ImmutableMap.of(KEY1, "one", KEY2, 1)))
+                        .withChild(leafNode(KEY1, "one"))
+                        .withChild(leafNode(KEY2, 1))
+                        .withChild(leafNode(LEAF, Uint32.valueOf(4000000000L)))
+                        .build())
+                    .withChild(ImmutableNodes.mapEntry(LIST, KEY1, "two"))
+                    .build())
+                .withChild(Builders.orderedMapBuilder().withNodeIdentifier(new NodeIdentifier(UNKEYED)).build())
+                .withChild(Builders.leafSetBuilder().withNodeIdentifier(new NodeIdentifier(LEAF_LIST))
+                    .withChildValue("a").withChildValue("b").build())
+                .withChild(Builders.unkeyedListBuilder().withNodeIdentifier(new NodeIdentifier(KEY2))
+                    .withChild(Builders.unkeyedListEntryBuilder().withNodeIdentifier(new NodeIdentifier(KEY2))
+                        .withChild(leafNode(LEAF, true)).build())
+                    .build())
+                .withChild(Builders.choiceBuilder().withNodeIdentifier(new NodeIdentifier(CHOICE))
+                    .withChild(leafNode(KEY1, new byte[] { 1, 2, 3 })).build())
+                .withChild(Builders.augmentationBuilder()
+                    .withNodeIdentifier(new AugmentationIdentifier(ImmutableSet.of(AUGMENTED)))
+                    .withChild(leafNode(AUGMENTED, ImmutableSet.of("bit1", "bit2"))).build())
+                .build();
+
+        final NormalizedNode<?, ?> read = roundTrip(node);
+        assertEquals(node, read);
+        assertArrayEquals(new byte[] { 1, 2, 3 }, (byte[]) ((ContainerNode) read).getChild(new NodeIdentifier(CHOICE))
+            .flatMap(choice -> ((org.opendaylight.yangtools.yang.data.api.schema.ChoiceNode) choice).getChild(
+                new NodeIdentifier(KEY1))).get().getValue());
+    }
+
+    @Test
+    public void testValues() throws Exception {
+        final Object[] values = {
+            "string", "", "žluťoučký", Boolean.TRUE, Boolean.FALSE, (byte) -5, (short) -300, 0,
+            Integer.MIN_VALUE, Long.MAX_VALUE, Long.MIN_VALUE, new BigInteger("123456789012345678901234567890"),
+            new BigDecimal("-3.14159"), Uint8.valueOf(255), Uint16.valueOf(65535), Uint32.valueOf(4294967295L),
+            Uint64.valueOf("18446744073709551615"), Decimal64.valueOf("-12.500"), Empty.getInstance(), ROOT,
+            YangInstanceIdentifier.create(new NodeIdentifier(ROOT), new NodeWithValue<>(LEAF_LIST, "a")),
+        };
+
+        for (Object value : values) {
+            final ContainerNode node = Builders.containerBuilder().withNodeIdentifier(new NodeIdentifier(ROOT))
+                    .withChild(leafNode(LEAF, value)).build();
+            assertEquals(node, roundTrip(node));
+        }
+    }
+
+    @Test
+    public void testAnyXml() throws Exception {
+        final DOMSource source = new DOMSource(UntrustedXML.newDocumentBuilder().parse(new InputSource(
+            new StringReader("<anyxml xmlns=\"urn:test\"><foo>bar</foo></anyxml>"))).getDocumentElement());
+        final AnyXmlNode node = Builders.anyXmlBuilder().withNodeIdentifier(new NodeIdentifier(ANYXML))
+                .withValue(source).build();
+
+        final AnyXmlNode read = (AnyXmlNode) roundTrip(node);
+        assertEquals(node.getIdentifier(), read.getIdentifier());
+        assertEquals("bar", read.getValue().getNode().getFirstChild().getTextContent());
+    }
+
+    @Test
+    public void testYangInstanceIdentifiers() throws IOException {
+        final YangInstanceIdentifier list = YangInstanceIdentifier.create(new NodeIdentifier(ROOT),
+            new NodeIdentifier(LIST));
+        final YangInstanceIdentifier first = list.node(new NodeIdentifierWithPredicates(LIST, KEY1, "one"))
+                .node(LEAF);
+        final YangInstanceIdentifier second = list.node(new NodeIdentifierWithPredicates(LIST, KEY1, "two"))
+                .node(LEAF);
+
+        final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        final NormalizedNodeDataOutput out = NormalizedNodeDataOutput.newDataOutput(new DataOutputStream(bos));
+        out.writeYangInstanceIdentifier(first);
+        final int firstSize = bos.size();
+        out.writeYangInstanceIdentifier(second);
+        final int secondSize = bos.size() - firstSize;
+        out.writeYangInstanceIdentifier(list);
+        out.writeYangInstanceIdentifier(YangInstanceIdentifier.EMPTY);
+        out.writeInt(42);
+        out.close();
+
+        // Shared prefix and known QNames make the second path significantly shorter
+        assertTrue(secondSize < firstSize / 3);
+
+        final NormalizedNodeDataInput in = NormalizedNodeDataInput.newDataInput(new DataInputStream(
+            new ByteArrayInputStream(bos.toByteArray())));
+        assertEquals(NormalizedNodeStreamVersion.FLUORINE, in.getVersion());
+        assertEquals(first, in.readYangInstanceIdentifier());
+        assertEquals(second, in.readYangInstanceIdentifier());
+        assertEquals(list, in.readYangInstanceIdentifier());
+        assertEquals(YangInstanceIdentifier.EMPTY, in.readYangInstanceIdentifier());
+        assertEquals(42, in.readInt());
+    }
+
+    @Test(expected = InvalidNormalizedNodeStreamException.class)
+    public void testYangModeledAnyXml() throws IOException {
+        try (NormalizedNodeDataOutput out = NormalizedNodeDataOutput.newDataOutput(
+                new DataOutputStream(new ByteArrayOutputStream()))) {
+            out.asStreamWriter().startYangModeledAnyXmlNode(new NodeIdentifier(ANYXML), 0);
+        }
+    }
+
+    @Test(expected = InvalidNormalizedNodeStreamException.class)
+    public void testInvalidSignature() throws IOException {
+        NormalizedNodeDataInput.newDataInput(new DataInputStream(new ByteArrayInputStream(new byte[] { 1, 0, 1 })));
+    }
+
+    @Test(expected = InvalidNormalizedNodeStreamException.class)
+    public void testUnsupportedVersion() throws IOException {
+        NormalizedNodeDataInput.newDataInput(new DataInputStream(new ByteArrayInputStream(
+            new byte[] { Tokens.SIGNATURE_MARKER, 0x7f, 0x7f })));
+    }
+
+    private static NormalizedNode<?, ?> roundTrip(final NormalizedNode<?, ?> node) throws IOException {
+        final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try (NormalizedNodeDataOutput out = NormalizedNodeDataOutput.newDataOutput(new DataOutputStream(bos))) {
+            out.writeNormalizedNode(node);
+        }
+
+        final NormalizedNodeDataInput in = NormalizedNodeDataInput.newDataInput(new DataInputStream(
+            new ByteArrayInputStream(bos.toByteArray())));
+        return in.readNormalizedNode();
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2018 Pantheon Technologies, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.codec.binfmt;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import org.junit.Test;
+
+public class VarIntsTest {
+    private static final long[] VALUES = {
+        0, 1, -1, 63, -64, 64, 127, 128, 300, Integer.MAX_VALUE, Integer.MIN_VALUE, Long.MAX_VALUE, Long.MIN_VALUE,
+    };
+
+    @Test
+    public void testUnsigned() throws IOException {
+        for (long value : VALUES) {
+            final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+            VarInts.writeUnsigned(new DataOutputStream(bos), value);
+            assertEquals(value, VarInts.readUnsigned(new DataInputStream(new ByteArrayInputStream(bos.toByteArray()))));
+        }
+    }
+
+    @Test
+    public void testSigned() throws IOException {
+        for (long value : VALUES) {
+            final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+            VarInts.writeSigned(new DataOutputStream(bos), value);
+            assertEquals(value, VarInts.readSigned(new DataInputStream(new ByteArrayInputStream(bos.toByteArray()))));
+        }
+    }
+
+    @Test
+    public void testEncodingLength() throws IOException {
+        assertEquals(1, signedLength(-64));
+        assertEquals(1, signedLength(63));
+        assertEquals(2, signedLength(64));
+        assertEquals(10, signedLength(Long.MIN_VALUE));
+    }
+
+    private static int signedLength(final long value) throws IOException {
+        final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        VarInts.writeSigned(new DataOutputStream(bos), value);
+        return bos.size();
+    }
+}
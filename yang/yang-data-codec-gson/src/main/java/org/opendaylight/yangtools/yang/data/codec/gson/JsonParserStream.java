@@ -10,12 +10,14 @@ package org.opendaylight.yangtools.yang.data.codec.gson;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
 import static java.util.Objects.requireNonNull;
+import static org.opendaylight.yangtools.yang.data.api.schema.stream.NormalizedNodeStreamWriter.UNKNOWN_SIZE;
 
 import com.google.common.annotations.Beta;
 import com.google.gson.JsonIOException;
 import com.google.gson.JsonParseException;
 import com.google.gson.JsonSyntaxException;
 import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 import com.google.gson.stream.MalformedJsonException;
 import java.io.Closeable;
 import java.io.EOFException;
@@ -24,15 +26,23 @@ import java.io.IOException;
 import java.net.URI;
 import java.util.AbstractMap.SimpleImmutableEntry;
 import java.util.ArrayDeque;
+import java.util.Collections;
 import java.util.Deque;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 import javax.xml.transform.dom.DOMSource;
 import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.jdt.annotation.Nullable;
 import org.opendaylight.yangtools.odlext.model.api.YangModeledAnyXmlSchemaNode;
 import org.opendaylight.yangtools.util.xml.UntrustedXML;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifierWithPredicates;
 import org.opendaylight.yangtools.yang.data.api.schema.stream.NormalizedNodeStreamWriter;
 import org.opendaylight.yangtools.yang.data.util.AbstractNodeDataWithSchema;
 import org.opendaylight.yangtools.yang.data.util.AnyXmlNodeDataWithSchema;
@@ -47,8 +57,12 @@ import org.opendaylight.yangtools.yang.data.util.RpcAsContainer;
 import org.opendaylight.yangtools.yang.data.util.SimpleNodeDataWithSchema;
 import org.opendaylight.yangtools.yang.model.api.CaseSchemaNode;
 import org.opendaylight.yangtools.yang.model.api.ChoiceSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.ContainerSchemaNode;
 import org.opendaylight.yangtools.yang.model.api.DataNodeContainer;
 import org.opendaylight.yangtools.yang.model.api.DataSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.LeafListSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.LeafSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.ListSchemaNode;
 import org.opendaylight.yangtools.yang.model.api.Module;
 import org.opendaylight.yangtools.yang.model.api.RpcDefinition;
 import org.opendaylight.yangtools.yang.model.api.SchemaContext;
@@ -150,6 +164,10 @@ public final class JsonParserStream implements Closeable, Flushable {
     }
 
     public JsonParserStream parse(final JsonReader reader) {
+        return parse(reader, false);
+    }
+
+    private JsonParserStream parse(final JsonReader reader, final boolean streaming) {
         // code copied from gson's JsonParser and Stream classes
 
         final boolean lenient = reader.isLenient();
@@ -158,9 +176,14 @@ public final class JsonParserStream implements Closeable, Flushable {
         try {
             reader.peek();
             isEmpty = false;
-            final CompositeNodeDataWithSchema compositeNodeDataWithSchema = new CompositeNodeDataWithSchema(parentNode);
-            read(reader, compositeNodeDataWithSchema);
-            compositeNodeDataWithSchema.write(writer);
+            if (streaming && reader.peek() == JsonToken.BEGIN_OBJECT) {
+                streamObject(reader, parentNode, null);
+            } else {
+                final CompositeNodeDataWithSchema compositeNodeDataWithSchema =
+                        new CompositeNodeDataWithSchema(parentNode);
+                read(reader, compositeNodeDataWithSchema);
+                compositeNodeDataWithSchema.write(writer);
+            }
 
             return this;
         } catch (final EOFException e) {
@@ -180,6 +203,26 @@ public final class JsonParserStream implements Closeable, Flushable {
         }
     }
 
+    /**
+     * Parse the contents of a {@link JsonReader}, emitting events into the backing {@link NormalizedNodeStreamWriter}
+     * as soon as they are read, rather than building an intermediate representation of the entire document. Data is
+     * buffered only where YANG semantics require it: children of choices and augmentations are emitted when their
+     * parent ends, as are the children of a keyed list entry which precede the last of its key leaves. Peak memory
+     * use is therefore proportional to the depth of the document rather than its size, as long as large subtrees are
+     * not nested in choices or augmentations.
+     *
+     * <p>
+     * Since the size of containers and lists is not known upfront, start events are emitted with
+     * {@link NormalizedNodeStreamWriter#UNKNOWN_SIZE} as their size hint.
+     *
+     * @param reader JsonReader to parse
+     * @return This stream
+     * @throws JsonParseException if the input cannot be parsed
+     */
+    public JsonParserStream parseStreaming(final JsonReader reader) {
+        return parse(reader, true);
+    }
+
     private void traverseAnyXmlValue(final JsonReader in, final Document doc, final Element parentElement)
             throws IOException {
         switch (in.peek()) {
@@ -276,28 +319,9 @@ public final class JsonParserStream implements Closeable, Flushable {
                     if (parentSchema instanceof YangModeledAnyXmlSchemaNode) {
                         parentSchema = ((YangModeledAnyXmlSchemaNode) parentSchema).getSchemaOfAnyXmlData();
                     }
-                    final Entry<String, URI> namespaceAndName = resolveNamespace(jsonElementName, parentSchema);
-                    final String localName = namespaceAndName.getKey();
-                    addNamespace(namespaceAndName.getValue());
-                    if (!namesakes.add(jsonElementName)) {
-                        throw new JsonSyntaxException("Duplicate name " + jsonElementName + " in JSON input.");
-                    }
-
-                    final Deque<DataSchemaNode> childDataSchemaNodes =
-                            ParserStreamUtils.findSchemaNodeByNameAndNamespace(parentSchema, localName,
-                                getCurrentNamespace());
-                    checkState(!childDataSchemaNodes.isEmpty(),
-                        "Schema for node with name %s and namespace %s does not exist at %s",
-                        localName, getCurrentNamespace(), parentSchema.getPath());
-
-
-                    final AbstractNodeDataWithSchema newChild = ((CompositeNodeDataWithSchema) parent)
-                            .addChild(childDataSchemaNodes);
-                    if (newChild instanceof AnyXmlNodeDataWithSchema) {
-                        readAnyXmlValue(in, (AnyXmlNodeDataWithSchema) newChild, jsonElementName);
-                    } else {
-                        read(in, newChild);
-                    }
+                    final Deque<DataSchemaNode> childDataSchemaNodes = resolveChildSchemaNodes(jsonElementName,
+                        parentSchema, namesakes);
+                    readChild(in, (CompositeNodeDataWithSchema) parent, childDataSchemaNodes, jsonElementName);
                     removeNamespace();
                 }
                 in.endObject();
@@ -307,6 +331,189 @@ public final class JsonParserStream implements Closeable, Flushable {
         }
     }
 
+    /**
+     * Resolve the schema nodes corresponding to a JSON element, pushing its namespace. Caller is responsible for
+     * invoking {@link #removeNamespace()} once it is done with the element.
+     */
+    private Deque<DataSchemaNode> resolveChildSchemaNodes(final String jsonElementName,
+            final DataSchemaNode parentSchema, final Set<String> namesakes) {
+        final Entry<String, URI> namespaceAndName = resolveNamespace(jsonElementName, parentSchema);
+        final String localName = namespaceAndName.getKey();
+        addNamespace(namespaceAndName.getValue());
+        if (!namesakes.add(jsonElementName)) {
+            throw new JsonSyntaxException("Duplicate name " + jsonElementName + " in JSON input.");
+        }
+
+        final Deque<DataSchemaNode> childDataSchemaNodes =
+                ParserStreamUtils.findSchemaNodeByNameAndNamespace(parentSchema, localName, getCurrentNamespace());
+        checkState(!childDataSchemaNodes.isEmpty(),
+            "Schema for node with name %s and namespace %s does not exist at %s",
+            localName, getCurrentNamespace(), parentSchema.getPath());
+        return childDataSchemaNodes;
+    }
+
+    private void readChild(final JsonReader in, final CompositeNodeDataWithSchema parent,
+            final Deque<DataSchemaNode> childDataSchemaNodes, final String jsonElementName) throws IOException {
+        final AbstractNodeDataWithSchema newChild = parent.addChild(childDataSchemaNodes);
+        if (newChild instanceof AnyXmlNodeDataWithSchema) {
+            readAnyXmlValue(in, (AnyXmlNodeDataWithSchema) newChild, jsonElementName);
+        } else {
+            read(in, newChild);
+        }
+    }
+
+    /**
+     * Stream the members of a JSON object, which corresponds to the specified schema node. Start and end events for
+     * the node itself are the responsibility of the caller, except for keyed list entries, whose start event is emitted
+     * as soon as all key values have been read.
+     *
+     * @param in JsonReader positioned at the start of the object
+     * @param schema Schema node corresponding to the object
+     * @param entry List schema node if the object is a keyed list entry, null otherwise
+     */
+    private void streamObject(final JsonReader in, final DataSchemaNode schema, final @Nullable ListSchemaNode entry)
+            throws IOException {
+        // Children which need to be grouped into choices and augmentations, or which we have seen before all keys
+        final CompositeNodeDataWithSchema deferred = new CompositeNodeDataWithSchema(schema);
+        final Map<QName, LeafNodeDataWithSchema> keys = entry == null ? null : new HashMap<>();
+        final Set<String> namesakes = new HashSet<>();
+        boolean started = entry == null;
+
+        in.beginObject();
+        while (in.hasNext()) {
+            final String jsonElementName = in.nextName();
+            final Deque<DataSchemaNode> childDataSchemaNodes = resolveChildSchemaNodes(jsonElementName, schema,
+                namesakes);
+            final DataSchemaNode childSchema = childDataSchemaNodes.getFirst();
+
+            if (!started && childDataSchemaNodes.size() == 1 && childSchema instanceof LeafSchemaNode
+                    && entry.getKeyDefinition().contains(childSchema.getQName())) {
+                final LeafNodeDataWithSchema key = new LeafNodeDataWithSchema(childSchema);
+                read(in, key);
+                keys.put(childSchema.getQName(), key);
+                if (keys.size() == entry.getKeyDefinition().size()) {
+                    startMapEntry(entry, keys);
+                    started = true;
+                }
+            } else if (!started || childDataSchemaNodes.size() != 1 || childSchema.isAugmenting()) {
+                readChild(in, deferred, childDataSchemaNodes, jsonElementName);
+            } else {
+                streamChild(in, childSchema, schema, jsonElementName);
+            }
+            removeNamespace();
+        }
+        in.endObject();
+
+        if (!started) {
+            throw new IllegalStateException(String.format(
+                "Map entry corresponding to %s is missing some of required keys %s", schema.getQName(),
+                entry.getKeyDefinition()));
+        }
+        deferred.write(writer);
+    }
+
+    private void startMapEntry(final ListSchemaNode schema, final Map<QName, LeafNodeDataWithSchema> keys)
+            throws IOException {
+        // Need to restore schema order...
+        final Map<QName, Object> predicates = new LinkedHashMap<>();
+        for (QName qname : schema.getKeyDefinition()) {
+            predicates.put(qname, keys.get(qname).getValue());
+        }
+
+        writer.nextDataSchemaNode(schema);
+        writer.startMapEntryNode(new NodeIdentifierWithPredicates(schema.getQName(), predicates), UNKNOWN_SIZE);
+        for (QName qname : schema.getKeyDefinition()) {
+            keys.get(qname).write(writer);
+        }
+    }
+
+    private void streamChild(final JsonReader in, final DataSchemaNode schema, final DataSchemaNode parentSchema,
+            final String jsonElementName) throws IOException {
+        final JsonToken token = in.peek();
+        if (schema instanceof ContainerSchemaNode && token == JsonToken.BEGIN_OBJECT) {
+            writer.nextDataSchemaNode(schema);
+            writer.startContainerNode(NodeIdentifier.create(schema.getQName()), UNKNOWN_SIZE);
+            streamObject(in, schema, null);
+            writer.endNode();
+        } else if (schema instanceof ListSchemaNode
+                && (token == JsonToken.BEGIN_ARRAY || token == JsonToken.BEGIN_OBJECT)) {
+            streamList(in, (ListSchemaNode) schema);
+        } else if (schema instanceof LeafListSchemaNode && token == JsonToken.BEGIN_ARRAY) {
+            streamLeafList(in, (LeafListSchemaNode) schema);
+        } else if (schema instanceof LeafSchemaNode) {
+            final LeafNodeDataWithSchema leaf = new LeafNodeDataWithSchema(schema);
+            read(in, leaf);
+            leaf.write(writer);
+        } else {
+            // Anything else, including malformed input, is handled through an intermediate representation
+            final CompositeNodeDataWithSchema tmp = new CompositeNodeDataWithSchema(parentSchema);
+            readChild(in, tmp, new ArrayDeque<>(Collections.singleton(schema)), jsonElementName);
+            tmp.write(writer);
+        }
+    }
+
+    private void streamList(final JsonReader in, final ListSchemaNode schema) throws IOException {
+        final NodeIdentifier identifier = NodeIdentifier.create(schema.getQName());
+        writer.nextDataSchemaNode(schema);
+        if (schema.getKeyDefinition().isEmpty()) {
+            writer.startUnkeyedList(identifier, UNKNOWN_SIZE);
+        } else if (schema.isUserOrdered()) {
+            writer.startOrderedMapNode(identifier, UNKNOWN_SIZE);
+        } else {
+            writer.startMapNode(identifier, UNKNOWN_SIZE);
+        }
+
+        /*
+         * This allows parsing of incorrectly /as showcased/ in testconf nesting of list items - eg. lists with one
+         * value are sometimes serialized without wrapping array.
+         */
+        if (in.peek() == JsonToken.BEGIN_ARRAY) {
+            in.beginArray();
+            while (in.hasNext()) {
+                streamListEntry(in, schema);
+            }
+            in.endArray();
+        } else {
+            streamListEntry(in, schema);
+        }
+        writer.endNode();
+    }
+
+    private void streamListEntry(final JsonReader in, final ListSchemaNode schema) throws IOException {
+        if (in.peek() != JsonToken.BEGIN_OBJECT) {
+            final ListEntryNodeDataWithSchema tmp = new ListEntryNodeDataWithSchema(schema);
+            read(in, tmp);
+            tmp.write(writer);
+        } else if (schema.getKeyDefinition().isEmpty()) {
+            writer.nextDataSchemaNode(schema);
+            writer.startUnkeyedListItem(NodeIdentifier.create(schema.getQName()), UNKNOWN_SIZE);
+            streamObject(in, schema, null);
+            writer.endNode();
+        } else {
+            streamObject(in, schema, schema);
+            writer.endNode();
+        }
+    }
+
+    private void streamLeafList(final JsonReader in, final LeafListSchemaNode schema) throws IOException {
+        final NodeIdentifier identifier = NodeIdentifier.create(schema.getQName());
+        writer.nextDataSchemaNode(schema);
+        if (schema.isUserOrdered()) {
+            writer.startOrderedLeafSet(identifier, UNKNOWN_SIZE);
+        } else {
+            writer.startLeafSet(identifier, UNKNOWN_SIZE);
+        }
+
+        in.beginArray();
+        while (in.hasNext()) {
+            final LeafListEntryNodeDataWithSchema entry = new LeafListEntryNodeDataWithSchema(schema);
+            read(in, entry);
+            entry.write(writer);
+        }
+        in.endArray();
+        writer.endNode();
+    }
+
     private static boolean isArray(final AbstractNodeDataWithSchema parent) {
         return parent instanceof ListNodeDataWithSchema || parent instanceof LeafListNodeDataWithSchema;
     }
@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2018 Pantheon Technologies, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.codec.gson;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.opendaylight.yangtools.yang.data.codec.gson.TestUtils.loadTextFile;
+
+import com.google.gson.stream.JsonReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.net.URISyntaxException;
+import java.util.Arrays;
+import java.util.Collection;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNormalizedNodeStreamWriter;
+import org.opendaylight.yangtools.yang.data.impl.schema.NormalizedNodeResult;
+import org.opendaylight.yangtools.yang.model.api.SchemaContext;
+import org.opendaylight.yangtools.yang.test.util.YangParserTestUtils;
+
+/**
+ * Verifies that {@link JsonParserStream#parseStreaming(JsonReader)} produces the same result as
+ * {@link JsonParserStream#parse(JsonReader)}.
+ */
+@RunWith(Parameterized.class)
+public class StreamingJsonParserTest {
+    @Parameters(name = "{0}")
+    public static Collection<Object[]> data() {
+        return Arrays.asList(new Object[][] {
+            { "/complexjson/case-node-augmentation-in-choice-in-container.json" },
+            { "/complexjson/case-node-external-augmentation-in-choice-in-container.json" },
+            { "/complexjson/choice-node-augmentation-in-container.json" },
+            { "/complexjson/choice-node-in-container.json" },
+            { "/complexjson/keyed-list-key-last.json" },
+            { "/complexjson/keyed-list-node-in-container.json" },
+            { "/complexjson/leaf-node-in-container.json" },
+            { "/complexjson/leaf-node-via-augmentation-in-container.json" },
+            { "/complexjson/leaflist-node-in-container.json" },
+            { "/complexjson/missing-module-in-top-level.json" },
+            { "/complexjson/multiple-choice-augmentation-in-container.json" },
+            { "/complexjson/type-empty.json" },
+            { "/complexjson/unkeyed-node-in-container.json" },
+        });
+    }
+
+    private static SchemaContext schemaContext;
+
+    private final String resource;
+
+    public StreamingJsonParserTest(final String resource) {
+        this.resource = resource;
+    }
+
+    @BeforeClass
+    public static void initialization() {
+        schemaContext = YangParserTestUtils.parseYangResourceDirectory("/complexjson/yang");
+    }
+
+    @AfterClass
+    public static void cleanup() {
+        schemaContext = null;
+    }
+
+    @Test
+    public void testStreamingMatchesBuffered() throws IOException, URISyntaxException {
+        final String inputJson = loadTextFile(resource);
+        final NormalizedNode<?, ?> expected = parse(inputJson, false);
+        assertNotNull(expected);
+        assertEquals(expected, parse(inputJson, true));
+    }
+
+    private static NormalizedNode<?, ?> parse(final String inputJson, final boolean streaming) {
+        final NormalizedNodeResult result = new NormalizedNodeResult();
+        final JsonParserStream jsonParser = JsonParserStream.create(ImmutableNormalizedNodeStreamWriter.from(result),
+            JSONCodecFactorySupplier.DRAFT_LHOTKA_NETMOD_YANG_JSON_02.getShared(schemaContext));
+        final JsonReader reader = new JsonReader(new StringReader(inputJson));
+        if (streaming) {
+            jsonParser.parseStreaming(reader);
+        } else {
+            jsonParser.parse(reader);
+        }
+        return result.getResult();
+    }
+}
@@ -10,6 +10,7 @@ package org.opendaylight.yangtools.yang.data.codec.xml;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
 import static java.util.Objects.requireNonNull;
+import static org.opendaylight.yangtools.yang.data.api.schema.stream.NormalizedNodeStreamWriter.UNKNOWN_SIZE;
 
 import com.google.common.annotations.Beta;
 import com.google.common.collect.ImmutableMap;
@@ -21,7 +22,10 @@ import java.io.StringReader;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayDeque;
+import java.util.Collections;
 import java.util.Deque;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.Map;
@@ -36,9 +40,13 @@ import javax.xml.stream.XMLStreamConstants;
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamReader;
 import javax.xml.transform.dom.DOMSource;
+import org.eclipse.jdt.annotation.Nullable;
 import org.opendaylight.yangtools.odlext.model.api.YangModeledAnyXmlSchemaNode;
 import org.opendaylight.yangtools.util.xml.UntrustedXML;
 import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifierWithPredicates;
+import org.opendaylight.yangtools.yang.data.api.schema.stream.NormalizedNodeStreamAttributeWriter;
 import org.opendaylight.yangtools.yang.data.api.schema.stream.NormalizedNodeStreamWriter;
 import org.opendaylight.yangtools.yang.data.util.AbstractNodeDataWithSchema;
 import org.opendaylight.yangtools.yang.data.util.AnyXmlNodeDataWithSchema;
@@ -164,8 +172,18 @@ public final class XmlParserStream implements Closeable, Flushable {
     // FIXME: 3.0.0 remove ParserConfigurationException
     public XmlParserStream parse(final XMLStreamReader reader) throws XMLStreamException, URISyntaxException,
             IOException, ParserConfigurationException, SAXException {
+        return parse(reader, false);
+    }
+
+    private XmlParserStream parse(final XMLStreamReader reader, final boolean streaming) throws XMLStreamException,
+            URISyntaxException, IOException, SAXException {
         if (reader.hasNext()) {
             reader.nextTag();
+            if (streaming && (parentNode instanceof ContainerSchemaNode || parentNode instanceof ListSchemaNode)) {
+                streamNode(reader, parentNode, parentNode, reader.getLocalName());
+                return this;
+            }
+
             final AbstractNodeDataWithSchema nodeDataWithSchema;
             if (parentNode instanceof ContainerSchemaNode) {
                 nodeDataWithSchema = new ContainerNodeDataWithSchema(parentNode);
@@ -190,6 +208,37 @@ public final class XmlParserStream implements Closeable, Flushable {
         return this;
     }
 
+    /**
+     * This method parses the XML source and emits node events into a NormalizedNodeStreamWriter as soon as they are
+     * read, rather than building an intermediate representation of the entire document. Data is buffered only where
+     * YANG semantics require it: children of choices and augmentations are emitted when their parent element ends, as
+     * are the children of a keyed list entry which precede the last of its key leaves. Peak memory use is therefore
+     * proportional to the depth of the document rather than its size, as long as large subtrees are not nested in
+     * choices or augmentations.
+     *
+     * <p>
+     * Since the size of containers and lists is not known upfront, start events are emitted with
+     * {@link NormalizedNodeStreamWriter#UNKNOWN_SIZE} as their size hint. If the parent node of this stream is neither
+     * a container nor a list, this method behaves exactly like {@link #parse(XMLStreamReader)}.
+     *
+     * @param reader
+     *              StAX reader which is to used to walk through the XML source
+     * @return
+     *              instance of XmlParserStream
+     * @throws XMLStreamException
+     *              if a well-formedness error or an unexpected processing condition occurs while parsing the XML
+     * @throws URISyntaxException
+     *              if the namespace URI of an XML element contains a syntax error
+     * @throws IOException
+     *              if an error occurs while parsing the value of an anyxml node
+     * @throws SAXException
+     *              if an error occurs while parsing the value of an anyxml node
+     */
+    public XmlParserStream parseStreaming(final XMLStreamReader reader) throws XMLStreamException,
+            URISyntaxException, IOException, SAXException {
+        return parse(reader, true);
+    }
+
     /**
      * This method traverses a {@link DOMSource} and emits node events into a NormalizedNodeStreamWriter based on the
      * YANG-modeled data contained in the source.
@@ -384,6 +433,178 @@ public final class XmlParserStream implements Closeable, Flushable {
         }
     }
 
+    /**
+     * Stream a single data node, or all entries of a list or leaf-list. The reader is expected to be positioned at the
+     * first start element corresponding to the node and it is left at the element following it.
+     */
+    private void streamNode(final XMLStreamReader in, final DataSchemaNode schema, final DataSchemaNode parentSchema,
+            final String rootElement) throws XMLStreamException, URISyntaxException, IOException, SAXException {
+        if (schema instanceof ContainerSchemaNode) {
+            final NodeIdentifier identifier = NodeIdentifier.create(schema.getQName());
+            final Map<QName, String> attributes = getElementAttributes(in);
+            writer.nextDataSchemaNode(schema);
+            if (writer instanceof NormalizedNodeStreamAttributeWriter) {
+                ((NormalizedNodeStreamAttributeWriter) writer).startContainerNode(identifier, UNKNOWN_SIZE,
+                    attributes);
+            } else {
+                writer.startContainerNode(identifier, UNKNOWN_SIZE);
+            }
+            streamChildren(in, schema, null, attributes, rootElement);
+            writer.endNode();
+        } else if (schema instanceof ListSchemaNode) {
+            streamList(in, (ListSchemaNode) schema, rootElement);
+        } else if (schema instanceof LeafListSchemaNode) {
+            streamLeafList(in, (LeafListSchemaNode) schema, rootElement);
+        } else if (schema instanceof LeafSchemaNode) {
+            final LeafNodeDataWithSchema leaf = new LeafNodeDataWithSchema(schema);
+            read(in, leaf, rootElement);
+            leaf.write(writer);
+        } else {
+            // Anything else, notably anyxml, is handled through an intermediate representation
+            final CompositeNodeDataWithSchema tmp = new CompositeNodeDataWithSchema(parentSchema);
+            read(in, tmp.addChild(new ArrayDeque<>(Collections.singleton(schema))), rootElement);
+            tmp.write(writer);
+        }
+    }
+
+    /**
+     * Stream the child elements of an element corresponding to the specified schema node. Start and end events for
+     * the node itself are the responsibility of the caller, except for keyed list entries, whose start event is emitted
+     * as soon as all key values have been read.
+     *
+     * @param in StAX reader positioned at the start element
+     * @param schema Schema node corresponding to the element
+     * @param entry List schema node if the element is a keyed list entry, null otherwise
+     * @param attributes Attributes of the element, used when starting a keyed list entry
+     * @param rootElement Local name of the document's root element
+     */
+    private void streamChildren(final XMLStreamReader in, final DataSchemaNode schema,
+            final @Nullable ListSchemaNode entry, final Map<QName, String> attributes, final String rootElement)
+            throws XMLStreamException, URISyntaxException, IOException, SAXException {
+        // Children which need to be grouped into choices and augmentations, or which we have seen before all keys
+        final CompositeNodeDataWithSchema deferred = new CompositeNodeDataWithSchema(schema);
+        final Map<QName, LeafNodeDataWithSchema> keys = entry == null ? null : new HashMap<>();
+        final Set<Entry<String, String>> namesakes = new HashSet<>();
+        boolean started = entry == null;
+
+        in.nextTag();
+        while (in.isStartElement()) {
+            final String xmlElementName = in.getLocalName();
+            final String xmlElementNamespace = in.getNamespaceURI();
+            if (!namesakes.add(new SimpleImmutableEntry<>(xmlElementNamespace, xmlElementName))) {
+                final Location loc = in.getLocation();
+                throw new IllegalStateException(String.format(
+                        "Duplicate namespace \"%s\" element \"%s\" in XML input at: line %s column %s",
+                        xmlElementNamespace, xmlElementName, loc.getLineNumber(), loc.getColumnNumber()));
+            }
+
+            final Deque<DataSchemaNode> childDataSchemaNodes = ParserStreamUtils.findSchemaNodeByNameAndNamespace(
+                schema, xmlElementName, new URI(xmlElementNamespace));
+            if (childDataSchemaNodes.isEmpty()) {
+                checkState(!strictParsing, "Schema for node with name %s and namespace %s does not exist at %s",
+                    xmlElementName, xmlElementNamespace, schema.getPath());
+                skipUnknownNode(in);
+                continue;
+            }
+
+            final DataSchemaNode childSchema = childDataSchemaNodes.getFirst();
+            if (!started && childDataSchemaNodes.size() == 1 && childSchema instanceof LeafSchemaNode
+                    && entry.getKeyDefinition().contains(childSchema.getQName())) {
+                final LeafNodeDataWithSchema key = new LeafNodeDataWithSchema(childSchema);
+                read(in, key, rootElement);
+                keys.put(childSchema.getQName(), key);
+                if (keys.size() == entry.getKeyDefinition().size()) {
+                    startMapEntry(entry, keys, attributes);
+                    started = true;
+                }
+            } else if (!started || childDataSchemaNodes.size() != 1 || childSchema.isAugmenting()) {
+                read(in, deferred.addChild(childDataSchemaNodes), rootElement);
+            } else {
+                streamNode(in, childSchema, schema, rootElement);
+            }
+        }
+
+        if (!started) {
+            throw new IllegalStateException(String.format(
+                "Map entry corresponding to %s is missing some of required keys %s", schema.getQName(),
+                entry.getKeyDefinition()));
+        }
+        deferred.write(writer);
+
+        // Move past our end element
+        if (in.isEndElement() && !isNextEndDocument(in) && !isAtElement(in)) {
+            in.nextTag();
+        }
+    }
+
+    private void startMapEntry(final ListSchemaNode schema, final Map<QName, LeafNodeDataWithSchema> keys,
+            final Map<QName, String> attributes) throws IOException {
+        // Need to restore schema order...
+        final Map<QName, Object> predicates = new LinkedHashMap<>();
+        for (QName qname : schema.getKeyDefinition()) {
+            predicates.put(qname, keys.get(qname).getValue());
+        }
+
+        final NodeIdentifierWithPredicates identifier = new NodeIdentifierWithPredicates(schema.getQName(),
+            predicates);
+        writer.nextDataSchemaNode(schema);
+        if (writer instanceof NormalizedNodeStreamAttributeWriter) {
+            ((NormalizedNodeStreamAttributeWriter) writer).startMapEntryNode(identifier, UNKNOWN_SIZE, attributes);
+        } else {
+            writer.startMapEntryNode(identifier, UNKNOWN_SIZE);
+        }
+        for (QName qname : schema.getKeyDefinition()) {
+            keys.get(qname).write(writer);
+        }
+    }
+
+    private void streamList(final XMLStreamReader in, final ListSchemaNode schema, final String rootElement)
+            throws XMLStreamException, URISyntaxException, IOException, SAXException {
+        final NodeIdentifier identifier = NodeIdentifier.create(schema.getQName());
+        final boolean keyless = schema.getKeyDefinition().isEmpty();
+        writer.nextDataSchemaNode(schema);
+        if (keyless) {
+            writer.startUnkeyedList(identifier, UNKNOWN_SIZE);
+        } else if (schema.isUserOrdered()) {
+            writer.startOrderedMapNode(identifier, UNKNOWN_SIZE);
+        } else {
+            writer.startMapNode(identifier, UNKNOWN_SIZE);
+        }
+
+        final String xmlElementName = in.getLocalName();
+        do {
+            final Map<QName, String> attributes = getElementAttributes(in);
+            if (keyless) {
+                writer.nextDataSchemaNode(schema);
+                writer.startUnkeyedListItem(identifier, UNKNOWN_SIZE);
+                streamChildren(in, schema, null, attributes, rootElement);
+            } else {
+                streamChildren(in, schema, schema, attributes, rootElement);
+            }
+            writer.endNode();
+        } while (in.isStartElement() && xmlElementName.equals(in.getLocalName()));
+        writer.endNode();
+    }
+
+    private void streamLeafList(final XMLStreamReader in, final LeafListSchemaNode schema, final String rootElement)
+            throws XMLStreamException, URISyntaxException, IOException, SAXException {
+        final NodeIdentifier identifier = NodeIdentifier.create(schema.getQName());
+        writer.nextDataSchemaNode(schema);
+        if (schema.isUserOrdered()) {
+            writer.startOrderedLeafSet(identifier, UNKNOWN_SIZE);
+        } else {
+            writer.startLeafSet(identifier, UNKNOWN_SIZE);
+        }
+
+        final String xmlElementName = in.getLocalName();
+        do {
+            final LeafListEntryNodeDataWithSchema entry = new LeafListEntryNodeDataWithSchema(schema);
+            read(in, entry, rootElement);
+            entry.write(writer);
+        } while (in.isStartElement() && xmlElementName.equals(in.getLocalName()));
+        writer.endNode();
+    }
+
     private static boolean isNextEndDocument(final XMLStreamReader in) throws XMLStreamException {
         return in.next() == XMLStreamConstants.END_DOCUMENT;
     }
@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2018 Pantheon Technologies, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.codec.xml;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.util.Arrays;
+import java.util.Collection;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+import org.opendaylight.yangtools.util.xml.UntrustedXML;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNormalizedNodeStreamWriter;
+import org.opendaylight.yangtools.yang.data.impl.schema.NormalizedNodeResult;
+import org.opendaylight.yangtools.yang.model.api.DataSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.SchemaContext;
+import org.opendaylight.yangtools.yang.test.util.YangParserTestUtils;
+import org.xml.sax.SAXException;
+
+/**
+ * Verifies that {@link XmlParserStream#parseStreaming(XMLStreamReader)} produces the same result as
+ * {@link XmlParserStream#parse(XMLStreamReader)}.
+ */
+@RunWith(Parameterized.class)
+public class StreamingXmlParserTest {
+    @Parameters(name = "{0}")
+    public static Collection<Object[]> data() {
+        return Arrays.asList(new Object[][] {
+            { "/baz.xml", "/baz.yang", "outer-container" },
+            { "/baz-keys-last.xml", "/baz.yang", "outer-container" },
+            { "/bug890/xml/foo.xml", "/bug890/yang/foo.yang", "root" },
+        });
+    }
+
+    private final String resource;
+    private final SchemaContext schemaContext;
+    private final String root;
+
+    public StreamingXmlParserTest(final String resource, final String yangResource, final String root) {
+        this.resource = resource;
+        this.schemaContext = YangParserTestUtils.parseYangResource(yangResource);
+        this.root = root;
+    }
+
+    @Test
+    public void testStreamingMatchesBuffered() throws IOException, SAXException, URISyntaxException,
+            XMLStreamException, ParserConfigurationException {
+        final NormalizedNode<?, ?> expected = parse(false);
+        assertNotNull(expected);
+        assertEquals(expected, parse(true));
+    }
+
+    private NormalizedNode<?, ?> parse(final boolean streaming) throws IOException, SAXException,
+            URISyntaxException, XMLStreamException, ParserConfigurationException {
+        final DataSchemaNode schema = schemaContext.getChildNodes().stream()
+                .filter(child -> root.equals(child.getQName().getLocalName())).findFirst().get();
+        final NormalizedNodeResult result = new NormalizedNodeResult();
+        final XmlParserStream xmlParser = XmlParserStream.create(ImmutableNormalizedNodeStreamWriter.from(result),
+            schemaContext, schema);
+        final XMLStreamReader reader = UntrustedXML.createXMLStreamReader(
+            StreamingXmlParserTest.class.getResourceAsStream(resource));
+        if (streaming) {
+            xmlParser.parseStreaming(reader);
+        } else {
+            xmlParser.parse(reader);
+        }
+        return result.getResult();
+    }
+}
@@ -0,0 +1,376 @@
+/*
+ * Copyright (c) 2018 Pantheon Technologies, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.impl.leafref;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Verify.verify;
+import static java.util.Objects.requireNonNull;
+
+import com.google.common.annotations.Beta;
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableList;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Optional;
+import org.eclipse.jdt.annotation.NonNull;
+import org.opendaylight.yangtools.concepts.Immutable;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.AugmentationIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
+import org.opendaylight.yangtools.yang.data.api.schema.ChoiceNode;
+import org.opendaylight.yangtools.yang.data.api.schema.LeafSetEntryNode;
+import org.opendaylight.yangtools.yang.data.api.schema.MapEntryNode;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.UnkeyedListEntryNode;
+import org.opendaylight.yangtools.yang.data.api.schema.ValueNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidate;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidateNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidateNodes;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.ModificationType;
+import tech.pantheon.triemap.ImmutableTrieMap;
+import tech.pantheon.triemap.MutableTrieMap;
+import tech.pantheon.triemap.TrieMap;
+
+/**
+ * An index of leafref target values, which allows {@link DataTreeCandidate}s to be validated incrementally. Unlike
+ * {@link LeafRefValidation}, which computes the set of allowed values by walking the data tree for each modified
+ * leafref, this index tracks the number of occurrences of each value of each leafref target, as well as of each
+ * value referencing it. Validating a candidate is then proportional to the number of modified leafrefs and targets.
+ *
+ * <p>
+ * Instances are immutable, each corresponding to a particular state of the data tree. A state derived from a
+ * candidate shares unmodified parts with its predecessor.
+ *
+ * <p>
+ * Leafrefs whose path contains predicates cannot be resolved through the index. Candidates modifying such a leafref
+ * or its target are additionally validated through {@link LeafRefValidation}.
+ */
+@Beta
+public final class LeafRefIndex implements Immutable {
+    /**
+     * A node in the tree of data paths to leafrefs and their targets, ignoring list entries, choices and
+     * augmentations.
+     */
+    private static final class PathNode {
+        final Map<QName, PathNode> children = new HashMap<>();
+        Reference reference;
+        int target = -1;
+
+        PathNode getChild(final PathArgument arg, final NormalizedNode<?, ?> data) {
+            if (arg instanceof AugmentationIdentifier || data instanceof ChoiceNode || data instanceof MapEntryNode
+                    || data instanceof UnkeyedListEntryNode || data instanceof LeafSetEntryNode) {
+                // These do not contribute to data paths, stay where we are
+                return this;
+            }
+            return children.get(arg.getNodeType());
+        }
+
+        PathNode ensureChild(final QName qname) {
+            return children.computeIfAbsent(qname, key -> new PathNode());
+        }
+    }
+
+    /**
+     * A referencing leaf or leaf-list.
+     */
+    private static final class Reference {
+        final LeafRefContext context;
+        final boolean predicated;
+        final int target;
+
+        Reference(final LeafRefContext context, final boolean predicated, final int target) {
+            this.context = requireNonNull(context);
+            this.predicated = predicated;
+            this.target = target;
+        }
+    }
+
+    /**
+     * Definition of indexed paths, derived from a {@link LeafRefContext}.
+     */
+    private static final class Definition implements Immutable {
+        final LeafRefContext rootContext;
+        final PathNode root;
+        final List<LeafRefPath> targetPaths;
+        final BitSet predicatedTargets;
+
+        Definition(final LeafRefContext rootContext, final PathNode root, final List<LeafRefPath> targetPaths,
+                final BitSet predicatedTargets) {
+            this.rootContext = requireNonNull(rootContext);
+            this.root = requireNonNull(root);
+            this.targetPaths = ImmutableList.copyOf(targetPaths);
+            this.predicatedTargets = requireNonNull(predicatedTargets);
+        }
+    }
+
+    /**
+     * Changes in value counts effected by a candidate.
+     */
+    private static final class Delta {
+        final Map<Integer, Map<Object, Integer>> targets = new HashMap<>();
+        final Map<Integer, Map<Object, Integer>> references = new HashMap<>();
+        final List<Entry<Reference, Object>> addedReferences = new ArrayList<>();
+        boolean needsFullValidation;
+
+        void valueChanged(final Definition definition, final PathNode node, final Optional<Object> before,
+                final Optional<Object> after) {
+            if (before.equals(after)) {
+                return;
+            }
+
+            if (node.target != -1) {
+                adjust(targets, node.target, before, after);
+                if (definition.predicatedTargets.get(node.target)) {
+                    needsFullValidation = true;
+                }
+            }
+
+            final Reference reference = node.reference;
+            if (reference != null) {
+                if (reference.predicated) {
+                    needsFullValidation = true;
+                } else {
+                    adjust(references, reference.target, before, after);
+                    after.ifPresent(value -> addedReferences.add(new SimpleImmutableEntry<>(reference, value)));
+                }
+            }
+        }
+
+        private static void adjust(final Map<Integer, Map<Object, Integer>> counts, final int target,
+                final Optional<Object> before, final Optional<Object> after) {
+            final Map<Object, Integer> values = counts.computeIfAbsent(target, key -> new HashMap<>());
+            before.ifPresent(value -> values.merge(value, -1, Integer::sum));
+            after.ifPresent(value -> values.merge(value, 1, Integer::sum));
+        }
+    }
+
+    private final @NonNull Definition definition;
+    private final @NonNull ImmutableList<ImmutableTrieMap<Object, Integer>> targetValues;
+    private final @NonNull ImmutableList<ImmutableTrieMap<Object, Integer>> referenceValues;
+
+    private LeafRefIndex(final Definition definition, final ImmutableList<ImmutableTrieMap<Object, Integer>> targets,
+            final ImmutableList<ImmutableTrieMap<Object, Integer>> references) {
+        this.definition = requireNonNull(definition);
+        this.targetValues = requireNonNull(targets);
+        this.referenceValues = requireNonNull(references);
+    }
+
+    /**
+     * Create an empty index of leafrefs described by a {@link LeafRefContext}.
+     *
+     * @param rootContext Root leafref context, as created by {@link LeafRefContext#create(org.opendaylight.yangtools
+     *                    .yang.model.api.SchemaContext)}
+     * @return An empty index
+     */
+    public static @NonNull LeafRefIndex create(final @NonNull LeafRefContext rootContext) {
+        final PathNode root = new PathNode();
+        final Map<List<QName>, Integer> targets = new HashMap<>();
+        final List<LeafRefPath> targetPaths = new ArrayList<>();
+        final BitSet predicatedTargets = new BitSet();
+        addReferences(root, targets, targetPaths, predicatedTargets, rootContext);
+
+        final ImmutableTrieMap<Object, Integer> empty = TrieMap.<Object, Integer>create().immutableSnapshot();
+        final ImmutableList<ImmutableTrieMap<Object, Integer>> values = ImmutableList.copyOf(
+            Collections.nCopies(targetPaths.size(), empty));
+        return new LeafRefIndex(new Definition(rootContext, root, targetPaths, predicatedTargets), values, values);
+    }
+
+    /**
+     * Check whether this index tracks any leafrefs.
+     *
+     * @return True if there are no leafrefs to validate.
+     */
+    public boolean isEmpty() {
+        return definition.targetPaths.isEmpty();
+    }
+
+    /**
+     * Return an index of specified data, without validating it.
+     *
+     * @param root Root node of the data tree
+     * @return An index of the data
+     */
+    public @NonNull LeafRefIndex withData(final @NonNull NormalizedNode<?, ?> root) {
+        final Delta delta = new Delta();
+        collectChildren(delta, definition.root, DataTreeCandidateNodes.fromNormalizedNode(root));
+        return apply(delta);
+    }
+
+    /**
+     * Validate a candidate against this index and return an index of its resulting data. This index needs to
+     * correspond to the data the candidate was prepared against. Only leafrefs modified by the candidate are
+     * validated, as are leafrefs referencing target values removed by the candidate.
+     *
+     * @param candidate Data tree candidate, rooted at the root of the data tree
+     * @return An index of the data resulting from the candidate
+     * @throws LeafRefDataValidationFailedException if the candidate violates a leafref
+     */
+    public @NonNull LeafRefIndex update(final @NonNull DataTreeCandidate candidate)
+            throws LeafRefDataValidationFailedException {
+        checkArgument(candidate.getRootPath().isEmpty(), "Candidate %s is not rooted at the data tree root",
+            candidate);
+        if (isEmpty()) {
+            return this;
+        }
+
+        final Delta delta = new Delta();
+        collectChildren(delta, definition.root, candidate.getRootNode());
+        final LeafRefIndex ret = apply(delta);
+        ret.checkDelta(delta);
+        if (delta.needsFullValidation) {
+            LeafRefValidation.validate(candidate, definition.rootContext);
+        }
+        return ret;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this).add("targets", definition.targetPaths).toString();
+    }
+
+    private static void addReferences(final PathNode root, final Map<List<QName>, Integer> targets,
+            final List<LeafRefPath> targetPaths, final BitSet predicatedTargets, final LeafRefContext context) {
+        if (context.isReferencing()) {
+            final LeafRefPath targetPath = context.getAbsoluteLeafRefTargetPath();
+            final List<QName> target = new ArrayList<>();
+            boolean predicated = false;
+            for (QNameWithPredicate step : targetPath.getPathFromRoot()) {
+                target.add(step.getQName());
+                predicated |= !step.getQNamePredicates().isEmpty();
+            }
+
+            final Integer existing = targets.get(target);
+            final int index;
+            if (existing == null) {
+                index = targetPaths.size();
+                targets.put(target, index);
+                targetPaths.add(targetPath);
+
+                PathNode node = root;
+                for (QName qname : target) {
+                    node = node.ensureChild(qname);
+                }
+                node.target = index;
+            } else {
+                index = existing;
+            }
+            if (predicated) {
+                predicatedTargets.set(index);
+            }
+
+            PathNode node = root;
+            for (QNameWithPredicate step : context.getLeafRefNodePath().getPathFromRoot()) {
+                node = node.ensureChild(step.getQName());
+            }
+            node.reference = new Reference(context, predicated, index);
+        }
+
+        for (LeafRefContext child : context.getReferencingChilds().values()) {
+            addReferences(root, targets, targetPaths, predicatedTargets, child);
+        }
+    }
+
+    private void collectChildren(final Delta delta, final PathNode node, final DataTreeCandidateNode candidate) {
+        for (DataTreeCandidateNode child : candidate.getChildNodes()) {
+            if (child.getModificationType() == ModificationType.UNMODIFIED) {
+                continue;
+            }
+
+            final Optional<NormalizedNode<?, ?>> before = child.getDataBefore();
+            final Optional<NormalizedNode<?, ?>> after = child.getDataAfter();
+            final NormalizedNode<?, ?> data = after.isPresent() ? after.get() : before.orElse(null);
+            if (data == null) {
+                continue;
+            }
+
+            final PathNode childNode = node.getChild(child.getIdentifier(), data);
+            if (childNode == null) {
+                continue;
+            }
+
+            if (data instanceof ValueNode) {
+                delta.valueChanged(definition, childNode, before.map(NormalizedNode::getValue),
+                    after.map(NormalizedNode::getValue));
+            } else {
+                collectChildren(delta, childNode, child);
+            }
+        }
+    }
+
+    private LeafRefIndex apply(final Delta delta) {
+        if (delta.targets.isEmpty() && delta.references.isEmpty()) {
+            return this;
+        }
+        return new LeafRefIndex(definition, applyCounts(targetValues, delta.targets),
+            applyCounts(referenceValues, delta.references));
+    }
+
+    private void checkDelta(final Delta delta) throws LeafRefDataValidationFailedException {
+        final List<String> errors = new ArrayList<>();
+        for (Entry<Reference, Object> added : delta.addedReferences) {
+            final Reference reference = added.getKey();
+            final Object value = added.getValue();
+            if (!targetValues.get(reference.target).containsKey(value)) {
+                errors.add(String.format("Invalid leafref value [%s] of LEAFREF node: %s leafRef target path: %s",
+                    value, reference.context.getNodeName(), reference.context.getAbsoluteLeafRefTargetPath()));
+            }
+        }
+
+        for (Entry<Integer, Map<Object, Integer>> entry : delta.targets.entrySet()) {
+            final int target = entry.getKey();
+            for (Entry<Object, Integer> change : entry.getValue().entrySet()) {
+                final Object value = change.getKey();
+                if (change.getValue() < 0 && !targetValues.get(target).containsKey(value)
+                        && referenceValues.get(target).containsKey(value)) {
+                    errors.add(String.format("Invalid leafref value [%s] by validation of leafref TARGET node: %s "
+                        + "still referenced by LEAFREF nodes", value, definition.targetPaths.get(target)));
+                }
+            }
+        }
+
+        if (!errors.isEmpty()) {
+            throw new LeafRefDataValidationFailedException(String.join(" ", errors), errors.size());
+        }
+    }
+
+    private static ImmutableList<ImmutableTrieMap<Object, Integer>> applyCounts(
+            final ImmutableList<ImmutableTrieMap<Object, Integer>> current,
+            final Map<Integer, Map<Object, Integer>> changes) {
+        if (changes.isEmpty()) {
+            return current;
+        }
+
+        final List<ImmutableTrieMap<Object, Integer>> ret = new ArrayList<>(current);
+        for (Entry<Integer, Map<Object, Integer>> entry : changes.entrySet()) {
+            final int index = entry.getKey();
+            final MutableTrieMap<Object, Integer> counts = current.get(index).mutableSnapshot();
+            for (Entry<Object, Integer> change : entry.getValue().entrySet()) {
+                final int diff = change.getValue();
+                if (diff != 0) {
+                    final Object value = change.getKey();
+                    final Integer prev = counts.get(value);
+                    final int count = (prev == null ? 0 : prev) + diff;
+                    verify(count >= 0, "Negative count %s of value %s", count, value);
+                    if (count == 0) {
+                        counts.remove(value);
+                    } else {
+                        counts.put(value, count);
+                    }
+                }
+            }
+            ret.set(index, counts.immutableSnapshot());
+        }
+        return ImmutableList.copyOf(ret);
+    }
+}
@@ -16,6 +16,7 @@ import org.opendaylight.yangtools.yang.data.api.schema.DataContainerChild;
 import org.opendaylight.yangtools.yang.data.api.schema.DataContainerNode;
 import org.opendaylight.yangtools.yang.data.impl.schema.builder.api.DataContainerNodeAttrBuilder;
 import org.opendaylight.yangtools.yang.data.impl.schema.nodes.AbstractImmutableDataContainerAttrNode;
+import org.opendaylight.yangtools.yang.data.impl.schema.nodes.DataContainerLayout;
 
 abstract class AbstractImmutableDataContainerNodeAttrBuilder<I extends PathArgument, R extends DataContainerNode<I>>
         extends AbstractImmutableDataContainerNodeBuilder<I, R> implements DataContainerNodeAttrBuilder<I, R> {
@@ -30,11 +31,22 @@ abstract class AbstractImmutableDataContainerNodeAttrBuilder<I extends PathArgum
         this.attributes = Collections.emptyMap();
     }
 
+    AbstractImmutableDataContainerNodeAttrBuilder(final DataContainerLayout layout) {
+        super(layout);
+        this.attributes = Collections.emptyMap();
+    }
+
     AbstractImmutableDataContainerNodeAttrBuilder(final AbstractImmutableDataContainerAttrNode<I> node) {
         super(node);
         this.attributes = node.getAttributes();
     }
 
+    AbstractImmutableDataContainerNodeAttrBuilder(final AbstractImmutableDataContainerAttrNode<I> node,
+            final DataContainerLayout layout) {
+        super(node, layout);
+        this.attributes = node.getAttributes();
+    }
+
     protected final Map<QName, String> getAttributes() {
         return attributes;
     }
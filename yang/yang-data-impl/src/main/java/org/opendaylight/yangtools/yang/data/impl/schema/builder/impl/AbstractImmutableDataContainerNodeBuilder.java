@@ -20,6 +20,7 @@ import org.opendaylight.yangtools.yang.data.impl.schema.builder.api.DataContaine
 import org.opendaylight.yangtools.yang.data.impl.schema.builder.api.NormalizedNodeContainerBuilder;
 import org.opendaylight.yangtools.yang.data.impl.schema.nodes.AbstractImmutableDataContainerNode;
 import org.opendaylight.yangtools.yang.data.impl.schema.nodes.CloneableMap;
+import org.opendaylight.yangtools.yang.data.impl.schema.nodes.DataContainerLayout;
 
 abstract class AbstractImmutableDataContainerNodeBuilder<I extends PathArgument, R extends DataContainerNode<I>>
         implements DataContainerNodeBuilder<I, R> {
@@ -49,6 +50,11 @@ abstract class AbstractImmutableDataContainerNodeBuilder<I extends PathArgument,
         this.dirty = false;
     }
 
+    protected AbstractImmutableDataContainerNodeBuilder(final DataContainerLayout layout) {
+        this.value = layout.createChildren();
+        this.dirty = false;
+    }
+
     protected AbstractImmutableDataContainerNodeBuilder(final AbstractImmutableDataContainerNode<I> node) {
         this.nodeIdentifier = node.getIdentifier();
 
@@ -63,6 +69,13 @@ abstract class AbstractImmutableDataContainerNodeBuilder<I extends PathArgument,
         this.dirty = true;
     }
 
+    protected AbstractImmutableDataContainerNodeBuilder(final AbstractImmutableDataContainerNode<I> node,
+            final DataContainerLayout layout) {
+        this.nodeIdentifier = node.getIdentifier();
+        this.value = layout.createChildren(node.getChildren());
+        this.dirty = false;
+    }
+
     protected final I getNodeIdentifier() {
         return nodeIdentifier;
     }
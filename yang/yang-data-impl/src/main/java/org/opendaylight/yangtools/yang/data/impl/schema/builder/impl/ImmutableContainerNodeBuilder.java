@@ -15,6 +15,7 @@ import org.opendaylight.yangtools.yang.data.api.schema.ContainerNode;
 import org.opendaylight.yangtools.yang.data.api.schema.DataContainerChild;
 import org.opendaylight.yangtools.yang.data.impl.schema.builder.api.DataContainerNodeAttrBuilder;
 import org.opendaylight.yangtools.yang.data.impl.schema.nodes.AbstractImmutableDataContainerAttrNode;
+import org.opendaylight.yangtools.yang.data.impl.schema.nodes.DataContainerLayout;
 
 public class ImmutableContainerNodeBuilder
         extends AbstractImmutableDataContainerNodeAttrBuilder<NodeIdentifier, ContainerNode> {
@@ -27,10 +28,18 @@ public class ImmutableContainerNodeBuilder
         super(sizeHint);
     }
 
+    protected ImmutableContainerNodeBuilder(final DataContainerLayout layout) {
+        super(layout);
+    }
+
     protected ImmutableContainerNodeBuilder(final ImmutableContainerNode node) {
         super(node);
     }
 
+    protected ImmutableContainerNodeBuilder(final ImmutableContainerNode node, final DataContainerLayout layout) {
+        super(node, layout);
+    }
+
     public static DataContainerNodeAttrBuilder<NodeIdentifier, ContainerNode> create() {
         return new ImmutableContainerNodeBuilder();
     }
@@ -46,6 +55,32 @@ public class ImmutableContainerNodeBuilder
         return new ImmutableContainerNodeBuilder((ImmutableContainerNode) node);
     }
 
+    /**
+     * Create a builder which stores children according to a layout compiled from schema.
+     *
+     * @param layout Children layout
+     * @return A new builder
+     */
+    public static DataContainerNodeAttrBuilder<NodeIdentifier, ContainerNode> create(
+            final DataContainerLayout layout) {
+        return new ImmutableContainerNodeBuilder(layout);
+    }
+
+    /**
+     * Create a builder initialized from a node, which stores children according to a layout compiled from schema.
+     *
+     * @param layout Children layout
+     * @param node Initial node
+     * @return A new builder
+     */
+    public static DataContainerNodeAttrBuilder<NodeIdentifier, ContainerNode> create(
+            final DataContainerLayout layout, final ContainerNode node) {
+        if (!(node instanceof ImmutableContainerNode)) {
+            throw new UnsupportedOperationException(String.format("Cannot initialize from class %s", node.getClass()));
+        }
+        return new ImmutableContainerNodeBuilder((ImmutableContainerNode) node, layout);
+    }
+
     @Override
     public ContainerNode build() {
         return new ImmutableContainerNode(getNodeIdentifier(), buildValue(), getAttributes());
@@ -12,6 +12,7 @@ import org.opendaylight.yangtools.yang.data.api.schema.ContainerNode;
 import org.opendaylight.yangtools.yang.data.api.schema.DataContainerChild;
 import org.opendaylight.yangtools.yang.data.impl.schema.builder.api.DataContainerNodeAttrBuilder;
 import org.opendaylight.yangtools.yang.data.impl.schema.builder.impl.valid.DataNodeContainerValidator;
+import org.opendaylight.yangtools.yang.data.impl.schema.nodes.DataContainerLayout;
 import org.opendaylight.yangtools.yang.model.api.ContainerSchemaNode;
 
 public final class ImmutableContainerNodeSchemaAwareBuilder extends ImmutableContainerNodeBuilder {
@@ -19,13 +20,14 @@ public final class ImmutableContainerNodeSchemaAwareBuilder extends ImmutableCon
     private final DataNodeContainerValidator validator;
 
     private ImmutableContainerNodeSchemaAwareBuilder(final ContainerSchemaNode schema) {
+        super(DataContainerLayout.of(schema));
         this.validator = new DataNodeContainerValidator(schema);
         super.withNodeIdentifier(NodeIdentifier.create(schema.getQName()));
     }
 
     private ImmutableContainerNodeSchemaAwareBuilder(final ContainerSchemaNode schema,
             final ImmutableContainerNode node) {
-        super(node);
+        super(node, DataContainerLayout.of(schema));
         this.validator = new DataNodeContainerValidator(schema);
         super.withNodeIdentifier(NodeIdentifier.create(schema.getQName()));
     }
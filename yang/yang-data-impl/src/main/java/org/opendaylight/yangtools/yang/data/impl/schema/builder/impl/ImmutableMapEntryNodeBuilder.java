@@ -22,6 +22,7 @@ import org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes;
 import org.opendaylight.yangtools.yang.data.impl.schema.builder.api.DataContainerNodeAttrBuilder;
 import org.opendaylight.yangtools.yang.data.impl.schema.builder.impl.valid.DataValidationException;
 import org.opendaylight.yangtools.yang.data.impl.schema.nodes.AbstractImmutableDataContainerAttrNode;
+import org.opendaylight.yangtools.yang.data.impl.schema.nodes.DataContainerLayout;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -39,12 +40,23 @@ public class ImmutableMapEntryNodeBuilder
         this.childrenQNamesToPaths = new LinkedHashMap<>(sizeHint);
     }
 
+    protected ImmutableMapEntryNodeBuilder(final DataContainerLayout layout) {
+        super(layout);
+        this.childrenQNamesToPaths = new LinkedHashMap<>();
+    }
+
     protected ImmutableMapEntryNodeBuilder(final ImmutableMapEntryNode node) {
         super(node);
         this.childrenQNamesToPaths = new LinkedHashMap<>();
         fillQnames(node.getValue(), childrenQNamesToPaths);
     }
 
+    protected ImmutableMapEntryNodeBuilder(final ImmutableMapEntryNode node, final DataContainerLayout layout) {
+        super(node, layout);
+        this.childrenQNamesToPaths = new LinkedHashMap<>();
+        fillQnames(node.getValue(), childrenQNamesToPaths);
+    }
+
     public static DataContainerNodeAttrBuilder<NodeIdentifierWithPredicates, MapEntryNode> create() {
         return new ImmutableMapEntryNodeBuilder();
     }
@@ -62,6 +74,33 @@ public class ImmutableMapEntryNodeBuilder
         return new ImmutableMapEntryNodeBuilder((ImmutableMapEntryNode)node);
     }
 
+    /**
+     * Create a builder which stores children according to a layout compiled from schema.
+     *
+     * @param layout Children layout
+     * @return A new builder
+     */
+    public static DataContainerNodeAttrBuilder<NodeIdentifierWithPredicates, MapEntryNode> create(
+            final DataContainerLayout layout) {
+        return new ImmutableMapEntryNodeBuilder(layout);
+    }
+
+    /**
+     * Create a builder initialized from a node, which stores children according to a layout compiled from schema.
+     *
+     * @param layout Children layout
+     * @param node Initial node
+     * @return A new builder
+     */
+    public static DataContainerNodeAttrBuilder<NodeIdentifierWithPredicates, MapEntryNode> create(
+            final DataContainerLayout layout, final MapEntryNode node) {
+        if (!(node instanceof ImmutableMapEntryNode)) {
+            throw new UnsupportedOperationException(String.format("Cannot initialize from class %s", node.getClass()));
+        }
+
+        return new ImmutableMapEntryNodeBuilder((ImmutableMapEntryNode)node, layout);
+    }
+
     private static void fillQnames(final Iterable<DataContainerChild<? extends PathArgument, ?>> iterable,
             final Map<QName, PathArgument> out) {
         for (final DataContainerChild<? extends PathArgument, ?> childId : iterable) {
@@ -7,11 +7,10 @@
  */
 package org.opendaylight.yangtools.yang.data.impl.schema.builder.impl;
 
-import com.google.common.collect.Iterables;
 import java.util.Collection;
-import java.util.LinkedHashMap;
-import java.util.Map;
 import java.util.Optional;
+import org.opendaylight.yangtools.util.ImmutableIndexedMap;
+import org.opendaylight.yangtools.util.MutableIndexedMap;
 import org.opendaylight.yangtools.util.UnmodifiableCollection;
 import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
 import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifierWithPredicates;
@@ -23,31 +22,27 @@ import org.opendaylight.yangtools.yang.data.impl.schema.builder.api.CollectionNo
 import org.opendaylight.yangtools.yang.data.impl.schema.builder.api.NormalizedNodeContainerBuilder;
 import org.opendaylight.yangtools.yang.data.impl.schema.nodes.AbstractImmutableNormalizedNode;
 
+/**
+ * Builder for {@link OrderedMapNode}s. Children are held in an {@link ImmutableIndexedMap}, which allows positional
+ * access in logarithmic time and shares its structure between the original node and any builders created from it, so
+ * that modifying a large user-ordered list does not require copying all of its entries.
+ */
 public class ImmutableOrderedMapNodeBuilder implements CollectionNodeBuilder<MapEntryNode, OrderedMapNode> {
-    private static final int DEFAULT_CAPACITY = 4;
-
-    private Map<NodeIdentifierWithPredicates, MapEntryNode> value;
+    private final MutableIndexedMap<NodeIdentifierWithPredicates, MapEntryNode> value;
     private NodeIdentifier nodeIdentifier;
-    private boolean dirty;
 
     protected ImmutableOrderedMapNodeBuilder() {
-        this.value = new LinkedHashMap<>(DEFAULT_CAPACITY);
-        this.dirty = false;
+        this.value = MutableIndexedMap.create();
     }
 
     protected ImmutableOrderedMapNodeBuilder(final int sizeHint) {
-        if (sizeHint >= 0) {
-            this.value = new LinkedHashMap<>(sizeHint + sizeHint / 3);
-        } else {
-            this.value = new LinkedHashMap<>(DEFAULT_CAPACITY);
-        }
-        this.dirty = false;
+        // The backing map does not benefit from pre-sizing
+        this();
     }
 
     protected ImmutableOrderedMapNodeBuilder(final ImmutableOrderedMapNode node) {
         this.nodeIdentifier = node.getIdentifier();
-        this.value = node.children;
-        this.dirty = true;
+        this.value = node.children.toModifiableMap();
     }
 
     public static CollectionNodeBuilder<MapEntryNode, OrderedMapNode> create() {
@@ -66,23 +61,14 @@ public class ImmutableOrderedMapNodeBuilder implements CollectionNodeBuilder<Map
         return new ImmutableOrderedMapNodeBuilder((ImmutableOrderedMapNode) node);
     }
 
-    private void checkDirty() {
-        if (dirty) {
-            value = new LinkedHashMap<>(value);
-            dirty = false;
-        }
-    }
-
     @Override
     public CollectionNodeBuilder<MapEntryNode, OrderedMapNode> withChild(final MapEntryNode child) {
-        checkDirty();
         this.value.put(child.getIdentifier(), child);
         return this;
     }
 
     @Override
     public CollectionNodeBuilder<MapEntryNode, OrderedMapNode> withoutChild(final PathArgument key) {
-        checkDirty();
         this.value.remove(key);
         return this;
     }
@@ -106,8 +92,7 @@ public class ImmutableOrderedMapNodeBuilder implements CollectionNodeBuilder<Map
 
     @Override
     public OrderedMapNode build() {
-        dirty = true;
-        return new ImmutableOrderedMapNode(nodeIdentifier, value);
+        return new ImmutableOrderedMapNode(nodeIdentifier, value.toUnmodifiableMap());
     }
 
     @Override
@@ -127,10 +112,10 @@ public class ImmutableOrderedMapNodeBuilder implements CollectionNodeBuilder<Map
             extends AbstractImmutableNormalizedNode<NodeIdentifier, Collection<MapEntryNode>>
             implements OrderedMapNode {
 
-        private final Map<NodeIdentifierWithPredicates, MapEntryNode> children;
+        private final ImmutableIndexedMap<NodeIdentifierWithPredicates, MapEntryNode> children;
 
         ImmutableOrderedMapNode(final NodeIdentifier nodeIdentifier,
-                         final Map<NodeIdentifierWithPredicates, MapEntryNode> children) {
+                         final ImmutableIndexedMap<NodeIdentifierWithPredicates, MapEntryNode> children) {
             super(nodeIdentifier);
             this.children = children;
         }
@@ -142,7 +127,7 @@ public class ImmutableOrderedMapNodeBuilder implements CollectionNodeBuilder<Map
 
         @Override
         public MapEntryNode getChild(final int position) {
-            return Iterables.get(children.values(), position);
+            return children.valueAt(position);
         }
 
         @Override
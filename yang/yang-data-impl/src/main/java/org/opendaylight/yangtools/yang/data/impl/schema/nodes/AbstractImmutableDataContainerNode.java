@@ -24,7 +24,7 @@ public abstract class AbstractImmutableDataContainerNode<K extends PathArgument>
             final Map<PathArgument, DataContainerChild<? extends PathArgument, ?>> children, final K nodeIdentifier) {
         super(nodeIdentifier);
 
-        this.children = ImmutableOffsetMap.unorderedCopyOf(children);
+        this.children = children instanceof SlotChildrenMap ? children : ImmutableOffsetMap.unorderedCopyOf(children);
     }
 
     @Override
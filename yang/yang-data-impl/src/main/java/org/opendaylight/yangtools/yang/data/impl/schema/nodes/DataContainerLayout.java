@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2018 Pantheon Technologies, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.impl.schema.nodes;
+
+import com.google.common.annotations.Beta;
+import com.google.common.base.MoreObjects;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.ImmutableMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import org.eclipse.jdt.annotation.NonNull;
+import org.opendaylight.yangtools.concepts.Immutable;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.AugmentationIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
+import org.opendaylight.yangtools.yang.data.api.schema.DataContainerChild;
+import org.opendaylight.yangtools.yang.data.api.schema.DataContainerNode;
+import org.opendaylight.yangtools.yang.data.util.DataSchemaContextNode;
+import org.opendaylight.yangtools.yang.model.api.AugmentationSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.AugmentationTarget;
+import org.opendaylight.yangtools.yang.model.api.DataNodeContainer;
+import org.opendaylight.yangtools.yang.model.api.DataSchemaNode;
+
+/**
+ * Layout of children of a {@link DataContainerNode} compiled from its schema. Each child identifier which can appear
+ * in the container is assigned a slot, so that children of nodes sharing the layout can be stored in a plain array
+ * indexed by slot. Layouts are computed once for each schema node and are shared by all nodes built from it.
+ *
+ * <p>
+ * Maps created by a layout fall back to a generic representation when they encounter a child which is not known to
+ * the schema, or when they end up holding only a small fraction of possible children.
+ */
+@Beta
+public final class DataContainerLayout implements Immutable {
+    private static final LoadingCache<DataNodeContainer, DataContainerLayout> LAYOUTS = CacheBuilder.newBuilder()
+            .weakKeys().build(new CacheLoader<DataNodeContainer, DataContainerLayout>() {
+                @Override
+                public DataContainerLayout load(final DataNodeContainer key) {
+                    return new DataContainerLayout(key);
+                }
+            });
+
+    private final ImmutableMap<PathArgument, Integer> slots;
+    private final PathArgument[] identifiers;
+
+    private DataContainerLayout(final DataNodeContainer schema) {
+        final Map<PathArgument, Integer> map = new LinkedHashMap<>();
+        final Set<QName> augmented = new HashSet<>();
+        if (schema instanceof AugmentationTarget) {
+            for (AugmentationSchemaNode augmentation : ((AugmentationTarget) schema).getAvailableAugmentations()) {
+                final AugmentationIdentifier id = DataSchemaContextNode.augmentationIdentifierFrom(augmentation);
+                augmented.addAll(id.getPossibleChildNames());
+                map.putIfAbsent(id, map.size());
+            }
+        }
+        for (DataSchemaNode child : schema.getChildNodes()) {
+            // Augmented children are stored in their AugmentationNode
+            if (!augmented.contains(child.getQName())) {
+                map.putIfAbsent(NodeIdentifier.create(child.getQName()), map.size());
+            }
+        }
+
+        slots = ImmutableMap.copyOf(map);
+        identifiers = slots.keySet().toArray(new PathArgument[0]);
+    }
+
+    /**
+     * Return the layout of children of a particular schema node.
+     *
+     * @param schema Schema node
+     * @return Shared layout
+     * @throws NullPointerException if {@code schema} is null
+     */
+    public static @NonNull DataContainerLayout of(final DataNodeContainer schema) {
+        return LAYOUTS.getUnchecked(schema);
+    }
+
+    /**
+     * Create an empty modifiable children map using this layout.
+     *
+     * @return A new modifiable map
+     */
+    public @NonNull Map<PathArgument, DataContainerChild<? extends PathArgument, ?>> createChildren() {
+        return new MutableSlotChildrenMap(this);
+    }
+
+    /**
+     * Create a modifiable children map using this layout, populated with specified children.
+     *
+     * @param children Initial children
+     * @return A new modifiable map
+     */
+    public @NonNull Map<PathArgument, DataContainerChild<? extends PathArgument, ?>> createChildren(
+            final Map<PathArgument, DataContainerChild<? extends PathArgument, ?>> children) {
+        if (children instanceof SlotChildrenMap && ((SlotChildrenMap) children).getLayout() == this) {
+            return ((SlotChildrenMap) children).toModifiableMap();
+        }
+
+        final MutableSlotChildrenMap ret = new MutableSlotChildrenMap(this);
+        ret.putAll(children);
+        return ret;
+    }
+
+    int size() {
+        return identifiers.length;
+    }
+
+    int slotOf(final Object identifier) {
+        final Integer slot = slots.get(identifier);
+        return slot != null ? slot : -1;
+    }
+
+    PathArgument identifierOf(final int slot) {
+        return identifiers[slot];
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this).add("slots", slots.keySet()).toString();
+    }
+}
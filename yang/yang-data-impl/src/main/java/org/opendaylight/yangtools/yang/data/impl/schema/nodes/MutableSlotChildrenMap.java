@@ -0,0 +1,185 @@
+/*
+ * Copyright (c) 2018 Pantheon Technologies, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.impl.schema.nodes;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.Nonnull;
+import org.opendaylight.yangtools.util.ImmutableOffsetMap;
+import org.opendaylight.yangtools.util.ModifiableMapPhase;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
+import org.opendaylight.yangtools.yang.data.api.schema.DataContainerChild;
+
+/**
+ * Modifiable counterpart to {@link SlotChildrenMap}. The slot array is shared with unmodifiable maps and is copied
+ * only when this map is modified. Once a child not known to the layout is added, the map switches to a HashMap
+ * and produces generic unmodifiable maps.
+ */
+final class MutableSlotChildrenMap extends AbstractMap<PathArgument, DataContainerChild<? extends PathArgument, ?>>
+        implements ModifiableMapPhase<PathArgument, DataContainerChild<? extends PathArgument, ?>> {
+    private final DataContainerLayout layout;
+
+    private Map<PathArgument, DataContainerChild<? extends PathArgument, ?>> fallback;
+    private Object[] objects;
+    private boolean needClone;
+    private int size;
+
+    MutableSlotChildrenMap(final DataContainerLayout layout) {
+        this.layout = requireNonNull(layout);
+        this.objects = new Object[layout.size()];
+    }
+
+    MutableSlotChildrenMap(final DataContainerLayout layout, final Object[] objects, final int size) {
+        this.layout = requireNonNull(layout);
+        this.objects = requireNonNull(objects);
+        this.size = size;
+        this.needClone = true;
+    }
+
+    @Override
+    public int size() {
+        return fallback != null ? fallback.size() : size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    @Override
+    public boolean containsKey(final Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public DataContainerChild<? extends PathArgument, ?> get(final Object key) {
+        if (fallback != null) {
+            return fallback.get(key);
+        }
+        final int slot = layout.slotOf(key);
+        return slot != -1 ? (DataContainerChild<? extends PathArgument, ?>) objects[slot] : null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public DataContainerChild<? extends PathArgument, ?> put(final PathArgument key,
+            final DataContainerChild<? extends PathArgument, ?> value) {
+        requireNonNull(value);
+        if (fallback == null) {
+            final int slot = layout.slotOf(key);
+            if (slot != -1) {
+                ensureClone();
+                final Object prev = objects[slot];
+                objects[slot] = value;
+                if (prev == null) {
+                    size++;
+                }
+                return (DataContainerChild<? extends PathArgument, ?>) prev;
+            }
+
+            // Child is not known to the schema, switch to the generic representation
+            fallback = new HashMap<>(this);
+        }
+        return fallback.put(key, value);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public DataContainerChild<? extends PathArgument, ?> remove(final Object key) {
+        if (fallback != null) {
+            return fallback.remove(key);
+        }
+        final int slot = layout.slotOf(key);
+        if (slot == -1 || objects[slot] == null) {
+            return null;
+        }
+
+        ensureClone();
+        final Object prev = objects[slot];
+        objects[slot] = null;
+        size--;
+        return (DataContainerChild<? extends PathArgument, ?>) prev;
+    }
+
+    @Override
+    public void clear() {
+        fallback = null;
+        objects = new Object[layout.size()];
+        needClone = false;
+        size = 0;
+    }
+
+    @Override
+    public Map<PathArgument, DataContainerChild<? extends PathArgument, ?>> toUnmodifiableMap() {
+        if (fallback != null) {
+            return ImmutableOffsetMap.unorderedCopyOf(fallback);
+        }
+
+        // Sparsely-populated slot arrays are larger than a generic map of the children
+        if (size * 2 < layout.size()) {
+            return ImmutableOffsetMap.unorderedCopyOf(this);
+        }
+
+        needClone = true;
+        return new SlotChildrenMap(layout, objects, size);
+    }
+
+    @Override
+    @Nonnull
+    public Collection<DataContainerChild<? extends PathArgument, ?>> values() {
+        if (fallback != null) {
+            return fallback.values();
+        }
+        return new AbstractCollection<DataContainerChild<? extends PathArgument, ?>>() {
+            @Override
+            public Iterator<DataContainerChild<? extends PathArgument, ?>> iterator() {
+                return SlotChildrenMap.valueIterator(objects);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    @Override
+    @Nonnull
+    public Set<Entry<PathArgument, DataContainerChild<? extends PathArgument, ?>>> entrySet() {
+        if (fallback != null) {
+            return fallback.entrySet();
+        }
+        return new AbstractSet<Entry<PathArgument, DataContainerChild<? extends PathArgument, ?>>>() {
+            @Override
+            public Iterator<Entry<PathArgument, DataContainerChild<? extends PathArgument, ?>>> iterator() {
+                return SlotChildrenMap.entryIterator(layout, objects);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    private void ensureClone() {
+        if (needClone) {
+            objects = objects.clone();
+            needClone = false;
+        }
+    }
+}
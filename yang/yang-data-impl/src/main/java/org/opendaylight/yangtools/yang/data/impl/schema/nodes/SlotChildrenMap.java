@@ -0,0 +1,165 @@
+/*
+ * Copyright (c) 2018 Pantheon Technologies, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.impl.schema.nodes;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import javax.annotation.Nonnull;
+import org.opendaylight.yangtools.util.UnmodifiableMapPhase;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
+import org.opendaylight.yangtools.yang.data.api.schema.DataContainerChild;
+
+/**
+ * Unmodifiable children map storing children in an array indexed by slots assigned by a {@link DataContainerLayout}.
+ * Absent children are represented by null slots.
+ */
+final class SlotChildrenMap extends AbstractMap<PathArgument, DataContainerChild<? extends PathArgument, ?>>
+        implements UnmodifiableMapPhase<PathArgument, DataContainerChild<? extends PathArgument, ?>> {
+    /**
+     * Iterator over non-null slots of an array.
+     *
+     * @param <T> Type of iterated elements
+     */
+    abstract static class SlotIterator<T> implements Iterator<T> {
+        private final Object[] objects;
+        private int next;
+
+        SlotIterator(final Object[] objects) {
+            this.objects = requireNonNull(objects);
+            advance(0);
+        }
+
+        @Override
+        public final boolean hasNext() {
+            return next < objects.length;
+        }
+
+        @Override
+        public final T next() {
+            if (next >= objects.length) {
+                throw new NoSuchElementException();
+            }
+            final int slot = next;
+            advance(slot + 1);
+            return element(slot, objects[slot]);
+        }
+
+        abstract T element(int slot, Object object);
+
+        private void advance(final int from) {
+            int slot = from;
+            while (slot < objects.length && objects[slot] == null) {
+                slot++;
+            }
+            next = slot;
+        }
+    }
+
+    private final DataContainerLayout layout;
+    private final Object[] objects;
+    private final int size;
+
+    SlotChildrenMap(final DataContainerLayout layout, final Object[] objects, final int size) {
+        this.layout = requireNonNull(layout);
+        this.objects = requireNonNull(objects);
+        this.size = size;
+    }
+
+    DataContainerLayout getLayout() {
+        return layout;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public boolean containsKey(final Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public DataContainerChild<? extends PathArgument, ?> get(final Object key) {
+        final int slot = layout.slotOf(key);
+        return slot != -1 ? (DataContainerChild<? extends PathArgument, ?>) objects[slot] : null;
+    }
+
+    @Override
+    public MutableSlotChildrenMap toModifiableMap() {
+        return new MutableSlotChildrenMap(layout, objects, size);
+    }
+
+    @Override
+    @Nonnull
+    public Collection<DataContainerChild<? extends PathArgument, ?>> values() {
+        return new AbstractCollection<DataContainerChild<? extends PathArgument, ?>>() {
+            @Override
+            public Iterator<DataContainerChild<? extends PathArgument, ?>> iterator() {
+                return valueIterator(objects);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    @Override
+    @Nonnull
+    public Set<Entry<PathArgument, DataContainerChild<? extends PathArgument, ?>>> entrySet() {
+        return new AbstractSet<Entry<PathArgument, DataContainerChild<? extends PathArgument, ?>>>() {
+            @Override
+            public Iterator<Entry<PathArgument, DataContainerChild<? extends PathArgument, ?>>> iterator() {
+                return entryIterator(layout, objects);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    static Iterator<DataContainerChild<? extends PathArgument, ?>> valueIterator(final Object[] objects) {
+        return new SlotIterator<DataContainerChild<? extends PathArgument, ?>>(objects) {
+            @Override
+            @SuppressWarnings("unchecked")
+            DataContainerChild<? extends PathArgument, ?> element(final int slot, final Object object) {
+                return (DataContainerChild<? extends PathArgument, ?>) object;
+            }
+        };
+    }
+
+    static Iterator<Entry<PathArgument, DataContainerChild<? extends PathArgument, ?>>> entryIterator(
+            final DataContainerLayout layout, final Object[] objects) {
+        return new SlotIterator<Entry<PathArgument, DataContainerChild<? extends PathArgument, ?>>>(objects) {
+            @Override
+            @SuppressWarnings("unchecked")
+            Entry<PathArgument, DataContainerChild<? extends PathArgument, ?>> element(final int slot,
+                    final Object object) {
+                return new SimpleImmutableEntry<>(layout.identifierOf(slot),
+                        (DataContainerChild<? extends PathArgument, ?>) object);
+            }
+        };
+    }
+}
@@ -51,10 +51,27 @@ abstract class AbstractDataTreeTip implements DataTreeTip {
             return new NoopDataTreeCandidate(YangInstanceIdentifier.EMPTY, root, currentRoot);
         }
 
-        final Optional<TreeNode> newRoot = m.getStrategy().apply(m.getRootModification(), Optional.of(currentRoot),
-            m.getVersion());
+        return applyModification(m, currentRoot);
+    }
+
+    /**
+     * Apply a sealed modification on top of a root node and enforce constraints on the result.
+     *
+     * @param modification Sealed modification, which has an operation other than {@link LogicalOperation#NONE}
+     * @param currentRoot Root node to apply the modification to
+     * @return A data tree candidate
+     * @throws SchemaValidationFailedException if the result violates a constraint
+     */
+    static InMemoryDataTreeCandidate applyModification(final InMemoryDataTreeModification modification,
+            final TreeNode currentRoot) {
+        final Optional<TreeNode> newRoot = modification.getStrategy().apply(modification.getRootModification(),
+            Optional.of(currentRoot), modification.getVersion());
         checkState(newRoot.isPresent(), "Apply strategy failed to produce root node for modification %s", modification);
-        return new InMemoryDataTreeCandidate(YangInstanceIdentifier.EMPTY, root, currentRoot, newRoot.get());
+        final InMemoryDataTreeCandidate candidate = new InMemoryDataTreeCandidate(YangInstanceIdentifier.EMPTY,
+            modification.getRootModification(), currentRoot, newRoot.get(), modification);
+        modification.getMustWhenEnforcer().enforceOnCandidate(candidate);
+        modification.getLeafRefEnforcer().enforceOnCandidate(candidate);
+        return candidate;
     }
 
     private static InMemoryDataTreeModification checkedCast(final DataTreeModification mod) {
@@ -11,7 +11,9 @@ import static com.google.common.base.Preconditions.checkArgument;
 
 import com.google.common.base.Preconditions;
 import com.google.common.base.Verify;
+import com.google.common.collect.ImmutableList;
 import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
 import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
@@ -32,11 +34,15 @@ abstract class AbstractNodeContainerModificationStrategy extends SchemaAwareAppl
 
     private final Class<? extends NormalizedNode<?, ?>> nodeClass;
     private final boolean verifyChildrenStructure;
+    private final int parallelismThreshold;
+    private final boolean compactValues;
 
     protected AbstractNodeContainerModificationStrategy(final Class<? extends NormalizedNode<?, ?>> nodeClass,
             final DataTreeConfiguration treeConfig) {
         this.nodeClass = Preconditions.checkNotNull(nodeClass , "nodeClass");
         this.verifyChildrenStructure = treeConfig.getTreeType() == TreeType.CONFIGURATION;
+        this.parallelismThreshold = treeConfig.getParallelismThreshold();
+        this.compactValues = treeConfig.isCompactValuesEnabled();
     }
 
     @Override
@@ -81,7 +87,7 @@ abstract class AbstractNodeContainerModificationStrategy extends SchemaAwareAppl
     protected TreeNode applyWrite(final ModifiedNode modification,
             final Optional<TreeNode> currentMeta, final Version version) {
         final NormalizedNode<?, ?> newValue = modification.getWrittenValue();
-        final TreeNode newValueMeta = TreeNodeFactory.createTreeNode(newValue, version);
+        final TreeNode newValueMeta = TreeNodeFactory.createTreeNode(newValue, version, compactValues);
 
         if (modification.getChildren().isEmpty()) {
             return newValueMeta;
@@ -113,7 +119,7 @@ abstract class AbstractNodeContainerModificationStrategy extends SchemaAwareAppl
         // We are good to go except one detail: this is a single logical write, but
         // we have a result TreeNode which has been forced to materialized, e.g. it
         // is larger than it needs to be. Create a new TreeNode to host the data.
-        return TreeNodeFactory.createTreeNode(result.getData(), version);
+        return TreeNodeFactory.createTreeNode(result.getData(), version, compactValues);
     }
 
     /**
@@ -128,20 +134,21 @@ abstract class AbstractNodeContainerModificationStrategy extends SchemaAwareAppl
      */
     @SuppressWarnings({ "rawtypes", "unchecked" })
     private TreeNode mutateChildren(final MutableTreeNode meta, final NormalizedNodeContainerBuilder data,
-            final Version nodeVersion, final Iterable<ModifiedNode> modifications) {
-
-        for (final ModifiedNode mod : modifications) {
-            final PathArgument id = mod.getIdentifier();
-            final Optional<TreeNode> cm = meta.getChild(id);
+            final Version nodeVersion, final Collection<ModifiedNode> modifications) {
+        if (runInParallel(modifications)) {
+            // Child subtrees are resolved in parallel, but MutableTreeNode and the builder are not thread-safe, hence
+            // we integrate the results here
+            final List<ModifiedNode> mods = ImmutableList.copyOf(modifications);
+            final Optional<TreeNode>[] results = ParallelChildOperations.apply(this, mods, meta, nodeVersion);
+            for (int i = 0; i < results.length; ++i) {
+                addChildResult(meta, data, mods.get(i).getIdentifier(), results[i]);
+            }
+        } else {
+            for (final ModifiedNode mod : modifications) {
+                final PathArgument id = mod.getIdentifier();
+                final Optional<TreeNode> cm = meta.getChild(id);
 
-            final Optional<TreeNode> result = resolveChildOperation(id).apply(mod, cm, nodeVersion);
-            if (result.isPresent()) {
-                final TreeNode tn = result.get();
-                meta.addChild(tn);
-                data.addChild(tn.getData());
-            } else {
-                meta.removeChild(id);
-                data.removeChild(id);
+                addChildResult(meta, data, id, resolveChildOperation(id).apply(mod, cm, nodeVersion));
             }
         }
 
@@ -149,6 +156,23 @@ abstract class AbstractNodeContainerModificationStrategy extends SchemaAwareAppl
         return meta.seal();
     }
 
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    private static void addChildResult(final MutableTreeNode meta, final NormalizedNodeContainerBuilder data,
+            final PathArgument id, final Optional<TreeNode> result) {
+        if (result.isPresent()) {
+            final TreeNode tn = result.get();
+            meta.addChild(tn);
+            data.addChild(tn.getData());
+        } else {
+            meta.removeChild(id);
+            data.removeChild(id);
+        }
+    }
+
+    private boolean runInParallel(final Collection<?> children) {
+        return parallelismThreshold > 0 && children.size() >= parallelismThreshold;
+    }
+
     @Override
     protected TreeNode applyMerge(final ModifiedNode modification, final TreeNode currentMeta, final Version version) {
         /*
@@ -295,7 +319,13 @@ abstract class AbstractNodeContainerModificationStrategy extends SchemaAwareAppl
      */
     private void checkChildPreconditions(final ModificationPath path, final NodeModification modification,
             final TreeNode current, final Version version) throws DataValidationFailedException {
-        for (final NodeModification childMod : modification.getChildren()) {
+        final Collection<? extends NodeModification> children = modification.getChildren();
+        if (runInParallel(children)) {
+            ParallelChildOperations.checkApplicable(this, path, ImmutableList.copyOf(children), current, version);
+            return;
+        }
+
+        for (final NodeModification childMod : children) {
             final PathArgument childId = childMod.getIdentifier();
             final Optional<TreeNode> childMeta = current.getChild(childId);
 
@@ -0,0 +1,223 @@
+/*
+ * Copyright (c) 2018 Pantheon Technologies, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.impl.schema.tree;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeBatch;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeModification;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeModificationCursor;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataValidationFailedException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Preparation of a batch of modifications into a single candidate, as exposed by
+ * {@link InMemoryDataTree#prepareBatch(List)}.
+ *
+ * <p>
+ * Modifications are replayed, in order, into a single modification based on the current state of the tree, which is
+ * then prepared. While doing so we keep track of the nodes operated on by the modifications replayed since
+ * the last time we have established a tip. As long as a modification does not overlap any of those nodes, validating
+ * it against that tip is equivalent to validating it against the result of the preceding modifications. Once it
+ * does, the modifications tracked so far are prepared on top of the tip, forming a new one. Hence we pay for
+ * intermediate candidates only when the batch contains dependent modifications.
+ *
+ * <p>
+ * If preparing the combined modification fails, we fall back to preparing modifications one by one, so that
+ * the failure is attributed to the modification which has caused it.
+ */
+final class BatchPreparation {
+    /**
+     * A trie of nodes which are operated on by modifications.
+     */
+    private static final class OperatedNode {
+        private final Map<PathArgument, OperatedNode> children = new HashMap<>();
+        private boolean operated;
+
+        void add(final ModifiedNode node) {
+            switch (node.getOperation()) {
+                case NONE:
+                    break;
+                case TOUCH:
+                    for (ModifiedNode child : node.getChildren()) {
+                        children.computeIfAbsent(child.getIdentifier(), key -> new OperatedNode()).add(child);
+                    }
+                    break;
+                default:
+                    operated = true;
+                    children.clear();
+            }
+        }
+
+        boolean overlaps(final ModifiedNode node) {
+            if (operated) {
+                return true;
+            }
+
+            switch (node.getOperation()) {
+                case NONE:
+                    return false;
+                case TOUCH:
+                    for (ModifiedNode child : node.getChildren()) {
+                        final OperatedNode existing = children.get(child.getIdentifier());
+                        if (existing != null && existing.overlaps(child)) {
+                            return true;
+                        }
+                    }
+                    return false;
+                default:
+                    return !children.isEmpty();
+            }
+        }
+    }
+
+    private static final Logger LOG = LoggerFactory.getLogger(BatchPreparation.class);
+
+    private final InMemoryDataTree tree;
+    private final InMemoryDataTreeSnapshot snapshot;
+
+    BatchPreparation(final InMemoryDataTree tree) {
+        this.tree = requireNonNull(tree);
+        this.snapshot = tree.takeSnapshot();
+    }
+
+    DataTreeBatch prepare(final List<? extends DataTreeModification> modifications) {
+        final List<InMemoryDataTreeModification> checked = new ArrayList<>(modifications.size());
+        final Set<InMemoryDataTreeModification> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (DataTreeModification modification : modifications) {
+            checkArgument(modification instanceof InMemoryDataTreeModification, "Invalid modification class %s",
+                modification.getClass());
+            final InMemoryDataTreeModification m = (InMemoryDataTreeModification) modification;
+            checkArgument(m.isSealed(), "Attempted to prepare unsealed modification %s", m);
+            checkArgument(seen.add(m), "Duplicate modification %s", m);
+            checked.add(m);
+        }
+
+        try {
+            return prepareCombined(checked);
+        } catch (DataValidationFailedException | SchemaValidationFailedException e) {
+            LOG.debug("Combined preparation of {} failed, falling back to sequential preparation", checked, e);
+            return prepareSequential(checked);
+        }
+    }
+
+    private DataTreeBatch prepareCombined(final List<InMemoryDataTreeModification> modifications)
+            throws DataValidationFailedException {
+        final Map<DataTreeModification, Exception> failures = new LinkedHashMap<>();
+        final InMemoryDataTreeModification combined = snapshot.newModification();
+        final List<InMemoryDataTreeModification> pending = new ArrayList<>();
+        OperatedNode operated = new OperatedNode();
+        AbstractDataTreeTip tip = tree;
+
+        for (InMemoryDataTreeModification m : modifications) {
+            if (operated.overlaps(m.getRootModification())) {
+                tip = advanceTip(tip, pending);
+                pending.clear();
+                operated = new OperatedNode();
+            }
+
+            try {
+                tip.validate(m);
+            } catch (DataValidationFailedException e) {
+                LOG.debug("Modification {} failed validation", m, e);
+                failures.put(m, e);
+                continue;
+            }
+
+            operated.add(m.getRootModification());
+            pending.add(m);
+            replay(m, combined);
+        }
+
+        combined.ready();
+        tree.validate(combined);
+        return new DataTreeBatch(tree.prepare(combined), failures);
+    }
+
+    private DataTreeBatch prepareSequential(final List<InMemoryDataTreeModification> modifications) {
+        final Map<DataTreeModification, Exception> failures = new LinkedHashMap<>();
+        final InMemoryDataTreeModification combined = snapshot.newModification();
+        AbstractDataTreeTip tip = tree;
+
+        for (InMemoryDataTreeModification m : modifications) {
+            final AbstractDataTreeTip next;
+            try {
+                tip.validate(m);
+                next = (AbstractDataTreeTip) tip.prepare(m);
+            } catch (DataValidationFailedException | IllegalArgumentException e) {
+                LOG.debug("Modification {} failed", m, e);
+                failures.put(m, e);
+                continue;
+            }
+
+            tip = next;
+            replay(m, combined);
+        }
+
+        combined.ready();
+        try {
+            tree.validate(combined);
+        } catch (DataValidationFailedException e) {
+            throw new IllegalStateException("Combined modification failed to validate", e);
+        }
+        return new DataTreeBatch(tree.prepare(combined), failures);
+    }
+
+    private static AbstractDataTreeTip advanceTip(final AbstractDataTreeTip tip,
+            final List<InMemoryDataTreeModification> pending) {
+        // Modifications are prepared individually, as they need to retain their version for the benefit of any
+        // modifications chained on top of them.
+        AbstractDataTreeTip ret = tip;
+        for (InMemoryDataTreeModification m : pending) {
+            ret = (AbstractDataTreeTip) ret.prepare(m);
+        }
+        return ret;
+    }
+
+    /**
+     * Replay a sealed modification into an unsealed one.
+     *
+     * @param source Sealed modification
+     * @param target Unsealed modification
+     */
+    private static void replay(final InMemoryDataTreeModification source,
+            final InMemoryDataTreeModification target) {
+        final ModifiedNode root = source.getRootModification();
+        switch (root.getOperation()) {
+            case NONE:
+                return;
+            case DELETE:
+                target.delete(YangInstanceIdentifier.EMPTY);
+                return;
+            case MERGE:
+                target.merge(YangInstanceIdentifier.EMPTY, root.getWrittenValue());
+                break;
+            case WRITE:
+                target.write(YangInstanceIdentifier.EMPTY, root.getWrittenValue());
+                break;
+            default:
+                break;
+        }
+
+        try (DataTreeModificationCursor cursor = target.createCursor(YangInstanceIdentifier.EMPTY)) {
+            source.applyToCursor(cursor);
+        }
+    }
+}
@@ -21,40 +21,59 @@ import org.opendaylight.yangtools.yang.model.api.SchemaContext;
 final class DataTreeState {
     private final LatestOperationHolder holder;
     private final SchemaContext schemaContext;
+    private final MustWhenEnforcer mustWhenEnforcer;
+    private final LeafRefEnforcer leafRefEnforcer;
+    private final LeafIndexes leafIndexes;
     private final TreeNode root;
 
-    private DataTreeState(final TreeNode root) {
+    private DataTreeState(final TreeNode root, final LeafIndexes leafIndexes) {
         this.root = Preconditions.checkNotNull(root);
+        this.leafIndexes = Preconditions.checkNotNull(leafIndexes);
         holder = new LatestOperationHolder();
         schemaContext = null;
+        mustWhenEnforcer = MustWhenEnforcer.noop();
+        leafRefEnforcer = LeafRefEnforcer.noop();
     }
 
-    private DataTreeState(final TreeNode root, final LatestOperationHolder holder, final SchemaContext schemaContext) {
+    private DataTreeState(final TreeNode root, final LatestOperationHolder holder, final SchemaContext schemaContext,
+            final MustWhenEnforcer mustWhenEnforcer, final LeafRefEnforcer leafRefEnforcer,
+            final LeafIndexes leafIndexes) {
         // It should be impossible to instantiate a new root without a SchemaContext
         this.schemaContext = Preconditions.checkNotNull(schemaContext);
+        this.mustWhenEnforcer = Preconditions.checkNotNull(mustWhenEnforcer);
+        this.leafRefEnforcer = Preconditions.checkNotNull(leafRefEnforcer);
+        this.leafIndexes = Preconditions.checkNotNull(leafIndexes);
         this.holder = Preconditions.checkNotNull(holder);
         this.root = Preconditions.checkNotNull(root);
     }
 
-    static DataTreeState createInitial(final TreeNode root) {
-        return new DataTreeState(root);
+    static DataTreeState createInitial(final TreeNode root, final LeafIndexes leafIndexes) {
+        return new DataTreeState(root, leafIndexes);
     }
 
     TreeNode getRoot() {
         return root;
     }
 
+    SchemaContext getSchemaContext() {
+        return schemaContext;
+    }
+
     InMemoryDataTreeSnapshot newSnapshot() {
-        return new InMemoryDataTreeSnapshot(schemaContext, root, holder.newSnapshot());
+        return new InMemoryDataTreeSnapshot(schemaContext, root, holder.newSnapshot(), mustWhenEnforcer,
+            leafRefEnforcer, leafIndexes);
     }
 
-    DataTreeState withSchemaContext(final SchemaContext newSchemaContext, final ModificationApplyOperation operation) {
+    DataTreeState withSchemaContext(final SchemaContext newSchemaContext, final ModificationApplyOperation operation,
+            final MustWhenEnforcer newMustWhenEnforcer, final LeafRefEnforcer newLeafRefEnforcer) {
         holder.setCurrent(operation);
-        return new DataTreeState(root, holder, newSchemaContext);
+        return new DataTreeState(root, holder, newSchemaContext, newMustWhenEnforcer, newLeafRefEnforcer,
+            leafIndexes);
     }
 
     DataTreeState withRoot(final TreeNode newRoot) {
-        return new DataTreeState(newRoot, holder, schemaContext);
+        return new DataTreeState(newRoot, holder, schemaContext, mustWhenEnforcer, leafRefEnforcer,
+            leafIndexes);
     }
 
     @Override
@@ -0,0 +1,253 @@
+/*
+ * Copyright (c) 2018 Pantheon Technologies, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.impl.schema.tree;
+
+import static java.util.Objects.requireNonNull;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableMap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import javax.annotation.Nonnull;
+import org.eclipse.jdt.annotation.Nullable;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNodeContainer;
+import org.opendaylight.yangtools.yang.data.api.schema.OrderedNodeContainer;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidateNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.ModificationType;
+
+/**
+ * A {@link DataTreeCandidateNode} describing the difference between two {@link NormalizedNode}s. The difference is
+ * computed lazily: the modification type and the modified children are determined when they are first requested
+ * and are retained afterwards. Subtrees shared by reference between the two trees are recognized as unmodified
+ * without being examined.
+ */
+final class DiffCandidateNode implements DataTreeCandidateNode {
+    /**
+     * Fork/join task computing modification types of a range of children. Results are retained by the children.
+     */
+    private static final class ResolveTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final transient List<DiffCandidateNode> children;
+        private final int chunkSize;
+        private final int from;
+        private final int to;
+
+        ResolveTask(final List<DiffCandidateNode> children, final int chunkSize, final int from, final int to) {
+            this.children = children;
+            this.chunkSize = chunkSize;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > chunkSize) {
+                final int mid = (from + to) >>> 1;
+                invokeAll(new ResolveTask(children, chunkSize, from, mid),
+                    new ResolveTask(children, chunkSize, mid, to));
+                return;
+            }
+
+            for (int i = from; i < to; ++i) {
+                children.get(i).getModificationType();
+            }
+        }
+    }
+
+    /*
+     * Number of chunks we target per worker thread, so that uneven chunks can be balanced by work stealing.
+     */
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    private final PathArgument identifier;
+    private final @Nullable NormalizedNode<?, ?> before;
+    private final @Nullable NormalizedNode<?, ?> after;
+    private final int parallelismThreshold;
+
+    private volatile ImmutableMap<PathArgument, DataTreeCandidateNode> modifiedChildren;
+    private volatile ModificationType type;
+
+    DiffCandidateNode(final PathArgument identifier, final @Nullable NormalizedNode<?, ?> before,
+            final @Nullable NormalizedNode<?, ?> after, final int parallelismThreshold) {
+        this.identifier = requireNonNull(identifier);
+        this.before = before;
+        this.after = after;
+        this.parallelismThreshold = parallelismThreshold;
+    }
+
+    @Override
+    @Nonnull
+    public PathArgument getIdentifier() {
+        return identifier;
+    }
+
+    @Override
+    @Nonnull
+    public ModificationType getModificationType() {
+        ModificationType local = type;
+        if (local == null) {
+            local = computeType();
+            type = local;
+        }
+        return local;
+    }
+
+    @Override
+    @Nonnull
+    public Optional<NormalizedNode<?, ?>> getDataBefore() {
+        return Optional.ofNullable(before);
+    }
+
+    @Override
+    @Nonnull
+    public Optional<NormalizedNode<?, ?>> getDataAfter() {
+        return Optional.ofNullable(after);
+    }
+
+    @Override
+    @Nonnull
+    public Collection<DataTreeCandidateNode> getChildNodes() {
+        return modifiedChildren().values();
+    }
+
+    @Override
+    public DataTreeCandidateNode getModifiedChild(final PathArgument childIdentifier) {
+        return modifiedChildren().get(childIdentifier);
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this).add("identifier", identifier).add("type", type).toString();
+    }
+
+    private ModificationType computeType() {
+        if (before == null) {
+            return after == null ? ModificationType.UNMODIFIED : ModificationType.WRITE;
+        }
+        if (after == null) {
+            return ModificationType.DELETE;
+        }
+        if (before == after) {
+            return ModificationType.UNMODIFIED;
+        }
+
+        if (before instanceof NormalizedNodeContainer && after instanceof NormalizedNodeContainer) {
+            // Ordering of ordered lists cannot be expressed by children, report such lists as rewritten
+            if (before instanceof OrderedNodeContainer && !sameOrder(castContainer(before), castContainer(after))) {
+                return ModificationType.WRITE;
+            }
+            return modifiedChildren().isEmpty() ? ModificationType.UNMODIFIED : ModificationType.SUBTREE_MODIFIED;
+        }
+        if (before instanceof NormalizedNodeContainer || after instanceof NormalizedNodeContainer) {
+            return ModificationType.WRITE;
+        }
+        return Objects.deepEquals(before.getValue(), after.getValue()) ? ModificationType.UNMODIFIED
+                : ModificationType.WRITE;
+    }
+
+    private ImmutableMap<PathArgument, DataTreeCandidateNode> modifiedChildren() {
+        ImmutableMap<PathArgument, DataTreeCandidateNode> local = modifiedChildren;
+        if (local == null) {
+            local = computeChildren();
+            modifiedChildren = local;
+        }
+        return local;
+    }
+
+    private ImmutableMap<PathArgument, DataTreeCandidateNode> computeChildren() {
+        final NormalizedNodeContainer<?, PathArgument, NormalizedNode<?, ?>> beforeContainer = before == after
+                ? null : castContainer(before);
+        final NormalizedNodeContainer<?, PathArgument, NormalizedNode<?, ?>> afterContainer = before == after
+                ? null : castContainer(after);
+        if (beforeContainer == null && afterContainer == null) {
+            return ImmutableMap.of();
+        }
+
+        /*
+         * Join children on their identifiers: walk the children present after the change, looking each of them up
+         * among the children present before the change, then pick up the children which have been removed. Lookups
+         * are hash-based for both keyed and unkeyed children, hence the join is linear in the number of children.
+         */
+        final List<DiffCandidateNode> children = new ArrayList<>();
+        if (afterContainer != null) {
+            for (NormalizedNode<?, ?> child : afterContainer.getValue()) {
+                final PathArgument childId = child.getIdentifier();
+                final NormalizedNode<?, ?> beforeChild = beforeContainer == null ? null
+                        : beforeContainer.getChild(childId).orElse(null);
+                if (beforeChild != child) {
+                    children.add(new DiffCandidateNode(childId, beforeChild, child, parallelismThreshold));
+                }
+            }
+        }
+        if (beforeContainer != null) {
+            for (NormalizedNode<?, ?> child : beforeContainer.getValue()) {
+                final PathArgument childId = child.getIdentifier();
+                if (afterContainer == null || !afterContainer.getChild(childId).isPresent()) {
+                    children.add(new DiffCandidateNode(childId, child, null, parallelismThreshold));
+                }
+            }
+        }
+
+        if (parallelismThreshold > 0 && children.size() >= parallelismThreshold) {
+            new ResolveTask(children, chunkSize(children.size()), 0, children.size()).invoke();
+        }
+
+        final ImmutableMap.Builder<PathArgument, DataTreeCandidateNode> builder = ImmutableMap.builder();
+        for (DiffCandidateNode child : children) {
+            if (child.getModificationType() != ModificationType.UNMODIFIED) {
+                builder.put(child.getIdentifier(), child);
+            }
+        }
+        return builder.build();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static NormalizedNodeContainer<?, PathArgument, NormalizedNode<?, ?>> castContainer(
+            final @Nullable NormalizedNode<?, ?> node) {
+        return node instanceof NormalizedNodeContainer
+                ? (NormalizedNodeContainer<?, PathArgument, NormalizedNode<?, ?>>) node : null;
+    }
+
+    private static boolean sameOrder(final NormalizedNodeContainer<?, PathArgument, NormalizedNode<?, ?>> before,
+            final NormalizedNodeContainer<?, PathArgument, NormalizedNode<?, ?>> after) {
+        // Compare the relative order of children present on both sides
+        final Iterator<PathArgument> beforeIds = retainedIds(before, after).iterator();
+        final Iterator<PathArgument> afterIds = retainedIds(after, before).iterator();
+        while (beforeIds.hasNext()) {
+            if (!beforeIds.next().equals(afterIds.next())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static List<PathArgument> retainedIds(
+            final NormalizedNodeContainer<?, PathArgument, NormalizedNode<?, ?>> container,
+            final NormalizedNodeContainer<?, PathArgument, NormalizedNode<?, ?>> other) {
+        final List<PathArgument> ret = new ArrayList<>();
+        for (NormalizedNode<?, ?> child : container.getValue()) {
+            if (other.getChild(child.getIdentifier()).isPresent()) {
+                ret.add(child.getIdentifier());
+            }
+        }
+        return ret;
+    }
+
+    private static int chunkSize(final int size) {
+        return Math.max(1, size / (ForkJoinPool.getCommonPoolParallelism() * CHUNKS_PER_THREAD));
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2018 Pantheon Technologies, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.impl.schema.tree;
+
+import static java.util.Objects.requireNonNull;
+
+import com.google.common.base.MoreObjects;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Optional;
+import java.util.Set;
+import javax.annotation.Nonnull;
+import org.eclipse.jdt.annotation.Nullable;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNodeContainer;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidateNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.ModificationType;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.spi.TreeNode;
+
+/**
+ * A {@link DataTreeCandidateNode} describing the difference between two {@link TreeNode}s. Subtrees are compared using
+ * their content hashes and children are examined only when the hashes differ.
+ */
+final class HashDiffCandidateNode implements DataTreeCandidateNode {
+    private final PathArgument identifier;
+    private final @Nullable TreeNode before;
+    private final @Nullable TreeNode after;
+    private final ModificationType type;
+
+    HashDiffCandidateNode(final PathArgument identifier, final @Nullable TreeNode before,
+            final @Nullable TreeNode after) {
+        this.identifier = requireNonNull(identifier);
+        this.before = before;
+        this.after = after;
+        this.type = computeType(before, after);
+    }
+
+    private static ModificationType computeType(final @Nullable TreeNode before, final @Nullable TreeNode after) {
+        if (before == null) {
+            return after == null ? ModificationType.UNMODIFIED : ModificationType.WRITE;
+        }
+        if (after == null) {
+            return ModificationType.DELETE;
+        }
+
+        // Shared subtrees are trivially equal, without needing their hashes
+        if (before.getData() == after.getData() || before.getSubtreeHash() == after.getSubtreeHash()) {
+            return ModificationType.UNMODIFIED;
+        }
+        return before.getData() instanceof NormalizedNodeContainer && after.getData() instanceof NormalizedNodeContainer
+                ? ModificationType.SUBTREE_MODIFIED : ModificationType.WRITE;
+    }
+
+    @Override
+    @Nonnull
+    public PathArgument getIdentifier() {
+        return identifier;
+    }
+
+    @Override
+    @Nonnull
+    public ModificationType getModificationType() {
+        return type;
+    }
+
+    @Override
+    @Nonnull
+    public Optional<NormalizedNode<?, ?>> getDataBefore() {
+        return before == null ? Optional.empty() : Optional.of(before.getData());
+    }
+
+    @Override
+    @Nonnull
+    public Optional<NormalizedNode<?, ?>> getDataAfter() {
+        return after == null ? Optional.empty() : Optional.of(after.getData());
+    }
+
+    @Override
+    @Nonnull
+    public Collection<DataTreeCandidateNode> getChildNodes() {
+        if (type == ModificationType.UNMODIFIED) {
+            return Collections.emptyList();
+        }
+
+        final Set<PathArgument> childIds = new LinkedHashSet<>();
+        addChildIds(childIds, after);
+        addChildIds(childIds, before);
+
+        final Collection<DataTreeCandidateNode> ret = new ArrayList<>();
+        for (PathArgument childId : childIds) {
+            final HashDiffCandidateNode child = childNode(childId);
+            if (child.type != ModificationType.UNMODIFIED) {
+                ret.add(child);
+            }
+        }
+        return ret;
+    }
+
+    @Override
+    public DataTreeCandidateNode getModifiedChild(final PathArgument childIdentifier) {
+        if (type == ModificationType.UNMODIFIED) {
+            return null;
+        }
+        final HashDiffCandidateNode child = childNode(childIdentifier);
+        return child.type != ModificationType.UNMODIFIED ? child : null;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this).add("identifier", identifier).add("type", type).toString();
+    }
+
+    private HashDiffCandidateNode childNode(final PathArgument childId) {
+        return new HashDiffCandidateNode(childId, childOf(before, childId), childOf(after, childId));
+    }
+
+    private static @Nullable TreeNode childOf(final @Nullable TreeNode node, final PathArgument childId) {
+        return node != null && node.getData() instanceof NormalizedNodeContainer ? node.getChild(childId).orElse(null)
+                : null;
+    }
+
+    private static void addChildIds(final Set<PathArgument> childIds, final @Nullable TreeNode node) {
+        if (node != null && node.getData() instanceof NormalizedNodeContainer) {
+            for (Object child : ((NormalizedNodeContainer<?, ?, ?>) node.getData()).getValue()) {
+                childIds.add(((NormalizedNode<?, ?>) child).getIdentifier());
+            }
+        }
+    }
+}
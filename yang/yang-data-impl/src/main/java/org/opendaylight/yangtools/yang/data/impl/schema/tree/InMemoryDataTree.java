@@ -9,14 +9,23 @@ package org.opendaylight.yangtools.yang.data.impl.schema.tree;
 
 import com.google.common.base.MoreObjects;
 import com.google.common.base.Preconditions;
+import java.util.List;
+import java.util.Optional;
 import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 import javax.annotation.Nonnull;
 import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
 import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNodes;
-import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTree;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.BatchingDataTree;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.BulkLoadingDataTree;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeBatch;
 import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidate;
 import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeConfiguration;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeLoader;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeModification;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataValidationFailedException;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.RebasingDataTree;
 import org.opendaylight.yangtools.yang.data.api.schema.tree.spi.TreeNode;
+import org.opendaylight.yangtools.yang.data.api.schema.xpath.XPathSchemaContextFactory;
 import org.opendaylight.yangtools.yang.data.util.DataSchemaContextNode;
 import org.opendaylight.yangtools.yang.data.util.DataSchemaContextTree;
 import org.opendaylight.yangtools.yang.model.api.ContainerSchemaNode;
@@ -29,12 +38,15 @@ import org.slf4j.LoggerFactory;
 /**
  * Read-only snapshot of the data tree.
  */
-final class InMemoryDataTree extends AbstractDataTreeTip implements DataTree {
+final class InMemoryDataTree extends AbstractDataTreeTip implements BatchingDataTree, BulkLoadingDataTree,
+        RebasingDataTree {
     private static final AtomicReferenceFieldUpdater<InMemoryDataTree, DataTreeState> STATE_UPDATER =
             AtomicReferenceFieldUpdater.newUpdater(InMemoryDataTree.class, DataTreeState.class, "state");
     private static final Logger LOG = LoggerFactory.getLogger(InMemoryDataTree.class);
 
+    private final XPathSchemaContextFactory xpathFactory;
     private final DataTreeConfiguration treeConfig;
+    private final LeafIndexes leafIndexes;
     private final boolean maskMandatory;
 
     /**
@@ -43,21 +55,28 @@ final class InMemoryDataTree extends AbstractDataTreeTip implements DataTree {
     private volatile DataTreeState state;
 
     InMemoryDataTree(final TreeNode rootNode, final DataTreeConfiguration treeConfig,
-        final SchemaContext schemaContext) {
+        final SchemaContext schemaContext, final XPathSchemaContextFactory xpathFactory) {
         this.treeConfig = Preconditions.checkNotNull(treeConfig, "treeConfig");
+        this.xpathFactory = xpathFactory;
         maskMandatory = true;
-        state = DataTreeState.createInitial(rootNode);
+        leafIndexes = LeafIndexes.forConfiguration(treeConfig);
+        state = DataTreeState.createInitial(rootNode, leafIndexes);
         if (schemaContext != null) {
             setSchemaContext(schemaContext);
         }
     }
 
     InMemoryDataTree(final TreeNode rootNode, final DataTreeConfiguration treeConfig,
-            final SchemaContext schemaContext, final DataSchemaNode rootSchemaNode, final boolean maskMandatory) {
+            final SchemaContext schemaContext, final DataSchemaNode rootSchemaNode, final boolean maskMandatory,
+            final XPathSchemaContextFactory xpathFactory) {
         this.treeConfig = Preconditions.checkNotNull(treeConfig, "treeConfig");
         this.maskMandatory = maskMandatory;
+        this.xpathFactory = xpathFactory;
+        leafIndexes = LeafIndexes.forConfiguration(treeConfig);
 
-        state = DataTreeState.createInitial(rootNode).withSchemaContext(schemaContext, getOperation(rootSchemaNode));
+        state = DataTreeState.createInitial(rootNode, leafIndexes).withSchemaContext(schemaContext,
+            getOperation(rootSchemaNode), MustWhenEnforcer.forSchemaContext(schemaContext, treeConfig, xpathFactory),
+            LeafRefEnforcer.forSchemaContext(schemaContext, treeConfig));
     }
 
     private ModificationApplyOperation getOperation(final DataSchemaNode rootSchemaNode) {
@@ -92,11 +111,15 @@ final class InMemoryDataTree extends AbstractDataTreeTip implements DataTree {
         }
 
         final ModificationApplyOperation rootNode = getOperation(rootSchemaNode);
+        final MustWhenEnforcer mustWhenEnforcer = MustWhenEnforcer.forSchemaContext(newSchemaContext, treeConfig,
+            xpathFactory);
+        final LeafRefEnforcer leafRefEnforcer = LeafRefEnforcer.forSchemaContext(newSchemaContext, treeConfig);
         DataTreeState currentState;
         DataTreeState newState;
         do {
             currentState = state;
-            newState = currentState.withSchemaContext(newSchemaContext, rootNode);
+            newState = currentState.withSchemaContext(newSchemaContext, rootNode, mustWhenEnforcer,
+                leafRefEnforcer);
         } while (!STATE_UPDATER.compareAndSet(this, currentState, newState));
     }
 
@@ -137,6 +160,59 @@ final class InMemoryDataTree extends AbstractDataTreeTip implements DataTree {
             newState = currentState.withRoot(newRoot);
             LOG.trace("Updated state from {} to {}", currentState, newState);
         } while (!STATE_UPDATER.compareAndSet(this, currentState, newState));
+
+        leafIndexes.commit(c);
+    }
+
+    @Override
+    public DataTreeCandidate commitRebased(final DataTreeCandidate candidate) throws DataValidationFailedException {
+        if (candidate instanceof NoopDataTreeCandidate) {
+            return candidate;
+        }
+        Preconditions.checkArgument(candidate instanceof InMemoryDataTreeCandidate, "Invalid candidate class %s",
+            candidate.getClass());
+        InMemoryDataTreeCandidate toCommit = (InMemoryDataTreeCandidate)candidate;
+
+        DataTreeState currentState;
+        DataTreeState newState;
+        do {
+            currentState = state;
+            if (toCommit.getBeforeRoot() != currentState.getRoot()) {
+                toCommit = rebase(toCommit, currentState);
+            }
+
+            newState = currentState.withRoot(toCommit.getTipRoot());
+            LOG.trace("Updated state from {} to {}", currentState, newState);
+        } while (!STATE_UPDATER.compareAndSet(this, currentState, newState));
+
+        leafIndexes.commit(toCommit);
+        return toCommit;
+    }
+
+    private InMemoryDataTreeCandidate rebase(final InMemoryDataTreeCandidate candidate,
+            final DataTreeState currentState) throws DataValidationFailedException {
+        final InMemoryDataTreeModification m = candidate.getModification();
+        Preconditions.checkState(m != null, "Candidate %s has not been prepared from a modification", candidate);
+        Preconditions.checkState(m.getSchemaContext() == currentState.getSchemaContext(),
+            "Candidate %s was prepared with a different SchemaContext", candidate);
+
+        // Re-validating the modification against the current root detects any conflicts with candidates committed
+        // since the candidate's base, while the modification needs to be re-applied only on the paths it touches.
+        final TreeNode currentRoot = currentState.getRoot();
+        LOG.debug("Rebasing candidate {} from {} onto {}", candidate, candidate.getBeforeRoot(), currentRoot);
+        m.getStrategy().checkApplicable(new ModificationPath(getRootPath()), m.getRootModification(),
+            Optional.of(currentRoot), m.getVersion());
+        return applyModification(m, currentRoot);
+    }
+
+    @Override
+    public DataTreeBatch prepareBatch(final List<? extends DataTreeModification> modifications) {
+        return new BatchPreparation(this).prepare(modifications);
+    }
+
+    @Override
+    public DataTreeLoader newLoader() {
+        return InMemoryDataTreeLoader.create(takeSnapshot(), getRootPath());
     }
 
     private static String simpleToString(final Object obj) {
@@ -9,6 +9,7 @@ package org.opendaylight.yangtools.yang.data.impl.schema.tree;
 
 import com.google.common.base.MoreObjects;
 import javax.annotation.Nonnull;
+import org.eclipse.jdt.annotation.Nullable;
 import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
 import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
 import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidateNode;
@@ -29,11 +30,19 @@ final class InMemoryDataTreeCandidate extends AbstractDataTreeCandidate {
     }
 
     private final RootNode root;
+    private final @Nullable InMemoryDataTreeModification modification;
 
     InMemoryDataTreeCandidate(final YangInstanceIdentifier rootPath, final ModifiedNode modificationRoot,
             final TreeNode beforeRoot, final TreeNode afterRoot) {
+        this(rootPath, modificationRoot, beforeRoot, afterRoot, null);
+    }
+
+    InMemoryDataTreeCandidate(final YangInstanceIdentifier rootPath, final ModifiedNode modificationRoot,
+            final TreeNode beforeRoot, final TreeNode afterRoot,
+            final @Nullable InMemoryDataTreeModification modification) {
         super(rootPath);
         this.root = new RootNode(modificationRoot, beforeRoot, afterRoot);
+        this.modification = modification;
     }
 
     @Override
@@ -46,6 +55,15 @@ final class InMemoryDataTreeCandidate extends AbstractDataTreeCandidate {
         return root.getOldMeta();
     }
 
+    /**
+     * Return the modification from which this candidate has been prepared, if available.
+     *
+     * @return Source modification, or null if not available
+     */
+    @Nullable InMemoryDataTreeModification getModification() {
+        return modification;
+    }
+
     @Override
     public DataTreeCandidateNode getRootNode() {
         return root;
@@ -7,7 +7,11 @@
  */
 package org.opendaylight.yangtools.yang.data.impl.schema.tree;
 
+import static java.util.Objects.requireNonNull;
+
 import com.google.common.base.Preconditions;
+import java.util.Iterator;
+import java.util.ServiceLoader;
 import org.kohsuke.MetaInfServices;
 import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
 import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
@@ -23,6 +27,7 @@ import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeModification
 import org.opendaylight.yangtools.yang.data.api.schema.tree.DataValidationFailedException;
 import org.opendaylight.yangtools.yang.data.api.schema.tree.spi.TreeNodeFactory;
 import org.opendaylight.yangtools.yang.data.api.schema.tree.spi.Version;
+import org.opendaylight.yangtools.yang.data.api.schema.xpath.XPathSchemaContextFactory;
 import org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes;
 import org.opendaylight.yangtools.yang.data.impl.schema.builder.impl.ImmutableContainerNodeBuilder;
 import org.opendaylight.yangtools.yang.data.util.DataSchemaContextNode;
@@ -34,16 +39,28 @@ import org.opendaylight.yangtools.yang.model.api.ListSchemaNode;
 import org.opendaylight.yangtools.yang.model.api.SchemaContext;
 
 /**
- * A factory for creating in-memory data trees.
+ * A factory for creating in-memory data trees. Trees which have
+ * {@link DataTreeConfiguration#isMustWhenValidationEnabled()} set require an {@link XPathSchemaContextFactory}, which
+ * can either be specified explicitly or is discovered via {@link ServiceLoader}.
  */
 @MetaInfServices
 public final class InMemoryDataTreeFactory implements DataTreeFactory {
     private static final NormalizedNode<?, ?> ROOT_CONTAINER = ImmutableNodes.containerNode(SchemaContext.NAME);
 
+    private final XPathSchemaContextFactory xpathFactory;
+
+    public InMemoryDataTreeFactory() {
+        this.xpathFactory = null;
+    }
+
+    public InMemoryDataTreeFactory(final XPathSchemaContextFactory xpathFactory) {
+        this.xpathFactory = requireNonNull(xpathFactory);
+    }
+
     @Override
     public DataTree create(final DataTreeConfiguration treeConfig) {
         return new InMemoryDataTree(TreeNodeFactory.createTreeNode(createRoot(treeConfig.getRootPath()),
-            Version.initial()), treeConfig, null);
+            Version.initial(), treeConfig.isCompactValuesEnabled()), treeConfig, null, xpathFactory(treeConfig));
     }
 
     @Override
@@ -66,13 +83,25 @@ public final class InMemoryDataTreeFactory implements DataTreeFactory {
         return ret;
     }
 
-    private static DataTree create(final DataTreeConfiguration treeConfig, final SchemaContext initialSchemaContext,
+    private DataTree create(final DataTreeConfiguration treeConfig, final SchemaContext initialSchemaContext,
             final boolean maskMandatory) {
         final DataSchemaNode rootSchemaNode = getRootSchemaNode(initialSchemaContext, treeConfig.getRootPath());
         final NormalizedNode<?, ?> rootDataNode = createRoot((DataNodeContainer)rootSchemaNode,
             treeConfig.getRootPath());
-        return new InMemoryDataTree(TreeNodeFactory.createTreeNode(rootDataNode, Version.initial()), treeConfig,
-            initialSchemaContext, rootSchemaNode, maskMandatory);
+        return new InMemoryDataTree(TreeNodeFactory.createTreeNode(rootDataNode, Version.initial(),
+            treeConfig.isCompactValuesEnabled()), treeConfig, initialSchemaContext, rootSchemaNode, maskMandatory,
+            xpathFactory(treeConfig));
+    }
+
+    private XPathSchemaContextFactory xpathFactory(final DataTreeConfiguration treeConfig) {
+        if (xpathFactory != null || !treeConfig.isMustWhenValidationEnabled()) {
+            return xpathFactory;
+        }
+
+        final Iterator<XPathSchemaContextFactory> it = ServiceLoader.load(XPathSchemaContextFactory.class,
+            InMemoryDataTreeFactory.class.getClassLoader()).iterator();
+        Preconditions.checkArgument(it.hasNext(), "No XPathSchemaContextFactory available to enforce %s", treeConfig);
+        return it.next();
     }
 
     private static DataSchemaNode getRootSchemaNode(final SchemaContext schemaContext,
@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2018 Pantheon Technologies, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.impl.schema.tree;
+
+import static com.google.common.base.Preconditions.checkState;
+import static java.util.Objects.requireNonNull;
+
+import java.util.Optional;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.schema.ContainerNode;
+import org.opendaylight.yangtools.yang.data.api.schema.MapEntryNode;
+import org.opendaylight.yangtools.yang.data.api.schema.MapNode;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.OrderedMapNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidateTip;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeLoader;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataValidationFailedException;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.spi.TreeNode;
+import org.opendaylight.yangtools.yang.data.impl.schema.Builders;
+import org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNormalizedNodeStreamWriter;
+import org.opendaylight.yangtools.yang.data.impl.schema.builder.api.NormalizedNodeContainerBuilder;
+
+/**
+ * A {@link DataTreeLoader} for {@link InMemoryDataTree}. Loaded data is built into immutable nodes as it is streamed,
+ * without going through a {@link InMemoryDataTreeModification} cursor. Once complete, it is written as a whole at the
+ * root of a modification, which is then sealed, validated and prepared exactly like any other modification. Loaded
+ * data is therefore subject to the same enforcement as a write of the same data at the root of the tree, including its
+ * limits: in {@link org.opendaylight.yangtools.yang.data.api.schema.tree.TreeType#OPERATIONAL} trees the structure of
+ * nested data is not verified and constraints enforced during that verification, e.g. min/max-elements, mandatory
+ * nodes and unique indexes of nested lists, are not checked.
+ *
+ * <p>
+ * Loaders can be created for all roots supported by {@link InMemoryDataTreeFactory}, i.e. containers, lists and list
+ * entries.
+ */
+final class InMemoryDataTreeLoader extends ImmutableNormalizedNodeStreamWriter implements DataTreeLoader {
+    @SuppressWarnings("rawtypes")
+    private final NormalizedNodeContainerBuilder rootBuilder;
+    private final InMemoryDataTreeSnapshot snapshot;
+    private final YangInstanceIdentifier rootPath;
+
+    private boolean prepared;
+
+    @SuppressWarnings("rawtypes")
+    private InMemoryDataTreeLoader(final InMemoryDataTreeSnapshot snapshot, final YangInstanceIdentifier rootPath,
+            final NormalizedNodeContainerBuilder rootBuilder) {
+        super(rootBuilder);
+        this.snapshot = requireNonNull(snapshot);
+        this.rootPath = requireNonNull(rootPath);
+        this.rootBuilder = rootBuilder;
+    }
+
+    static InMemoryDataTreeLoader create(final InMemoryDataTreeSnapshot snapshot,
+            final YangInstanceIdentifier rootPath) {
+        return new InMemoryDataTreeLoader(snapshot, rootPath, rootBuilder(snapshot.getRootNode().getData()));
+    }
+
+    @SuppressWarnings("rawtypes")
+    private static NormalizedNodeContainerBuilder rootBuilder(final NormalizedNode<?, ?> root) {
+        if (root instanceof ContainerNode) {
+            return Builders.containerBuilder().withNodeIdentifier(((ContainerNode) root).getIdentifier());
+        }
+        if (root instanceof MapEntryNode) {
+            return Builders.mapEntryBuilder().withNodeIdentifier(((MapEntryNode) root).getIdentifier());
+        }
+        if (root instanceof OrderedMapNode) {
+            return Builders.orderedMapBuilder().withNodeIdentifier(((OrderedMapNode) root).getIdentifier());
+        }
+        if (root instanceof MapNode) {
+            return Builders.mapBuilder().withNodeIdentifier(((MapNode) root).getIdentifier());
+        }
+
+        // InMemoryDataTreeFactory does not create any other roots
+        throw new IllegalStateException("Unexpected root " + root);
+    }
+
+    @Override
+    public DataTreeCandidateTip prepare() throws DataValidationFailedException {
+        checkState(!prepared, "Loader %s has already been prepared", this);
+        checkState(getBuilders().size() == 1, "Loader %s has unfinished nodes", this);
+        prepared = true;
+
+        final InMemoryDataTreeModification modification = snapshot.newModification();
+        modification.write(YangInstanceIdentifier.EMPTY, rootBuilder.build());
+        modification.ready();
+
+        final Optional<TreeNode> currentRoot = Optional.of(snapshot.getRootNode());
+        modification.getStrategy().checkApplicable(new ModificationPath(rootPath),
+            modification.getRootModification(), currentRoot, modification.getVersion());
+        return AbstractDataTreeTip.applyModification(modification, currentRoot.get());
+    }
+}
@@ -9,16 +9,19 @@ package org.opendaylight.yangtools.yang.data.impl.schema.tree;
 
 import com.google.common.base.Preconditions;
 import java.util.Collection;
+import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 import javax.annotation.Nonnull;
 import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
 import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
+import org.opendaylight.yangtools.yang.data.api.schema.MapEntryNode;
 import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
 import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNodes;
 import org.opendaylight.yangtools.yang.data.api.schema.tree.CursorAwareDataTreeModification;
 import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeModificationCursor;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.IndexedDataTreeSnapshot;
 import org.opendaylight.yangtools.yang.data.api.schema.tree.StoreTreeNodes;
 import org.opendaylight.yangtools.yang.data.api.schema.tree.spi.TreeNode;
 import org.opendaylight.yangtools.yang.data.api.schema.tree.spi.Version;
@@ -26,7 +29,8 @@ import org.opendaylight.yangtools.yang.model.api.SchemaContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-final class InMemoryDataTreeModification extends AbstractCursorAware implements CursorAwareDataTreeModification {
+final class InMemoryDataTreeModification extends AbstractCursorAware implements CursorAwareDataTreeModification,
+        IndexedDataTreeSnapshot {
     private static final AtomicIntegerFieldUpdater<InMemoryDataTreeModification> SEALED_UPDATER =
             AtomicIntegerFieldUpdater.newUpdater(InMemoryDataTreeModification.class, "sealed");
     private static final Logger LOG = LoggerFactory.getLogger(InMemoryDataTreeModification.class);
@@ -64,6 +68,14 @@ final class InMemoryDataTreeModification extends AbstractCursorAware implements
         return strategyTree;
     }
 
+    MustWhenEnforcer getMustWhenEnforcer() {
+        return snapshot.getMustWhenEnforcer();
+    }
+
+    LeafRefEnforcer getLeafRefEnforcer() {
+        return snapshot.getLeafRefEnforcer();
+    }
+
     @Override
     public SchemaContext getSchemaContext() {
         return snapshot.getSchemaContext();
@@ -111,6 +123,37 @@ final class InMemoryDataTreeModification extends AbstractCursorAware implements
         return Optional.empty();
     }
 
+    @Override
+    public Optional<Collection<MapEntryNode>> lookupIndex(final YangInstanceIdentifier listPath,
+            final Map<YangInstanceIdentifier, Object> leafValues) {
+        final Entry<YangInstanceIdentifier, ModifiedNode> entry = StoreTreeNodes.findClosestsOrFirstMatch(rootNode,
+            listPath, ModifiedNode.IS_TERMINAL_PREDICATE);
+        final YangInstanceIdentifier key = entry.getKey();
+        final ModifiedNode mod = entry.getValue();
+
+        final Optional<TreeNode> list;
+        final ModifiedNode listMod;
+        if (key.equals(listPath)) {
+            // The list itself has been modified, its indexes can be derived from the original ones
+            list = resolveSnapshot(key, mod);
+            listMod = mod.getOperation() == LogicalOperation.TOUCH || mod.getOperation() == LogicalOperation.MERGE
+                    ? mod : null;
+        } else if (ModifiedNode.IS_TERMINAL_PREDICATE.test(mod)) {
+            // An ancestor has been replaced, the list needs to be indexed from scratch
+            list = resolveSnapshot(key, mod).flatMap(node -> StoreTreeNodes.findNode(node,
+                listPath.relativeTo(key).get()));
+            listMod = null;
+        } else {
+            // The list has not been modified
+            list = StoreTreeNodes.findNode(snapshot.getRootNode(), listPath);
+            listMod = null;
+        }
+
+        final Optional<Collection<MapEntryNode>> ret = snapshot.getLeafIndexes().lookup(list, listMod, listPath,
+            Preconditions.checkNotNull(leafValues));
+        return ret.isPresent() ? ret : MapIndexValidation.lookup(strategyTree, listPath, list, leafValues);
+    }
+
     @SuppressWarnings("checkstyle:illegalCatch")
     private Optional<TreeNode> resolveSnapshot(final YangInstanceIdentifier path, final ModifiedNode modification) {
         final Optional<TreeNode> potentialSnapshot = modification.getSnapshot();
@@ -199,7 +242,8 @@ final class InMemoryDataTreeModification extends AbstractCursorAware implements
             "Data tree root is not present, possibly removed by previous modification");
 
         final InMemoryDataTreeSnapshot tempTree = new InMemoryDataTreeSnapshot(snapshot.getSchemaContext(),
-            tempRoot.get(), strategyTree);
+            tempRoot.get(), strategyTree, snapshot.getMustWhenEnforcer(), snapshot.getLeafRefEnforcer(),
+            snapshot.getLeafIndexes());
         return tempTree.newModification();
     }
 
@@ -10,34 +10,69 @@ package org.opendaylight.yangtools.yang.data.impl.schema.tree;
 import static com.google.common.base.Preconditions.checkArgument;
 import static java.util.Objects.requireNonNull;
 
+import java.util.Collection;
+import java.util.Map;
 import java.util.Optional;
+import java.util.OptionalLong;
 import javax.annotation.Nonnull;
 import org.eclipse.jdt.annotation.NonNull;
 import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.schema.MapEntryNode;
 import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
 import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNodeContainer;
 import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNodes;
 import org.opendaylight.yangtools.yang.data.api.schema.tree.CursorAwareDataTreeSnapshot;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidate;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidates;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeSnapshot;
 import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeSnapshotCursor;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.HashedDataTreeSnapshot;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.IndexedDataTreeSnapshot;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.StoreTreeNodes;
 import org.opendaylight.yangtools.yang.data.api.schema.tree.spi.TreeNode;
 import org.opendaylight.yangtools.yang.model.api.SchemaContext;
 
-final class InMemoryDataTreeSnapshot extends AbstractCursorAware implements CursorAwareDataTreeSnapshot {
+final class InMemoryDataTreeSnapshot extends AbstractCursorAware implements CursorAwareDataTreeSnapshot,
+        IndexedDataTreeSnapshot, HashedDataTreeSnapshot {
     private final @NonNull RootModificationApplyOperation applyOper;
     private final @NonNull SchemaContext schemaContext;
+    private final @NonNull MustWhenEnforcer mustWhenEnforcer;
+    private final @NonNull LeafRefEnforcer leafRefEnforcer;
+    private final @NonNull LeafIndexes leafIndexes;
     private final @NonNull TreeNode rootNode;
 
     InMemoryDataTreeSnapshot(final SchemaContext schemaContext, final TreeNode rootNode,
             final RootModificationApplyOperation applyOper) {
+        this(schemaContext, rootNode, applyOper, MustWhenEnforcer.noop(), LeafRefEnforcer.noop(), LeafIndexes.empty());
+    }
+
+    InMemoryDataTreeSnapshot(final SchemaContext schemaContext, final TreeNode rootNode,
+            final RootModificationApplyOperation applyOper, final MustWhenEnforcer mustWhenEnforcer,
+            final LeafRefEnforcer leafRefEnforcer, final LeafIndexes leafIndexes) {
         this.schemaContext = requireNonNull(schemaContext);
         this.rootNode = requireNonNull(rootNode);
         this.applyOper = requireNonNull(applyOper);
+        this.mustWhenEnforcer = requireNonNull(mustWhenEnforcer);
+        this.leafRefEnforcer = requireNonNull(leafRefEnforcer);
+        this.leafIndexes = requireNonNull(leafIndexes);
     }
 
     TreeNode getRootNode() {
         return rootNode;
     }
 
+    MustWhenEnforcer getMustWhenEnforcer() {
+        return mustWhenEnforcer;
+    }
+
+    LeafRefEnforcer getLeafRefEnforcer() {
+        return leafRefEnforcer;
+    }
+
+    LeafIndexes getLeafIndexes() {
+        return leafIndexes;
+    }
+
     @Override
     public SchemaContext getSchemaContext() {
         return schemaContext;
@@ -48,6 +83,29 @@ final class InMemoryDataTreeSnapshot extends AbstractCursorAware implements Curs
         return NormalizedNodes.findNode(rootNode.getData(), path);
     }
 
+    @Override
+    public Optional<Collection<MapEntryNode>> lookupIndex(final YangInstanceIdentifier listPath,
+            final Map<YangInstanceIdentifier, Object> leafValues) {
+        final Optional<TreeNode> list = StoreTreeNodes.findNode(rootNode, listPath);
+        final Optional<Collection<MapEntryNode>> ret = leafIndexes.lookup(list, null, listPath,
+            requireNonNull(leafValues));
+        return ret.isPresent() ? ret : MapIndexValidation.lookup(applyOper, listPath, list, leafValues);
+    }
+
+    @Override
+    public OptionalLong readSubtreeHash(final YangInstanceIdentifier path) {
+        final Optional<TreeNode> node = StoreTreeNodes.findNode(rootNode, path);
+        return node.isPresent() ? OptionalLong.of(node.get().getSubtreeHash()) : OptionalLong.empty();
+    }
+
+    @Override
+    public DataTreeCandidate diffFrom(final DataTreeSnapshot other) {
+        checkArgument(other instanceof InMemoryDataTreeSnapshot, "Unsupported snapshot %s", other);
+        final TreeNode otherRoot = ((InMemoryDataTreeSnapshot) other).rootNode;
+        return DataTreeCandidates.newDataTreeCandidate(YangInstanceIdentifier.EMPTY,
+            new HashDiffCandidateNode(rootNode.getIdentifier(), otherRoot, rootNode));
+    }
+
     @Override
     public InMemoryDataTreeModification newModification() {
         return new InMemoryDataTreeModification(this, applyOper);
@@ -0,0 +1,195 @@
+/*
+ * Copyright (c) 2018 Pantheon Technologies, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.impl.schema.tree;
+
+import static java.util.Objects.requireNonNull;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.Collections2;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Optional;
+import java.util.Set;
+import org.eclipse.jdt.annotation.Nullable;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
+import org.opendaylight.yangtools.yang.data.api.schema.MapEntryNode;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNodeContainer;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidateNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeConfiguration;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.ModificationType;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.StoreTreeNodes;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.spi.TreeNode;
+import org.opendaylight.yangtools.yang.data.impl.schema.tree.MapIndexState.UniqueViolationException;
+
+/**
+ * Secondary indexes on list leaves, as declared by {@link DataTreeConfiguration#getLeafIndexes()}. Index contents are
+ * attached to {@link TreeNode} versions of the indexed lists. They are built when first looked up and are then derived
+ * for each committed version of the list from the contents of its predecessor, in time proportional to the number of
+ * modified entries.
+ */
+final class LeafIndexes {
+    private static final LeafIndexes EMPTY = new LeafIndexes(ImmutableMap.of());
+
+    private final ImmutableMap<YangInstanceIdentifier, List<MapIndex>> indexes;
+
+    private LeafIndexes(final ImmutableMap<YangInstanceIdentifier, List<MapIndex>> indexes) {
+        this.indexes = requireNonNull(indexes);
+    }
+
+    static LeafIndexes empty() {
+        return EMPTY;
+    }
+
+    static LeafIndexes forConfiguration(final DataTreeConfiguration treeConfig) {
+        if (treeConfig.getLeafIndexes().isEmpty()) {
+            return EMPTY;
+        }
+
+        final ImmutableMap.Builder<YangInstanceIdentifier, List<MapIndex>> builder = ImmutableMap.builder();
+        for (Entry<YangInstanceIdentifier, Collection<YangInstanceIdentifier>> entry
+                : treeConfig.getLeafIndexes().asMap().entrySet()) {
+            builder.put(entry.getKey(), ImmutableList.copyOf(Collections2.transform(entry.getValue(),
+                MapIndex::forLeaf)));
+        }
+        return new LeafIndexes(builder.build());
+    }
+
+    /**
+     * Update index contents to reflect a candidate which is being committed.
+     *
+     * @param candidate Candidate being committed
+     */
+    void commit(final InMemoryDataTreeCandidate candidate) {
+        for (Entry<YangInstanceIdentifier, List<MapIndex>> entry : indexes.entrySet()) {
+            final YangInstanceIdentifier listPath = entry.getKey();
+            DataTreeCandidateNode node = candidate.getRootNode();
+            for (PathArgument arg : listPath.getPathArguments()) {
+                node = node.getModifiedChild(arg);
+                if (node == null) {
+                    break;
+                }
+            }
+
+            // Lists which have been replaced or removed are indexed again when they are looked up
+            if (node == null || node.getModificationType() != ModificationType.SUBTREE_MODIFIED) {
+                continue;
+            }
+
+            final Optional<TreeNode> before = StoreTreeNodes.findNode(candidate.getBeforeRoot(), listPath);
+            final Optional<TreeNode> after = StoreTreeNodes.findNode(candidate.getTipRoot(), listPath);
+            if (before.isPresent() && after.isPresent()) {
+                final Object prev = before.get().getAttachment(entry.getValue());
+                if (prev != null) {
+                    after.get().attach(entry.getValue(), update(entry.getValue(), (MapIndexState) prev,
+                        before.get(), after.get(), Collections2.transform(node.getChildNodes(),
+                            DataTreeCandidateNode::getIdentifier)));
+                }
+            }
+        }
+    }
+
+    /**
+     * Look up entries of a list instance in an index covering specified leaves.
+     *
+     * @param list Current list instance, if present
+     * @param modification Uncommitted modification of the list, if it is known to be incremental with respect to
+     *                     its original state
+     * @param listPath Path to the list instance
+     * @param leafValues Values of leaves, keyed by their paths relative to list entries
+     * @return Matching entries, or empty if no index covers the leaves
+     */
+    Optional<Collection<MapEntryNode>> lookup(final Optional<TreeNode> list, final @Nullable ModifiedNode modification,
+            final YangInstanceIdentifier listPath, final Map<YangInstanceIdentifier, Object> leafValues) {
+        final List<MapIndex> listIndexes = indexes.get(listPath);
+        if (listIndexes == null) {
+            return Optional.empty();
+        }
+
+        final Set<List<QName>> requested = MapIndex.requestedLeaves(leafValues);
+        for (int i = 0; i < listIndexes.size(); ++i) {
+            final MapIndex index = listIndexes.get(i);
+            if (index.covers(requested)) {
+                if (!list.isPresent()) {
+                    return Optional.of(ImmutableList.of());
+                }
+
+                final TreeNode node = list.get();
+                return Optional.of(stateOf(listIndexes, node, modification).lookupEntries(i,
+                    index.valuesOf(leafValues), node));
+            }
+        }
+        return Optional.empty();
+    }
+
+    private MapIndexState stateOf(final List<MapIndex> listIndexes, final TreeNode node,
+            final @Nullable ModifiedNode modification) {
+        final Object attached = node.getAttachment(listIndexes);
+        if (attached != null) {
+            return (MapIndexState) attached;
+        }
+
+        final MapIndexState state;
+        if (modification != null && modification.getOriginal().isPresent()) {
+            final TreeNode original = modification.getOriginal().get();
+            state = update(listIndexes, stateOf(listIndexes, original, null), original, node,
+                modifiedChildren(modification));
+        } else {
+            state = build(listIndexes, node);
+        }
+        node.attach(listIndexes, state);
+        return state;
+    }
+
+    private static Collection<PathArgument> modifiedChildren(final ModifiedNode modification) {
+        final Collection<PathArgument> children = Collections2.transform(modification.getChildren(),
+            ModifiedNode::getIdentifier);
+        if (modification.getOperation() != LogicalOperation.MERGE) {
+            return children;
+        }
+
+        // Merged entries may not have been expanded into child modifications
+        final ImmutableList.Builder<PathArgument> builder = ImmutableList.<PathArgument>builder().addAll(children);
+        final NormalizedNode<?, ?> merged = modification.getWrittenValue();
+        if (merged instanceof NormalizedNodeContainer) {
+            for (NormalizedNode<?, ?> child : ((NormalizedNodeContainer<?, ?, ?>) merged).getValue()) {
+                builder.add(child.getIdentifier());
+            }
+        }
+        return builder.build();
+    }
+
+    private static MapIndexState build(final List<MapIndex> listIndexes, final TreeNode node) {
+        try {
+            return MapIndexState.build(listIndexes, (NormalizedNodeContainer<?, ?, ?>) node.getData());
+        } catch (UniqueViolationException e) {
+            throw new IllegalStateException("Leaf index reported a unique constraint violation", e);
+        }
+    }
+
+    private static MapIndexState update(final List<MapIndex> listIndexes, final MapIndexState prev,
+            final TreeNode before, final TreeNode after, final Collection<PathArgument> modified) {
+        try {
+            return prev.update(listIndexes, (NormalizedNodeContainer<?, ?, ?>) before.getData(),
+                (NormalizedNodeContainer<?, ?, ?>) after.getData(), modified);
+        } catch (UniqueViolationException e) {
+            throw new IllegalStateException("Leaf index reported a unique constraint violation", e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this).add("indexes", indexes).toString();
+    }
+}
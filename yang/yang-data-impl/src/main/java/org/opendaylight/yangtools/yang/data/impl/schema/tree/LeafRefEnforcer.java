@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2018 Pantheon Technologies, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.impl.schema.tree;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeConfiguration;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.spi.TreeNode;
+import org.opendaylight.yangtools.yang.data.impl.leafref.LeafRefContext;
+import org.opendaylight.yangtools.yang.data.impl.leafref.LeafRefDataValidationFailedException;
+import org.opendaylight.yangtools.yang.data.impl.leafref.LeafRefIndex;
+import org.opendaylight.yangtools.yang.model.api.SchemaContext;
+
+/**
+ * Enforcer of leafref constraints on an {@link InMemoryDataTreeCandidate}. A {@link LeafRefIndex} is associated with
+ * each root {@link TreeNode} a candidate has been prepared against or has produced, so that a candidate is validated
+ * incrementally against the index of its base. The index is built from scratch only when the base is not known, such
+ * as after a {@link SchemaContext} change.
+ */
+abstract class LeafRefEnforcer {
+    private static final class Strict extends LeafRefEnforcer {
+        private final Cache<TreeNode, LeafRefIndex> indexes = CacheBuilder.newBuilder().weakKeys().build();
+        private final LeafRefIndex emptyIndex;
+
+        Strict(final LeafRefIndex emptyIndex) {
+            this.emptyIndex = requireNonNull(emptyIndex);
+        }
+
+        @Override
+        void enforceOnCandidate(final InMemoryDataTreeCandidate candidate) {
+            final LeafRefIndex updated;
+            try {
+                updated = indexOf(candidate.getBeforeRoot()).update(candidate);
+            } catch (LeafRefDataValidationFailedException e) {
+                throw new SchemaValidationFailedException(e.getMessage(), e);
+            }
+            indexes.put(candidate.getTipRoot(), updated);
+        }
+
+        private LeafRefIndex indexOf(final TreeNode root) {
+            LeafRefIndex index = indexes.getIfPresent(root);
+            if (index == null) {
+                index = emptyIndex.withData(root.getData());
+                indexes.put(root, index);
+            }
+            return index;
+        }
+    }
+
+    private static final LeafRefEnforcer NOOP_ENFORCER = new LeafRefEnforcer() {
+        @Override
+        void enforceOnCandidate(final InMemoryDataTreeCandidate candidate) {
+            // Intentional no-op
+        }
+    };
+
+    /**
+     * Enforce leafref constraints on a prepared candidate.
+     *
+     * @param candidate Data tree candidate
+     * @throws SchemaValidationFailedException if a leafref constraint is violated
+     */
+    abstract void enforceOnCandidate(InMemoryDataTreeCandidate candidate);
+
+    static LeafRefEnforcer noop() {
+        return NOOP_ENFORCER;
+    }
+
+    static LeafRefEnforcer forSchemaContext(final SchemaContext schemaContext,
+            final DataTreeConfiguration treeConfig) {
+        if (!treeConfig.isLeafRefValidationEnabled()) {
+            return NOOP_ENFORCER;
+        }
+
+        checkArgument(treeConfig.getRootPath().isEmpty(), "Leafref validation is not supported on subtree %s",
+            treeConfig.getRootPath());
+        final LeafRefIndex emptyIndex = LeafRefIndex.create(LeafRefContext.create(schemaContext));
+        return emptyIndex.isEmpty() ? NOOP_ENFORCER : new Strict(emptyIndex);
+    }
+}
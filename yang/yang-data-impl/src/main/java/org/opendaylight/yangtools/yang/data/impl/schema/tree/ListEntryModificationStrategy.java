@@ -17,14 +17,17 @@ import org.opendaylight.yangtools.yang.data.api.schema.tree.spi.TreeNode;
 import org.opendaylight.yangtools.yang.data.api.schema.tree.spi.Version;
 import org.opendaylight.yangtools.yang.data.impl.schema.builder.api.DataContainerNodeBuilder;
 import org.opendaylight.yangtools.yang.data.impl.schema.builder.impl.ImmutableMapEntryNodeBuilder;
+import org.opendaylight.yangtools.yang.data.impl.schema.nodes.DataContainerLayout;
 import org.opendaylight.yangtools.yang.model.api.ListSchemaNode;
 
 final class ListEntryModificationStrategy extends AbstractDataNodeContainerModificationStrategy<ListSchemaNode> {
     private final MandatoryLeafEnforcer enforcer;
+    private final DataContainerLayout layout;
 
     ListEntryModificationStrategy(final ListSchemaNode schema, final DataTreeConfiguration treeConfig) {
         super(schema, MapEntryNode.class, treeConfig);
         enforcer = MandatoryLeafEnforcer.forContainer(schema, treeConfig);
+        layout = DataContainerLayout.of(schema);
     }
 
     @Override
@@ -61,7 +64,7 @@ final class ListEntryModificationStrategy extends AbstractDataNodeContainerModif
     @SuppressWarnings("rawtypes")
     protected DataContainerNodeBuilder createBuilder(final NormalizedNode<?, ?> original) {
         checkArgument(original instanceof MapEntryNode);
-        return ImmutableMapEntryNodeBuilder.create((MapEntryNode) original);
+        return ImmutableMapEntryNodeBuilder.create(layout, (MapEntryNode) original);
     }
 
     @Override
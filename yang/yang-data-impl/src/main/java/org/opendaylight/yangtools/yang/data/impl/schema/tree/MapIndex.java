@@ -0,0 +1,264 @@
+/*
+ * Copyright (c) 2018 Pantheon Technologies, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.impl.schema.tree;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.eclipse.jdt.annotation.Nullable;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.AugmentationIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
+import org.opendaylight.yangtools.yang.data.api.schema.LeafNode;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNodes;
+import org.opendaylight.yangtools.yang.data.impl.codec.TypeDefinitionAwareCodec;
+import org.opendaylight.yangtools.yang.data.util.DataSchemaContextNode;
+import org.opendaylight.yangtools.yang.model.api.ChoiceSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.ContainerSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.DataSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.LeafSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.ListSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.TypeDefinition;
+import org.opendaylight.yangtools.yang.model.api.UniqueConstraint;
+import org.opendaylight.yangtools.yang.model.api.stmt.SchemaNodeIdentifier.Relative;
+
+/**
+ * Definition of a secondary index on a keyed list. An index covers a set of leaves, which are descendants of list
+ * entries, and maps the combined values of those leaves to entry keys. As required by RFC7950 section 7.8.3, leaves
+ * of unique constraints which are not present take their default value, if it is in use. Entries which do not have
+ * all of the leaves present or defaulted are not indexed.
+ */
+final class MapIndex {
+    /**
+     * Default value of a leaf, which is in use when the leaf is not present and its closest presence container
+     * ancestor, if any, exists.
+     */
+    private static final class LeafDefault {
+        private final @Nullable YangInstanceIdentifier presencePath;
+        private final Object value;
+
+        LeafDefault(final @Nullable YangInstanceIdentifier presencePath, final Object value) {
+            this.presencePath = presencePath;
+            this.value = requireNonNull(value);
+        }
+
+        @Nullable Object valueIn(final NormalizedNode<?, ?> entry) {
+            return presencePath == null || NormalizedNodes.findNode(entry, presencePath).isPresent() ? value : null;
+        }
+    }
+
+    private final ImmutableList<YangInstanceIdentifier> paths;
+    private final ImmutableSet<List<QName>> leaves;
+    private final @Nullable LeafDefault[] defaults;
+    private final boolean unique;
+
+    private MapIndex(final ImmutableList<YangInstanceIdentifier> paths, final ImmutableSet<List<QName>> leaves,
+            final @Nullable LeafDefault[] defaults, final boolean unique) {
+        this.paths = requireNonNull(paths);
+        this.leaves = requireNonNull(leaves);
+        this.defaults = requireNonNull(defaults);
+        this.unique = unique;
+    }
+
+    /**
+     * Create an index enforcing a {@code unique} statement.
+     *
+     * @param schema List schema node
+     * @param constraint Unique constraint
+     * @return A new index
+     * @throws IllegalArgumentException if the constraint refers to a node which cannot be resolved
+     */
+    static MapIndex forUniqueConstraint(final ListSchemaNode schema, final UniqueConstraint constraint) {
+        final DataSchemaContextNode<?> entry = DataSchemaContextNode.fromDataSchemaNode(schema)
+                .getChild(schema.getQName());
+        final Collection<Relative> tags = constraint.getTag();
+        final ImmutableList.Builder<YangInstanceIdentifier> paths = ImmutableList.builder();
+        final ImmutableSet.Builder<List<QName>> leaves = ImmutableSet.builder();
+        final LeafDefault[] defaults = new LeafDefault[tags.size()];
+        int offset = 0;
+        for (Relative tag : tags) {
+            final List<QName> qnames = ImmutableList.copyOf(tag.getPathFromRoot());
+            final List<PathArgument> args = new ArrayList<>(qnames.size());
+            defaults[offset++] = resolvePath(schema, entry, qnames, args);
+            paths.add(YangInstanceIdentifier.create(args));
+            leaves.add(qnames);
+        }
+        return new MapIndex(paths.build(), leaves.build(), defaults, true);
+    }
+
+    /**
+     * Create a non-unique index on a single leaf.
+     *
+     * @param leafPath Path to the leaf, relative to the list entry
+     * @return A new index
+     * @throws IllegalArgumentException if the path is empty
+     */
+    static MapIndex forLeaf(final YangInstanceIdentifier leafPath) {
+        checkArgument(!leafPath.isEmpty(), "Leaf path must not be empty");
+        return new MapIndex(ImmutableList.of(leafPath), ImmutableSet.of(leafQNames(leafPath)), new LeafDefault[1],
+            false);
+    }
+
+    /**
+     * Find the leaves requested by a lookup.
+     *
+     * @param leafValues Map of leaf values, keyed by paths relative to the list entry
+     * @return Leaf paths, expressed as QNames relative to the list entry
+     */
+    static Set<List<QName>> requestedLeaves(final Map<YangInstanceIdentifier, Object> leafValues) {
+        return leafValues.keySet().stream().map(MapIndex::leafQNames).collect(Collectors.toSet());
+    }
+
+    private static List<QName> leafQNames(final YangInstanceIdentifier path) {
+        final List<QName> ret = new ArrayList<>();
+        for (PathArgument arg : path.getPathArguments()) {
+            if (!(arg instanceof AugmentationIdentifier)) {
+                ret.add(arg.getNodeType());
+            }
+        }
+        return ImmutableList.copyOf(ret);
+    }
+
+    /**
+     * Resolve a unique constraint's leaf.
+     *
+     * @param schema List schema node
+     * @param entry List entry context node
+     * @param qnames Path to the leaf
+     * @param args Path arguments to the leaf, populated by this method
+     * @return Default value of the leaf, or null if it does not have one
+     * @throws IllegalArgumentException if the path does not identify a leaf
+     */
+    private static @Nullable LeafDefault resolvePath(final ListSchemaNode schema, final DataSchemaContextNode<?> entry,
+            final List<QName> qnames, final List<PathArgument> args) {
+        YangInstanceIdentifier presencePath = null;
+        boolean inChoice = false;
+        DataSchemaContextNode<?> current = entry;
+        for (QName qname : qnames) {
+            DataSchemaContextNode<?> next = current.getChild(qname);
+            // Descend through augmentations and choices
+            while (next != null && next.isMixin()) {
+                inChoice |= next.getDataSchemaNode() instanceof ChoiceSchemaNode;
+                args.add(next.getIdentifier());
+                next = next.getChild(qname);
+            }
+            checkArgument(next != null, "Cannot resolve %s in list %s", qnames, schema.getQName());
+            args.add(next.getIdentifier());
+            current = next;
+
+            final DataSchemaNode node = current.getDataSchemaNode();
+            if (node instanceof ContainerSchemaNode && ((ContainerSchemaNode) node).isPresenceContainer()) {
+                presencePath = YangInstanceIdentifier.create(args);
+            }
+        }
+
+        final DataSchemaNode leaf = current.getDataSchemaNode();
+        checkArgument(current.isLeaf() && leaf instanceof LeafSchemaNode, "Path %s in list %s does not identify a leaf",
+            qnames, schema.getQName());
+        if (inChoice) {
+            // Whether a default is in use depends on which case is selected, we do not track that
+            return null;
+        }
+
+        final TypeDefinition<?> type = ((LeafSchemaNode) leaf).getType();
+        final Optional<? extends Object> defaultValue = type.getDefaultValue();
+        if (!defaultValue.isPresent()) {
+            return null;
+        }
+
+        final TypeDefinitionAwareCodec<Object, ?> codec = TypeDefinitionAwareCodec.from(type);
+        checkArgument(codec != null, "Default value of %s in list %s cannot be interpreted", qnames,
+            schema.getQName());
+        return new LeafDefault(presencePath, codec.deserialize(defaultValue.get().toString()));
+    }
+
+    boolean isUnique() {
+        return unique;
+    }
+
+    /**
+     * Check whether this index covers exactly the specified leaves.
+     *
+     * @param requested Leaf paths, expressed as QNames relative to the list entry
+     * @return True if this index covers the leaves
+     */
+    boolean covers(final Set<List<QName>> requested) {
+        return leaves.equals(requested);
+    }
+
+    /**
+     * Return the leaf paths this index covers in their natural order.
+     *
+     * @return Leaf paths
+     */
+    Set<List<QName>> getLeaves() {
+        return leaves;
+    }
+
+    /**
+     * Arrange values requested by a lookup in the order of this index's leaves.
+     *
+     * @param leafValues Map of leaf values, keyed by paths relative to the list entry
+     * @return Index values
+     */
+    List<Object> valuesOf(final Map<YangInstanceIdentifier, Object> leafValues) {
+        final List<Object> values = new ArrayList<>(leaves.size());
+        for (List<QName> leaf : leaves) {
+            for (Entry<YangInstanceIdentifier, Object> entry : leafValues.entrySet()) {
+                if (leaf.equals(leafQNames(entry.getKey()))) {
+                    values.add(entry.getValue());
+                    break;
+                }
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Extract the index values of a list entry.
+     *
+     * @param entry List entry
+     * @return Index values, or null if the entry does not contain all indexed leaves and they do not have defaults
+     */
+    @Nullable List<Object> extractValues(final NormalizedNode<?, ?> entry) {
+        final List<Object> values = new ArrayList<>(paths.size());
+        for (int i = 0; i < paths.size(); ++i) {
+            final Optional<NormalizedNode<?, ?>> leaf = NormalizedNodes.findNode(entry, paths.get(i));
+            if (leaf.isPresent() && leaf.get() instanceof LeafNode) {
+                values.add(leaf.get().getValue());
+                continue;
+            }
+
+            final LeafDefault leafDefault = defaults[i];
+            final Object value = leafDefault == null ? null : leafDefault.valueIn(entry);
+            if (value == null) {
+                return null;
+            }
+            values.add(value);
+        }
+        return values;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this).add("leaves", leaves).add("unique", unique).toString();
+    }
+}
@@ -0,0 +1,219 @@
+/*
+ * Copyright (c) 2018 Pantheon Technologies, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.impl.schema.tree;
+
+import static java.util.Objects.requireNonNull;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import org.opendaylight.yangtools.concepts.Immutable;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifierWithPredicates;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
+import org.opendaylight.yangtools.yang.data.api.schema.MapEntryNode;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNodeContainer;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.spi.TreeNode;
+import tech.pantheon.triemap.ImmutableTrieMap;
+import tech.pantheon.triemap.MutableTrieMap;
+import tech.pantheon.triemap.TrieMap;
+
+/**
+ * Contents of all {@link MapIndex}es of a particular list instance. Instances are immutable and are derived from
+ * their predecessors in time proportional to the number of modified entries, sharing their unmodified parts. Each
+ * index maps values to the key of the single entry holding them or, if there are more such entries in a non-unique
+ * index, to a persistent set of their keys, hence updating a bucket does not copy it.
+ */
+final class MapIndexState implements Immutable {
+    /**
+     * Exception thrown when an index update would violate index uniqueness.
+     */
+    static final class UniqueViolationException extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        UniqueViolationException(final String message) {
+            super(message);
+        }
+    }
+
+    // Values are either a NodeIdentifierWithPredicates or an ImmutableTrieMap<NodeIdentifierWithPredicates, Boolean>
+    private final ImmutableList<ImmutableTrieMap<List<Object>, Object>> contents;
+
+    private MapIndexState(final ImmutableList<ImmutableTrieMap<List<Object>, Object>> contents) {
+        this.contents = requireNonNull(contents);
+    }
+
+    /**
+     * Build index contents from scratch.
+     *
+     * @param indexes Index definitions
+     * @param map List contents
+     * @return Index contents
+     * @throws UniqueViolationException if a unique index is violated
+     */
+    static MapIndexState build(final List<MapIndex> indexes, final NormalizedNodeContainer<?, ?, ?> map)
+            throws UniqueViolationException {
+        final List<ImmutableTrieMap<List<Object>, Object>> builder = new ArrayList<>(indexes.size());
+        for (MapIndex index : indexes) {
+            final MutableTrieMap<List<Object>, Object> contents = TrieMap.create();
+            for (NormalizedNode<?, ?> entry : map.getValue()) {
+                addEntry(index, contents, entry);
+            }
+            builder.add(contents.immutableSnapshot());
+        }
+        return new MapIndexState(ImmutableList.copyOf(builder));
+    }
+
+    /**
+     * Derive index contents from this state, updating the entries which have been modified.
+     *
+     * @param indexes Index definitions
+     * @param before List contents this state corresponds to
+     * @param after List contents the new state should correspond to
+     * @param modified Identifiers of entries which differ between the two
+     * @return Updated index contents
+     * @throws UniqueViolationException if a unique index is violated
+     */
+    MapIndexState update(final List<MapIndex> indexes, final NormalizedNodeContainer<?, ?, ?> before,
+            final NormalizedNodeContainer<?, ?, ?> after, final Collection<PathArgument> modified)
+                    throws UniqueViolationException {
+        final List<ImmutableTrieMap<List<Object>, Object>> builder = new ArrayList<>(indexes.size());
+        for (int i = 0; i < indexes.size(); ++i) {
+            final MapIndex index = indexes.get(i);
+            final MutableTrieMap<List<Object>, Object> updated = contents.get(i).mutableSnapshot();
+
+            // Remove all previous values first, so that entries can exchange their values
+            final List<NormalizedNode<?, ?>> added = new ArrayList<>(modified.size());
+            for (PathArgument id : modified) {
+                final Optional<NormalizedNode<?, ?>> prev = getChild(before, id);
+                if (prev.isPresent()) {
+                    removeEntry(index, updated, prev.get());
+                }
+                getChild(after, id).ifPresent(added::add);
+            }
+            for (NormalizedNode<?, ?> entry : added) {
+                addEntry(index, updated, entry);
+            }
+            builder.add(updated.immutableSnapshot());
+        }
+        return new MapIndexState(ImmutableList.copyOf(builder));
+    }
+
+    /**
+     * Look up the keys of entries in an index.
+     *
+     * @param offset Index offset
+     * @param values Index values
+     * @return Entry keys, empty if not found
+     */
+    Set<NodeIdentifierWithPredicates> lookup(final int offset, final List<Object> values) {
+        final Object keys = contents.get(offset).get(values);
+        if (keys == null) {
+            return ImmutableSet.of();
+        }
+        return keys instanceof NodeIdentifierWithPredicates ? ImmutableSet.of((NodeIdentifierWithPredicates) keys)
+                : keysOf(keys).keySet();
+    }
+
+    /**
+     * Look up entries in an index.
+     *
+     * @param offset Index offset
+     * @param values Index values
+     * @param map List instance this state corresponds to
+     * @return Matching entries
+     */
+    Collection<MapEntryNode> lookupEntries(final int offset, final List<Object> values, final TreeNode map) {
+        final ImmutableList.Builder<MapEntryNode> builder = ImmutableList.builder();
+        for (NodeIdentifierWithPredicates key : lookup(offset, values)) {
+            map.getChild(key).ifPresent(entry -> builder.add((MapEntryNode) entry.getData()));
+        }
+        return builder.build();
+    }
+
+    private static void addEntry(final MapIndex index, final MutableTrieMap<List<Object>, Object> contents,
+            final NormalizedNode<?, ?> entry) throws UniqueViolationException {
+        final List<Object> values = index.extractValues(entry);
+        if (values == null) {
+            return;
+        }
+
+        final NodeIdentifierWithPredicates id = (NodeIdentifierWithPredicates) entry.getIdentifier();
+        final Object prev = contents.get(values);
+        if (prev == null) {
+            contents.put(values, id);
+            return;
+        }
+
+        final MutableTrieMap<NodeIdentifierWithPredicates, Boolean> keys;
+        if (prev instanceof NodeIdentifierWithPredicates) {
+            if (id.equals(prev)) {
+                return;
+            }
+            if (index.isUnique()) {
+                throw new UniqueViolationException(String.format("Entries %s and %s violate unique constraint on %s",
+                    prev, id, index.getLeaves()));
+            }
+            keys = TrieMap.create();
+            keys.put((NodeIdentifierWithPredicates) prev, Boolean.TRUE);
+        } else {
+            final ImmutableTrieMap<NodeIdentifierWithPredicates, Boolean> prevKeys = keysOf(prev);
+            if (prevKeys.containsKey(id)) {
+                return;
+            }
+            keys = prevKeys.mutableSnapshot();
+        }
+        keys.put(id, Boolean.TRUE);
+        contents.put(values, keys.immutableSnapshot());
+    }
+
+    private static void removeEntry(final MapIndex index, final MutableTrieMap<List<Object>, Object> contents,
+            final NormalizedNode<?, ?> entry) {
+        final List<Object> values = index.extractValues(entry);
+        if (values == null) {
+            return;
+        }
+
+        final Object prev = contents.get(values);
+        if (prev == null) {
+            return;
+        }
+
+        final PathArgument id = entry.getIdentifier();
+        if (prev instanceof NodeIdentifierWithPredicates) {
+            if (id.equals(prev)) {
+                contents.remove(values, prev);
+            }
+            return;
+        }
+
+        final ImmutableTrieMap<NodeIdentifierWithPredicates, Boolean> prevKeys = keysOf(prev);
+        if (!prevKeys.containsKey(id)) {
+            return;
+        }
+        final MutableTrieMap<NodeIdentifierWithPredicates, Boolean> keys = prevKeys.mutableSnapshot();
+        keys.remove(id);
+        final ImmutableTrieMap<NodeIdentifierWithPredicates, Boolean> updated = keys.immutableSnapshot();
+        contents.put(values, updated.size() == 1 ? updated.keySet().iterator().next() : updated);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ImmutableTrieMap<NodeIdentifierWithPredicates, Boolean> keysOf(final Object keys) {
+        return (ImmutableTrieMap<NodeIdentifierWithPredicates, Boolean>) keys;
+    }
+
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    private static Optional<NormalizedNode<?, ?>> getChild(final NormalizedNodeContainer<?, ?, ?> container,
+            final PathArgument id) {
+        return ((NormalizedNodeContainer) container).getChild(id);
+    }
+}
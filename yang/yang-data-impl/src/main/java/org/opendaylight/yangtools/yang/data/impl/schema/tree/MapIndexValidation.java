@@ -0,0 +1,230 @@
+/*
+ * Copyright (c) 2018 Pantheon Technologies, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.impl.schema.tree;
+
+import static java.util.Objects.requireNonNull;
+
+import com.google.common.collect.Collections2;
+import com.google.common.collect.ImmutableList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
+import org.opendaylight.yangtools.yang.data.api.schema.MapEntryNode;
+import org.opendaylight.yangtools.yang.data.api.schema.MapNode;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNodeContainer;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeConfiguration;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataValidationFailedException;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.StoreTreeNodes;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.spi.TreeNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.spi.Version;
+import org.opendaylight.yangtools.yang.data.impl.schema.tree.MapIndexState.UniqueViolationException;
+import org.opendaylight.yangtools.yang.model.api.ListSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.UniqueConstraint;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A decorator which maintains {@link MapIndex}es of a keyed list. Index contents are attached to each {@link TreeNode}
+ * version of the list this operation produces and are derived incrementally from the contents attached to the previous
+ * version, hence enforcing uniqueness of a modification costs O(modified entries &times; log n). Contents are built
+ * from scratch only for lists which have been written as a whole, or as part of their parent.
+ */
+final class MapIndexValidation extends ModificationApplyOperation {
+    private static final Logger LOG = LoggerFactory.getLogger(MapIndexValidation.class);
+
+    private final ModificationApplyOperation delegate;
+    private final List<MapIndex> indexes;
+
+    private MapIndexValidation(final ModificationApplyOperation delegate, final List<MapIndex> indexes) {
+        this.delegate = requireNonNull(delegate);
+        this.indexes = requireNonNull(indexes);
+    }
+
+    /**
+     * Wrap a list operation so that the list's unique constraints are enforced, if enabled by the configuration.
+     *
+     * @param delegate List operation
+     * @param schema List schema node
+     * @param treeConfig Tree configuration
+     * @return Wrapped operation, or {@code delegate} if there is nothing to enforce
+     * @throws IllegalArgumentException if a unique constraint cannot be enforced
+     */
+    static ModificationApplyOperation from(final ModificationApplyOperation delegate, final ListSchemaNode schema,
+            final DataTreeConfiguration treeConfig) {
+        if (!treeConfig.isUniqueIndexEnabled() || schema.getUniqueConstraints().isEmpty()) {
+            return delegate;
+        }
+
+        final List<MapIndex> indexes = new ArrayList<>();
+        for (UniqueConstraint constraint : schema.getUniqueConstraints()) {
+            try {
+                indexes.add(MapIndex.forUniqueConstraint(schema, constraint));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Cannot enforce unique constraint " + constraint + " on "
+                        + schema.getQName(), e);
+            }
+        }
+        return new MapIndexValidation(delegate, ImmutableList.copyOf(indexes));
+    }
+
+    @Override
+    Optional<TreeNode> apply(final ModifiedNode modification, final Optional<TreeNode> storeMeta,
+            final Version version) {
+        Optional<TreeNode> ret = modification.getValidatedNode(this, storeMeta);
+        if (ret == null) {
+            // Deal with the result moving on us
+            ret = delegate.apply(modification, storeMeta, version);
+            if (ret.isPresent()) {
+                try {
+                    updateState(modification, storeMeta, ret.get());
+                } catch (UniqueViolationException e) {
+                    throw new IllegalArgumentException(e.getMessage(), e);
+                }
+            }
+        }
+
+        return ret;
+    }
+
+    @Override
+    void checkApplicable(final ModificationPath path, final NodeModification modification,
+            final Optional<TreeNode> current, final Version version) throws DataValidationFailedException {
+        delegate.checkApplicable(path, modification, current, version);
+
+        if (!(modification instanceof ModifiedNode)) {
+            LOG.debug("Could not validate {}, does not implement expected class {}", modification, ModifiedNode.class);
+            return;
+        }
+        final ModifiedNode modified = (ModifiedNode) modification;
+
+        // Same as in MinMaxElementsValidation, we need to perform the operation and stash its result
+        final Optional<TreeNode> maybeApplied = delegate.apply(modified, current, version);
+        if (maybeApplied.isPresent()) {
+            try {
+                updateState(modified, current, maybeApplied.get());
+            } catch (UniqueViolationException e) {
+                throw new DataValidationFailedException(path.toInstanceIdentifier(), e.getMessage(), e);
+            }
+        }
+
+        modified.setValidatedNode(this, current, maybeApplied);
+    }
+
+    @Override
+    void verifyStructure(final NormalizedNode<?, ?> modification, final boolean verifyChildren) {
+        delegate.verifyStructure(modification, verifyChildren);
+        if (verifyChildren && modification instanceof MapNode) {
+            try {
+                MapIndexState.build(indexes, (MapNode) modification);
+            } catch (UniqueViolationException e) {
+                throw new IllegalArgumentException(e.getMessage(), e);
+            }
+        }
+    }
+
+    @Override
+    ChildTrackingPolicy getChildPolicy() {
+        return delegate.getChildPolicy();
+    }
+
+    @Override
+    void mergeIntoModifiedNode(final ModifiedNode node, final NormalizedNode<?, ?> value, final Version version) {
+        delegate.mergeIntoModifiedNode(node, value, version);
+    }
+
+    @Override
+    public Optional<ModificationApplyOperation> getChild(final PathArgument child) {
+        return delegate.getChild(child);
+    }
+
+    @Override
+    void recursivelyVerifyStructure(final NormalizedNode<?, ?> value) {
+        delegate.recursivelyVerifyStructure(value);
+    }
+
+    /**
+     * Look up entries of a list instance in an index covering specified leaves.
+     *
+     * @param root Root operation
+     * @param listPath Path to the list instance
+     * @param list List instance, if present
+     * @param leafValues Values of leaves, keyed by their paths relative to list entries
+     * @return Matching entries, or empty if no index covers the leaves
+     */
+    static Optional<Collection<MapEntryNode>> lookup(final ModificationApplyOperation root,
+            final YangInstanceIdentifier listPath, final Optional<TreeNode> list,
+            final Map<YangInstanceIdentifier, Object> leafValues) {
+        final Optional<ModificationApplyOperation> op = StoreTreeNodes.findNode(root, listPath);
+        if (!op.isPresent() || !(op.get() instanceof MapIndexValidation)) {
+            return Optional.empty();
+        }
+        return list.isPresent() ? ((MapIndexValidation) op.get()).lookup(list.get(), leafValues)
+                : Optional.of(ImmutableList.of());
+    }
+
+    private Optional<Collection<MapEntryNode>> lookup(final TreeNode node,
+            final Map<YangInstanceIdentifier, Object> leafValues) {
+        final Set<List<QName>> requested = MapIndex.requestedLeaves(leafValues);
+        for (int i = 0; i < indexes.size(); ++i) {
+            final MapIndex index = indexes.get(i);
+            if (index.covers(requested)) {
+                return Optional.of(stateOf(node).lookupEntries(i, index.valuesOf(leafValues), node));
+            }
+        }
+        return Optional.empty();
+    }
+
+    private void updateState(final ModifiedNode modification, final Optional<TreeNode> before,
+            final TreeNode after) throws UniqueViolationException {
+        final NormalizedNode<?, ?> data = after.getData();
+        if (!(data instanceof NormalizedNodeContainer)) {
+            return;
+        }
+
+        final MapIndexState next;
+        // Merge into an existing list has been expanded into child modifications, just like a touch
+        if (before.isPresent() && (modification.getOperation() == LogicalOperation.TOUCH
+                || modification.getOperation() == LogicalOperation.MERGE)) {
+            next = stateOf(before.get()).update(indexes, (NormalizedNodeContainer<?, ?, ?>) before.get().getData(),
+                (NormalizedNodeContainer<?, ?, ?>) data, Collections2.transform(modification.getChildren(),
+                    ModifiedNode::getIdentifier));
+        } else {
+            next = MapIndexState.build(indexes, (NormalizedNodeContainer<?, ?, ?>) data);
+        }
+        after.attach(this, next);
+    }
+
+    private MapIndexState stateOf(final TreeNode node) {
+        final Object attached = node.getAttachment(this);
+        if (attached != null) {
+            return (MapIndexState) attached;
+        }
+
+        // The list has been written as part of its parent, build its indexes now
+        final MapIndexState state;
+        try {
+            state = MapIndexState.build(indexes, (NormalizedNodeContainer<?, ?, ?>) node.getData());
+        } catch (UniqueViolationException e) {
+            throw new IllegalStateException("Data violates unique constraints", e);
+        }
+        node.attach(this, state);
+        return state;
+    }
+
+    @Override
+    public String toString() {
+        return "MapIndexValidation [indexes=" + indexes + ", delegate=" + delegate + "]";
+    }
+}
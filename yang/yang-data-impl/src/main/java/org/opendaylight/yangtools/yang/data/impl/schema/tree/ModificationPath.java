@@ -33,6 +33,13 @@ final class ModificationPath implements Mutable {
         this.root = requireNonNull(root);
     }
 
+    ModificationPath copy() {
+        final ModificationPath ret = new ModificationPath(root);
+        ret.entries = Arrays.copyOf(entries, entries.length);
+        ret.used = used;
+        return ret;
+    }
+
     void push(final PathArgument arg) {
         if (entries.length == used) {
             final int grow = used <= 32 ? used : used / 2;
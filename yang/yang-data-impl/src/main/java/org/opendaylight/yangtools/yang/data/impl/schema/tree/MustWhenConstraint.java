@@ -0,0 +1,275 @@
+/*
+ * Copyright (c) 2018 Pantheon Technologies, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.impl.schema.tree;
+
+import static java.util.Objects.requireNonNull;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableSet;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.Set;
+import org.opendaylight.yangtools.yang.data.api.schema.xpath.XPathExpression;
+
+/**
+ * A single compiled must or when constraint, attached to a data schema node, along with the results of lexical
+ * analysis of its XPath expression. The analysis determines whether the expression is local, i.e. it can only
+ * observe the subtree rooted at its context node, and the set of node local names it can observe.
+ */
+final class MustWhenConstraint {
+    private static final Set<String> NON_LOCAL_AXES = ImmutableSet.of("ancestor", "ancestor-or-self", "following",
+        "following-sibling", "parent", "preceding", "preceding-sibling");
+    private static final Set<String> NON_LOCAL_FUNCTIONS = ImmutableSet.of("current", "deref", "id");
+    private static final Set<String> OPERATOR_NAMES = ImmutableSet.of("and", "div", "mod", "or");
+
+    private final XPathExpression expression;
+    private final String xpath;
+    private final Optional<String> errorMessage;
+    private final Set<String> dependencies;
+    private final boolean wildcard;
+    private final boolean local;
+    private final boolean when;
+    private final boolean parentContext;
+
+    private MustWhenConstraint(final XPathExpression expression, final String xpath,
+            final Optional<String> errorMessage, final Set<String> dependencies, final boolean wildcard,
+            final boolean local, final boolean when, final boolean parentContext) {
+        this.expression = requireNonNull(expression);
+        this.xpath = requireNonNull(xpath);
+        this.errorMessage = requireNonNull(errorMessage);
+        this.dependencies = requireNonNull(dependencies);
+        this.wildcard = wildcard;
+        this.local = local;
+        this.when = when;
+        this.parentContext = parentContext;
+    }
+
+    /**
+     * Create a new constraint.
+     *
+     * @param expression Compiled expression
+     * @param xpath Expression source string
+     * @param errorMessage Error message to report when the constraint is violated
+     * @param nodeName Local name of the node to which the constraint is attached
+     * @param when True if this is a when condition, false if it is a must constraint
+     * @param parentContext True if the expression is evaluated in context of the closest data ancestor of the node,
+     *                      as is the case for when conditions inherited from augment, choice and case statements
+     * @return A new constraint
+     */
+    static MustWhenConstraint create(final XPathExpression expression, final String xpath,
+            final Optional<String> errorMessage, final String nodeName, final boolean when,
+            final boolean parentContext) {
+        final Scanner scanner = new Scanner(xpath);
+        scanner.scan();
+        scanner.names.add(nodeName);
+        return new MustWhenConstraint(expression, xpath, errorMessage, scanner.names.build(), scanner.wildcard,
+            !parentContext && scanner.local, when, parentContext);
+    }
+
+    XPathExpression getExpression() {
+        return expression;
+    }
+
+    boolean isLocal() {
+        return local;
+    }
+
+    boolean isWhen() {
+        return when;
+    }
+
+    boolean isParentContext() {
+        return parentContext;
+    }
+
+    /**
+     * Check whether this constraint may observe any of the specified node names.
+     *
+     * @param touchedNames Local names of modified nodes
+     * @return True if this constraint needs to be re-evaluated
+     */
+    boolean dependsOn(final Collection<String> touchedNames) {
+        if (wildcard) {
+            return true;
+        }
+        for (String name : touchedNames) {
+            if (dependencies.contains(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    String errorMessage(final Object path) {
+        if (errorMessage.isPresent()) {
+            return errorMessage.get();
+        }
+        return (when ? "When condition \"" : "Must constraint \"") + xpath + "\" is not satisfied by " + path;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this).add("xpath", xpath).add("when", when).add("local", local)
+                .add("dependencies", wildcard ? "*" : dependencies).toString();
+    }
+
+    /**
+     * A simple XPath lexer, which does not validate the expression, but rather conservatively approximates the set of
+     * names it refers to and whether it can escape the subtree of its context node.
+     */
+    private static final class Scanner {
+        final ImmutableSet.Builder<String> names = ImmutableSet.builder();
+        final String str;
+        boolean wildcard;
+        boolean local = true;
+
+        private boolean expectOperand = true;
+        private int offset;
+
+        Scanner(final String str) {
+            this.str = str;
+        }
+
+        void scan() {
+            while (offset < str.length()) {
+                final char ch = str.charAt(offset);
+                if (Character.isWhitespace(ch)) {
+                    offset++;
+                } else if (ch == '\'' || ch == '"') {
+                    final int end = str.indexOf(ch, offset + 1);
+                    offset = end == -1 ? str.length() : end + 1;
+                    expectOperand = false;
+                } else if (isNameStart(ch)) {
+                    scanName();
+                } else if (Character.isDigit(ch)) {
+                    while (offset < str.length() && (Character.isDigit(str.charAt(offset))
+                            || str.charAt(offset) == '.')) {
+                        offset++;
+                    }
+                    expectOperand = false;
+                } else {
+                    scanOperator(ch);
+                }
+            }
+        }
+
+        private void scanOperator(final char ch) {
+            switch (ch) {
+                case '.':
+                    if (str.startsWith("..", offset)) {
+                        local = false;
+                        offset += 2;
+                    } else if (offset + 1 < str.length() && Character.isDigit(str.charAt(offset + 1))) {
+                        offset++;
+                        while (offset < str.length() && Character.isDigit(str.charAt(offset))) {
+                            offset++;
+                        }
+                    } else {
+                        offset++;
+                    }
+                    expectOperand = false;
+                    break;
+                case '/':
+                    if (expectOperand) {
+                        // Absolute location path
+                        local = false;
+                    }
+                    offset += str.startsWith("//", offset) ? 2 : 1;
+                    expectOperand = true;
+                    break;
+                case '*':
+                    if (expectOperand) {
+                        // Wildcard name test
+                        wildcard = true;
+                        expectOperand = false;
+                    } else {
+                        // Multiplication
+                        expectOperand = true;
+                    }
+                    offset++;
+                    break;
+                case ')':
+                case ']':
+                    offset++;
+                    expectOperand = false;
+                    break;
+                default:
+                    offset++;
+                    expectOperand = true;
+                    break;
+            }
+        }
+
+        private void scanName() {
+            final int start = offset;
+            while (offset < str.length() && isNameChar(str.charAt(offset))) {
+                offset++;
+            }
+            final String name;
+            if (offset + 1 < str.length() && str.charAt(offset) == ':' && str.charAt(offset + 1) != ':') {
+                // Prefixed name
+                offset++;
+                if (offset < str.length() && str.charAt(offset) == '*') {
+                    offset++;
+                    wildcard = true;
+                    expectOperand = false;
+                    return;
+                }
+                final int localStart = offset;
+                while (offset < str.length() && isNameChar(str.charAt(offset))) {
+                    offset++;
+                }
+                name = str.substring(localStart, offset);
+            } else {
+                name = str.substring(start, offset);
+            }
+
+            if (!expectOperand && OPERATOR_NAMES.contains(name)) {
+                expectOperand = true;
+                return;
+            }
+
+            int next = offset;
+            while (next < str.length() && Character.isWhitespace(str.charAt(next))) {
+                next++;
+            }
+            if (str.startsWith("::", next)) {
+                // Axis specifier
+                if (NON_LOCAL_AXES.contains(name)) {
+                    local = false;
+                }
+                offset = next + 2;
+                expectOperand = true;
+                return;
+            }
+            if (next < str.length() && str.charAt(next) == '(') {
+                // Function call or node type test
+                if (NON_LOCAL_FUNCTIONS.contains(name)) {
+                    local = false;
+                    if (!"current".equals(name)) {
+                        wildcard = true;
+                    }
+                }
+                offset = next + 1;
+                expectOperand = true;
+                return;
+            }
+
+            names.add(name);
+            expectOperand = false;
+        }
+
+        private static boolean isNameStart(final char ch) {
+            return Character.isLetter(ch) || ch == '_';
+        }
+
+        private static boolean isNameChar(final char ch) {
+            return Character.isLetterOrDigit(ch) || ch == '_' || ch == '-' || ch == '.';
+        }
+    }
+}
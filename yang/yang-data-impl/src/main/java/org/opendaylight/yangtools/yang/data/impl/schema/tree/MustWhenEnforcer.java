@@ -0,0 +1,386 @@
+/*
+ * Copyright (c) 2018 Pantheon Technologies, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.impl.schema.tree;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ListMultimap;
+import com.google.common.collect.MultimapBuilder;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.Optional;
+import java.util.Set;
+import javax.xml.xpath.XPathExpressionException;
+import org.opendaylight.yangtools.concepts.Immutable;
+import org.opendaylight.yangtools.yang.common.QNameModule;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.AugmentationIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNodeContainer;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidate;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidateNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeConfiguration;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.ModificationType;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.TreeType;
+import org.opendaylight.yangtools.yang.data.api.schema.xpath.PrefixConverters;
+import org.opendaylight.yangtools.yang.data.api.schema.xpath.XPathBooleanResult;
+import org.opendaylight.yangtools.yang.data.api.schema.xpath.XPathDocument;
+import org.opendaylight.yangtools.yang.data.api.schema.xpath.XPathExpression;
+import org.opendaylight.yangtools.yang.data.api.schema.xpath.XPathNodesetResult;
+import org.opendaylight.yangtools.yang.data.api.schema.xpath.XPathNumberResult;
+import org.opendaylight.yangtools.yang.data.api.schema.xpath.XPathResult;
+import org.opendaylight.yangtools.yang.data.api.schema.xpath.XPathSchemaContext;
+import org.opendaylight.yangtools.yang.data.api.schema.xpath.XPathSchemaContextFactory;
+import org.opendaylight.yangtools.yang.data.api.schema.xpath.XPathStringResult;
+import org.opendaylight.yangtools.yang.data.util.DataSchemaContextNode;
+import org.opendaylight.yangtools.yang.data.util.DataSchemaContextTree;
+import org.opendaylight.yangtools.yang.model.api.AugmentationSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.AugmentationTarget;
+import org.opendaylight.yangtools.yang.model.api.CaseSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.ChoiceSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.DataNodeContainer;
+import org.opendaylight.yangtools.yang.model.api.DataSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.Module;
+import org.opendaylight.yangtools.yang.model.api.MustConstraintAware;
+import org.opendaylight.yangtools.yang.model.api.MustDefinition;
+import org.opendaylight.yangtools.yang.model.api.RevisionAwareXPath;
+import org.opendaylight.yangtools.yang.model.api.SchemaContext;
+import org.opendaylight.yangtools.yang.model.api.SchemaPath;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Enforcer of must and when constraints on a {@link DataTreeCandidate}. Constraints are indexed by the
+ * {@link SchemaPath} of the data node to which they apply. Local constraints, which can only observe the subtree
+ * rooted at their context node, are evaluated on each modified instance of that node. Non-local constraints are
+ * re-evaluated on all instances of their node, but only if they refer to a name of a modified node, so that the cost
+ * of enforcement is driven by the size of the modification rather than by the size of the data tree.
+ */
+abstract class MustWhenEnforcer implements Immutable {
+    private static final class Strict extends MustWhenEnforcer {
+        private final XPathSchemaContext xpathContext;
+        private final DataSchemaContextTree contextTree;
+        private final ListMultimap<SchemaPath, MustWhenConstraint> constraints;
+        private final List<Entry<SchemaPath, MustWhenConstraint>> nonLocalConstraints;
+
+        Strict(final XPathSchemaContext xpathContext, final DataSchemaContextTree contextTree,
+                final ListMultimap<SchemaPath, MustWhenConstraint> constraints) {
+            this.xpathContext = requireNonNull(xpathContext);
+            this.contextTree = requireNonNull(contextTree);
+            this.constraints = requireNonNull(constraints);
+            this.nonLocalConstraints = constraints.entries().stream().filter(entry -> !entry.getValue().isLocal())
+                    .collect(ImmutableList.toImmutableList());
+        }
+
+        @Override
+        void enforceOnCandidate(final DataTreeCandidate candidate) {
+            final DataTreeCandidateNode root = candidate.getRootNode();
+            final Optional<NormalizedNode<?, ?>> rootData = root.getDataAfter();
+            if (!rootData.isPresent()) {
+                return;
+            }
+
+            final Evaluation evaluation = new Evaluation(xpathContext.createDocument(rootData.get()));
+            enforceModified(evaluation, root, contextTree.getRoot(), YangInstanceIdentifier.EMPTY,
+                YangInstanceIdentifier.EMPTY);
+
+            final ListMultimap<SchemaPath, MustWhenConstraint> affected =
+                    MultimapBuilder.hashKeys().arrayListValues().build();
+            for (Entry<SchemaPath, MustWhenConstraint> entry : nonLocalConstraints) {
+                if (entry.getValue().dependsOn(evaluation.touchedNames)) {
+                    affected.put(entry.getKey(), entry.getValue());
+                }
+            }
+            if (affected.isEmpty()) {
+                return;
+            }
+
+            final Set<SchemaPath> prefixes = new HashSet<>();
+            for (SchemaPath path : affected.keySet()) {
+                for (SchemaPath prefix = path; prefix != null && prefixes.add(prefix); prefix = prefix.getParent()) {
+                    // Just accumulating the path and all its parents
+                }
+            }
+            enforceAffected(evaluation, affected, prefixes, rootData.get(), contextTree.getRoot(),
+                YangInstanceIdentifier.EMPTY, YangInstanceIdentifier.EMPTY);
+        }
+
+        private void enforceModified(final Evaluation evaluation, final DataTreeCandidateNode node,
+                final DataSchemaContextNode<?> schema, final YangInstanceIdentifier path,
+                final YangInstanceIdentifier contextPath) {
+            for (DataTreeCandidateNode child : node.getChildNodes()) {
+                if (child.getModificationType() == ModificationType.UNMODIFIED) {
+                    continue;
+                }
+
+                final PathArgument arg = child.getIdentifier();
+                if (!(arg instanceof AugmentationIdentifier)) {
+                    evaluation.touchedNames.add(arg.getNodeType().getLocalName());
+                }
+
+                final DataSchemaContextNode<?> childSchema = schema.getChild(arg);
+                if (childSchema == null) {
+                    continue;
+                }
+
+                final YangInstanceIdentifier childPath = path.node(arg);
+                final YangInstanceIdentifier childContextPath;
+                if (childSchema.isMixin()) {
+                    childContextPath = contextPath;
+                } else {
+                    childContextPath = childPath;
+                    if (child.getDataAfter().isPresent()) {
+                        for (MustWhenConstraint constraint : constraints.get(childSchema.getDataSchemaNode()
+                                .getPath())) {
+                            if (constraint.isLocal()) {
+                                evaluation.enforce(constraint, childPath, contextPath);
+                            }
+                        }
+                    }
+                }
+
+                enforceModified(evaluation, child, childSchema, childPath, childContextPath);
+            }
+        }
+
+        private static void enforceAffected(final Evaluation evaluation,
+                final ListMultimap<SchemaPath, MustWhenConstraint> affected, final Set<SchemaPath> prefixes,
+                final NormalizedNode<?, ?> data, final DataSchemaContextNode<?> schema,
+                final YangInstanceIdentifier path, final YangInstanceIdentifier contextPath) {
+            if (!(data instanceof NormalizedNodeContainer)) {
+                return;
+            }
+
+            for (NormalizedNode<?, ?> child : ((NormalizedNodeContainer<?, ?, ?>) data).getValue()) {
+                final PathArgument arg = child.getIdentifier();
+                final DataSchemaContextNode<?> childSchema = schema.getChild(arg);
+                if (childSchema == null) {
+                    continue;
+                }
+                final DataSchemaNode childNode = childSchema.getDataSchemaNode();
+                if (childNode != null && !prefixes.contains(childNode.getPath())) {
+                    continue;
+                }
+
+                final YangInstanceIdentifier childPath = path.node(arg);
+                final YangInstanceIdentifier childContextPath;
+                if (childSchema.isMixin()) {
+                    childContextPath = contextPath;
+                } else {
+                    childContextPath = childPath;
+                    for (MustWhenConstraint constraint : affected.get(childNode.getPath())) {
+                        evaluation.enforce(constraint, childPath, contextPath);
+                    }
+                }
+
+                enforceAffected(evaluation, affected, prefixes, child, childSchema, childPath, childContextPath);
+            }
+        }
+    }
+
+    /**
+     * State of a single enforcement run.
+     */
+    private static final class Evaluation {
+        final Set<String> touchedNames = new HashSet<>();
+        final XPathDocument document;
+
+        Evaluation(final XPathDocument document) {
+            this.document = requireNonNull(document);
+        }
+
+        void enforce(final MustWhenConstraint constraint, final YangInstanceIdentifier path,
+                final YangInstanceIdentifier parentPath) {
+            final Optional<? extends XPathResult<?>> result;
+            try {
+                result = constraint.getExpression().evaluate(document, constraint.isParentContext() ? parentPath
+                        : path);
+            } catch (XPathExpressionException e) {
+                throw new SchemaValidationFailedException("Failed to evaluate " + constraint + " on " + path, e);
+            }
+
+            if (result.isPresent() && !toBoolean(result.get())) {
+                throw new SchemaValidationFailedException(constraint.errorMessage(path));
+            }
+        }
+
+        private static boolean toBoolean(final XPathResult<?> result) {
+            if (result instanceof XPathBooleanResult) {
+                return ((XPathBooleanResult) result).getValue();
+            }
+            if (result instanceof XPathNumberResult) {
+                final double value = ((XPathNumberResult) result).getValue().doubleValue();
+                return value != 0 && !Double.isNaN(value);
+            }
+            if (result instanceof XPathStringResult) {
+                return !((XPathStringResult) result).getValue().isEmpty();
+            }
+            if (result instanceof XPathNodesetResult) {
+                return !((XPathNodesetResult) result).getValue().isEmpty();
+            }
+            throw new IllegalStateException("Unhandled result " + result);
+        }
+    }
+
+    /**
+     * A when condition inherited by data nodes from an enclosing augment, choice or case statement.
+     */
+    private static final class InheritedWhen {
+        final RevisionAwareXPath xpath;
+        final QNameModule module;
+
+        InheritedWhen(final RevisionAwareXPath xpath, final QNameModule module) {
+            this.xpath = requireNonNull(xpath);
+            this.module = requireNonNull(module);
+        }
+    }
+
+    /**
+     * Index builder, which walks the schema and compiles all must and when constraints applicable to a tree type.
+     */
+    private static final class IndexBuilder {
+        final ImmutableListMultimap.Builder<SchemaPath, MustWhenConstraint> builder = ImmutableListMultimap.builder();
+        final SchemaContext schemaContext;
+        final XPathSchemaContext xpathContext;
+        final TreeType treeType;
+
+        IndexBuilder(final SchemaContext schemaContext, final XPathSchemaContext xpathContext,
+                final TreeType treeType) {
+            this.schemaContext = requireNonNull(schemaContext);
+            this.xpathContext = requireNonNull(xpathContext);
+            this.treeType = requireNonNull(treeType);
+        }
+
+        void addChildren(final DataNodeContainer container, final List<InheritedWhen> inherited) {
+            for (DataSchemaNode child : container.getChildNodes()) {
+                if (!SchemaAwareApplyOperation.belongsToTree(treeType, child)) {
+                    continue;
+                }
+
+                final List<InheritedWhen> childInherited = new ArrayList<>(inherited);
+                if (container instanceof AugmentationTarget) {
+                    addAugmentationWhens(childInherited, (AugmentationTarget) container, child);
+                }
+
+                if (child instanceof ChoiceSchemaNode) {
+                    final ChoiceSchemaNode choice = (ChoiceSchemaNode) child;
+                    choice.getWhenCondition().ifPresent(when -> childInherited.add(
+                        new InheritedWhen(when, choice.getQName().getModule())));
+                    for (CaseSchemaNode caze : choice.getCases().values()) {
+                        final List<InheritedWhen> caseInherited = new ArrayList<>(childInherited);
+                        addAugmentationWhens(caseInherited, choice, caze);
+                        caze.getWhenCondition().ifPresent(when -> caseInherited.add(
+                            new InheritedWhen(when, caze.getQName().getModule())));
+                        addChildren(caze, caseInherited);
+                    }
+                    continue;
+                }
+
+                addNode(child, childInherited);
+                if (child instanceof DataNodeContainer) {
+                    addChildren((DataNodeContainer) child, ImmutableList.of());
+                }
+            }
+        }
+
+        private static void addAugmentationWhens(final List<InheritedWhen> inherited, final AugmentationTarget target,
+                final DataSchemaNode child) {
+            for (AugmentationSchemaNode augmentation : target.getAvailableAugmentations()) {
+                final Optional<RevisionAwareXPath> when = augmentation.getWhenCondition();
+                if (when.isPresent() && augmentation.findDataChildByName(child.getQName()).isPresent()) {
+                    inherited.add(new InheritedWhen(when.get(), child.getQName().getModule()));
+                }
+            }
+        }
+
+        private void addNode(final DataSchemaNode node, final List<InheritedWhen> inherited) {
+            final QNameModule module = node.getQName().getModule();
+            if (node instanceof MustConstraintAware) {
+                for (MustDefinition must : ((MustConstraintAware) node).getMustConstraints()) {
+                    addConstraint(node, module, must.getXpath(), must.getErrorMessage(), false, false);
+                }
+            }
+            node.getWhenCondition().ifPresent(when -> addConstraint(node, module, when, Optional.empty(), true,
+                false));
+            for (InheritedWhen when : inherited) {
+                addConstraint(node, when.module, when.xpath, Optional.empty(), true, true);
+            }
+        }
+
+        private void addConstraint(final DataSchemaNode node, final QNameModule module, final RevisionAwareXPath xpath,
+                final Optional<String> errorMessage, final boolean when, final boolean parentContext) {
+            final Optional<Module> optModule = schemaContext.findModule(module);
+            if (!optModule.isPresent()) {
+                LOG.warn("Cannot find module {} defining {}, not enforcing {}", module, node, xpath);
+                return;
+            }
+
+            // Inherited conditions are evaluated in the context of the parent, which is the closest data ancestor once
+            // choice and case nodes are skipped
+            final SchemaPath evaluationPath = parentContext ? node.getPath().getParent() : node.getPath();
+            final String str = xpath.toString();
+            final XPathExpression expression;
+            try {
+                expression = xpathContext.compileExpression(evaluationPath,
+                    PrefixConverters.create(schemaContext, optModule.get()), str);
+            } catch (XPathExpressionException | IllegalArgumentException e) {
+                LOG.warn("Failed to compile {} on {}, not enforcing it", str, node, e);
+                return;
+            }
+
+            final MustWhenConstraint constraint = MustWhenConstraint.create(expression, str, errorMessage,
+                node.getQName().getLocalName(), when, parentContext);
+            LOG.debug("Adding constraint {} on {}", constraint, node.getPath());
+            builder.put(node.getPath(), constraint);
+        }
+    }
+
+    private static final Logger LOG = LoggerFactory.getLogger(MustWhenEnforcer.class);
+    private static final MustWhenEnforcer NOOP_ENFORCER = new MustWhenEnforcer() {
+        @Override
+        void enforceOnCandidate(final DataTreeCandidate candidate) {
+            // Intentional no-op
+        }
+    };
+
+    /**
+     * Enforce constraints on a prepared candidate.
+     *
+     * @param candidate Data tree candidate
+     * @throws SchemaValidationFailedException if a constraint is violated
+     */
+    abstract void enforceOnCandidate(DataTreeCandidate candidate);
+
+    static MustWhenEnforcer noop() {
+        return NOOP_ENFORCER;
+    }
+
+    static MustWhenEnforcer forSchemaContext(final SchemaContext schemaContext,
+            final DataTreeConfiguration treeConfig, final XPathSchemaContextFactory xpathFactory) {
+        if (!treeConfig.isMustWhenValidationEnabled()) {
+            return NOOP_ENFORCER;
+        }
+
+        checkArgument(xpathFactory != null, "Must/when validation requires an XPathSchemaContextFactory");
+        checkArgument(treeConfig.getRootPath().isEmpty(), "Must/when validation is not supported on subtree %s",
+            treeConfig.getRootPath());
+
+        final IndexBuilder builder = new IndexBuilder(schemaContext, xpathFactory.createContext(schemaContext),
+            treeConfig.getTreeType());
+        builder.addChildren(schemaContext, ImmutableList.of());
+        final ListMultimap<SchemaPath, MustWhenConstraint> constraints = builder.builder.build();
+        return constraints.isEmpty() ? NOOP_ENFORCER : new Strict(builder.xpathContext,
+            DataSchemaContextTree.from(schemaContext), constraints);
+    }
+}
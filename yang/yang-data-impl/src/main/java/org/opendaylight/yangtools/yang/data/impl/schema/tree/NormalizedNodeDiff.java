@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2018 Pantheon Technologies, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.impl.schema.tree;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.common.annotations.Beta;
+import java.util.concurrent.ForkJoinPool;
+import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.jdt.annotation.Nullable;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTree;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidate;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidateNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidates;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.ModificationType;
+
+/**
+ * Utility methods for computing the difference between two {@link NormalizedNode} trees, for example between desired
+ * and running configuration, without going through a {@link DataTree}.
+ *
+ * <p>
+ * The difference is expressed as a {@link DataTreeCandidate}, whose nodes are evaluated lazily as they are traversed.
+ * Subtrees which are shared by reference between the two trees are treated as unmodified without being examined,
+ * hence diffing a tree against its modified copy examines only the nodes along modified paths and their immediate
+ * children. Children of the two trees are matched on their identifiers, including list keys and leaf-list values.
+ * Changes in the order of children of user-ordered lists are reported as a {@link ModificationType#WRITE} of
+ * the list.
+ */
+@Beta
+public final class NormalizedNodeDiff {
+    private NormalizedNodeDiff() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Compute the difference between two trees.
+     *
+     * @param rootPath Path of the tree roots
+     * @param before Tree before the change, null if it does not exist
+     * @param after Tree after the change, null if it does not exist
+     * @return Candidate describing the difference
+     * @throws NullPointerException if {@code rootPath} is null
+     * @throws IllegalArgumentException if both trees are null or if they have different identifiers
+     */
+    public static @NonNull DataTreeCandidate diff(final @NonNull YangInstanceIdentifier rootPath,
+            final @Nullable NormalizedNode<?, ?> before, final @Nullable NormalizedNode<?, ?> after) {
+        return diff(rootPath, before, after, 0);
+    }
+
+    /**
+     * Compute the difference between two trees, comparing children of large containers in parallel. Children are
+     * compared in {@link ForkJoinPool#commonPool()} when the container has at least
+     * {@code parallelismThreshold} candidate children. Nodes of the returned candidate are evaluated in parallel
+     * as they are traversed.
+     *
+     * @param rootPath Path of the tree roots
+     * @param before Tree before the change, null if it does not exist
+     * @param after Tree after the change, null if it does not exist
+     * @param parallelismThreshold Minimum number of children compared in parallel, non-positive values disable
+     *                             parallel comparison
+     * @return Candidate describing the difference
+     * @throws NullPointerException if {@code rootPath} is null
+     * @throws IllegalArgumentException if both trees are null or if they have different identifiers
+     */
+    public static @NonNull DataTreeCandidate diff(final @NonNull YangInstanceIdentifier rootPath,
+            final @Nullable NormalizedNode<?, ?> before, final @Nullable NormalizedNode<?, ?> after,
+            final int parallelismThreshold) {
+        final PathArgument identifier;
+        if (before != null) {
+            identifier = before.getIdentifier();
+            checkArgument(after == null || identifier.equals(after.getIdentifier()),
+                "Mismatched identifiers %s and %s", identifier, after == null ? null : after.getIdentifier());
+        } else {
+            checkArgument(after != null, "At least one tree has to be specified");
+            identifier = after.getIdentifier();
+        }
+
+        final DataTreeCandidateNode root = new DiffCandidateNode(identifier, before, after, parallelismThreshold);
+        return DataTreeCandidates.newDataTreeCandidate(rootPath, root);
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright (c) 2018 Pantheon Technologies, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.impl.schema.tree;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataValidationFailedException;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.StoreTreeNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.spi.TreeNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.spi.Version;
+
+/**
+ * Fork/join implementation of child validation and application for {@link AbstractNodeContainerModificationStrategy}.
+ * Children are split into chunks, each of which is processed by a single task. Tasks only read shared state, which
+ * is safe as the {@link TreeNode}s are not being modified while the tasks run. Results are integrated into the parent
+ * node by the invoking thread.
+ *
+ * <p>
+ * Tasks are invoked in the calling thread, with any forked tasks being executed in
+ * {@link ForkJoinPool#commonPool()}, unless the calling thread is already part of a fork/join pool.
+ */
+final class ParallelChildOperations {
+    private static final class CheckTask extends RecursiveTask<DataValidationFailedException> {
+        private static final long serialVersionUID = 1L;
+
+        private final transient AbstractNodeContainerModificationStrategy strategy;
+        private final transient ModificationPath path;
+        private final transient List<? extends NodeModification> children;
+        private final transient TreeNode current;
+        private final transient Version version;
+        private final int chunkSize;
+        private final int from;
+        private final int to;
+
+        CheckTask(final AbstractNodeContainerModificationStrategy strategy, final ModificationPath path,
+                final List<? extends NodeModification> children, final TreeNode current, final Version version,
+                final int chunkSize, final int from, final int to) {
+            this.strategy = strategy;
+            this.path = path;
+            this.children = children;
+            this.current = current;
+            this.version = version;
+            this.chunkSize = chunkSize;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected DataValidationFailedException compute() {
+            if (to - from > chunkSize) {
+                final int mid = (from + to) >>> 1;
+                final CheckTask first = new CheckTask(strategy, path, children, current, version, chunkSize, from,
+                    mid);
+                first.fork();
+                final DataValidationFailedException second = new CheckTask(strategy, path, children, current,
+                    version, chunkSize, mid, to).compute();
+                final DataValidationFailedException ret = first.join();
+
+                // Report the first failure, as the sequential case would
+                return ret != null ? ret : second;
+            }
+
+            final ModificationPath chunkPath = path.copy();
+            for (int i = from; i < to; ++i) {
+                final NodeModification childMod = children.get(i);
+                final PathArgument childId = childMod.getIdentifier();
+
+                chunkPath.push(childId);
+                try {
+                    strategy.resolveChildOperation(childId).checkApplicable(chunkPath, childMod,
+                        current.getChild(childId), version);
+                } catch (DataValidationFailedException e) {
+                    return e;
+                } finally {
+                    chunkPath.pop();
+                }
+            }
+            return null;
+        }
+    }
+
+    private static final class ApplyTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final transient AbstractNodeContainerModificationStrategy strategy;
+        private final transient List<ModifiedNode> children;
+        private final transient StoreTreeNode<TreeNode> meta;
+        private final transient Version version;
+        private final transient Optional<TreeNode>[] results;
+        private final int chunkSize;
+        private final int from;
+        private final int to;
+
+        ApplyTask(final AbstractNodeContainerModificationStrategy strategy, final List<ModifiedNode> children,
+                final StoreTreeNode<TreeNode> meta, final Version version, final Optional<TreeNode>[] results,
+                final int chunkSize, final int from, final int to) {
+            this.strategy = strategy;
+            this.children = children;
+            this.meta = meta;
+            this.version = version;
+            this.results = results;
+            this.chunkSize = chunkSize;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > chunkSize) {
+                final int mid = (from + to) >>> 1;
+                invokeAll(new ApplyTask(strategy, children, meta, version, results, chunkSize, from, mid),
+                    new ApplyTask(strategy, children, meta, version, results, chunkSize, mid, to));
+                return;
+            }
+
+            for (int i = from; i < to; ++i) {
+                final ModifiedNode mod = children.get(i);
+                final PathArgument id = mod.getIdentifier();
+                results[i] = strategy.resolveChildOperation(id).apply(mod, meta.getChild(id), version);
+            }
+        }
+    }
+
+    /*
+     * Number of chunks we target per worker thread, so that uneven chunks can be balanced by work stealing.
+     */
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    private ParallelChildOperations() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Check applicability of child modifications.
+     *
+     * @param strategy Parent strategy
+     * @param path Path to the parent node, not modified by this method
+     * @param children Child modifications
+     * @param current Current parent node
+     * @param version Modification version
+     * @throws DataValidationFailedException if any of the child modifications is not applicable
+     */
+    static void checkApplicable(final AbstractNodeContainerModificationStrategy strategy,
+            final ModificationPath path, final List<? extends NodeModification> children, final TreeNode current,
+            final Version version) throws DataValidationFailedException {
+        final DataValidationFailedException failure = new CheckTask(strategy, path, children, current, version,
+            chunkSize(children.size()), 0, children.size()).invoke();
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Apply child modifications.
+     *
+     * @param strategy Parent strategy
+     * @param children Child modifications
+     * @param meta Parent node, its children are used as the base for child modifications
+     * @param version Modification version
+     * @return Child application results, in the order of child modifications
+     */
+    static Optional<TreeNode>[] apply(final AbstractNodeContainerModificationStrategy strategy,
+            final List<ModifiedNode> children, final StoreTreeNode<TreeNode> meta, final Version version) {
+        @SuppressWarnings("unchecked")
+        final Optional<TreeNode>[] results = new Optional[children.size()];
+        new ApplyTask(strategy, children, meta, version, results, chunkSize(children.size()), 0, children.size())
+            .invoke();
+        return results;
+    }
+
+    private static int chunkSize(final int size) {
+        return Math.max(1, size / (ForkJoinPool.getCommonPoolParallelism() * CHUNKS_PER_THREAD));
+    }
+}
@@ -92,7 +92,7 @@ abstract class SchemaAwareApplyOperation extends ModificationApplyOperation {
             op = new UnorderedMapModificationStrategy(schemaNode, treeConfig);
         }
 
-        return MinMaxElementsValidation.from(op, schemaNode);
+        return MapIndexValidation.from(MinMaxElementsValidation.from(op, schemaNode), schemaNode, treeConfig);
     }
 
     private static ModificationApplyOperation fromLeafListSchemaNode(final LeafListSchemaNode schemaNode,
@@ -0,0 +1,459 @@
+/*
+ * Copyright (c) 2018 Pantheon Technologies, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.impl.schema.tree;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+import static java.util.Objects.requireNonNull;
+
+import com.google.common.annotations.Beta;
+import com.google.common.base.MoreObjects;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.IntFunction;
+import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.jdt.annotation.Nullable;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
+import org.opendaylight.yangtools.yang.data.api.schema.ContainerNode;
+import org.opendaylight.yangtools.yang.data.api.schema.DataContainerChild;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNodeContainer;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNodes;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTree;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidate;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidateTip;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeConfiguration;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeModification;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeSnapshot;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataValidationFailedException;
+import org.opendaylight.yangtools.yang.data.impl.schema.builder.api.DataContainerNodeBuilder;
+import org.opendaylight.yangtools.yang.data.impl.schema.builder.impl.ImmutableContainerNodeBuilder;
+import org.opendaylight.yangtools.yang.data.util.DataSchemaContextNode;
+import org.opendaylight.yangtools.yang.data.util.DataSchemaContextTree;
+import org.opendaylight.yangtools.yang.model.api.ContainerSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.SchemaContext;
+
+/**
+ * A {@link DataTree} partitioned into shards at a set of {@link YangInstanceIdentifier} prefixes. Each shard is
+ * backed by a separate {@link InMemoryDataTree} rooted at its prefix, with the remainder of the tree held by a root
+ * shard. Modifications are routed to the shards they touch and are validated, prepared and committed by each of them
+ * independently, hence commits of modifications touching disjoint sets of shards do not contend with each other.
+ *
+ * <p>
+ * Snapshots capture the state of each shard separately and data spanning multiple shards is assembled only when it
+ * is read. Commits touching multiple shards exclude snapshots while they are being applied, hence snapshots observe
+ * each commit either in all of its shards or in none of them. Snapshots are taken optimistically and are retried
+ * under a shared lock only if they overlap such a commit, while commits touching a single shard do not coordinate
+ * with snapshots at all.
+ *
+ * <p>
+ * Shard prefixes need to identify containers, all of whose ancestors are containers as well, and they must not be
+ * nested. Constraints which could span shards, i.e. must/when and leafref constraints, as well as leaf indexes are not
+ * supported.
+ */
+@Beta
+public final class ShardedDataTree implements DataTree {
+    static final class Shard {
+        final int index;
+        final YangInstanceIdentifier prefix;
+        final InMemoryDataTree tree;
+        final Lock lock = new ReentrantLock();
+
+        Shard(final int index, final YangInstanceIdentifier prefix, final InMemoryDataTree tree) {
+            this.index = index;
+            this.prefix = requireNonNull(prefix);
+            this.tree = requireNonNull(tree);
+        }
+
+        YangInstanceIdentifier relativePath(final YangInstanceIdentifier path) {
+            return path.relativeTo(prefix).get();
+        }
+
+        @Override
+        public String toString() {
+            return MoreObjects.toStringHelper(this).add("index", index).add("prefix", prefix).toString();
+        }
+    }
+
+    private static final NodeIdentifier ROOT_IDENTIFIER = NodeIdentifier.create(SchemaContext.NAME);
+
+    private final Shard[] shards;
+    // Held exclusively while a commit touching multiple shards is being applied
+    private final StampedLock multiShardLock = new StampedLock();
+
+    private ShardedDataTree(final Shard[] shards) {
+        this.shards = requireNonNull(shards);
+    }
+
+    /**
+     * Create a new sharded data tree.
+     *
+     * @param treeConfig Configuration of the tree, applied to each of its shards
+     * @param schemaContext Initial SchemaContext
+     * @param prefixes Paths at which the tree is split into shards
+     * @return A sharded data tree
+     * @throws IllegalArgumentException if the configuration is not supported or a prefix is not valid
+     */
+    public static @NonNull ShardedDataTree create(final @NonNull DataTreeConfiguration treeConfig,
+            final @NonNull SchemaContext schemaContext, final @NonNull Collection<YangInstanceIdentifier> prefixes) {
+        checkArgument(treeConfig.getRootPath().isEmpty(), "Sharded tree cannot be rooted at %s",
+            treeConfig.getRootPath());
+        checkArgument(!treeConfig.isMustWhenValidationEnabled() && !treeConfig.isLeafRefValidationEnabled()
+            && treeConfig.getLeafIndexes().isEmpty(), "Configuration %s is not supported by sharded trees", treeConfig);
+
+        final DataSchemaContextTree contextTree = DataSchemaContextTree.from(schemaContext);
+        final List<YangInstanceIdentifier> accepted = new ArrayList<>(prefixes.size());
+        for (YangInstanceIdentifier prefix : prefixes) {
+            checkArgument(!prefix.isEmpty(), "Shard prefix must not be empty");
+            for (PathArgument arg : prefix.getPathArguments()) {
+                checkArgument(arg instanceof NodeIdentifier, "Shard prefix %s contains unsupported argument %s",
+                    prefix, arg);
+            }
+            for (int depth = 1; depth <= prefix.getPathArguments().size(); ++depth) {
+                final YangInstanceIdentifier ancestor = prefix.getAncestor(depth);
+                final Optional<DataSchemaContextNode<?>> context = contextTree.findChild(ancestor);
+                checkArgument(context.isPresent() && context.get().getDataSchemaNode() instanceof ContainerSchemaNode,
+                    "Shard prefix %s does not resolve to a container at %s", prefix, ancestor);
+            }
+            for (YangInstanceIdentifier other : accepted) {
+                checkArgument(!other.contains(prefix) && !prefix.contains(other), "Shard prefixes %s and %s overlap",
+                    other, prefix);
+            }
+            accepted.add(prefix);
+        }
+
+        final InMemoryDataTreeFactory factory = new InMemoryDataTreeFactory();
+        final Shard[] shards = new Shard[accepted.size() + 1];
+        shards[0] = new Shard(0, YangInstanceIdentifier.EMPTY,
+            (InMemoryDataTree) factory.create(treeConfig, schemaContext));
+        for (int i = 0; i < accepted.size(); ++i) {
+            final YangInstanceIdentifier prefix = accepted.get(i);
+            shards[i + 1] = new Shard(i + 1, prefix, (InMemoryDataTree) factory.create(
+                treeConfig.copyBuilder().setRootPath(prefix).build(), schemaContext));
+        }
+        return new ShardedDataTree(shards);
+    }
+
+    @Override
+    public DataTreeSnapshot takeSnapshot() {
+        final long optimistic = multiShardLock.tryOptimisticRead();
+        if (optimistic != 0) {
+            final DataTreeSnapshot[] snapshots = snapshotShards();
+            if (multiShardLock.validate(optimistic)) {
+                return new ShardedDataTreeSnapshot(this, snapshots);
+            }
+        }
+
+        // A multi-shard commit is in progress or has completed while we were taking snapshots
+        final long stamp = multiShardLock.readLock();
+        try {
+            return new ShardedDataTreeSnapshot(this, snapshotShards());
+        } finally {
+            multiShardLock.unlockRead(stamp);
+        }
+    }
+
+    private DataTreeSnapshot[] snapshotShards() {
+        final DataTreeSnapshot[] snapshots = new DataTreeSnapshot[shards.length];
+        for (Shard shard : shards) {
+            snapshots[shard.index] = shard.tree.takeSnapshot();
+        }
+        return snapshots;
+    }
+
+    @Override
+    public void setSchemaContext(final SchemaContext newSchemaContext) {
+        final List<Shard> all = Arrays.asList(shards);
+        lock(all);
+        try {
+            for (Shard shard : shards) {
+                shard.tree.setSchemaContext(newSchemaContext);
+            }
+        } finally {
+            unlock(all);
+        }
+    }
+
+    @Override
+    public void validate(final DataTreeModification modification) throws DataValidationFailedException {
+        validate(currentTips(), modification);
+    }
+
+    void validate(final AbstractDataTreeTip[] tips, final DataTreeModification modification)
+            throws DataValidationFailedException {
+        final ShardedDataTreeModification m = checkModification(modification);
+        for (Shard shard : shards) {
+            final DataTreeModification shardModification = m.getShardModification(shard.index);
+            if (shardModification != null) {
+                tips[shard.index].validate(shardModification);
+            }
+        }
+    }
+
+    @Override
+    public DataTreeCandidateTip prepare(final DataTreeModification modification) {
+        return prepare(currentTips(), modification);
+    }
+
+    ShardedDataTreeCandidate prepare(final AbstractDataTreeTip[] tips, final DataTreeModification modification) {
+        final ShardedDataTreeModification m = checkModification(modification);
+        final AbstractDataTreeCandidate[] candidates = new AbstractDataTreeCandidate[shards.length];
+        for (Shard shard : shards) {
+            final DataTreeModification shardModification = m.getShardModification(shard.index);
+            if (shardModification != null) {
+                candidates[shard.index] = (AbstractDataTreeCandidate) tips[shard.index].prepare(shardModification);
+            }
+        }
+        return new ShardedDataTreeCandidate(this, tips, candidates);
+    }
+
+    @Override
+    public void commit(final DataTreeCandidate candidate) {
+        checkArgument(candidate instanceof ShardedDataTreeCandidate
+            && ((ShardedDataTreeCandidate) candidate).getTree() == this, "Invalid candidate %s", candidate);
+        final ShardedDataTreeCandidate sharded = (ShardedDataTreeCandidate) candidate;
+
+        final List<Shard> touched = new ArrayList<>();
+        for (Shard shard : shards) {
+            if (sharded.getShardCandidate(shard.index) instanceof InMemoryDataTreeCandidate) {
+                touched.add(shard);
+            }
+        }
+
+        // Shards are always locked in the same order, hence concurrent commits cannot deadlock. Holding all locks
+        // while checking the candidates' bases makes sure the candidate is committed either in all shards or none.
+        lock(touched);
+        try {
+            for (Shard shard : touched) {
+                final InMemoryDataTreeCandidate shardCandidate =
+                        (InMemoryDataTreeCandidate) sharded.getShardCandidate(shard.index);
+                checkState(shardCandidate.getBeforeRoot() == shard.tree.getTipRoot(),
+                    "Shard %s has changed since candidate %s has been prepared", shard, candidate);
+            }
+            if (touched.size() > 1) {
+                final long stamp = multiShardLock.writeLock();
+                try {
+                    commitShards(sharded, touched);
+                } finally {
+                    multiShardLock.unlockWrite(stamp);
+                }
+            } else {
+                commitShards(sharded, touched);
+            }
+        } finally {
+            unlock(touched);
+        }
+    }
+
+    private static void commitShards(final ShardedDataTreeCandidate candidate, final List<Shard> touched) {
+        for (Shard shard : touched) {
+            shard.tree.commit(candidate.getShardCandidate(shard.index));
+        }
+    }
+
+    @Override
+    public YangInstanceIdentifier getRootPath() {
+        return YangInstanceIdentifier.EMPTY;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this).add("shards", Arrays.asList(shards)).toString();
+    }
+
+    Shard[] getShards() {
+        return shards;
+    }
+
+    /**
+     * Return the shard which holds data at specified path.
+     *
+     * @param path Path to the data
+     * @return Owning shard
+     */
+    Shard shardFor(final YangInstanceIdentifier path) {
+        for (int i = 1; i < shards.length; ++i) {
+            if (shards[i].prefix.contains(path)) {
+                return shards[i];
+            }
+        }
+        return shards[0];
+    }
+
+    /**
+     * Return the shards whose prefixes lie strictly below specified path.
+     *
+     * @param path Path to the data
+     * @return Shards rooted below the path
+     */
+    List<Shard> shardsBelow(final YangInstanceIdentifier path) {
+        final List<Shard> ret = new ArrayList<>();
+        for (int i = 1; i < shards.length; ++i) {
+            final Shard shard = shards[i];
+            if (path.contains(shard.prefix) && !path.equals(shard.prefix)) {
+                ret.add(shard);
+            }
+        }
+        return ret;
+    }
+
+    /**
+     * Read the data at specified path, assembling it from root data of individual shards.
+     *
+     * @param path Path to the data
+     * @param shardData Function returning root data of a shard identified by its index
+     * @return Data at the path, if present
+     */
+    Optional<NormalizedNode<?, ?>> readNode(final YangInstanceIdentifier path,
+            final IntFunction<Optional<NormalizedNode<?, ?>>> shardData) {
+        final Shard owner = shardFor(path);
+        final Optional<NormalizedNode<?, ?>> found = NormalizedNodes.findNode(shardData.apply(owner.index),
+            owner.relativePath(path).getPathArguments());
+        if (owner.index != 0) {
+            // Shard roots always exist, hence an empty root exists only if the root shard holds its marker
+            if (found.isPresent() && path.equals(owner.prefix) && isEmpty(found.get())
+                    && !NormalizedNodes.findNode(shardData.apply(0), path.getPathArguments()).isPresent()) {
+                return Optional.empty();
+            }
+            return found;
+        }
+
+        final List<Shard> below = shardsBelow(path);
+        if (below.isEmpty()) {
+            return found;
+        }
+
+        final PathArgument identifier = path.isEmpty() ? ROOT_IDENTIFIER : path.getLastPathArgument();
+        final int depth = path.getPathArguments().size();
+        NormalizedNode<?, ?> ret = found.orElse(null);
+        for (Shard shard : below) {
+            final Optional<NormalizedNode<?, ?>> data = shardData.apply(shard.index);
+            if (data.isPresent() && !isEmpty(data.get())) {
+                final List<PathArgument> args = shard.prefix.getPathArguments();
+                ret = graft(ret, identifier, args.subList(depth, args.size()), data.get());
+            }
+        }
+        return Optional.ofNullable(ret);
+    }
+
+    /**
+     * Remove data belonging to other shards from data written to the root shard. Shard roots present in the data are
+     * replaced with their markers.
+     *
+     * @param path Path of the data
+     * @param data Data being written
+     * @return Data without any shard content
+     */
+    NormalizedNode<?, ?> strip(final YangInstanceIdentifier path, final NormalizedNode<?, ?> data) {
+        // Ancestors of shards are always containers, anything else will be rejected by schema validation
+        if (!(data instanceof ContainerNode)) {
+            return data;
+        }
+
+        final ContainerNode container = (ContainerNode) data;
+        final DataContainerNodeBuilder<NodeIdentifier, ContainerNode> builder =
+                ImmutableContainerNodeBuilder.create(container);
+        final int depth = path.getPathArguments().size();
+        final Set<PathArgument> seen = new HashSet<>();
+        for (Shard shard : shardsBelow(path)) {
+            final PathArgument next = shard.prefix.getPathArguments().get(depth);
+            if (seen.add(next)) {
+                final Optional<DataContainerChild<? extends PathArgument, ?>> child = container.getChild(next);
+                if (child.isPresent()) {
+                    final YangInstanceIdentifier childPath = path.node(next);
+                    if (childPath.equals(shard.prefix)) {
+                        builder.withChild(marker(next));
+                    } else {
+                        builder.withChild((DataContainerChild<?, ?>) strip(childPath, child.get()));
+                    }
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Create the marker of a shard root. Shard roots always exist in their shards, hence whether the data at a shard
+     * prefix exists is recorded in the root shard, by an empty container written at the prefix. The marker follows
+     * the lifecycle of the container in the root shard, i.e. it is removed together with its parent and the marker of
+     * a non-presence container disappears as soon as it is written, just like the container would in an unsharded
+     * tree.
+     *
+     * @param identifier Identifier of the shard root
+     * @return An empty container
+     */
+    static ContainerNode marker(final PathArgument identifier) {
+        return ImmutableContainerNodeBuilder.create().withNodeIdentifier((NodeIdentifier) identifier).build();
+    }
+
+    private AbstractDataTreeTip[] currentTips() {
+        final AbstractDataTreeTip[] tips = new AbstractDataTreeTip[shards.length];
+        for (Shard shard : shards) {
+            tips[shard.index] = shard.tree;
+        }
+        return tips;
+    }
+
+    private ShardedDataTreeModification checkModification(final DataTreeModification modification) {
+        checkArgument(modification instanceof ShardedDataTreeModification
+            && ((ShardedDataTreeModification) modification).getTree() == this, "Invalid modification %s",
+            modification);
+        final ShardedDataTreeModification ret = (ShardedDataTreeModification) modification;
+        checkState(ret.isSealed(), "Attempted to use unsealed modification %s", ret);
+        return ret;
+    }
+
+    private static NormalizedNode<?, ?> graft(final @Nullable NormalizedNode<?, ?> parent,
+            final PathArgument parentIdentifier, final List<PathArgument> path, final NormalizedNode<?, ?> data) {
+        if (path.isEmpty()) {
+            return data;
+        }
+
+        final DataContainerNodeBuilder<NodeIdentifier, ContainerNode> builder;
+        final Optional<DataContainerChild<? extends PathArgument, ?>> child;
+        final PathArgument childIdentifier = path.get(0);
+        if (parent != null) {
+            checkState(parent instanceof ContainerNode, "Unexpected ancestor %s of shard data", parent);
+            builder = ImmutableContainerNodeBuilder.create((ContainerNode) parent);
+            child = ((ContainerNode) parent).getChild(childIdentifier);
+        } else {
+            builder = ImmutableContainerNodeBuilder.create().withNodeIdentifier((NodeIdentifier) parentIdentifier);
+            child = Optional.empty();
+        }
+
+        return builder.withChild((DataContainerChild<?, ?>) graft(child.orElse(null), childIdentifier,
+            path.subList(1, path.size()), data)).build();
+    }
+
+    static boolean isEmpty(final NormalizedNode<?, ?> data) {
+        return data instanceof NormalizedNodeContainer
+                && ((NormalizedNodeContainer<?, ?, ?>) data).getValue().isEmpty();
+    }
+
+    private static void lock(final List<Shard> toLock) {
+        for (Shard shard : toLock) {
+            shard.lock.lock();
+        }
+    }
+
+    private static void unlock(final List<Shard> toUnlock) {
+        for (int i = toUnlock.size() - 1; i >= 0; --i) {
+            toUnlock.get(i).lock.unlock();
+        }
+    }
+}
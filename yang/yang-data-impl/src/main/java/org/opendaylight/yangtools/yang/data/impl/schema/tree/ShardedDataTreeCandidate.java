@@ -0,0 +1,277 @@
+/*
+ * Copyright (c) 2018 Pantheon Technologies, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.impl.schema.tree;
+
+import static java.util.Objects.requireNonNull;
+
+import com.google.common.base.MoreObjects;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import javax.annotation.Nonnull;
+import org.eclipse.jdt.annotation.Nullable;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidateNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidateTip;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeModification;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataValidationFailedException;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.ModificationType;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.spi.TreeNode;
+import org.opendaylight.yangtools.yang.data.impl.schema.tree.ShardedDataTree.Shard;
+
+/**
+ * A candidate prepared by a {@link ShardedDataTree}, composed of candidates of the shards touched by a modification.
+ * Its root node is assembled lazily: nodes on paths leading to shard prefixes are synthesized, with candidate nodes
+ * of the individual shards grafted onto them.
+ */
+final class ShardedDataTreeCandidate implements DataTreeCandidateTip {
+    private final class ShardRootNode implements DataTreeCandidateNode {
+        private final YangInstanceIdentifier path;
+        private final DataTreeCandidateNode delegate;
+
+        ShardRootNode(final YangInstanceIdentifier path, final DataTreeCandidateNode delegate) {
+            this.path = requireNonNull(path);
+            this.delegate = requireNonNull(delegate);
+        }
+
+        @Override
+        @Nonnull
+        public PathArgument getIdentifier() {
+            return path.getLastPathArgument();
+        }
+
+        @Override
+        @Nonnull
+        public Collection<DataTreeCandidateNode> getChildNodes() {
+            return delegate.getChildNodes();
+        }
+
+        @Override
+        public DataTreeCandidateNode getModifiedChild(final PathArgument childIdentifier) {
+            return delegate.getModifiedChild(childIdentifier);
+        }
+
+        @Override
+        @Nonnull
+        public ModificationType getModificationType() {
+            // The shard root itself always exists, its existence in the tree is determined by the root shard
+            final boolean before = getDataBefore().isPresent();
+            final boolean after = getDataAfter().isPresent();
+            if (before != after) {
+                return after ? ModificationType.WRITE : ModificationType.DELETE;
+            }
+            return after ? delegate.getModificationType() : ModificationType.UNMODIFIED;
+        }
+
+        @Override
+        @Nonnull
+        public Optional<NormalizedNode<?, ?>> getDataAfter() {
+            return tree.readNode(path, index -> Optional.of(afterRoots[index].getData()));
+        }
+
+        @Override
+        @Nonnull
+        public Optional<NormalizedNode<?, ?>> getDataBefore() {
+            return tree.readNode(path, index -> Optional.of(beforeRoots[index].getData()));
+        }
+    }
+
+    private final class GraftedNode implements DataTreeCandidateNode {
+        private final YangInstanceIdentifier path;
+        private final @Nullable DataTreeCandidateNode base;
+        private final Map<PathArgument, DataTreeCandidateNode> grafts;
+
+        GraftedNode(final YangInstanceIdentifier path, final @Nullable DataTreeCandidateNode base,
+                final Map<PathArgument, DataTreeCandidateNode> grafts) {
+            this.path = requireNonNull(path);
+            this.base = base;
+            this.grafts = requireNonNull(grafts);
+        }
+
+        @Override
+        @Nonnull
+        public PathArgument getIdentifier() {
+            if (path.isEmpty()) {
+                throw new IllegalStateException("Attempted to get identifier of the root node");
+            }
+            return path.getLastPathArgument();
+        }
+
+        @Override
+        @Nonnull
+        public Collection<DataTreeCandidateNode> getChildNodes() {
+            final List<DataTreeCandidateNode> ret = new ArrayList<>();
+            if (base != null) {
+                for (DataTreeCandidateNode child : base.getChildNodes()) {
+                    if (!grafts.containsKey(child.getIdentifier())) {
+                        ret.add(child);
+                    }
+                }
+            }
+            for (DataTreeCandidateNode graft : grafts.values()) {
+                if (graft.getModificationType() != ModificationType.UNMODIFIED) {
+                    ret.add(graft);
+                }
+            }
+            return ret;
+        }
+
+        @Override
+        public DataTreeCandidateNode getModifiedChild(final PathArgument childIdentifier) {
+            final DataTreeCandidateNode graft = grafts.get(childIdentifier);
+            if (graft != null) {
+                return graft;
+            }
+            return base != null ? base.getModifiedChild(childIdentifier) : null;
+        }
+
+        @Override
+        @Nonnull
+        public ModificationType getModificationType() {
+            boolean modified = base != null && base.getModificationType() != ModificationType.UNMODIFIED;
+            if (!modified) {
+                for (DataTreeCandidateNode graft : grafts.values()) {
+                    if (graft.getModificationType() != ModificationType.UNMODIFIED) {
+                        modified = true;
+                        break;
+                    }
+                }
+            }
+            if (!modified) {
+                return ModificationType.UNMODIFIED;
+            }
+
+            // Data at this node is spread across shards, hence its presence needs to be determined from assembled
+            // data and any changes are reported as changes to its children
+            if (!getDataBefore().isPresent()) {
+                return ModificationType.APPEARED;
+            }
+            return getDataAfter().isPresent() ? ModificationType.SUBTREE_MODIFIED : ModificationType.DISAPPEARED;
+        }
+
+        @Override
+        @Nonnull
+        public Optional<NormalizedNode<?, ?>> getDataAfter() {
+            return tree.readNode(path, index -> Optional.of(afterRoots[index].getData()));
+        }
+
+        @Override
+        @Nonnull
+        public Optional<NormalizedNode<?, ?>> getDataBefore() {
+            return tree.readNode(path, index -> Optional.of(beforeRoots[index].getData()));
+        }
+    }
+
+    private final ShardedDataTree tree;
+    private final AbstractDataTreeTip[] tips;
+    private final AbstractDataTreeCandidate[] candidates;
+    private final TreeNode[] beforeRoots;
+    private final TreeNode[] afterRoots;
+
+    private volatile DataTreeCandidateNode rootNode;
+
+    ShardedDataTreeCandidate(final ShardedDataTree tree, final AbstractDataTreeTip[] baseTips,
+            final AbstractDataTreeCandidate[] candidates) {
+        this.tree = requireNonNull(tree);
+        this.candidates = requireNonNull(candidates);
+        this.tips = new AbstractDataTreeTip[candidates.length];
+        this.beforeRoots = new TreeNode[candidates.length];
+        this.afterRoots = new TreeNode[candidates.length];
+        for (int i = 0; i < candidates.length; ++i) {
+            final AbstractDataTreeCandidate candidate = candidates[i];
+            if (candidate instanceof InMemoryDataTreeCandidate) {
+                tips[i] = candidate;
+                beforeRoots[i] = ((InMemoryDataTreeCandidate) candidate).getBeforeRoot();
+                afterRoots[i] = candidate.getTipRoot();
+            } else if (candidate != null) {
+                tips[i] = candidate;
+                beforeRoots[i] = candidate.getTipRoot();
+                afterRoots[i] = beforeRoots[i];
+            } else {
+                tips[i] = baseTips[i];
+                beforeRoots[i] = baseTips[i].getTipRoot();
+                afterRoots[i] = beforeRoots[i];
+            }
+        }
+    }
+
+    ShardedDataTree getTree() {
+        return tree;
+    }
+
+    /**
+     * Return the candidate of a shard.
+     *
+     * @param index Shard index
+     * @return Shard candidate, or null if the shard has not been touched
+     */
+    @Nullable AbstractDataTreeCandidate getShardCandidate(final int index) {
+        return candidates[index];
+    }
+
+    @Override
+    public void validate(final DataTreeModification modification) throws DataValidationFailedException {
+        tree.validate(tips, modification);
+    }
+
+    @Override
+    public DataTreeCandidateTip prepare(final DataTreeModification modification) {
+        return tree.prepare(tips, modification);
+    }
+
+    @Override
+    public DataTreeCandidateNode getRootNode() {
+        DataTreeCandidateNode ret = rootNode;
+        if (ret == null) {
+            final AbstractDataTreeCandidate rootCandidate = candidates[0];
+            ret = createNode(YangInstanceIdentifier.EMPTY,
+                rootCandidate instanceof InMemoryDataTreeCandidate ? rootCandidate.getRootNode() : null);
+            rootNode = ret;
+        }
+        return ret;
+    }
+
+    @Override
+    public YangInstanceIdentifier getRootPath() {
+        return YangInstanceIdentifier.EMPTY;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this).add("candidates", Arrays.asList(candidates)).toString();
+    }
+
+    private DataTreeCandidateNode createNode(final YangInstanceIdentifier path,
+            final @Nullable DataTreeCandidateNode base) {
+        final int depth = path.getPathArguments().size();
+        final Map<PathArgument, DataTreeCandidateNode> grafts = new LinkedHashMap<>();
+        for (Shard shard : tree.shardsBelow(path)) {
+            final PathArgument next = shard.prefix.getPathArguments().get(depth);
+            if (grafts.containsKey(next)) {
+                continue;
+            }
+
+            final YangInstanceIdentifier childPath = path.node(next);
+            if (childPath.equals(shard.prefix)) {
+                final AbstractDataTreeCandidate candidate = candidates[shard.index];
+                if (candidate instanceof InMemoryDataTreeCandidate) {
+                    grafts.put(next, new ShardRootNode(childPath, candidate.getRootNode()));
+                }
+            } else {
+                grafts.put(next, createNode(childPath, base != null ? base.getModifiedChild(next) : null));
+            }
+        }
+        return new GraftedNode(path, base, grafts);
+    }
+}
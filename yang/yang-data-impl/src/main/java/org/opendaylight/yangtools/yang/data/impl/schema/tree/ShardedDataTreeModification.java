@@ -0,0 +1,219 @@
+/*
+ * Copyright (c) 2018 Pantheon Technologies, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.impl.schema.tree;
+
+import static com.google.common.base.Preconditions.checkState;
+import static java.util.Objects.requireNonNull;
+
+import com.google.common.base.MoreObjects;
+import java.util.Arrays;
+import java.util.Optional;
+import org.eclipse.jdt.annotation.Nullable;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNodeContainer;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNodes;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeModification;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeModificationCursor;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeSnapshot;
+import org.opendaylight.yangtools.yang.data.impl.schema.tree.ShardedDataTree.Shard;
+import org.opendaylight.yangtools.yang.model.api.SchemaContext;
+
+/**
+ * A modification of a {@link ShardedDataTree}. Modifications of individual shards are created as the shards are
+ * touched, hence the modification is validated, prepared and committed only by shards which it actually affects.
+ *
+ * <p>
+ * Operations on paths which are ancestors of shard prefixes are split: the root shard receives the data without any
+ * shard content, while each shard below the path receives its part of the data. Operations on shard prefixes are
+ * mirrored in the root shard, which records whether the shard roots exist.
+ */
+final class ShardedDataTreeModification implements DataTreeModification {
+    private final ShardedDataTree tree;
+    private final DataTreeSnapshot[] bases;
+    private final DataTreeModification[] modifications;
+
+    private volatile boolean sealed;
+
+    ShardedDataTreeModification(final ShardedDataTree tree, final DataTreeSnapshot[] bases) {
+        this.tree = requireNonNull(tree);
+        this.bases = requireNonNull(bases);
+        this.modifications = new DataTreeModification[bases.length];
+    }
+
+    ShardedDataTree getTree() {
+        return tree;
+    }
+
+    boolean isSealed() {
+        return sealed;
+    }
+
+    /**
+     * Return the modification of a shard.
+     *
+     * @param index Shard index
+     * @return Shard modification, or null if the shard has not been touched
+     */
+    @Nullable DataTreeModification getShardModification(final int index) {
+        return modifications[index];
+    }
+
+    @Override
+    public Optional<NormalizedNode<?, ?>> readNode(final YangInstanceIdentifier path) {
+        return tree.readNode(path, index -> view(index).readNode(YangInstanceIdentifier.EMPTY));
+    }
+
+    @Override
+    public void write(final YangInstanceIdentifier path, final NormalizedNode<?, ?> data) {
+        checkSealed();
+        final Shard owner = tree.shardFor(path);
+        if (owner.index != 0) {
+            if (path.equals(owner.prefix)) {
+                rootModification().write(path, ShardedDataTree.marker(data.getIdentifier()));
+            }
+            modification(owner).write(owner.relativePath(path), data);
+            return;
+        }
+
+        for (Shard shard : tree.shardsBelow(path)) {
+            final Optional<NormalizedNode<?, ?>> shardData = NormalizedNodes.findNode(data,
+                shard.prefix.relativeTo(path).get());
+            if (shardData.isPresent() && !ShardedDataTree.isEmpty(shardData.get())) {
+                modification(shard).write(YangInstanceIdentifier.EMPTY, shardData.get());
+            } else {
+                clear(shard);
+            }
+        }
+        modification(owner).write(path, tree.strip(path, data));
+    }
+
+    @Override
+    public void merge(final YangInstanceIdentifier path, final NormalizedNode<?, ?> data) {
+        checkSealed();
+        final Shard owner = tree.shardFor(path);
+        if (owner.index != 0) {
+            if (path.equals(owner.prefix)) {
+                rootModification().merge(path, ShardedDataTree.marker(data.getIdentifier()));
+            }
+            modification(owner).merge(owner.relativePath(path), data);
+            return;
+        }
+
+        for (Shard shard : tree.shardsBelow(path)) {
+            final Optional<NormalizedNode<?, ?>> shardData = NormalizedNodes.findNode(data,
+                shard.prefix.relativeTo(path).get());
+            if (shardData.isPresent()) {
+                modification(shard).merge(YangInstanceIdentifier.EMPTY, shardData.get());
+            }
+        }
+        modification(owner).merge(path, tree.strip(path, data));
+    }
+
+    @Override
+    public void delete(final YangInstanceIdentifier path) {
+        checkSealed();
+        final Shard owner = tree.shardFor(path);
+        if (owner.index != 0) {
+            if (path.equals(owner.prefix)) {
+                rootModification().delete(path);
+                clear(owner);
+            } else {
+                modification(owner).delete(owner.relativePath(path));
+            }
+            return;
+        }
+
+        for (Shard shard : tree.shardsBelow(path)) {
+            clear(shard);
+        }
+        modification(owner).delete(path);
+    }
+
+    @Override
+    public void ready() {
+        checkSealed();
+        for (DataTreeModification modification : modifications) {
+            if (modification != null) {
+                modification.ready();
+            }
+        }
+        sealed = true;
+    }
+
+    @Override
+    public void applyToCursor(final DataTreeModificationCursor cursor) {
+        for (Shard shard : tree.getShards()) {
+            final DataTreeModification modification = modifications[shard.index];
+            if (modification != null) {
+                final int depth = shard.prefix.getPathArguments().size();
+                if (depth != 0) {
+                    cursor.enter(shard.prefix.getPathArguments());
+                    modification.applyToCursor(cursor);
+                    cursor.exit(depth);
+                } else {
+                    modification.applyToCursor(cursor);
+                }
+            }
+        }
+    }
+
+    @Override
+    public DataTreeModification newModification() {
+        checkState(sealed, "Attempted to chain on an unsealed modification");
+        final DataTreeSnapshot[] views = new DataTreeSnapshot[bases.length];
+        for (int i = 0; i < views.length; ++i) {
+            views[i] = view(i);
+        }
+        return new ShardedDataTreeModification(tree, views);
+    }
+
+    @Override
+    public SchemaContext getSchemaContext() {
+        return bases[0].getSchemaContext();
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this).add("modifications", Arrays.asList(modifications))
+                .add("sealed", sealed).toString();
+    }
+
+    private DataTreeSnapshot view(final int index) {
+        final DataTreeModification modification = modifications[index];
+        return modification != null ? modification : bases[index];
+    }
+
+    private DataTreeModification modification(final Shard shard) {
+        DataTreeModification ret = modifications[shard.index];
+        if (ret == null) {
+            ret = bases[shard.index].newModification();
+            modifications[shard.index] = ret;
+        }
+        return ret;
+    }
+
+    private DataTreeModification rootModification() {
+        return modification(tree.getShards()[0]);
+    }
+
+    private void clear(final Shard shard) {
+        // Shard roots cannot be removed, hence their children are removed instead
+        final Optional<NormalizedNode<?, ?>> root = view(shard.index).readNode(YangInstanceIdentifier.EMPTY);
+        if (root.isPresent() && root.get() instanceof NormalizedNodeContainer) {
+            final DataTreeModification modification = modification(shard);
+            for (NormalizedNode<?, ?> child : ((NormalizedNodeContainer<?, ?, ?>) root.get()).getValue()) {
+                modification.delete(YangInstanceIdentifier.create(child.getIdentifier()));
+            }
+        }
+    }
+
+    private void checkSealed() {
+        checkState(!sealed, "Data Tree is sealed. No further modifications allowed.");
+    }
+}
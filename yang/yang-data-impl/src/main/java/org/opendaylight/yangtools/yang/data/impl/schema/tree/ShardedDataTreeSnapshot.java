@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2018 Pantheon Technologies, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.impl.schema.tree;
+
+import static java.util.Objects.requireNonNull;
+
+import com.google.common.base.MoreObjects;
+import java.util.Arrays;
+import java.util.Optional;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeModification;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeSnapshot;
+import org.opendaylight.yangtools.yang.model.api.SchemaContext;
+
+/**
+ * A snapshot of a {@link ShardedDataTree}, composed of snapshots of its individual shards.
+ */
+final class ShardedDataTreeSnapshot implements DataTreeSnapshot {
+    private final ShardedDataTree tree;
+    private final DataTreeSnapshot[] snapshots;
+
+    ShardedDataTreeSnapshot(final ShardedDataTree tree, final DataTreeSnapshot[] snapshots) {
+        this.tree = requireNonNull(tree);
+        this.snapshots = requireNonNull(snapshots);
+    }
+
+    @Override
+    public Optional<NormalizedNode<?, ?>> readNode(final YangInstanceIdentifier path) {
+        return tree.readNode(path, index -> snapshots[index].readNode(YangInstanceIdentifier.EMPTY));
+    }
+
+    @Override
+    public DataTreeModification newModification() {
+        return new ShardedDataTreeModification(tree, snapshots);
+    }
+
+    @Override
+    public SchemaContext getSchemaContext() {
+        return snapshots[0].getSchemaContext();
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this).add("snapshots", Arrays.asList(snapshots)).toString();
+    }
+}
@@ -29,10 +29,12 @@ final class UnkeyedListModificationStrategy extends SchemaAwareApplyOperation {
 
     private final Optional<ModificationApplyOperation> entryStrategy;
     private final UnkeyedListNode emptyNode;
+    private final boolean compactValues;
 
     UnkeyedListModificationStrategy(final ListSchemaNode schema, final DataTreeConfiguration treeConfig) {
         entryStrategy = Optional.of(new UnkeyedListItemModificationStrategy(schema, treeConfig));
         emptyNode = ImmutableNodes.listNode(schema.getQName());
+        compactValues = treeConfig.isCompactValuesEnabled();
     }
 
     @Override
@@ -69,7 +71,7 @@ final class UnkeyedListModificationStrategy extends SchemaAwareApplyOperation {
     protected TreeNode applyWrite(final ModifiedNode modification,
             final Optional<TreeNode> currentMeta, final Version version) {
         final NormalizedNode<?, ?> newValue = modification.getWrittenValue();
-        final TreeNode newValueMeta = TreeNodeFactory.createTreeNode(newValue, version);
+        final TreeNode newValueMeta = TreeNodeFactory.createTreeNode(newValue, version, compactValues);
 
         if (modification.getChildren().isEmpty()) {
             return newValueMeta;
@@ -131,6 +131,9 @@ public class BuilderTest {
         assertEquals(orderedMapNodeCreateNode.getSize(), orderedMapNodeCreateNull.getSize() - 1);
         assertEquals(NODE_IDENTIFIER_LIST, orderedMapNodeCreateSize.getIdentifier());
         assertEquals(LIST_MAIN_CHILD_1, orderedMapNodeCreateNull.getChild(0));
+        assertEquals(LIST_MAIN_CHILD_3, orderedMapNodeCreateNull.getChild(2));
+        assertEquals(LIST_MAIN_CHILD_2, orderedMapNodeCreateNode.getChild(0));
+        assertEquals(LIST_MAIN_CHILD_3, orderedMapNodeCreateNode.getChild(1));
         assertEquals(SIZE, orderedMapNodeCreateNull.getValue().size());
         assertEquals(orderedMapNodeSchemaAware.getChild(0), orderedMapNodeSchemaAwareMapNodeConst.getChild(0));
     }
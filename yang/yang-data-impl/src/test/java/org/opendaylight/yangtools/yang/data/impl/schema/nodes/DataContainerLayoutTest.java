@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2018 Pantheon Technologies, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.impl.schema.nodes;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Optional;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.schema.ContainerNode;
+import org.opendaylight.yangtools.yang.data.api.schema.LeafNode;
+import org.opendaylight.yangtools.yang.data.impl.schema.Builders;
+import org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes;
+import org.opendaylight.yangtools.yang.data.impl.schema.builder.impl.ImmutableContainerNodeBuilder;
+import org.opendaylight.yangtools.yang.model.api.ContainerSchemaNode;
+import org.opendaylight.yangtools.yang.test.util.YangParserTestUtils;
+
+public class DataContainerLayoutTest {
+    private static final QName NON_PRESENCE_QNAME = QName.create(
+        "urn:opendaylight:params:xml:ns:yang:controller:md:sal:dom:store:test", "2014-03-13", "non-presence");
+    private static final QName NAME_QNAME = QName.create(NON_PRESENCE_QNAME, "name");
+    private static final QName DEEP_CHOICE_QNAME = QName.create(NON_PRESENCE_QNAME, "deep-choice");
+    private static final QName UNKNOWN_QNAME = QName.create(NON_PRESENCE_QNAME, "unknown");
+    private static final NodeIdentifier NON_PRESENCE = new NodeIdentifier(NON_PRESENCE_QNAME);
+
+    private static DataContainerLayout layout;
+
+    @BeforeClass
+    public static void beforeClass() {
+        final ContainerSchemaNode schema = (ContainerSchemaNode) YangParserTestUtils.parseYangResource(
+            "/odl-datastore-test.yang").getDataChildByName(NON_PRESENCE_QNAME);
+        layout = DataContainerLayout.of(schema);
+        assertSame(layout, DataContainerLayout.of(schema));
+    }
+
+    @Test
+    public void testSlotChildren() {
+        final LeafNode<String> name = ImmutableNodes.leafNode(NAME_QNAME, "foo");
+        final ContainerNode node = ImmutableContainerNodeBuilder.create(layout).withNodeIdentifier(NON_PRESENCE)
+                .withChild(name).build();
+        assertTrue(((AbstractImmutableDataContainerNode<?>) node).getChildren() instanceof SlotChildrenMap);
+        assertEquals(Optional.of(name), node.getChild(new NodeIdentifier(NAME_QNAME)));
+        assertFalse(node.getChild(new NodeIdentifier(DEEP_CHOICE_QNAME)).isPresent());
+        assertEquals(1, node.getValue().size());
+
+        final ContainerNode generic = Builders.containerBuilder().withNodeIdentifier(NON_PRESENCE).withChild(name)
+                .build();
+        assertEquals(generic, node);
+        assertEquals(node, generic);
+        assertEquals(generic.hashCode(), node.hashCode());
+
+        // Modifications do not affect the original node
+        final ContainerNode modified = ImmutableContainerNodeBuilder.create(layout, node)
+                .withChild(ImmutableNodes.leafNode(NAME_QNAME, "bar")).build();
+        assertTrue(((AbstractImmutableDataContainerNode<?>) modified).getChildren() instanceof SlotChildrenMap);
+        assertEquals(Optional.of(name), node.getChild(new NodeIdentifier(NAME_QNAME)));
+        assertEquals(Optional.of(ImmutableNodes.leafNode(NAME_QNAME, "bar")),
+            modified.getChild(new NodeIdentifier(NAME_QNAME)));
+
+        // Nodes built without schema are converted
+        assertTrue(((AbstractImmutableDataContainerNode<?>) ImmutableContainerNodeBuilder.create(layout, generic)
+            .build()).getChildren() instanceof SlotChildrenMap);
+    }
+
+    @Test
+    public void testFallback() {
+        final LeafNode<String> unknown = ImmutableNodes.leafNode(UNKNOWN_QNAME, "foo");
+        final ContainerNode node = ImmutableContainerNodeBuilder.create(layout).withNodeIdentifier(NON_PRESENCE)
+                .withChild(ImmutableNodes.leafNode(NAME_QNAME, "foo")).withChild(unknown).build();
+        assertFalse(((AbstractImmutableDataContainerNode<?>) node).getChildren() instanceof SlotChildrenMap);
+        assertEquals(Optional.of(unknown), node.getChild(new NodeIdentifier(UNKNOWN_QNAME)));
+        assertEquals(2, node.getValue().size());
+
+        final ContainerNode empty = ImmutableContainerNodeBuilder.create(layout).withNodeIdentifier(NON_PRESENCE)
+                .build();
+        assertFalse(((AbstractImmutableDataContainerNode<?>) empty).getChildren() instanceof SlotChildrenMap);
+        assertTrue(empty.getValue().isEmpty());
+    }
+}
@@ -0,0 +1,196 @@
+/*
+ * Copyright (c) 2018 Pantheon Technologies, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.impl.schema.tree;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes.leafNode;
+
+import com.google.common.collect.ImmutableList;
+import java.util.Optional;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifierWithPredicates;
+import org.opendaylight.yangtools.yang.data.api.schema.MapEntryNode;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.BatchingDataTree;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.ConflictingModificationAppliedException;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeBatch;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeConfiguration;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeModification;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataValidationFailedException;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.ModificationType;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.TreeType;
+import org.opendaylight.yangtools.yang.data.impl.schema.Builders;
+import org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes;
+import org.opendaylight.yangtools.yang.model.api.SchemaContext;
+
+public class BatchPreparationTest {
+    private static final QName ROOT = QName.create("urn:opendaylight:params:xml:ns:yang:leafref-index-test",
+        "2018-09-17", "root");
+    private static final QName ITEM = QName.create(ROOT, "item");
+    private static final QName ID = QName.create(ROOT, "id");
+    private static final QName NAME = QName.create(ROOT, "name");
+    private static final QName REF = QName.create(ROOT, "ref");
+
+    private static final YangInstanceIdentifier ROOT_PATH = YangInstanceIdentifier.of(ROOT);
+    private static final YangInstanceIdentifier ITEM_PATH = ROOT_PATH.node(ITEM);
+    private static final YangInstanceIdentifier REF_PATH = ROOT_PATH.node(REF);
+
+    private static SchemaContext schemaContext;
+
+    private BatchingDataTree dataTree;
+
+    @BeforeClass
+    public static void beforeClass() {
+        schemaContext = TestModel.createTestContext("/leafref-index-test.yang");
+    }
+
+    @Before
+    public void before() throws DataValidationFailedException {
+        dataTree = (BatchingDataTree) new InMemoryDataTreeFactory().create(
+            new DataTreeConfiguration.Builder(TreeType.CONFIGURATION).setLeafRefValidation(true).build(),
+            schemaContext);
+
+        final DataTreeModification mod = dataTree.takeSnapshot().newModification();
+        mod.write(ROOT_PATH, Builders.containerBuilder()
+            .withNodeIdentifier(new NodeIdentifier(ROOT))
+            .withChild(ImmutableNodes.mapNodeBuilder(ITEM).withChild(item(1, "a")).withChild(item(2, "b")).build())
+            .withChild(ImmutableNodes.mapNodeBuilder(REF).build())
+            .build());
+        mod.ready();
+        dataTree.validate(mod);
+        dataTree.commit(dataTree.prepare(mod));
+    }
+
+    @Test
+    public void testDisjointModifications() {
+        final DataTreeModification first = write(itemPath(3), item(3, "c"));
+        final DataTreeModification second = write(itemPath(4), item(4, "d"));
+        final DataTreeModification third = delete(itemPath(1));
+
+        final DataTreeBatch batch = dataTree.prepareBatch(ImmutableList.of(first, second, third));
+        assertTrue(batch.getFailures().isEmpty());
+        assertEquals(ModificationType.SUBTREE_MODIFIED, batch.getCandidate().getRootNode().getModificationType());
+        dataTree.commit(batch.getCandidate());
+
+        assertFalse(read(itemPath(1)).isPresent());
+        assertEquals(Optional.of(item(3, "c")), read(itemPath(3)));
+        assertEquals(Optional.of(item(4, "d")), read(itemPath(4)));
+    }
+
+    @Test
+    public void testConflictingModification() {
+        final DataTreeModification first = write(itemPath(1), item(1, "x"));
+        final DataTreeModification conflict = write(itemPath(1).node(NAME), leafNode(NAME, "y"));
+        final DataTreeModification third = write(itemPath(3), item(3, "c"));
+
+        final DataTreeBatch batch = dataTree.prepareBatch(ImmutableList.of(first, conflict, third));
+        assertEquals(1, batch.getFailures().size());
+        assertTrue(batch.getFailures().get(conflict) instanceof ConflictingModificationAppliedException);
+        dataTree.commit(batch.getCandidate());
+
+        assertEquals(Optional.of(item(1, "x")), read(itemPath(1)));
+        assertEquals(Optional.of(item(3, "c")), read(itemPath(3)));
+    }
+
+    @Test
+    public void testChainedModifications() {
+        final DataTreeModification first = write(itemPath(3), item(3, "c"));
+        final DataTreeModification second = first.newModification();
+        second.write(itemPath(3).node(NAME), leafNode(NAME, "d"));
+        second.ready();
+        final DataTreeModification third = second.newModification();
+        third.delete(itemPath(2));
+        third.ready();
+
+        final DataTreeBatch batch = dataTree.prepareBatch(ImmutableList.of(first, second, third));
+        assertTrue(batch.getFailures().isEmpty());
+        dataTree.commit(batch.getCandidate());
+
+        assertEquals(Optional.of(item(3, "d")), read(itemPath(3)));
+        assertFalse(read(itemPath(2)).isPresent());
+    }
+
+    @Test
+    public void testConstraintViolation() {
+        final DataTreeModification first = write(refPath(1), ref(1, 2));
+        final DataTreeModification dangling = write(refPath(2), ref(2, 5));
+        final DataTreeModification third = write(itemPath(3), item(3, "c"));
+
+        final DataTreeBatch batch = dataTree.prepareBatch(ImmutableList.of(first, dangling, third));
+        assertEquals(1, batch.getFailures().size());
+        assertTrue(batch.getFailures().get(dangling) instanceof SchemaValidationFailedException);
+        dataTree.commit(batch.getCandidate());
+
+        assertEquals(Optional.of(ref(1, 2)), read(refPath(1)));
+        assertFalse(read(refPath(2)).isPresent());
+        assertEquals(Optional.of(item(3, "c")), read(itemPath(3)));
+    }
+
+    @Test
+    public void testTransientViolation() {
+        final DataTreeModification dangling = write(refPath(1), ref(1, 3));
+        final DataTreeModification target = write(itemPath(3), item(3, "c"));
+
+        final DataTreeBatch batch = dataTree.prepareBatch(ImmutableList.of(dangling, target));
+        assertTrue(batch.getFailures().isEmpty());
+        dataTree.commit(batch.getCandidate());
+        assertEquals(Optional.of(ref(1, 3)), read(refPath(1)));
+    }
+
+    @Test
+    public void testAllFailed() {
+        final DataTreeModification dangling = write(refPath(1), ref(1, 5));
+
+        final DataTreeBatch batch = dataTree.prepareBatch(ImmutableList.of(dangling));
+        assertEquals(ImmutableList.of(dangling), ImmutableList.copyOf(batch.getFailures().keySet()));
+        assertSame(ModificationType.UNMODIFIED, batch.getCandidate().getRootNode().getModificationType());
+        dataTree.commit(batch.getCandidate());
+    }
+
+    private DataTreeModification write(final YangInstanceIdentifier path, final NormalizedNode<?, ?> data) {
+        final DataTreeModification mod = dataTree.takeSnapshot().newModification();
+        mod.write(path, data);
+        mod.ready();
+        return mod;
+    }
+
+    private DataTreeModification delete(final YangInstanceIdentifier path) {
+        final DataTreeModification mod = dataTree.takeSnapshot().newModification();
+        mod.delete(path);
+        mod.ready();
+        return mod;
+    }
+
+    private Optional<NormalizedNode<?, ?>> read(final YangInstanceIdentifier path) {
+        return dataTree.takeSnapshot().readNode(path);
+    }
+
+    private static YangInstanceIdentifier itemPath(final int id) {
+        return ITEM_PATH.node(new NodeIdentifierWithPredicates(ITEM, ID, id));
+    }
+
+    private static YangInstanceIdentifier refPath(final int id) {
+        return REF_PATH.node(new NodeIdentifierWithPredicates(REF, ID, id));
+    }
+
+    private static MapEntryNode item(final int id, final String name) {
+        return ImmutableNodes.mapEntryBuilder(ITEM, ID, id).withChild(leafNode(NAME, name)).build();
+    }
+
+    private static MapEntryNode ref(final int id, final int item) {
+        return ImmutableNodes.mapEntryBuilder(REF, ID, id).withChild(leafNode(ITEM, item)).build();
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2018 Pantheon Technologies, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.impl.schema.tree;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+import static org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes.leafNode;
+
+import java.util.Optional;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifierWithPredicates;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.ConflictingModificationAppliedException;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTree;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeConfiguration;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeModification;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataValidationFailedException;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.TreeType;
+import org.opendaylight.yangtools.yang.data.impl.schema.Builders;
+import org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes;
+import org.opendaylight.yangtools.yang.model.api.SchemaContext;
+
+public class CompactValuesTest {
+    private static final NodeIdentifierWithPredicates ENTRY_ID = new NodeIdentifierWithPredicates(
+        TestModel.OUTER_LIST_QNAME, TestModel.ID_QNAME, 1);
+    private static final YangInstanceIdentifier ENTRY_PATH = TestModel.OUTER_LIST_PATH.node(ENTRY_ID);
+    private static final NodeIdentifier CHOICE_ID = new NodeIdentifier(TestModel.OUTER_CHOICE_QNAME);
+    private static final YangInstanceIdentifier TWO_PATH = ENTRY_PATH.node(CHOICE_ID).node(TestModel.TWO_QNAME);
+    private static final YangInstanceIdentifier THREE_PATH = ENTRY_PATH.node(CHOICE_ID).node(TestModel.THREE_QNAME);
+
+    private static SchemaContext schemaContext;
+
+    @BeforeClass
+    public static void beforeClass() {
+        schemaContext = TestModel.createTestContext();
+    }
+
+    @Test
+    public void testReadWrite() throws DataValidationFailedException {
+        final DataTree dataTree = createDataTree(true);
+        writeEntry(dataTree);
+
+        final DataTreeModification mod = dataTree.takeSnapshot().newModification();
+        mod.write(TWO_PATH, leafNode(TestModel.TWO_QNAME, "x"));
+        mod.delete(THREE_PATH);
+        commit(dataTree, mod);
+
+        assertEquals(Optional.of(leafNode(TestModel.TWO_QNAME, "x")), dataTree.takeSnapshot().readNode(TWO_PATH));
+        assertFalse(dataTree.takeSnapshot().readNode(THREE_PATH).isPresent());
+        assertEquals(Optional.of(Builders.mapEntryBuilder().withNodeIdentifier(ENTRY_ID)
+            .withChild(leafNode(TestModel.ID_QNAME, 1))
+            .withChild(Builders.choiceBuilder().withNodeIdentifier(CHOICE_ID)
+                .withChild(leafNode(TestModel.TWO_QNAME, "x")).build())
+            .build()), dataTree.takeSnapshot().readNode(ENTRY_PATH));
+    }
+
+    @Test
+    public void testSiblingLeavesDefault() throws DataValidationFailedException {
+        final DataTree dataTree = createDataTree(false);
+        writeEntry(dataTree);
+
+        final DataTreeModification first = dataTree.takeSnapshot().newModification();
+        final DataTreeModification second = dataTree.takeSnapshot().newModification();
+        first.write(TWO_PATH, leafNode(TestModel.TWO_QNAME, "x"));
+        second.write(THREE_PATH, leafNode(TestModel.THREE_QNAME, "y"));
+        commit(dataTree, first);
+        commit(dataTree, second);
+
+        assertEquals(Optional.of(leafNode(TestModel.TWO_QNAME, "x")), dataTree.takeSnapshot().readNode(TWO_PATH));
+        assertEquals(Optional.of(leafNode(TestModel.THREE_QNAME, "y")), dataTree.takeSnapshot().readNode(THREE_PATH));
+    }
+
+    @Test
+    public void testSiblingLeavesCompact() throws DataValidationFailedException {
+        final DataTree dataTree = createDataTree(true);
+        writeEntry(dataTree);
+
+        // Leaf versions are tracked by their parent, hence modifications of sibling leaves conflict
+        final DataTreeModification first = dataTree.takeSnapshot().newModification();
+        final DataTreeModification second = dataTree.takeSnapshot().newModification();
+        first.write(TWO_PATH, leafNode(TestModel.TWO_QNAME, "x"));
+        second.write(THREE_PATH, leafNode(TestModel.THREE_QNAME, "y"));
+        commit(dataTree, first);
+
+        second.ready();
+        try {
+            dataTree.validate(second);
+            fail("Modification of a sibling leaf should have been reported as conflicting");
+        } catch (ConflictingModificationAppliedException e) {
+            // Expected
+        }
+        assertEquals(Optional.of(leafNode(TestModel.THREE_QNAME, "b")), dataTree.takeSnapshot().readNode(THREE_PATH));
+    }
+
+    private static DataTree createDataTree(final boolean compactValues) {
+        return new InMemoryDataTreeFactory().create(new DataTreeConfiguration.Builder(TreeType.OPERATIONAL)
+            .setCompactValues(compactValues).build(), schemaContext);
+    }
+
+    private static void writeEntry(final DataTree dataTree) throws DataValidationFailedException {
+        final DataTreeModification mod = dataTree.takeSnapshot().newModification();
+        mod.write(TestModel.TEST_PATH, ImmutableNodes.containerNode(TestModel.TEST_QNAME));
+        mod.write(ENTRY_PATH, Builders.mapEntryBuilder().withNodeIdentifier(ENTRY_ID)
+            .withChild(leafNode(TestModel.ID_QNAME, 1))
+            .withChild(Builders.choiceBuilder().withNodeIdentifier(CHOICE_ID)
+                .withChild(leafNode(TestModel.TWO_QNAME, "a"))
+                .withChild(leafNode(TestModel.THREE_QNAME, "b"))
+                .build())
+            .build());
+        commit(dataTree, mod);
+    }
+
+    private static void commit(final DataTree dataTree, final DataTreeModification mod)
+            throws DataValidationFailedException {
+        mod.ready();
+        dataTree.validate(mod);
+        dataTree.commit(dataTree.prepare(mod));
+    }
+}
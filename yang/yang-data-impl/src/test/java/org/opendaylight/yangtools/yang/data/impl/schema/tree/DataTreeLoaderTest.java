@@ -0,0 +1,216 @@
+/*
+ * Copyright (c) 2018 Pantheon Technologies, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.impl.schema.tree;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes.leafNode;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifierWithPredicates;
+import org.opendaylight.yangtools.yang.data.api.schema.ContainerNode;
+import org.opendaylight.yangtools.yang.data.api.schema.MapEntryNode;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.stream.NormalizedNodeWriter;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.BulkLoadingDataTree;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidate;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeConfiguration;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeLoader;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeModification;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataValidationFailedException;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.ModificationType;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.TreeType;
+import org.opendaylight.yangtools.yang.data.impl.schema.Builders;
+import org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes;
+import org.opendaylight.yangtools.yang.model.api.SchemaContext;
+
+public class DataTreeLoaderTest {
+    private static final QName ROOT = QName.create("urn:opendaylight:params:xml:ns:yang:leafref-index-test",
+        "2018-09-17", "root");
+    private static final QName ITEM = QName.create(ROOT, "item");
+    private static final QName ID = QName.create(ROOT, "id");
+    private static final QName NAME = QName.create(ROOT, "name");
+    private static final QName REF = QName.create(ROOT, "ref");
+
+    private static final YangInstanceIdentifier ROOT_PATH = YangInstanceIdentifier.of(ROOT);
+
+    private static SchemaContext schemaContext;
+
+    private BulkLoadingDataTree dataTree;
+
+    @BeforeClass
+    public static void beforeClass() {
+        schemaContext = TestModel.createTestContext("/leafref-index-test.yang");
+    }
+
+    @Before
+    public void before() {
+        dataTree = (BulkLoadingDataTree) new InMemoryDataTreeFactory().create(
+            new DataTreeConfiguration.Builder(TreeType.CONFIGURATION).setLeafRefValidation(true).build(),
+            schemaContext);
+    }
+
+    @Test
+    public void testLoad() throws IOException, DataValidationFailedException {
+        // Pre-existing content is replaced
+        final DataTreeModification mod = dataTree.takeSnapshot().newModification();
+        mod.write(ROOT_PATH, root(item(100, "old")));
+        mod.ready();
+        dataTree.validate(mod);
+        dataTree.commit(dataTree.prepare(mod));
+
+        final ContainerNode root = root(item(1, "a"), item(2, "b"), ref(1, 2));
+        final DataTreeCandidate candidate = load(root);
+        assertEquals(ModificationType.WRITE, candidate.getRootNode().getModificationType());
+        assertEquals(ModificationType.WRITE, candidate.getRootNode().getModifiedChild(new NodeIdentifier(ROOT))
+            .getModificationType());
+        dataTree.commit(candidate);
+
+        assertEquals(Optional.of(root), dataTree.takeSnapshot().readNode(ROOT_PATH));
+
+        // Subsequent modifications work as usual
+        final DataTreeModification delete = dataTree.takeSnapshot().newModification();
+        delete.delete(ROOT_PATH.node(ITEM).node(new NodeIdentifierWithPredicates(ITEM, ID, 1)));
+        delete.ready();
+        dataTree.validate(delete);
+        dataTree.commit(dataTree.prepare(delete));
+    }
+
+    @Test
+    public void testInvalidStructure() throws IOException, DataValidationFailedException {
+        try {
+            load(Builders.containerBuilder().withNodeIdentifier(new NodeIdentifier(ROOT))
+                .withChild(leafNode(ID, 1)).build());
+            fail("Invalid structure should have been detected");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("is not a valid child"));
+        }
+    }
+
+    @Test
+    public void testLeafRefViolation() throws IOException, DataValidationFailedException {
+        try {
+            load(root(item(1, "a"), ref(1, 2)));
+            fail("Leafref violation should have been detected");
+        } catch (SchemaValidationFailedException e) {
+            assertTrue(e.getMessage(), e.getMessage().startsWith("Invalid leafref value [2]"));
+        }
+    }
+
+    @Test
+    public void testMinElementsViolation() throws IOException, DataValidationFailedException {
+        final QName container = QName.create(
+            "urn:opendaylight:params:xml:ns:yang:list-constraints-validation-test-model", "2015-02-02",
+            "master-container");
+        final QName list = QName.create(container, "min-max-list");
+        final QName key = QName.create(container, "min-max-key-leaf");
+        final BulkLoadingDataTree tree = (BulkLoadingDataTree) new InMemoryDataTreeFactory().create(
+            DataTreeConfiguration.DEFAULT_CONFIGURATION,
+            TestModel.createTestContext("/list-constraints-validation-test-model.yang"));
+
+        try {
+            load(tree, Builders.containerBuilder().withNodeIdentifier(new NodeIdentifier(container))
+                .withChild(ImmutableNodes.mapNodeBuilder(list).withChild(ImmutableNodes.mapEntry(list, key, "foo"))
+                    .build()).build());
+            fail("Min-elements violation should have been detected");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("does not have enough elements"));
+        }
+    }
+
+    @Test
+    public void testMandatoryViolation() throws IOException, DataValidationFailedException {
+        final QName container = QName.create("foo", "2016-07-28", "root");
+        final QName list = QName.create(container, "my-list");
+        final QName key = QName.create(container, "list-id");
+        final BulkLoadingDataTree tree = (BulkLoadingDataTree) new InMemoryDataTreeFactory().create(
+            DataTreeConfiguration.DEFAULT_CONFIGURATION, TestModel.createTestContext("/bug5968/foo.yang"));
+
+        try {
+            load(tree, Builders.containerBuilder().withNodeIdentifier(new NodeIdentifier(container))
+                .withChild(ImmutableNodes.mapNodeBuilder(list).withChild(ImmutableNodes.mapEntry(list, key, "foo"))
+                    .build()).build());
+            fail("Missing mandatory leaf should have been detected");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("is missing mandatory descendant"));
+        }
+    }
+
+    @Test
+    public void testListRoot() throws IOException, DataValidationFailedException {
+        final YangInstanceIdentifier itemPath = ROOT_PATH.node(ITEM);
+        final BulkLoadingDataTree tree = (BulkLoadingDataTree) new InMemoryDataTreeFactory().create(
+            new DataTreeConfiguration.Builder(TreeType.CONFIGURATION).setRootPath(itemPath).build(), schemaContext);
+
+        // The loader is positioned at the list, hence it receives its entries
+        final DataTreeLoader loader = tree.newLoader();
+        try (NormalizedNodeWriter writer = NormalizedNodeWriter.forStreamWriter(loader)) {
+            writer.write(item(1, "a"));
+            writer.write(item(2, "b"));
+        }
+        tree.commit(loader.prepare());
+        assertEquals(Optional.of(ImmutableNodes.mapNodeBuilder(ITEM).withChild(item(1, "a")).withChild(item(2, "b"))
+            .build()), tree.takeSnapshot().readNode(YangInstanceIdentifier.EMPTY));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testUnfinishedNode() throws IOException, DataValidationFailedException {
+        final DataTreeLoader loader = dataTree.newLoader();
+        loader.startContainerNode(new NodeIdentifier(ROOT), 1);
+        loader.prepare();
+    }
+
+    private DataTreeCandidate load(final NormalizedNode<?, ?> data) throws IOException,
+            DataValidationFailedException {
+        return load(dataTree, data);
+    }
+
+    private static DataTreeCandidate load(final BulkLoadingDataTree tree, final NormalizedNode<?, ?> data)
+            throws IOException, DataValidationFailedException {
+        final DataTreeLoader loader = tree.newLoader();
+        try (NormalizedNodeWriter writer = NormalizedNodeWriter.forStreamWriter(loader)) {
+            writer.write(data);
+        }
+        return loader.prepare();
+    }
+
+    private static ContainerNode root(final MapEntryNode... entries) {
+        return Builders.containerBuilder().withNodeIdentifier(new NodeIdentifier(ROOT))
+            .withChild(ImmutableNodes.mapNodeBuilder(ITEM).withValue(filter(entries, ITEM)).build())
+            .withChild(ImmutableNodes.mapNodeBuilder(REF).withValue(filter(entries, REF)).build())
+            .build();
+    }
+
+    private static List<MapEntryNode> filter(final MapEntryNode[] entries, final QName type) {
+        final List<MapEntryNode> ret = new ArrayList<>();
+        for (MapEntryNode entry : entries) {
+            if (type.equals(entry.getNodeType())) {
+                ret.add(entry);
+            }
+        }
+        return ret;
+    }
+
+    private static MapEntryNode item(final int id, final String name) {
+        return ImmutableNodes.mapEntryBuilder(ITEM, ID, id).withChild(leafNode(NAME, name)).build();
+    }
+
+    private static MapEntryNode ref(final int id, final int item) {
+        return ImmutableNodes.mapEntryBuilder(REF, ID, id).withChild(leafNode(ITEM, item)).build();
+    }
+}
@@ -0,0 +1,210 @@
+/*
+ * Copyright (c) 2018 Pantheon Technologies, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.impl.schema.tree;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes.leafNode;
+
+import java.util.Collection;
+import java.util.Optional;
+import java.util.OptionalLong;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifierWithPredicates;
+import org.opendaylight.yangtools.yang.data.api.schema.MapEntryNode;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTree;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidate;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidateNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeConfiguration;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeModification;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataValidationFailedException;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.HashedDataTreeSnapshot;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.ModificationType;
+import org.opendaylight.yangtools.yang.data.impl.schema.Builders;
+import org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes;
+import org.opendaylight.yangtools.yang.model.api.SchemaContext;
+
+public class HashedDataTreeSnapshotTest {
+    private static final NodeIdentifier CHOICE_ID = new NodeIdentifier(TestModel.OUTER_CHOICE_QNAME);
+
+    private static SchemaContext schemaContext;
+
+    @BeforeClass
+    public static void beforeClass() {
+        schemaContext = TestModel.createTestContext();
+    }
+
+    @Test
+    public void testEqualContent() throws DataValidationFailedException {
+        // Entries written one by one, in reverse order
+        final DataTree first = createDataTree();
+        writeTest(first);
+        for (int i = 3; i > 0; --i) {
+            final DataTreeModification mod = first.takeSnapshot().newModification();
+            mod.write(entryPath(i), entry(i, "a"));
+            commit(first, mod);
+        }
+
+        // Entries written as a single list
+        final DataTree second = createDataTree();
+        final DataTreeModification mod = second.takeSnapshot().newModification();
+        mod.write(TestModel.TEST_PATH, Builders.containerBuilder()
+            .withNodeIdentifier(new NodeIdentifier(TestModel.TEST_QNAME))
+            .withChild(Builders.mapBuilder().withNodeIdentifier(new NodeIdentifier(TestModel.OUTER_LIST_QNAME))
+                .withChild(entry(1, "a")).withChild(entry(2, "a")).withChild(entry(3, "a")).build())
+            .build());
+        commit(second, mod);
+
+        final OptionalLong hash = rootHash(first);
+        assertTrue(hash.isPresent());
+        assertEquals(hash, rootHash(second));
+        assertEquals(readHash(first, entryPath(2)), readHash(second, entryPath(2)));
+        assertNotEquals(readHash(first, entryPath(1)), readHash(first, entryPath(2)));
+        assertFalse(readHash(first, entryPath(4)).isPresent());
+
+        writeTwo(second, 2, "b");
+        assertNotEquals(hash, rootHash(second));
+        writeTwo(second, 2, "a");
+        assertEquals(hash, rootHash(second));
+    }
+
+    @Test
+    public void testIncrementalHash() throws DataValidationFailedException {
+        final DataTree dataTree = createDataTree();
+        writeTest(dataTree);
+        for (int i = 1; i <= 3; ++i) {
+            final DataTreeModification mod = dataTree.takeSnapshot().newModification();
+            mod.write(entryPath(i), entry(i, "a"));
+            commit(dataTree, mod);
+        }
+
+        // Start tracking the hash, then continue modifying the tree
+        rootHash(dataTree);
+        writeTwo(dataTree, 1, "b");
+        writeTwo(dataTree, 3, "c");
+        final DataTreeModification mod = dataTree.takeSnapshot().newModification();
+        mod.delete(entryPath(2));
+        mod.write(entryPath(4), entry(4, "d"));
+        commit(dataTree, mod);
+
+        // A tree populated from scratch computes the hash from its data
+        final DataTree copy = createDataTree();
+        final DataTreeModification copyMod = copy.takeSnapshot().newModification();
+        copyMod.write(TestModel.TEST_PATH, dataTree.takeSnapshot().readNode(TestModel.TEST_PATH).get());
+        commit(copy, copyMod);
+
+        assertEquals(rootHash(copy), rootHash(dataTree));
+    }
+
+    @Test
+    public void testDiff() throws DataValidationFailedException {
+        final DataTree dataTree = createDataTree();
+        writeTest(dataTree);
+        for (int i = 1; i <= 3; ++i) {
+            final DataTreeModification mod = dataTree.takeSnapshot().newModification();
+            mod.write(entryPath(i), entry(i, "a"));
+            commit(dataTree, mod);
+        }
+
+        final HashedDataTreeSnapshot before = (HashedDataTreeSnapshot) dataTree.takeSnapshot();
+        writeTwo(dataTree, 2, "b");
+        final HashedDataTreeSnapshot after = (HashedDataTreeSnapshot) dataTree.takeSnapshot();
+
+        assertEquals(ModificationType.UNMODIFIED, before.diffFrom(before).getRootNode().getModificationType());
+
+        final DataTreeCandidate candidate = after.diffFrom(before);
+        assertEquals(YangInstanceIdentifier.EMPTY, candidate.getRootPath());
+        DataTreeCandidateNode node = candidate.getRootNode();
+        for (NodeIdentifier id : new NodeIdentifier[] {
+            new NodeIdentifier(TestModel.TEST_QNAME), new NodeIdentifier(TestModel.OUTER_LIST_QNAME)
+        }) {
+            assertEquals(ModificationType.SUBTREE_MODIFIED, node.getModificationType());
+            node = singleChild(node, id);
+        }
+
+        assertEquals(ModificationType.SUBTREE_MODIFIED, node.getModificationType());
+        assertNull(node.getModifiedChild(entryId(1)));
+        node = singleChild(node, entryId(2));
+        node = singleChild(node, CHOICE_ID);
+        node = singleChild(node, new NodeIdentifier(TestModel.TWO_QNAME));
+        assertEquals(ModificationType.WRITE, node.getModificationType());
+        assertEquals(Optional.of(leafNode(TestModel.TWO_QNAME, "a")), node.getDataBefore());
+        assertEquals(Optional.of(leafNode(TestModel.TWO_QNAME, "b")), node.getDataAfter());
+        assertTrue(node.getChildNodes().isEmpty());
+
+        final DataTreeCandidateNode reverse = before.diffFrom(after).getRootNode()
+            .getModifiedChild(new NodeIdentifier(TestModel.TEST_QNAME));
+        assertEquals(Optional.of((NormalizedNode<?, ?>) after.readNode(TestModel.TEST_PATH).get()),
+            reverse.getDataBefore());
+    }
+
+    private static DataTreeCandidateNode singleChild(final DataTreeCandidateNode node,
+            final YangInstanceIdentifier.PathArgument id) {
+        final Collection<DataTreeCandidateNode> children = node.getChildNodes();
+        assertEquals(1, children.size());
+        final DataTreeCandidateNode child = children.iterator().next();
+        assertEquals(id, child.getIdentifier());
+        return child;
+    }
+
+    private static NodeIdentifierWithPredicates entryId(final int id) {
+        return new NodeIdentifierWithPredicates(TestModel.OUTER_LIST_QNAME, TestModel.ID_QNAME, id);
+    }
+
+    private static YangInstanceIdentifier entryPath(final int id) {
+        return TestModel.OUTER_LIST_PATH.node(entryId(id));
+    }
+
+    private static MapEntryNode entry(final int id, final String two) {
+        return Builders.mapEntryBuilder().withNodeIdentifier(entryId(id))
+            .withChild(leafNode(TestModel.ID_QNAME, id))
+            .withChild(Builders.choiceBuilder().withNodeIdentifier(CHOICE_ID)
+                .withChild(leafNode(TestModel.TWO_QNAME, two)).build())
+            .build();
+    }
+
+    private static OptionalLong rootHash(final DataTree dataTree) {
+        return readHash(dataTree, YangInstanceIdentifier.EMPTY);
+    }
+
+    private static OptionalLong readHash(final DataTree dataTree, final YangInstanceIdentifier path) {
+        return ((HashedDataTreeSnapshot) dataTree.takeSnapshot()).readSubtreeHash(path);
+    }
+
+    private static DataTree createDataTree() {
+        return new InMemoryDataTreeFactory().create(DataTreeConfiguration.DEFAULT_OPERATIONAL, schemaContext);
+    }
+
+    private static void writeTest(final DataTree dataTree) throws DataValidationFailedException {
+        final DataTreeModification mod = dataTree.takeSnapshot().newModification();
+        mod.write(TestModel.TEST_PATH, ImmutableNodes.containerNode(TestModel.TEST_QNAME));
+        mod.write(TestModel.OUTER_LIST_PATH, ImmutableNodes.mapNodeBuilder(TestModel.OUTER_LIST_QNAME).build());
+        commit(dataTree, mod);
+    }
+
+    private static void writeTwo(final DataTree dataTree, final int id, final String two)
+            throws DataValidationFailedException {
+        final DataTreeModification mod = dataTree.takeSnapshot().newModification();
+        mod.write(entryPath(id).node(CHOICE_ID).node(TestModel.TWO_QNAME), leafNode(TestModel.TWO_QNAME, two));
+        commit(dataTree, mod);
+    }
+
+    private static void commit(final DataTree dataTree, final DataTreeModification mod)
+            throws DataValidationFailedException {
+        mod.ready();
+        dataTree.validate(mod);
+        dataTree.commit(dataTree.prepare(mod));
+    }
+}
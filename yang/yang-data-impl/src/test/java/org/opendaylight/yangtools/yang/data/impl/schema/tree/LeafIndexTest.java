@@ -0,0 +1,180 @@
+/*
+ * Copyright (c) 2018 Pantheon Technologies, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.impl.schema.tree;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes.leafNode;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Optional;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifierWithPredicates;
+import org.opendaylight.yangtools.yang.data.api.schema.ContainerNode;
+import org.opendaylight.yangtools.yang.data.api.schema.MapEntryNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTree;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeConfiguration;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeModification;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataValidationFailedException;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.IndexedDataTreeSnapshot;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.TreeType;
+import org.opendaylight.yangtools.yang.data.impl.schema.Builders;
+import org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes;
+import org.opendaylight.yangtools.yang.model.api.SchemaContext;
+
+public class LeafIndexTest {
+    private static final QName ROOT = QName.create("urn:opendaylight:params:xml:ns:yang:unique-index-test",
+        "2018-09-17", "root");
+    private static final QName SERVER = QName.create(ROOT, "server");
+    private static final QName NAME = QName.create(ROOT, "name");
+    private static final QName IP = QName.create(ROOT, "ip");
+    private static final QName PORT = QName.create(ROOT, "port");
+
+    private static final YangInstanceIdentifier ROOT_PATH = YangInstanceIdentifier.of(ROOT);
+    private static final YangInstanceIdentifier SERVER_PATH = ROOT_PATH.node(SERVER);
+    private static final YangInstanceIdentifier PORT_LEAF = YangInstanceIdentifier.of(PORT);
+
+    private static SchemaContext schemaContext;
+
+    private DataTree tree;
+
+    @BeforeClass
+    public static void beforeClass() {
+        schemaContext = TestModel.createTestContext("/unique-index-test.yang");
+    }
+
+    @Before
+    public void before() throws DataValidationFailedException {
+        tree = new InMemoryDataTreeFactory().create(new DataTreeConfiguration.Builder(TreeType.CONFIGURATION)
+            .addLeafIndex(SERVER_PATH, PORT_LEAF).build(), schemaContext);
+        final DataTreeModification mod = tree.takeSnapshot().newModification();
+        mod.write(ROOT_PATH, rootNode(server("a", "10.0.0.1", 80), server("b", "10.0.0.1", 443),
+            server("c", "10.0.0.2", 80)));
+        commit(mod);
+    }
+
+    @Test
+    public void testSnapshotLookup() {
+        final IndexedDataTreeSnapshot snapshot = (IndexedDataTreeSnapshot) tree.takeSnapshot();
+        assertEntries(lookupPort(snapshot, 80), "a", "c");
+        assertEntries(lookupPort(snapshot, 443), "b");
+        assertEntries(lookupPort(snapshot, 8080));
+        assertFalse(snapshot.lookupIndex(SERVER_PATH, ImmutableMap.of(YangInstanceIdentifier.of(IP), "10.0.0.1"))
+            .isPresent());
+        assertFalse(snapshot.lookupIndex(ROOT_PATH, ImmutableMap.of(PORT_LEAF, 80)).isPresent());
+    }
+
+    @Test
+    public void testCommittedUpdates() throws DataValidationFailedException {
+        // Make sure index contents are present, so they are updated incrementally
+        assertEntries(lookupPort((IndexedDataTreeSnapshot) tree.takeSnapshot(), 80), "a", "c");
+
+        final DataTreeModification mod = tree.takeSnapshot().newModification();
+        mod.write(entryPath("c").node(PORT), leafNode(PORT, 8080));
+        mod.write(entryPath("d"), server("d", "10.0.0.3", 80));
+        mod.delete(entryPath("b"));
+        commit(mod);
+
+        final IndexedDataTreeSnapshot snapshot = (IndexedDataTreeSnapshot) tree.takeSnapshot();
+        assertEntries(lookupPort(snapshot, 80), "a", "d");
+        assertEntries(lookupPort(snapshot, 443));
+        assertEntries(lookupPort(snapshot, 8080), "c");
+    }
+
+    @Test
+    public void testSharedValue() throws DataValidationFailedException {
+        assertEntries(lookupPort((IndexedDataTreeSnapshot) tree.takeSnapshot(), 80), "a", "c");
+
+        DataTreeModification mod = tree.takeSnapshot().newModification();
+        for (int i = 0; i < 100; ++i) {
+            mod.write(entryPath("s" + i), server("s" + i, "10.0.1.1", 443));
+        }
+        commit(mod);
+        assertEquals(101, lookupPort((IndexedDataTreeSnapshot) tree.takeSnapshot(), 443).get().size());
+
+        mod = tree.takeSnapshot().newModification();
+        for (int i = 0; i < 100; ++i) {
+            mod.delete(entryPath("s" + i));
+        }
+        mod.delete(entryPath("a"));
+        commit(mod);
+
+        final IndexedDataTreeSnapshot snapshot = (IndexedDataTreeSnapshot) tree.takeSnapshot();
+        assertEntries(lookupPort(snapshot, 443), "b");
+        assertEntries(lookupPort(snapshot, 80), "c");
+    }
+
+    @Test
+    public void testUncommittedChanges() {
+        final IndexedDataTreeSnapshot snapshot = (IndexedDataTreeSnapshot) tree.takeSnapshot();
+        final DataTreeModification mod = snapshot.newModification();
+        final IndexedDataTreeSnapshot indexed = (IndexedDataTreeSnapshot) mod;
+        assertEntries(lookupPort(indexed, 80), "a", "c");
+
+        mod.delete(entryPath("a"));
+        mod.merge(entryPath("d"), server("d", "10.0.0.3", 80));
+        mod.write(entryPath("b").node(PORT), leafNode(PORT, 80));
+        assertEntries(lookupPort(indexed, 80), "b", "c", "d");
+        assertEntries(lookupPort(indexed, 443));
+
+        // Replacing the parent container requires the list to be indexed again
+        mod.write(ROOT_PATH, rootNode(server("x", "10.0.0.9", 443)));
+        assertEntries(lookupPort(indexed, 80));
+        assertEntries(lookupPort(indexed, 443), "x");
+
+        mod.delete(ROOT_PATH);
+        assertEntries(lookupPort(indexed, 443));
+
+        // The snapshot is not affected
+        assertEntries(lookupPort(snapshot, 80), "a", "c");
+    }
+
+    private void commit(final DataTreeModification mod) throws DataValidationFailedException {
+        mod.ready();
+        tree.validate(mod);
+        tree.commit(tree.prepare(mod));
+    }
+
+    private static Optional<Collection<MapEntryNode>> lookupPort(final IndexedDataTreeSnapshot snapshot,
+            final int port) {
+        return snapshot.lookupIndex(SERVER_PATH, ImmutableMap.of(PORT_LEAF, port));
+    }
+
+    private static void assertEntries(final Optional<Collection<MapEntryNode>> result, final String... names) {
+        assertTrue(result.isPresent());
+        final ImmutableSet.Builder<String> builder = ImmutableSet.builder();
+        for (MapEntryNode entry : result.get()) {
+            builder.add((String) entry.getIdentifier().getKeyValues().get(NAME));
+        }
+        assertEquals(ImmutableSet.copyOf(names), builder.build());
+    }
+
+    private static YangInstanceIdentifier entryPath(final String name) {
+        return SERVER_PATH.node(new NodeIdentifierWithPredicates(SERVER, NAME, name));
+    }
+
+    private static MapEntryNode server(final String name, final String ip, final int port) {
+        return ImmutableNodes.mapEntryBuilder(SERVER, NAME, name).withChild(leafNode(IP, ip))
+                .withChild(leafNode(PORT, port)).build();
+    }
+
+    private static ContainerNode rootNode(final MapEntryNode... entries) {
+        return Builders.containerBuilder().withNodeIdentifier(new NodeIdentifier(ROOT))
+                .withChild(ImmutableNodes.mapNodeBuilder(SERVER).withValue(Arrays.asList(entries)).build())
+                .build();
+    }
+}
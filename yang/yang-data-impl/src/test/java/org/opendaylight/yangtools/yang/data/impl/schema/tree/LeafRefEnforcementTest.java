@@ -0,0 +1,213 @@
+/*
+ * Copyright (c) 2018 Pantheon Technologies, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.impl.schema.tree;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes.leafNode;
+
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifierWithPredicates;
+import org.opendaylight.yangtools.yang.data.api.schema.ChoiceNode;
+import org.opendaylight.yangtools.yang.data.api.schema.LeafSetEntryNode;
+import org.opendaylight.yangtools.yang.data.api.schema.LeafSetNode;
+import org.opendaylight.yangtools.yang.data.api.schema.MapEntryNode;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTree;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeConfiguration;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeModification;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataValidationFailedException;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.TreeType;
+import org.opendaylight.yangtools.yang.data.impl.leafref.LeafRefDataValidationFailedException;
+import org.opendaylight.yangtools.yang.data.impl.schema.Builders;
+import org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes;
+import org.opendaylight.yangtools.yang.data.impl.schema.builder.api.ListNodeBuilder;
+import org.opendaylight.yangtools.yang.model.api.SchemaContext;
+
+public class LeafRefEnforcementTest {
+    private static final QName ROOT = QName.create("urn:opendaylight:params:xml:ns:yang:leafref-index-test",
+        "2018-09-17", "root");
+    private static final QName ITEM = QName.create(ROOT, "item");
+    private static final QName ID = QName.create(ROOT, "id");
+    private static final QName NAME = QName.create(ROOT, "name");
+    private static final QName REF = QName.create(ROOT, "ref");
+    private static final QName ITEMS = QName.create(ROOT, "items");
+    private static final QName KIND = QName.create(ROOT, "kind");
+    private static final QName ITEM_NAME = QName.create(ROOT, "item-name");
+
+    private static final YangInstanceIdentifier ROOT_PATH = YangInstanceIdentifier.of(ROOT);
+    private static final YangInstanceIdentifier ITEM_PATH = ROOT_PATH.node(ITEM);
+    private static final YangInstanceIdentifier REF_PATH = ROOT_PATH.node(REF);
+
+    private static SchemaContext schemaContext;
+
+    private DataTree dataTree;
+
+    @BeforeClass
+    public static void beforeClass() {
+        schemaContext = TestModel.createTestContext("/leafref-index-test.yang");
+    }
+
+    @Before
+    public void before() throws DataValidationFailedException {
+        dataTree = initDataTree(true);
+        write(dataTree, ROOT_PATH, Builders.containerBuilder()
+            .withNodeIdentifier(new NodeIdentifier(ROOT))
+            .withChild(ImmutableNodes.mapNodeBuilder(ITEM)
+                .withChild(item(1, "a"))
+                .withChild(item(2, "a"))
+                .withChild(item(3, "b"))
+                .build())
+            .withChild(ImmutableNodes.mapNodeBuilder(REF).build())
+            .build());
+    }
+
+    private static DataTree initDataTree(final boolean enableValidation) {
+        return new InMemoryDataTreeFactory().create(new DataTreeConfiguration.Builder(TreeType.CONFIGURATION)
+            .setLeafRefValidation(enableValidation).build(), schemaContext);
+    }
+
+    @Test
+    public void testValidReferences() throws DataValidationFailedException {
+        write(dataTree, refPath(1), ImmutableNodes.mapEntryBuilder(REF, ID, 1)
+            .withChild(leafNode(ITEM, 1))
+            .withChild(items(2, 3))
+            .withChild(named("b"))
+            .build());
+    }
+
+    @Test
+    public void testDanglingReference() throws DataValidationFailedException {
+        assertFailure(refPath(1), ref(1, 5), "Invalid leafref value [5]");
+    }
+
+    @Test
+    public void testDanglingLeafListReference() throws DataValidationFailedException {
+        assertFailure(refPath(1), ImmutableNodes.mapEntryBuilder(REF, ID, 1).withChild(items(1, 4)).build(),
+            "Invalid leafref value [4]");
+    }
+
+    @Test
+    public void testRemovedTarget() throws DataValidationFailedException {
+        write(dataTree, refPath(1), ref(1, 1));
+        delete(dataTree, itemPath(3));
+        assertDeleteFailure(itemPath(1), "Invalid leafref value [1]");
+
+        // Removing both the reference and its target is fine
+        final DataTreeModification mod = dataTree.takeSnapshot().newModification();
+        mod.delete(refPath(1));
+        mod.delete(itemPath(1));
+        commit(dataTree, mod);
+    }
+
+    @Test
+    public void testDuplicateTargetValues() throws DataValidationFailedException {
+        write(dataTree, refPath(1), ImmutableNodes.mapEntryBuilder(REF, ID, 1).withChild(named("a")).build());
+
+        // Item 2 still provides the value
+        delete(dataTree, itemPath(1));
+        assertFailure(itemPath(2).node(NAME), leafNode(NAME, "c"), "Invalid leafref value [a]");
+    }
+
+    @Test
+    public void testSchemaContextChange() throws DataValidationFailedException {
+        write(dataTree, refPath(1), ref(1, 2));
+        dataTree.setSchemaContext(schemaContext);
+        assertDeleteFailure(itemPath(2), "Invalid leafref value [2]");
+    }
+
+    @Test
+    public void testValidationDisabled() throws DataValidationFailedException {
+        final DataTree tree = initDataTree(false);
+        write(tree, ROOT_PATH, Builders.containerBuilder()
+            .withNodeIdentifier(new NodeIdentifier(ROOT))
+            .withChild(ImmutableNodes.mapNodeBuilder(REF).withChild(ref(1, 5)).build())
+            .build());
+    }
+
+    private void assertFailure(final YangInstanceIdentifier path, final NormalizedNode<?, ?> data,
+            final String message) throws DataValidationFailedException {
+        final DataTreeModification mod = dataTree.takeSnapshot().newModification();
+        mod.write(path, data);
+        assertFailure(mod, message);
+    }
+
+    private void assertFailure(final DataTreeModification mod, final String message)
+            throws DataValidationFailedException {
+        try {
+            commit(dataTree, mod);
+            fail("Leafref violation should have been detected");
+        } catch (SchemaValidationFailedException e) {
+            assertTrue(e.getCause() instanceof LeafRefDataValidationFailedException);
+            assertTrue(e.getMessage(), e.getMessage().startsWith(message));
+        }
+    }
+
+    private void assertDeleteFailure(final YangInstanceIdentifier path, final String message)
+            throws DataValidationFailedException {
+        final DataTreeModification mod = dataTree.takeSnapshot().newModification();
+        mod.delete(path);
+        assertFailure(mod, message);
+    }
+
+    private static void write(final DataTree tree, final YangInstanceIdentifier path,
+            final NormalizedNode<?, ?> data) throws DataValidationFailedException {
+        final DataTreeModification mod = tree.takeSnapshot().newModification();
+        mod.write(path, data);
+        commit(tree, mod);
+    }
+
+    private static void delete(final DataTree tree, final YangInstanceIdentifier path)
+            throws DataValidationFailedException {
+        final DataTreeModification mod = tree.takeSnapshot().newModification();
+        mod.delete(path);
+        commit(tree, mod);
+    }
+
+    private static void commit(final DataTree tree, final DataTreeModification mod)
+            throws DataValidationFailedException {
+        mod.ready();
+        tree.validate(mod);
+        tree.commit(tree.prepare(mod));
+    }
+
+    private static YangInstanceIdentifier itemPath(final int id) {
+        return ITEM_PATH.node(new NodeIdentifierWithPredicates(ITEM, ID, id));
+    }
+
+    private static YangInstanceIdentifier refPath(final int id) {
+        return REF_PATH.node(new NodeIdentifierWithPredicates(REF, ID, id));
+    }
+
+    private static MapEntryNode item(final int id, final String name) {
+        return ImmutableNodes.mapEntryBuilder(ITEM, ID, id).withChild(leafNode(NAME, name)).build();
+    }
+
+    private static MapEntryNode ref(final int id, final int item) {
+        return ImmutableNodes.mapEntryBuilder(REF, ID, id).withChild(leafNode(ITEM, item)).build();
+    }
+
+    private static LeafSetNode<Integer> items(final Integer... values) {
+        final ListNodeBuilder<Integer, LeafSetEntryNode<Integer>> builder = Builders.<Integer>leafSetBuilder()
+                .withNodeIdentifier(new NodeIdentifier(ITEMS));
+        for (Integer value : values) {
+            builder.withChildValue(value);
+        }
+        return builder.build();
+    }
+
+    private static ChoiceNode named(final String name) {
+        return Builders.choiceBuilder().withNodeIdentifier(new NodeIdentifier(KIND))
+            .withChild(leafNode(ITEM_NAME, name)).build();
+    }
+}
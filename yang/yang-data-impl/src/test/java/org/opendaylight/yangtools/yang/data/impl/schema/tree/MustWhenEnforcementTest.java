@@ -0,0 +1,238 @@
+/*
+ * Copyright (c) 2018 Pantheon Technologies, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.impl.schema.tree;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import static org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes.leafNode;
+
+import com.google.common.base.Converter;
+import com.google.common.collect.ImmutableMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.BiPredicate;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.common.QNameModule;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.schema.MapEntryNode;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNodes;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTree;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeConfiguration;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeModification;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataValidationFailedException;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.TreeType;
+import org.opendaylight.yangtools.yang.data.api.schema.xpath.XPathBooleanResult;
+import org.opendaylight.yangtools.yang.data.api.schema.xpath.XPathDocument;
+import org.opendaylight.yangtools.yang.data.api.schema.xpath.XPathExpression;
+import org.opendaylight.yangtools.yang.data.api.schema.xpath.XPathResult;
+import org.opendaylight.yangtools.yang.data.api.schema.xpath.XPathSchemaContext;
+import org.opendaylight.yangtools.yang.data.api.schema.xpath.XPathSchemaContextFactory;
+import org.opendaylight.yangtools.yang.data.impl.schema.Builders;
+import org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes;
+import org.opendaylight.yangtools.yang.model.api.SchemaContext;
+import org.opendaylight.yangtools.yang.model.api.SchemaPath;
+
+public class MustWhenEnforcementTest {
+    private static final String ITEM_MUST = "value <= ../../max";
+    private static final String RANGE_MUST = "low < high";
+    private static final String FEATURE_WHEN = "../enabled = 'true'";
+
+    private static final QName ROOT = QName.create("urn:opendaylight:params:xml:ns:yang:must-when-test", "2018-09-17",
+        "root");
+    private static final QName ENABLED = QName.create(ROOT, "enabled");
+    private static final QName MAX = QName.create(ROOT, "max");
+    private static final QName UNRELATED = QName.create(ROOT, "unrelated");
+    private static final QName ITEM = QName.create(ROOT, "item");
+    private static final QName NAME = QName.create(ROOT, "name");
+    private static final QName VALUE = QName.create(ROOT, "value");
+    private static final QName RANGE = QName.create(ROOT, "range");
+    private static final QName LOW = QName.create(ROOT, "low");
+    private static final QName HIGH = QName.create(ROOT, "high");
+    private static final QName FEATURE = QName.create(ROOT, "feature");
+
+    private static final YangInstanceIdentifier ROOT_PATH = YangInstanceIdentifier.of(ROOT);
+    private static final YangInstanceIdentifier ITEM_PATH = ROOT_PATH.node(ITEM);
+    private static final YangInstanceIdentifier RANGE_PATH = ROOT_PATH.node(RANGE);
+
+    private static SchemaContext schemaContext;
+
+    // Counts evaluations to verify which constraints are re-evaluated. Enforcement with expressions compiled by a real
+    // XPathSchemaContextFactory is tested in yang-data-xpath, which depends on this artifact.
+    private final Map<String, Integer> evaluations = new HashMap<>();
+    private final XPathSchemaContextFactory xpathFactory = context -> new XPathSchemaContext() {
+        @Override
+        public XPathExpression compileExpression(final SchemaPath schemaPath,
+                final Converter<String, QNameModule> prefixes, final String xpath) {
+            return new TestExpression(xpath, schemaPath);
+        }
+
+        @Override
+        public XPathDocument createDocument(final NormalizedNode<?, ?> documentRoot) {
+            return () -> documentRoot;
+        }
+    };
+
+    private final class TestExpression implements XPathExpression {
+        private final Map<String, BiPredicate<NormalizedNode<?, ?>, YangInstanceIdentifier>> predicates =
+                ImmutableMap.of(
+                    ITEM_MUST, (root, path) -> leafValue(root, path.node(VALUE)) <= leafValue(root,
+                        ROOT_PATH.node(MAX)),
+                    RANGE_MUST, (root, path) -> leafValue(root, path.node(LOW)) < leafValue(root, path.node(HIGH)),
+                    FEATURE_WHEN, (root, path) -> Boolean.TRUE.equals(NormalizedNodes.findNode(root,
+                        ROOT_PATH.node(ENABLED)).get().getValue()));
+
+        private final String xpath;
+        private final SchemaPath schemaPath;
+
+        TestExpression(final String xpath, final SchemaPath schemaPath) {
+            this.xpath = xpath;
+            this.schemaPath = schemaPath;
+        }
+
+        @Override
+        public Optional<? extends XPathResult<?>> evaluate(final XPathDocument document,
+                final YangInstanceIdentifier path) {
+            evaluations.merge(xpath, 1, Integer::sum);
+            final boolean result = predicates.get(xpath).test(document.getRootNode(), path);
+            return Optional.of((XPathBooleanResult) () -> result);
+        }
+
+        @Override
+        public SchemaPath getEvaluationPath() {
+            return schemaPath;
+        }
+
+        @Override
+        public SchemaPath getApexPath() {
+            return SchemaPath.ROOT;
+        }
+    }
+
+    private DataTree dataTree;
+
+    @BeforeClass
+    public static void beforeClass() {
+        schemaContext = TestModel.createTestContext("/must-when-test.yang");
+    }
+
+    @Before
+    public void before() throws DataValidationFailedException {
+        dataTree = initDataTree(true);
+        commit(dataTree, ROOT_PATH, Builders.containerBuilder()
+            .withNodeIdentifier(new NodeIdentifier(ROOT))
+            .withChild(leafNode(ENABLED, Boolean.TRUE))
+            .withChild(leafNode(MAX, 10L))
+            .withChild(ImmutableNodes.mapNodeBuilder(ITEM)
+                .withChild(item("a", 1L))
+                .withChild(item("b", 5L))
+                .withChild(item("c", 10L))
+                .build())
+            .withChild(Builders.containerBuilder().withNodeIdentifier(new NodeIdentifier(RANGE))
+                .withChild(leafNode(LOW, 1L))
+                .withChild(leafNode(HIGH, 2L))
+                .build())
+            .withChild(Builders.containerBuilder().withNodeIdentifier(new NodeIdentifier(FEATURE))
+                .withChild(leafNode(NAME, "feature"))
+                .build())
+            .build());
+
+        assertEquals(ImmutableMap.of(ITEM_MUST, 3, RANGE_MUST, 1, FEATURE_WHEN, 1), evaluations);
+        evaluations.clear();
+    }
+
+    private DataTree initDataTree(final boolean enableValidation) {
+        return new InMemoryDataTreeFactory(xpathFactory).create(new DataTreeConfiguration.Builder(
+            TreeType.CONFIGURATION).setMustWhenValidation(enableValidation).build(), schemaContext);
+    }
+
+    @Test
+    public void testUnrelatedChange() throws DataValidationFailedException {
+        commit(dataTree, ROOT_PATH.node(UNRELATED), leafNode(UNRELATED, "foo"));
+        assertEquals(ImmutableMap.of(), evaluations);
+    }
+
+    @Test
+    public void testLocalChange() throws DataValidationFailedException {
+        commit(dataTree, RANGE_PATH.node(HIGH), leafNode(HIGH, 5L));
+        assertEquals(ImmutableMap.of(RANGE_MUST, 1), evaluations);
+    }
+
+    @Test
+    public void testLocalViolation() throws DataValidationFailedException {
+        assertFailure(RANGE_PATH.node(LOW), leafNode(LOW, 3L), "Range low must be less than high");
+    }
+
+    @Test
+    public void testDependencyChange() throws DataValidationFailedException {
+        commit(dataTree, ROOT_PATH.node(MAX), leafNode(MAX, 20L));
+        assertEquals(ImmutableMap.of(ITEM_MUST, 3), evaluations);
+    }
+
+    @Test
+    public void testDependencyViolation() throws DataValidationFailedException {
+        assertFailure(ROOT_PATH.node(MAX), leafNode(MAX, 7L), "Item value exceeds maximum");
+    }
+
+    @Test
+    public void testNewEntryViolation() throws DataValidationFailedException {
+        final YangInstanceIdentifier path = ITEM_PATH.node(item("d", 11L).getIdentifier());
+        assertFailure(path, item("d", 11L), "Item value exceeds maximum");
+    }
+
+    @Test
+    public void testWhenViolation() throws DataValidationFailedException {
+        assertFailure(ROOT_PATH.node(ENABLED), leafNode(ENABLED, Boolean.FALSE),
+            "When condition \"" + FEATURE_WHEN + "\" is not satisfied by " + ROOT_PATH.node(FEATURE));
+    }
+
+    @Test
+    public void testValidationDisabled() throws DataValidationFailedException {
+        final DataTree tree = initDataTree(false);
+        commit(tree, ROOT_PATH, Builders.containerBuilder()
+            .withNodeIdentifier(new NodeIdentifier(ROOT))
+            .withChild(leafNode(ENABLED, Boolean.FALSE))
+            .withChild(leafNode(MAX, 0L))
+            .withChild(ImmutableNodes.mapNodeBuilder(ITEM).withChild(item("a", 1L)).build())
+            .withChild(Builders.containerBuilder().withNodeIdentifier(new NodeIdentifier(FEATURE)).build())
+            .build());
+        assertEquals(ImmutableMap.of(), evaluations);
+    }
+
+    private void assertFailure(final YangInstanceIdentifier path, final NormalizedNode<?, ?> data,
+            final String message) throws DataValidationFailedException {
+        try {
+            commit(dataTree, path, data);
+            fail("Constraint violation should have been detected");
+        } catch (SchemaValidationFailedException e) {
+            assertEquals(message, e.getMessage());
+        }
+    }
+
+    private static void commit(final DataTree tree, final YangInstanceIdentifier path,
+            final NormalizedNode<?, ?> data) throws DataValidationFailedException {
+        final DataTreeModification modification = tree.takeSnapshot().newModification();
+        modification.write(path, data);
+        modification.ready();
+        tree.validate(modification);
+        tree.commit(tree.prepare(modification));
+    }
+
+    private static MapEntryNode item(final String name, final long value) {
+        return ImmutableNodes.mapEntryBuilder(ITEM, NAME, name).withChild(leafNode(VALUE, value)).build();
+    }
+
+    private static long leafValue(final NormalizedNode<?, ?> root, final YangInstanceIdentifier path) {
+        return ((Number) NormalizedNodes.findNode(root, path).get().getValue()).longValue();
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright (c) 2018 Pantheon Technologies, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.impl.schema.tree;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes.leafNode;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+import org.junit.Test;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifierWithPredicates;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
+import org.opendaylight.yangtools.yang.data.api.schema.ContainerNode;
+import org.opendaylight.yangtools.yang.data.api.schema.MapEntryNode;
+import org.opendaylight.yangtools.yang.data.api.schema.MapNode;
+import org.opendaylight.yangtools.yang.data.api.schema.OrderedMapNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidate;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidateNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.ModificationType;
+import org.opendaylight.yangtools.yang.data.impl.schema.Builders;
+import org.opendaylight.yangtools.yang.data.impl.schema.builder.api.CollectionNodeBuilder;
+
+public class NormalizedNodeDiffTest {
+    private static final NodeIdentifier TEST_ID = new NodeIdentifier(TestModel.TEST_QNAME);
+    private static final NodeIdentifier LIST_ID = new NodeIdentifier(TestModel.OUTER_LIST_QNAME);
+    private static final NodeIdentifier NAME_ID = new NodeIdentifier(TestModel.NAME_QNAME);
+
+    @Test
+    public void testSharedSubtrees() {
+        final MapNode list = list(3);
+        final ContainerNode before = container(list);
+        final ContainerNode after = container(Builders.mapBuilder(list).withChild(entry(2, "modified")).build());
+
+        final DataTreeCandidate candidate = NormalizedNodeDiff.diff(YangInstanceIdentifier.EMPTY, before, after);
+        final DataTreeCandidateNode root = candidate.getRootNode();
+        assertEquals(ModificationType.SUBTREE_MODIFIED, root.getModificationType());
+        assertEquals(TEST_ID, root.getIdentifier());
+
+        final DataTreeCandidateNode listNode = singleChild(root);
+        assertEquals(LIST_ID, listNode.getIdentifier());
+        assertEquals(ModificationType.SUBTREE_MODIFIED, listNode.getModificationType());
+        assertNull(listNode.getModifiedChild(entryId(1)));
+
+        final DataTreeCandidateNode entryNode = singleChild(listNode);
+        assertEquals(entryId(2), entryNode.getIdentifier());
+        assertEquals(ModificationType.SUBTREE_MODIFIED, entryNode.getModificationType());
+
+        final DataTreeCandidateNode leaf = singleChild(entryNode);
+        assertEquals(NAME_ID, leaf.getIdentifier());
+        assertEquals(ModificationType.WRITE, leaf.getModificationType());
+        assertEquals(Optional.of(leafNode(TestModel.NAME_QNAME, "name2")), leaf.getDataBefore());
+        assertEquals(Optional.of(leafNode(TestModel.NAME_QNAME, "modified")), leaf.getDataAfter());
+        assertTrue(leaf.getChildNodes().isEmpty());
+    }
+
+    @Test
+    public void testEqualTrees() {
+        final DataTreeCandidateNode root = NormalizedNodeDiff.diff(YangInstanceIdentifier.EMPTY,
+            container(list(3)), container(list(3))).getRootNode();
+        assertEquals(ModificationType.UNMODIFIED, root.getModificationType());
+        assertTrue(root.getChildNodes().isEmpty());
+    }
+
+    @Test
+    public void testWriteDelete() {
+        final MapNode list = list(3);
+        final MapNode after = Builders.mapBuilder(list).withoutChild(entryId(1)).withChild(entry(4, "name4"))
+                .build();
+
+        final DataTreeCandidateNode root = NormalizedNodeDiff.diff(TestModel.OUTER_LIST_PATH, list, after)
+                .getRootNode();
+        assertEquals(ModificationType.SUBTREE_MODIFIED, root.getModificationType());
+        assertEquals(2, root.getChildNodes().size());
+        assertEquals(ModificationType.DELETE, root.getModifiedChild(entryId(1)).getModificationType());
+        assertEquals(ModificationType.WRITE, root.getModifiedChild(entryId(4)).getModificationType());
+        assertEquals(Optional.of(entry(4, "name4")), root.getModifiedChild(entryId(4)).getDataAfter());
+
+        final DataTreeCandidateNode written = NormalizedNodeDiff.diff(TestModel.OUTER_LIST_PATH, null, list)
+                .getRootNode();
+        assertEquals(ModificationType.WRITE, written.getModificationType());
+        assertEquals(3, written.getChildNodes().size());
+    }
+
+    @Test
+    public void testOrderedList() {
+        final OrderedMapNode before = Builders.orderedMapBuilder().withNodeIdentifier(LIST_ID)
+                .withChild(entry(1, "name1")).withChild(entry(2, "name2")).build();
+
+        final OrderedMapNode modified = Builders.orderedMapBuilder().withNodeIdentifier(LIST_ID)
+                .withChild(entry(1, "name1")).withChild(entry(2, "modified")).build();
+        final DataTreeCandidateNode modifiedNode = NormalizedNodeDiff.diff(TestModel.OUTER_LIST_PATH, before, modified)
+                .getRootNode();
+        assertEquals(ModificationType.SUBTREE_MODIFIED, modifiedNode.getModificationType());
+        assertEquals(entryId(2), singleChild(modifiedNode).getIdentifier());
+
+        final OrderedMapNode reordered = Builders.orderedMapBuilder().withNodeIdentifier(LIST_ID)
+                .withChild(entry(2, "name2")).withChild(entry(1, "name1")).build();
+        final DataTreeCandidateNode reorderedNode = NormalizedNodeDiff.diff(TestModel.OUTER_LIST_PATH, before,
+            reordered).getRootNode();
+        assertEquals(ModificationType.WRITE, reorderedNode.getModificationType());
+        assertTrue(reorderedNode.getChildNodes().isEmpty());
+    }
+
+    @Test
+    public void testParallel() {
+        final MapNode list = list(1000);
+        final MapNode after = Builders.mapBuilder(list).withChild(entry(10, "a")).withChild(entry(500, "b"))
+                .withChild(entry(990, "c")).build();
+
+        final DataTreeCandidateNode root = NormalizedNodeDiff.diff(TestModel.OUTER_LIST_PATH, list(1000), after, 16)
+                .getRootNode();
+        assertEquals(ModificationType.SUBTREE_MODIFIED, root.getModificationType());
+
+        final Set<PathArgument> modified = new HashSet<>();
+        for (DataTreeCandidateNode child : root.getChildNodes()) {
+            modified.add(child.getIdentifier());
+            assertNotNull(child.getModifiedChild(NAME_ID));
+        }
+        final Set<PathArgument> expected = new HashSet<>();
+        expected.add(entryId(10));
+        expected.add(entryId(500));
+        expected.add(entryId(990));
+        assertEquals(expected, modified);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMismatchedIdentifiers() {
+        NormalizedNodeDiff.diff(YangInstanceIdentifier.EMPTY, container(list(1)), list(1));
+    }
+
+    private static DataTreeCandidateNode singleChild(final DataTreeCandidateNode node) {
+        final Collection<DataTreeCandidateNode> children = node.getChildNodes();
+        assertEquals(1, children.size());
+        return children.iterator().next();
+    }
+
+    private static ContainerNode container(final MapNode list) {
+        return Builders.containerBuilder().withNodeIdentifier(TEST_ID).withChild(list).build();
+    }
+
+    private static MapNode list(final int size) {
+        final CollectionNodeBuilder<MapEntryNode, MapNode> builder = Builders.mapBuilder()
+                .withNodeIdentifier(LIST_ID);
+        for (int i = 1; i <= size; ++i) {
+            builder.withChild(entry(i, "name" + i));
+        }
+        return builder.build();
+    }
+
+    private static NodeIdentifierWithPredicates entryId(final int id) {
+        return new NodeIdentifierWithPredicates(TestModel.OUTER_LIST_QNAME, TestModel.ID_QNAME, id);
+    }
+
+    private static MapEntryNode entry(final int id, final String name) {
+        return Builders.mapEntryBuilder().withNodeIdentifier(entryId(id))
+                .withChild(leafNode(TestModel.ID_QNAME, id))
+                .withChild(leafNode(TestModel.NAME_QNAME, name))
+                .build();
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2018 Pantheon Technologies, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.impl.schema.tree;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifierWithPredicates;
+import org.opendaylight.yangtools.yang.data.api.schema.MapNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.ConflictingModificationAppliedException;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTree;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidate;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeConfiguration;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeModification;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataValidationFailedException;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.TreeType;
+import org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes;
+import org.opendaylight.yangtools.yang.model.api.SchemaContext;
+
+public class ParallelModificationTest {
+    private static final int ENTRY_COUNT = 1000;
+
+    private static SchemaContext schemaContext;
+
+    private DataTree parallelTree;
+    private DataTree sequentialTree;
+
+    @BeforeClass
+    public static void beforeClass() {
+        schemaContext = TestModel.createTestContext();
+    }
+
+    @Before
+    public void before() throws DataValidationFailedException {
+        parallelTree = createTree(new DataTreeConfiguration.Builder(TreeType.CONFIGURATION)
+            .setParallelismThreshold(16).build());
+        sequentialTree = createTree(DataTreeConfiguration.DEFAULT_CONFIGURATION);
+    }
+
+    private static DataTree createTree(final DataTreeConfiguration config) throws DataValidationFailedException {
+        final DataTree tree = new InMemoryDataTreeFactory().create(config, schemaContext);
+        final DataTreeModification mod = tree.takeSnapshot().newModification();
+        mod.write(TestModel.TEST_PATH, ImmutableNodes.containerNode(TestModel.TEST_QNAME));
+        mod.write(TestModel.OUTER_LIST_PATH, ImmutableNodes.mapNodeBuilder(TestModel.OUTER_LIST_QNAME).build());
+        commit(tree, mod);
+        return tree;
+    }
+
+    @Test
+    public void testSameResult() throws DataValidationFailedException {
+        for (DataTree tree : new DataTree[] { parallelTree, sequentialTree }) {
+            final DataTreeModification mod = tree.takeSnapshot().newModification();
+            for (int i = 0; i < ENTRY_COUNT; ++i) {
+                mod.write(entryPath(i), ImmutableNodes.mapEntry(TestModel.OUTER_LIST_QNAME, TestModel.ID_QNAME, i));
+            }
+            commit(tree, mod);
+        }
+        assertSameContent();
+
+        DataTreeCandidate parallelCandidate = null;
+        DataTreeCandidate sequentialCandidate = null;
+        for (DataTree tree : new DataTree[] { parallelTree, sequentialTree }) {
+            final DataTreeModification mod = tree.takeSnapshot().newModification();
+            for (int i = 0; i < ENTRY_COUNT; i += 2) {
+                mod.delete(entryPath(i));
+            }
+            // Empty merges turn into UNMODIFIED
+            for (int i = 1; i < ENTRY_COUNT; i += 2) {
+                mod.merge(entryPath(i), ImmutableNodes.mapEntry(TestModel.OUTER_LIST_QNAME, TestModel.ID_QNAME, i));
+            }
+            final DataTreeCandidate candidate = commit(tree, mod);
+            if (tree == parallelTree) {
+                parallelCandidate = candidate;
+            } else {
+                sequentialCandidate = candidate;
+            }
+        }
+        assertSameContent();
+        assertEquals(sequentialCandidate.getRootNode().getModificationType(),
+            parallelCandidate.getRootNode().getModificationType());
+        assertEquals(ENTRY_COUNT / 2, ((MapNode) parallelTree.takeSnapshot().readNode(TestModel.OUTER_LIST_PATH)
+            .get()).getValue().size());
+    }
+
+    @Test
+    public void testConflictDetected() throws DataValidationFailedException {
+        final DataTreeModification first = parallelTree.takeSnapshot().newModification();
+        final DataTreeModification second = parallelTree.takeSnapshot().newModification();
+
+        first.write(entryPath(ENTRY_COUNT - 1), ImmutableNodes.mapEntry(TestModel.OUTER_LIST_QNAME,
+            TestModel.ID_QNAME, ENTRY_COUNT - 1));
+        commit(parallelTree, first);
+
+        for (int i = 0; i < ENTRY_COUNT; ++i) {
+            second.write(entryPath(i), ImmutableNodes.mapEntry(TestModel.OUTER_LIST_QNAME, TestModel.ID_QNAME, i));
+        }
+        second.ready();
+        try {
+            parallelTree.validate(second);
+            fail("Conflict should have been detected");
+        } catch (ConflictingModificationAppliedException e) {
+            assertEquals(entryPath(ENTRY_COUNT - 1), e.getPath());
+        }
+    }
+
+    private void assertSameContent() {
+        assertEquals(sequentialTree.takeSnapshot().readNode(TestModel.TEST_PATH),
+            parallelTree.takeSnapshot().readNode(TestModel.TEST_PATH));
+    }
+
+    private static DataTreeCandidate commit(final DataTree tree, final DataTreeModification mod)
+            throws DataValidationFailedException {
+        mod.ready();
+        tree.validate(mod);
+        final DataTreeCandidate candidate = tree.prepare(mod);
+        tree.commit(candidate);
+        return candidate;
+    }
+
+    private static YangInstanceIdentifier entryPath(final int id) {
+        return TestModel.OUTER_LIST_PATH.node(new NodeIdentifierWithPredicates(TestModel.OUTER_LIST_QNAME,
+            TestModel.ID_QNAME, id));
+    }
+}
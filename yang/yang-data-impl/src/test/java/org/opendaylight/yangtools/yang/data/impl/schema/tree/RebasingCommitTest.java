@@ -0,0 +1,199 @@
+/*
+ * Copyright (c) 2018 Pantheon Technologies, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.impl.schema.tree;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes.leafNode;
+
+import java.util.Optional;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifierWithPredicates;
+import org.opendaylight.yangtools.yang.data.api.schema.MapEntryNode;
+import org.opendaylight.yangtools.yang.data.api.schema.MapNode;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.ConflictingModificationAppliedException;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidate;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidateNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeConfiguration;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeModification;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataValidationFailedException;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.ModificationType;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.RebasingDataTree;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.TreeType;
+import org.opendaylight.yangtools.yang.data.impl.schema.Builders;
+import org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes;
+import org.opendaylight.yangtools.yang.model.api.SchemaContext;
+
+public class RebasingCommitTest {
+    private static final QName ROOT = QName.create("urn:opendaylight:params:xml:ns:yang:leafref-index-test",
+        "2018-09-17", "root");
+    private static final QName ITEM = QName.create(ROOT, "item");
+    private static final QName ID = QName.create(ROOT, "id");
+    private static final QName NAME = QName.create(ROOT, "name");
+    private static final QName REF = QName.create(ROOT, "ref");
+
+    private static final YangInstanceIdentifier ROOT_PATH = YangInstanceIdentifier.of(ROOT);
+    private static final YangInstanceIdentifier ITEM_PATH = ROOT_PATH.node(ITEM);
+    private static final YangInstanceIdentifier REF_PATH = ROOT_PATH.node(REF);
+
+    private static SchemaContext schemaContext;
+
+    private RebasingDataTree dataTree;
+
+    @BeforeClass
+    public static void beforeClass() {
+        schemaContext = TestModel.createTestContext("/leafref-index-test.yang");
+    }
+
+    @Before
+    public void before() throws DataValidationFailedException {
+        dataTree = (RebasingDataTree) new InMemoryDataTreeFactory().create(
+            new DataTreeConfiguration.Builder(TreeType.CONFIGURATION).setLeafRefValidation(true).build(),
+            schemaContext);
+
+        final DataTreeModification mod = dataTree.takeSnapshot().newModification();
+        mod.write(ROOT_PATH, Builders.containerBuilder()
+            .withNodeIdentifier(new NodeIdentifier(ROOT))
+            .withChild(ImmutableNodes.mapNodeBuilder(ITEM).withChild(item(1, "a")).withChild(item(2, "b")).build())
+            .withChild(ImmutableNodes.mapNodeBuilder(REF).build())
+            .build());
+        mod.ready();
+        dataTree.validate(mod);
+        dataTree.commit(dataTree.prepare(mod));
+    }
+
+    @Test
+    public void testCurrentCandidate() throws DataValidationFailedException {
+        final DataTreeCandidate candidate = prepare(write(itemPath(3), item(3, "c")));
+        assertSame(candidate, dataTree.commitRebased(candidate));
+        assertEquals(Optional.of(item(3, "c")), read(itemPath(3)));
+    }
+
+    @Test
+    public void testDisjointCandidates() throws DataValidationFailedException {
+        final DataTreeModification first = write(itemPath(3), item(3, "c"));
+        final DataTreeModification second = write(itemPath(2).node(NAME), leafNode(NAME, "x"));
+        final DataTreeCandidate firstCandidate = prepare(first);
+        final DataTreeCandidate secondCandidate = prepare(second);
+
+        assertSame(firstCandidate, dataTree.commitRebased(firstCandidate));
+        final DataTreeCandidate rebased = dataTree.commitRebased(secondCandidate);
+        assertNotSame(secondCandidate, rebased);
+
+        // The rebased candidate reflects the changes committed before it
+        final DataTreeCandidateNode items = rebased.getRootNode().getModifiedChild(new NodeIdentifier(ROOT))
+                .getModifiedChild(new NodeIdentifier(ITEM));
+        assertEquals(ModificationType.SUBTREE_MODIFIED, items.getModificationType());
+        assertEquals(1, items.getChildNodes().size());
+        assertEquals(Optional.of(item(3, "c")), items.getDataBefore().map(list -> findEntry(list, 3)));
+
+        assertEquals(Optional.of(item(3, "c")), read(itemPath(3)));
+        assertEquals(Optional.of(item(2, "x")), read(itemPath(2)));
+    }
+
+    @Test
+    public void testConflictingCandidates() throws DataValidationFailedException {
+        final DataTreeCandidate first = prepare(write(itemPath(2), item(2, "x")));
+        final DataTreeCandidate second = prepare(write(itemPath(2).node(NAME), leafNode(NAME, "y")));
+
+        dataTree.commitRebased(first);
+        try {
+            dataTree.commitRebased(second);
+            fail("Conflict should have been detected");
+        } catch (ConflictingModificationAppliedException e) {
+            assertEquals(itemPath(2).node(NAME), e.getPath());
+        }
+        assertEquals(Optional.of(item(2, "x")), read(itemPath(2)));
+    }
+
+    @Test
+    public void testRebasedConstraintViolation() throws DataValidationFailedException {
+        final DataTreeCandidate delete = prepare(delete(itemPath(1)));
+        final DataTreeCandidate ref = prepare(write(refPath(1), ref(1, 1)));
+
+        dataTree.commitRebased(delete);
+        try {
+            dataTree.commitRebased(ref);
+            fail("Leafref violation should have been detected");
+        } catch (SchemaValidationFailedException e) {
+            assertTrue(e.getMessage(), e.getMessage().startsWith("Invalid leafref value [1]"));
+        }
+        assertFalse(read(refPath(1)).isPresent());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testSchemaContextChange() throws DataValidationFailedException {
+        final DataTreeCandidate first = prepare(write(itemPath(3), item(3, "c")));
+        final DataTreeCandidate second = prepare(write(itemPath(4), item(4, "d")));
+        dataTree.commitRebased(first);
+        dataTree.setSchemaContext(TestModel.createTestContext("/leafref-index-test.yang"));
+        dataTree.commitRebased(second);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testPlainCommitRejected() throws DataValidationFailedException {
+        final DataTreeCandidate first = prepare(write(itemPath(3), item(3, "c")));
+        final DataTreeCandidate second = prepare(write(itemPath(4), item(4, "d")));
+        dataTree.commit(first);
+        dataTree.commit(second);
+    }
+
+    private DataTreeCandidate prepare(final DataTreeModification mod) throws DataValidationFailedException {
+        dataTree.validate(mod);
+        return dataTree.prepare(mod);
+    }
+
+    private DataTreeModification write(final YangInstanceIdentifier path, final NormalizedNode<?, ?> data) {
+        final DataTreeModification mod = dataTree.takeSnapshot().newModification();
+        mod.write(path, data);
+        mod.ready();
+        return mod;
+    }
+
+    private DataTreeModification delete(final YangInstanceIdentifier path) {
+        final DataTreeModification mod = dataTree.takeSnapshot().newModification();
+        mod.delete(path);
+        mod.ready();
+        return mod;
+    }
+
+    private Optional<NormalizedNode<?, ?>> read(final YangInstanceIdentifier path) {
+        return dataTree.takeSnapshot().readNode(path);
+    }
+
+    private static NormalizedNode<?, ?> findEntry(final NormalizedNode<?, ?> list, final int id) {
+        return ((MapNode) list)
+                .getChild(new NodeIdentifierWithPredicates(ITEM, ID, id)).orElse(null);
+    }
+
+    private static YangInstanceIdentifier itemPath(final int id) {
+        return ITEM_PATH.node(new NodeIdentifierWithPredicates(ITEM, ID, id));
+    }
+
+    private static YangInstanceIdentifier refPath(final int id) {
+        return REF_PATH.node(new NodeIdentifierWithPredicates(REF, ID, id));
+    }
+
+    private static MapEntryNode item(final int id, final String name) {
+        return ImmutableNodes.mapEntryBuilder(ITEM, ID, id).withChild(leafNode(NAME, name)).build();
+    }
+
+    private static MapEntryNode ref(final int id, final int item) {
+        return ImmutableNodes.mapEntryBuilder(REF, ID, id).withChild(leafNode(ITEM, item)).build();
+    }
+}
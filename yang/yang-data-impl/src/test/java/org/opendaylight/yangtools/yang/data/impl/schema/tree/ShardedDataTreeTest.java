@@ -0,0 +1,303 @@
+/*
+ * Copyright (c) 2018 Pantheon Technologies, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.impl.schema.tree;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes.leafNode;
+
+import com.google.common.collect.ImmutableList;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifierWithPredicates;
+import org.opendaylight.yangtools.yang.data.api.schema.ContainerNode;
+import org.opendaylight.yangtools.yang.data.api.schema.MapEntryNode;
+import org.opendaylight.yangtools.yang.data.api.schema.MapNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidate;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidateNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidateTip;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeConfiguration;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeModification;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeSnapshot;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataValidationFailedException;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.ModificationType;
+import org.opendaylight.yangtools.yang.data.impl.schema.Builders;
+import org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes;
+import org.opendaylight.yangtools.yang.data.impl.schema.builder.api.CollectionNodeBuilder;
+import org.opendaylight.yangtools.yang.model.api.SchemaContext;
+
+public class ShardedDataTreeTest {
+    private static final QName NAME_QNAME = QName.create(TestModel.TEST_QNAME, "name");
+    private static final YangInstanceIdentifier NON_PRESENCE_PATH = YangInstanceIdentifier.of(
+        TestModel.NON_PRESENCE_QNAME);
+    private static final YangInstanceIdentifier NAME_PATH = NON_PRESENCE_PATH.node(NAME_QNAME);
+
+    private static SchemaContext schemaContext;
+
+    private ShardedDataTree dataTree;
+
+    @BeforeClass
+    public static void beforeClass() {
+        schemaContext = TestModel.createTestContext();
+    }
+
+    @Before
+    public void before() {
+        dataTree = ShardedDataTree.create(DataTreeConfiguration.DEFAULT_CONFIGURATION, schemaContext,
+            ImmutableList.of(TestModel.INNER_CONTAINER_PATH, NON_PRESENCE_PATH));
+    }
+
+    @Test
+    public void testSplitWrite() throws DataValidationFailedException {
+        final ContainerNode test = testContainer(1, 2);
+        final DataTreeModification mod = dataTree.takeSnapshot().newModification();
+        mod.write(TestModel.TEST_PATH, test);
+        assertEquals(Optional.of(test), mod.readNode(TestModel.TEST_PATH));
+
+        final DataTreeCandidate candidate = commit(mod);
+        assertEquals(Optional.of(test), dataTree.takeSnapshot().readNode(TestModel.TEST_PATH));
+        assertEquals(Optional.of(outerEntry(2)), dataTree.takeSnapshot().readNode(outerEntryPath(2)));
+        assertEquals(Optional.of(leafNode(TestModel.VALUE_QNAME, "value")),
+            dataTree.takeSnapshot().readNode(TestModel.INNER_VALUE_PATH));
+        assertEquals(Optional.of(test), dataTree.takeSnapshot().readNode(YangInstanceIdentifier.EMPTY)
+            .flatMap(root -> ((ContainerNode) root).getChild(new NodeIdentifier(TestModel.TEST_QNAME))));
+
+        final DataTreeCandidateNode testNode = candidate.getRootNode().getModifiedChild(
+            new NodeIdentifier(TestModel.TEST_QNAME));
+        assertEquals(ModificationType.APPEARED, testNode.getModificationType());
+        assertEquals(Optional.of(test), testNode.getDataAfter());
+        assertEquals(ModificationType.WRITE, testNode.getModifiedChild(
+            new NodeIdentifier(TestModel.INNER_CONTAINER_QNAME)).getModificationType());
+        assertEquals(ModificationType.WRITE, testNode.getModifiedChild(
+            new NodeIdentifier(TestModel.OUTER_LIST_QNAME)).getModificationType());
+        assertEquals(2, testNode.getChildNodes().size());
+    }
+
+    @Test
+    public void testDelete() throws DataValidationFailedException {
+        writeTest();
+        final DataTreeModification mod = dataTree.takeSnapshot().newModification();
+        mod.delete(TestModel.TEST_PATH);
+        commit(mod);
+
+        assertFalse(dataTree.takeSnapshot().readNode(TestModel.TEST_PATH).isPresent());
+        assertFalse(dataTree.takeSnapshot().readNode(TestModel.INNER_CONTAINER_PATH).isPresent());
+    }
+
+    @Test
+    public void testEmptyShardRoot() throws DataValidationFailedException {
+        dataTree = ShardedDataTree.create(DataTreeConfiguration.DEFAULT_CONFIGURATION, schemaContext,
+            ImmutableList.of(TestModel.TEST_PATH));
+        final ContainerNode test = ImmutableNodes.containerNode(TestModel.TEST_QNAME);
+
+        // An empty presence container written at the prefix exists
+        DataTreeModification mod = dataTree.takeSnapshot().newModification();
+        mod.write(TestModel.TEST_PATH, test);
+        assertEquals(Optional.of(test), mod.readNode(TestModel.TEST_PATH));
+        DataTreeCandidate candidate = commit(mod);
+        assertEquals(ModificationType.WRITE, candidate.getRootNode().getModifiedChild(
+            new NodeIdentifier(TestModel.TEST_QNAME)).getModificationType());
+        assertEquals(Optional.of(test), dataTree.takeSnapshot().readNode(TestModel.TEST_PATH));
+        assertEquals(Optional.of(test), dataTree.takeSnapshot().readNode(YangInstanceIdentifier.EMPTY)
+            .flatMap(root -> ((ContainerNode) root).getChild(new NodeIdentifier(TestModel.TEST_QNAME))));
+
+        // ... until it is deleted
+        mod = dataTree.takeSnapshot().newModification();
+        mod.delete(TestModel.TEST_PATH);
+        candidate = commit(mod);
+        assertEquals(ModificationType.DELETE, candidate.getRootNode().getModifiedChild(
+            new NodeIdentifier(TestModel.TEST_QNAME)).getModificationType());
+        assertFalse(dataTree.takeSnapshot().readNode(TestModel.TEST_PATH).isPresent());
+
+        // ... and it can be written as part of its parent, too
+        mod = dataTree.takeSnapshot().newModification();
+        mod.write(YangInstanceIdentifier.EMPTY, Builders.containerBuilder()
+            .withNodeIdentifier(new NodeIdentifier(SchemaContext.NAME)).withChild(test).build());
+        commit(mod);
+        assertEquals(Optional.of(test), dataTree.takeSnapshot().readNode(TestModel.TEST_PATH));
+
+        // An empty non-presence container does not exist
+        dataTree = ShardedDataTree.create(DataTreeConfiguration.DEFAULT_CONFIGURATION, schemaContext,
+            ImmutableList.of(NON_PRESENCE_PATH));
+        mod = dataTree.takeSnapshot().newModification();
+        mod.write(NON_PRESENCE_PATH, ImmutableNodes.containerNode(TestModel.NON_PRESENCE_QNAME));
+        commit(mod);
+        assertFalse(dataTree.takeSnapshot().readNode(NON_PRESENCE_PATH).isPresent());
+    }
+
+    @Test
+    public void testDisjointCommits() throws DataValidationFailedException {
+        writeTest();
+
+        // Both modifications are based on the same snapshot, yet they do not conflict as they touch different shards
+        final DataTreeModification first = dataTree.takeSnapshot().newModification();
+        final DataTreeModification second = dataTree.takeSnapshot().newModification();
+        first.write(TestModel.INNER_VALUE_PATH, leafNode(TestModel.VALUE_QNAME, "foo"));
+        second.write(NAME_PATH, leafNode(NAME_QNAME, "foo"));
+        final DataTreeCandidateTip firstCandidate = prepare(first);
+        final DataTreeCandidateTip secondCandidate = prepare(second);
+        dataTree.commit(secondCandidate);
+        dataTree.commit(firstCandidate);
+
+        assertEquals(Optional.of(leafNode(TestModel.VALUE_QNAME, "foo")),
+            dataTree.takeSnapshot().readNode(TestModel.INNER_VALUE_PATH));
+        assertEquals(Optional.of(leafNode(NAME_QNAME, "foo")), dataTree.takeSnapshot().readNode(NAME_PATH));
+    }
+
+    @Test
+    public void testConflictingCommit() throws DataValidationFailedException {
+        writeTest();
+
+        final DataTreeModification first = dataTree.takeSnapshot().newModification();
+        final DataTreeModification second = dataTree.takeSnapshot().newModification();
+        first.write(TestModel.INNER_VALUE_PATH, leafNode(TestModel.VALUE_QNAME, "foo"));
+        second.write(TestModel.INNER_VALUE_PATH, leafNode(TestModel.VALUE_QNAME, "bar"));
+        second.write(NAME_PATH, leafNode(NAME_QNAME, "foo"));
+        final DataTreeCandidateTip firstCandidate = prepare(first);
+        final DataTreeCandidateTip secondCandidate = prepare(second);
+        dataTree.commit(firstCandidate);
+
+        try {
+            dataTree.commit(secondCandidate);
+            fail("Stale candidate should have been rejected");
+        } catch (IllegalStateException e) {
+            // Expected
+        }
+
+        // Nothing has been committed to the shard which has not changed
+        assertFalse(dataTree.takeSnapshot().readNode(NAME_PATH).isPresent());
+        assertEquals(Optional.of(leafNode(TestModel.VALUE_QNAME, "foo")),
+            dataTree.takeSnapshot().readNode(TestModel.INNER_VALUE_PATH));
+    }
+
+    @Test
+    public void testChainedCandidates() throws DataValidationFailedException {
+        writeTest();
+
+        final DataTreeModification first = dataTree.takeSnapshot().newModification();
+        first.write(outerEntryPath(3), outerEntry(3));
+        first.ready();
+        final DataTreeModification second = first.newModification();
+        assertTrue(second.readNode(outerEntryPath(3)).isPresent());
+        second.delete(outerEntryPath(1));
+        second.write(NAME_PATH, leafNode(NAME_QNAME, "foo"));
+        second.ready();
+
+        final DataTreeCandidateTip firstCandidate = dataTree.prepare(first);
+        firstCandidate.validate(second);
+        final DataTreeCandidateTip secondCandidate = firstCandidate.prepare(second);
+        dataTree.commit(firstCandidate);
+        dataTree.commit(secondCandidate);
+
+        assertFalse(dataTree.takeSnapshot().readNode(outerEntryPath(1)).isPresent());
+        assertTrue(dataTree.takeSnapshot().readNode(outerEntryPath(3)).isPresent());
+        assertEquals(Optional.of(leafNode(NAME_QNAME, "foo")), dataTree.takeSnapshot().readNode(NAME_PATH));
+    }
+
+    @Test
+    public void testAtomicSnapshots() throws Exception {
+        writeTest();
+        commitValues(0);
+
+        // Each commit writes the same value into two shards, snapshots must never observe them being different
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            final Future<?> writer = executor.submit(() -> {
+                for (int i = 1; i <= 1000; ++i) {
+                    commitValues(i);
+                }
+                return null;
+            });
+
+            while (!writer.isDone()) {
+                final DataTreeSnapshot snapshot = dataTree.takeSnapshot();
+                assertEquals(snapshot.readNode(TestModel.INNER_VALUE_PATH).get().getValue(),
+                    snapshot.readNode(NAME_PATH).get().getValue());
+            }
+            writer.get();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void commitValues(final int value) throws DataValidationFailedException {
+        final DataTreeModification mod = dataTree.takeSnapshot().newModification();
+        mod.write(TestModel.INNER_VALUE_PATH, leafNode(TestModel.VALUE_QNAME, "value-" + value));
+        mod.write(NAME_PATH, leafNode(NAME_QNAME, "value-" + value));
+        commit(mod);
+    }
+
+    @Test
+    public void testInvalidPrefixes() {
+        assertInvalidPrefixes(TestModel.TEST_PATH, TestModel.INNER_CONTAINER_PATH);
+        assertInvalidPrefixes(TestModel.OUTER_LIST_PATH);
+        assertInvalidPrefixes(TestModel.OUTER_LIST_PATH.node(TestModel.INNER_LIST_QNAME));
+        assertInvalidPrefixes(outerEntryPath(1));
+        assertInvalidPrefixes(YangInstanceIdentifier.EMPTY);
+    }
+
+    private static void assertInvalidPrefixes(final YangInstanceIdentifier... prefixes) {
+        try {
+            ShardedDataTree.create(DataTreeConfiguration.DEFAULT_CONFIGURATION, schemaContext,
+                ImmutableList.copyOf(prefixes));
+            fail("Prefixes should have been rejected");
+        } catch (IllegalArgumentException e) {
+            // Expected
+        }
+    }
+
+    private void writeTest() throws DataValidationFailedException {
+        final DataTreeModification mod = dataTree.takeSnapshot().newModification();
+        mod.write(TestModel.TEST_PATH, testContainer(1, 2));
+        commit(mod);
+    }
+
+    private DataTreeCandidateTip prepare(final DataTreeModification mod) throws DataValidationFailedException {
+        mod.ready();
+        dataTree.validate(mod);
+        return dataTree.prepare(mod);
+    }
+
+    private DataTreeCandidate commit(final DataTreeModification mod) throws DataValidationFailedException {
+        final DataTreeCandidate candidate = prepare(mod);
+        dataTree.commit(candidate);
+        return candidate;
+    }
+
+    private static ContainerNode testContainer(final int... ids) {
+        final ContainerNode inner = Builders.containerBuilder()
+                .withNodeIdentifier(new NodeIdentifier(TestModel.INNER_CONTAINER_QNAME))
+                .withChild(leafNode(TestModel.VALUE_QNAME, "value")).build();
+        final CollectionNodeBuilder<MapEntryNode, MapNode> list = ImmutableNodes.mapNodeBuilder(
+            TestModel.OUTER_LIST_QNAME);
+        for (int id : ids) {
+            list.withChild(outerEntry(id));
+        }
+        return Builders.containerBuilder().withNodeIdentifier(new NodeIdentifier(TestModel.TEST_QNAME))
+                .withChild(inner).withChild(list.build()).build();
+    }
+
+    private static MapEntryNode outerEntry(final int id) {
+        return ImmutableNodes.mapEntry(TestModel.OUTER_LIST_QNAME, TestModel.ID_QNAME, id);
+    }
+
+    private static YangInstanceIdentifier outerEntryPath(final int id) {
+        return TestModel.OUTER_LIST_PATH.node(new NodeIdentifierWithPredicates(TestModel.OUTER_LIST_QNAME,
+            TestModel.ID_QNAME, id));
+    }
+}
@@ -0,0 +1,228 @@
+/*
+ * Copyright (c) 2018 Pantheon Technologies, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.impl.schema.tree;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes.leafNode;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import java.util.Collection;
+import java.util.Optional;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifierWithPredicates;
+import org.opendaylight.yangtools.yang.data.api.schema.MapEntryNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTree;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeConfiguration;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeModification;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataValidationFailedException;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.IndexedDataTreeSnapshot;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.TreeType;
+import org.opendaylight.yangtools.yang.data.impl.schema.Builders;
+import org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes;
+import org.opendaylight.yangtools.yang.data.impl.schema.builder.api.DataContainerNodeBuilder;
+import org.opendaylight.yangtools.yang.model.api.SchemaContext;
+
+public class UniqueIndexTest {
+    private static final QName ROOT = QName.create("urn:opendaylight:params:xml:ns:yang:unique-index-test",
+        "2018-09-17", "root");
+    private static final QName SERVER = QName.create(ROOT, "server");
+    private static final QName NAME = QName.create(ROOT, "name");
+    private static final QName IP = QName.create(ROOT, "ip");
+    private static final QName PORT = QName.create(ROOT, "port");
+    private static final QName CFG = QName.create(ROOT, "cfg");
+    private static final QName LABEL = QName.create(ROOT, "label");
+
+    private static final YangInstanceIdentifier ROOT_PATH = YangInstanceIdentifier.of(ROOT);
+    private static final YangInstanceIdentifier SERVER_PATH = ROOT_PATH.node(SERVER);
+    private static final YangInstanceIdentifier IP_LEAF = YangInstanceIdentifier.of(IP);
+    private static final YangInstanceIdentifier PORT_LEAF = YangInstanceIdentifier.of(PORT);
+    private static final YangInstanceIdentifier LABEL_LEAF = YangInstanceIdentifier.create(new NodeIdentifier(CFG),
+        new NodeIdentifier(LABEL));
+
+    private static SchemaContext schemaContext;
+
+    @BeforeClass
+    public static void beforeClass() {
+        schemaContext = TestModel.createTestContext("/unique-index-test.yang");
+    }
+
+    private static DataTree initDataTree(final boolean enableIndexes) throws DataValidationFailedException {
+        final DataTree tree = new InMemoryDataTreeFactory().create(new DataTreeConfiguration.Builder(
+            TreeType.CONFIGURATION).setUniqueIndexes(enableIndexes).build(), schemaContext);
+        final DataTreeModification mod = tree.takeSnapshot().newModification();
+        mod.write(ROOT_PATH, Builders.containerBuilder().withNodeIdentifier(new NodeIdentifier(ROOT))
+            .withChild(ImmutableNodes.mapNodeBuilder(SERVER)
+                .withChild(server("a", "10.0.0.1", 80, "alpha"))
+                .withChild(server("b", "10.0.0.1", 443, "beta"))
+                .withChild(server("c", "10.0.0.2", 80, null))
+                .build())
+            .build());
+        commit(tree, mod);
+        return tree;
+    }
+
+    @Test
+    public void testLookup() throws DataValidationFailedException {
+        final IndexedDataTreeSnapshot snapshot = (IndexedDataTreeSnapshot) initDataTree(true).takeSnapshot();
+
+        assertEntries(snapshot.lookupIndex(SERVER_PATH, ImmutableMap.of(IP_LEAF, "10.0.0.1", PORT_LEAF, 443)),
+            "b");
+        assertEntries(snapshot.lookupIndex(SERVER_PATH, ImmutableMap.of(LABEL_LEAF, "alpha")), "a");
+        assertEntries(snapshot.lookupIndex(SERVER_PATH, ImmutableMap.of(LABEL_LEAF, "gamma")));
+        assertFalse(snapshot.lookupIndex(SERVER_PATH, ImmutableMap.of(IP_LEAF, "10.0.0.1")).isPresent());
+    }
+
+    @Test
+    public void testLookupDisabled() throws DataValidationFailedException {
+        final IndexedDataTreeSnapshot snapshot = (IndexedDataTreeSnapshot) initDataTree(false).takeSnapshot();
+        assertFalse(snapshot.lookupIndex(SERVER_PATH, ImmutableMap.of(LABEL_LEAF, "alpha")).isPresent());
+    }
+
+    @Test
+    public void testIncrementalUpdates() throws DataValidationFailedException {
+        final DataTree tree = initDataTree(true);
+
+        // Add a new entry and change label of an existing one
+        DataTreeModification mod = tree.takeSnapshot().newModification();
+        mod.write(SERVER_PATH.node(server("d", "10.0.0.3", 80, "alpha").getIdentifier()),
+            server("d", "10.0.0.3", 80, "alpha"));
+        mod.write(SERVER_PATH.node(server("a", null, 0, null).getIdentifier()).node(CFG).node(LABEL),
+            leafNode(LABEL, "delta"));
+        commit(tree, mod);
+
+        IndexedDataTreeSnapshot snapshot = (IndexedDataTreeSnapshot) tree.takeSnapshot();
+        assertEntries(snapshot.lookupIndex(SERVER_PATH, ImmutableMap.of(LABEL_LEAF, "alpha")), "d");
+        assertEntries(snapshot.lookupIndex(SERVER_PATH, ImmutableMap.of(LABEL_LEAF, "delta")), "a");
+
+        // Exchange labels between two entries and delete another one, reusing its values
+        mod = tree.takeSnapshot().newModification();
+        mod.write(SERVER_PATH.node(server("a", null, 0, null).getIdentifier()).node(CFG).node(LABEL),
+            leafNode(LABEL, "alpha"));
+        mod.write(SERVER_PATH.node(server("d", null, 0, null).getIdentifier()).node(CFG).node(LABEL),
+            leafNode(LABEL, "delta"));
+        mod.delete(SERVER_PATH.node(server("c", null, 0, null).getIdentifier()));
+        mod.merge(SERVER_PATH.node(server("e", "10.0.0.2", 80, null).getIdentifier()),
+            server("e", "10.0.0.2", 80, null));
+        commit(tree, mod);
+
+        snapshot = (IndexedDataTreeSnapshot) tree.takeSnapshot();
+        assertEntries(snapshot.lookupIndex(SERVER_PATH, ImmutableMap.of(LABEL_LEAF, "alpha")), "a");
+        assertEntries(snapshot.lookupIndex(SERVER_PATH, ImmutableMap.of(LABEL_LEAF, "delta")), "d");
+        assertEntries(snapshot.lookupIndex(SERVER_PATH, ImmutableMap.of(IP_LEAF, "10.0.0.2", PORT_LEAF, 80)),
+            "e");
+    }
+
+    @Test
+    public void testIncrementalViolation() throws DataValidationFailedException {
+        final DataTree tree = initDataTree(true);
+        final DataTreeModification mod = tree.takeSnapshot().newModification();
+        mod.write(SERVER_PATH.node(server("d", "10.0.0.1", 443, null).getIdentifier()),
+            server("d", "10.0.0.1", 443, null));
+        mod.ready();
+
+        try {
+            tree.validate(mod);
+            fail("Unique constraint violation should have been detected");
+        } catch (DataValidationFailedException e) {
+            assertEquals(SERVER_PATH, e.getPath());
+            assertTrue(e.getMessage().contains("violate unique constraint"));
+        }
+    }
+
+    @Test
+    public void testDefaultValue() throws DataValidationFailedException {
+        final DataTree tree = initDataTree(true);
+        final DataTreeModification mod = tree.takeSnapshot().newModification();
+        mod.write(SERVER_PATH.node(server("d", null, 0, null).getIdentifier()),
+            ImmutableNodes.mapEntryBuilder(SERVER, NAME, "d").withChild(leafNode(IP, "10.0.0.3")).build());
+        commit(tree, mod);
+
+        final IndexedDataTreeSnapshot snapshot = (IndexedDataTreeSnapshot) tree.takeSnapshot();
+        assertEntries(snapshot.lookupIndex(SERVER_PATH, ImmutableMap.of(IP_LEAF, "10.0.0.3", PORT_LEAF, 80)),
+            "d");
+    }
+
+    @Test
+    public void testDefaultValueViolation() throws DataValidationFailedException {
+        final DataTree tree = initDataTree(true);
+        final DataTreeModification mod = tree.takeSnapshot().newModification();
+        mod.write(SERVER_PATH.node(server("d", null, 0, null).getIdentifier()),
+            ImmutableNodes.mapEntryBuilder(SERVER, NAME, "d").withChild(leafNode(IP, "10.0.0.2")).build());
+        mod.ready();
+
+        try {
+            tree.validate(mod);
+            fail("Unique constraint violation should have been detected");
+        } catch (DataValidationFailedException e) {
+            assertTrue(e.getMessage().contains("violate unique constraint"));
+        }
+    }
+
+    @Test
+    public void testWriteViolation() throws DataValidationFailedException {
+        final DataTree tree = initDataTree(true);
+        final DataTreeModification mod = tree.takeSnapshot().newModification();
+        mod.write(SERVER_PATH, ImmutableNodes.mapNodeBuilder(SERVER)
+            .withChild(server("x", "10.0.0.1", 80, "same"))
+            .withChild(server("y", "10.0.0.2", 80, "same"))
+            .build());
+
+        try {
+            mod.ready();
+            fail("Unique constraint violation should have been detected");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains("violate unique constraint"));
+        }
+    }
+
+    @Test
+    public void testViolationAllowedWhenDisabled() throws DataValidationFailedException {
+        final DataTree tree = initDataTree(false);
+        final DataTreeModification mod = tree.takeSnapshot().newModification();
+        mod.write(SERVER_PATH.node(server("d", "10.0.0.1", 443, "alpha").getIdentifier()),
+            server("d", "10.0.0.1", 443, "alpha"));
+        commit(tree, mod);
+    }
+
+    private static void commit(final DataTree tree, final DataTreeModification mod)
+            throws DataValidationFailedException {
+        mod.ready();
+        tree.validate(mod);
+        tree.commit(tree.prepare(mod));
+    }
+
+    private static void assertEntries(final Optional<Collection<MapEntryNode>> result, final String... names) {
+        assertTrue(result.isPresent());
+        final ImmutableList.Builder<String> builder = ImmutableList.builder();
+        for (MapEntryNode entry : result.get()) {
+            builder.add((String) entry.getIdentifier().getKeyValues().get(NAME));
+        }
+        assertEquals(ImmutableList.copyOf(names), builder.build());
+    }
+
+    private static MapEntryNode server(final String name, final String ip, final int port, final String label) {
+        final DataContainerNodeBuilder<NodeIdentifierWithPredicates, MapEntryNode> builder =
+                ImmutableNodes.mapEntryBuilder(SERVER, NAME, name);
+        if (ip != null) {
+            builder.withChild(leafNode(IP, ip)).withChild(leafNode(PORT, port));
+        }
+        if (label != null) {
+            builder.withChild(Builders.containerBuilder().withNodeIdentifier(new NodeIdentifier(CFG))
+                .withChild(leafNode(LABEL, label)).build());
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2018 Pantheon Technologies, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.journal;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+import com.google.common.annotations.Beta;
+import com.google.common.base.MoreObjects;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.jdt.annotation.NonNull;
+import org.opendaylight.yangtools.concepts.Immutable;
+
+/**
+ * Configuration of a {@link JournaledDataTree}.
+ *
+ * <p>
+ * Durability of committed candidates is governed by two options: a journal is forced to disk once it holds
+ * {@link #getMaxUnsyncedEntries()} unsynced entries, and, if {@link #getSyncIntervalMillis()} is positive, by a
+ * background thread at that interval. The default configuration forces the journal on each commit.
+ */
+@Beta
+public final class JournalConfiguration implements Immutable {
+    private final @NonNull Path directory;
+    private final int segmentSize;
+    private final int maxUnsyncedEntries;
+    private final long syncIntervalMillis;
+    private final long snapshotInterval;
+
+    JournalConfiguration(final Path directory, final int segmentSize, final int maxUnsyncedEntries,
+            final long syncIntervalMillis, final long snapshotInterval) {
+        this.directory = requireNonNull(directory);
+        this.segmentSize = segmentSize;
+        this.maxUnsyncedEntries = maxUnsyncedEntries;
+        this.syncIntervalMillis = syncIntervalMillis;
+        this.snapshotInterval = snapshotInterval;
+    }
+
+    public static @NonNull Builder builder(final @NonNull Path directory) {
+        return new Builder(directory);
+    }
+
+    /**
+     * Return the directory holding journal segments and snapshots.
+     *
+     * @return Journal directory
+     */
+    public @NonNull Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Return the size of a journal segment, in bytes. Entries which do not fit into a segment of this size are
+     * stored in dedicated segments.
+     *
+     * @return Journal segment size
+     */
+    public int getSegmentSize() {
+        return segmentSize;
+    }
+
+    /**
+     * Return the maximum number of entries which can be appended to the journal without forcing it to disk.
+     *
+     * @return Maximum number of unsynced entries
+     */
+    public int getMaxUnsyncedEntries() {
+        return maxUnsyncedEntries;
+    }
+
+    /**
+     * Return the interval at which the journal is forced to disk in background, zero if background syncing is
+     * disabled.
+     *
+     * @return Background sync interval, in milliseconds
+     */
+    public long getSyncIntervalMillis() {
+        return syncIntervalMillis;
+    }
+
+    /**
+     * Return the number of journal entries after which a snapshot is taken, zero if snapshots are taken only when
+     * explicitly requested.
+     *
+     * @return Snapshot interval, in journal entries
+     */
+    public long getSnapshotInterval() {
+        return snapshotInterval;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this).add("directory", directory).add("segmentSize", segmentSize)
+                .add("maxUnsynced", maxUnsyncedEntries).add("syncInterval", syncIntervalMillis)
+                .add("snapshotInterval", snapshotInterval).toString();
+    }
+
+    public static final class Builder implements org.opendaylight.yangtools.concepts.Builder<JournalConfiguration> {
+        private final Path directory;
+        private int segmentSize = 16 * 1024 * 1024;
+        private int maxUnsyncedEntries = 1;
+        private long syncIntervalMillis = 0;
+        private long snapshotInterval = 100000;
+
+        Builder(final Path directory) {
+            this.directory = requireNonNull(directory);
+        }
+
+        public Builder setSegmentSize(final int segmentSize) {
+            checkArgument(segmentSize >= JournalSegment.MIN_SIZE, "Segment size %s is too small", segmentSize);
+            this.segmentSize = segmentSize;
+            return this;
+        }
+
+        public Builder setMaxUnsyncedEntries(final int maxUnsyncedEntries) {
+            checkArgument(maxUnsyncedEntries > 0, "Maximum unsynced entries %s must be positive",
+                maxUnsyncedEntries);
+            this.maxUnsyncedEntries = maxUnsyncedEntries;
+            return this;
+        }
+
+        public Builder setSyncInterval(final long duration, final TimeUnit unit) {
+            checkArgument(duration >= 0, "Sync interval %s must not be negative", duration);
+            this.syncIntervalMillis = unit.toMillis(duration);
+            return this;
+        }
+
+        public Builder setSnapshotInterval(final long snapshotInterval) {
+            checkArgument(snapshotInterval >= 0, "Snapshot interval %s must not be negative", snapshotInterval);
+            this.snapshotInterval = snapshotInterval;
+            return this;
+        }
+
+        @Override
+        public JournalConfiguration build() {
+            return new JournalConfiguration(directory, segmentSize, maxUnsyncedEntries, syncIntervalMillis,
+                snapshotInterval);
+        }
+    }
+}
@@ -0,0 +1,204 @@
+/*
+ * Copyright (c) 2018 Pantheon Technologies, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.journal;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+import com.google.common.base.MoreObjects;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.OptionalLong;
+import java.util.zip.CRC32;
+
+/**
+ * A single memory-mapped journal segment. Segments are named after the sequence number of their first entry and hold
+ * a contiguous run of entries, each consisting of:
+ * <ul>
+ *   <li>payload length, as a positive int</li>
+ *   <li>CRC32 checksum of the payload, as an int</li>
+ *   <li>sequence number, as a long</li>
+ *   <li>payload bytes</li>
+ * </ul>
+ * The first zero length, malformed entry or an entry with unexpected sequence number terminates the segment, hence
+ * a partially-written entry is discarded when the segment is opened again.
+ */
+final class JournalSegment {
+    /**
+     * Callback invoked for each replayed entry.
+     */
+    @FunctionalInterface
+    interface EntryConsumer {
+        void accept(long sequence, byte[] payload) throws IOException;
+    }
+
+    static final int HEADER_SIZE = 16;
+    static final int MIN_SIZE = 4096;
+
+    private static final String PREFIX = "journal-";
+    private static final String SUFFIX = ".seg";
+
+    private final Path file;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final long firstSequence;
+
+    private long lastSequence;
+    private int position;
+
+    private JournalSegment(final Path file, final FileChannel channel, final MappedByteBuffer buffer,
+            final long firstSequence) {
+        this.file = requireNonNull(file);
+        this.channel = requireNonNull(channel);
+        this.buffer = requireNonNull(buffer);
+        this.firstSequence = firstSequence;
+        this.lastSequence = firstSequence - 1;
+    }
+
+    static JournalSegment create(final Path directory, final long firstSequence, final int size) throws IOException {
+        final Path file = directory.resolve(String.format("%s%020d%s", PREFIX, firstSequence, SUFFIX));
+        final FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+            StandardOpenOption.WRITE);
+        return new JournalSegment(file, channel, channel.map(MapMode.READ_WRITE, 0, size), firstSequence);
+    }
+
+    static JournalSegment open(final Path file) throws IOException {
+        final OptionalLong firstSequence = parseFirstSequence(file);
+        checkArgument(firstSequence.isPresent(), "%s is not a journal segment", file);
+
+        final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        final JournalSegment segment = new JournalSegment(file, channel,
+            channel.map(MapMode.READ_WRITE, 0, channel.size()), firstSequence.getAsLong());
+        segment.scan();
+        return segment;
+    }
+
+    static OptionalLong parseFirstSequence(final Path file) {
+        final String name = file.getFileName().toString();
+        if (!name.startsWith(PREFIX) || !name.endsWith(SUFFIX)) {
+            return OptionalLong.empty();
+        }
+
+        try {
+            return OptionalLong.of(Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length())));
+        } catch (NumberFormatException e) {
+            return OptionalLong.empty();
+        }
+    }
+
+    Path getFile() {
+        return file;
+    }
+
+    long getFirstSequence() {
+        return firstSequence;
+    }
+
+    long getLastSequence() {
+        return lastSequence;
+    }
+
+    boolean isEmpty() {
+        return lastSequence < firstSequence;
+    }
+
+    /**
+     * Attempt to append an entry.
+     *
+     * @param payload Entry payload
+     * @return Sequence number of the entry, or -1 if the entry does not fit into this segment
+     */
+    long tryAppend(final byte[] payload) {
+        final int end = position + HEADER_SIZE + payload.length;
+        if (end > buffer.capacity() || end < 0) {
+            return -1;
+        }
+
+        final CRC32 crc = new CRC32();
+        crc.update(payload);
+
+        final long sequence = lastSequence + 1;
+        final ByteBuffer dup = buffer.duplicate();
+        dup.position(position + 4);
+        dup.putInt((int) crc.getValue()).putLong(sequence).put(payload);
+        if (end + 4 <= buffer.capacity()) {
+            // Make sure any leftovers of a discarded entry do not follow this entry
+            dup.putInt(0);
+        }
+        // Length is written last, so a partially-written entry is more likely to be recognized as such
+        buffer.putInt(position, payload.length);
+
+        position = end;
+        lastSequence = sequence;
+        return sequence;
+    }
+
+    void replay(final long afterSequence, final EntryConsumer consumer) throws IOException {
+        int offset = 0;
+        for (long sequence = firstSequence; sequence <= lastSequence; ++sequence) {
+            final int length = buffer.getInt(offset);
+            if (sequence > afterSequence) {
+                final byte[] payload = new byte[length];
+                final ByteBuffer dup = buffer.duplicate();
+                dup.position(offset + HEADER_SIZE);
+                dup.get(payload);
+                consumer.accept(sequence, payload);
+            }
+            offset += HEADER_SIZE + length;
+        }
+    }
+
+    void force() {
+        buffer.force();
+    }
+
+    void close() throws IOException {
+        channel.close();
+    }
+
+    void delete() throws IOException {
+        channel.close();
+        Files.deleteIfExists(file);
+    }
+
+    private void scan() {
+        final CRC32 crc = new CRC32();
+        final ByteBuffer dup = buffer.duplicate();
+        while (position + HEADER_SIZE <= buffer.capacity()) {
+            final int length = buffer.getInt(position);
+            if (length <= 0 || position + HEADER_SIZE + length > buffer.capacity()
+                    || buffer.getLong(position + 8) != lastSequence + 1) {
+                break;
+            }
+
+            final byte[] payload = new byte[length];
+            dup.position(position + HEADER_SIZE);
+            dup.get(payload);
+            crc.reset();
+            crc.update(payload);
+            if ((int) crc.getValue() != buffer.getInt(position + 4)) {
+                break;
+            }
+
+            position += HEADER_SIZE + length;
+            lastSequence++;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this).add("file", file).add("first", firstSequence)
+                .add("last", lastSequence).add("position", position).toString();
+    }
+}
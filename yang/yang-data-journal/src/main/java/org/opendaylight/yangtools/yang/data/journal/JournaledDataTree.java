@@ -0,0 +1,254 @@
+/*
+ * Copyright (c) 2018 Pantheon Technologies, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.journal;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+import static java.util.Objects.requireNonNull;
+
+import com.google.common.annotations.Beta;
+import com.google.common.base.MoreObjects;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.concurrent.GuardedBy;
+import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.jdt.annotation.Nullable;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.CursorAwareDataTreeModification;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTree;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidate;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidateTip;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeModification;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeSnapshot;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataValidationFailedException;
+import org.opendaylight.yangtools.yang.data.codec.binfmt.DataTreeCandidateInputOutput;
+import org.opendaylight.yangtools.yang.data.codec.binfmt.NormalizedNodeDataInput;
+import org.opendaylight.yangtools.yang.data.codec.binfmt.NormalizedNodeDataOutput;
+import org.opendaylight.yangtools.yang.model.api.SchemaContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A {@link DataTree} which persists its contents. Each committed {@link DataTreeCandidate} is appended to a
+ * segmented, memory-mapped journal as a delta, as encoded by {@link DataTreeCandidateInputOutput}. Every
+ * {@link JournalConfiguration#getSnapshotInterval()} entries the contents of the tree are stored in a snapshot and
+ * journal segments covered by it are deleted.
+ *
+ * <p>
+ * Contents are recovered when the tree is {@link #open(DataTree, JournalConfiguration) opened}, by loading the latest
+ * snapshot and replaying the journal entries which follow it. Entries which have not been synced to disk when
+ * the process terminated may be lost, as governed by {@link JournalConfiguration}.
+ *
+ * <p>
+ * Snapshots are written synchronously by the committing thread, hence the commit which triggers a snapshot incurs
+ * additional latency proportional to the size of the tree.
+ */
+@Beta
+public final class JournaledDataTree implements DataTree, AutoCloseable {
+    private static final Logger LOG = LoggerFactory.getLogger(JournaledDataTree.class);
+
+    private final @NonNull DataTree delegate;
+    private final @NonNull JournalConfiguration config;
+    private final @NonNull SegmentedJournal journal;
+    private final @Nullable ScheduledExecutorService syncExecutor;
+
+    @GuardedBy("this")
+    private long snapshotSequence;
+    @GuardedBy("this")
+    private boolean closed;
+
+    private JournaledDataTree(final DataTree delegate, final JournalConfiguration config,
+            final SegmentedJournal journal, final long snapshotSequence) {
+        this.delegate = requireNonNull(delegate);
+        this.config = requireNonNull(config);
+        this.journal = requireNonNull(journal);
+        this.snapshotSequence = snapshotSequence;
+
+        final long interval = config.getSyncIntervalMillis();
+        if (interval > 0) {
+            syncExecutor = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().setDaemon(true)
+                .setNameFormat("journal-sync-" + config.getDirectory().getFileName() + "-%d").build());
+            syncExecutor.scheduleWithFixedDelay(journal::sync, interval, interval, TimeUnit.MILLISECONDS);
+        } else {
+            syncExecutor = null;
+        }
+    }
+
+    /**
+     * Open a persisted data tree, recovering its contents into an empty {@link DataTree}. Modifications of the
+     * backing tree need to implement {@link CursorAwareDataTreeModification}.
+     *
+     * @param delegate Empty data tree to recover contents into and to which all operations are delegated
+     * @param config Journal configuration
+     * @return A persistent data tree
+     * @throws IOException if an I/O error occurs or the persisted contents cannot be recovered
+     */
+    public static @NonNull JournaledDataTree open(final @NonNull DataTree delegate,
+            final @NonNull JournalConfiguration config) throws IOException {
+        checkArgument(delegate.takeSnapshot().newModification() instanceof CursorAwareDataTreeModification,
+            "Data tree %s does not support cursors", delegate);
+        Files.createDirectories(config.getDirectory());
+
+        long sequence = 0;
+        final Optional<SnapshotFile> snapshot = SnapshotFile.readLatest(config.getDirectory());
+        if (snapshot.isPresent()) {
+            sequence = snapshot.get().getSequence();
+            final Optional<NormalizedNode<?, ?>> root = snapshot.get().getRoot();
+            if (root.isPresent()) {
+                final DataTreeModification mod = delegate.takeSnapshot().newModification();
+                mod.write(YangInstanceIdentifier.EMPTY, root.get());
+                recoverCommit(delegate, mod, sequence);
+            }
+            LOG.debug("Recovered snapshot at {} from {}", sequence, config.getDirectory());
+        }
+
+        final SegmentedJournal journal = SegmentedJournal.open(config, sequence);
+        journal.replay(sequence, (entry, payload) -> {
+            final DataTreeModification mod = delegate.takeSnapshot().newModification();
+            DataTreeCandidateInputOutput.applyDataTreeCandidate(NormalizedNodeDataInput.newDataInput(
+                new DataInputStream(new ByteArrayInputStream(payload))), (CursorAwareDataTreeModification) mod);
+            recoverCommit(delegate, mod, entry);
+        });
+        LOG.debug("Recovered journal {}", journal);
+
+        return new JournaledDataTree(delegate, config, journal, sequence);
+    }
+
+    @Override
+    public DataTreeSnapshot takeSnapshot() {
+        return delegate.takeSnapshot();
+    }
+
+    @Override
+    public void setSchemaContext(final SchemaContext newSchemaContext) {
+        delegate.setSchemaContext(newSchemaContext);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>
+     * The candidate is appended to the journal, as governed by {@link JournalConfiguration}, before it is committed to
+     * the backing tree, hence it is visible only once it has been journaled. Candidates which were not prepared
+     * against the current state of the tree are rejected before they are journaled.
+     *
+     * @throws IllegalStateException if the tree has been closed or the candidate does not apply to its current state
+     * @throws UncheckedIOException if the candidate cannot be journaled
+     */
+    @Override
+    public synchronized void commit(final DataTreeCandidate candidate) {
+        checkState(!closed, "Data tree %s has been closed", this);
+
+        // Same check as the backing tree performs, but we need to do it before the candidate hits the journal
+        final Optional<NormalizedNode<?, ?>> tip = delegate.takeSnapshot().readNode(YangInstanceIdentifier.EMPTY);
+        checkState(candidate.getRootNode().getDataBefore().orElse(null) == tip.orElse(null),
+            "Candidate %s does not apply to current state of %s", candidate, this);
+
+        final long sequence;
+        try {
+            sequence = journal.append(encode(candidate));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to journal candidate " + candidate, e);
+        }
+        delegate.commit(candidate);
+
+        if (config.getSnapshotInterval() > 0 && sequence - snapshotSequence >= config.getSnapshotInterval()) {
+            try {
+                snapshot();
+            } catch (IOException e) {
+                // The journal still holds all entries, hence the next commit will retry
+                LOG.warn("Failed to write snapshot of {}", this, e);
+            }
+        }
+    }
+
+    @Override
+    public YangInstanceIdentifier getRootPath() {
+        return delegate.getRootPath();
+    }
+
+    @Override
+    public void validate(final DataTreeModification modification) throws DataValidationFailedException {
+        delegate.validate(modification);
+    }
+
+    @Override
+    public DataTreeCandidateTip prepare(final DataTreeModification modification) {
+        return delegate.prepare(modification);
+    }
+
+    /**
+     * Write a snapshot of current contents and delete journal segments which are no longer needed.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    public synchronized void snapshot() throws IOException {
+        checkState(!closed, "Data tree %s has been closed", this);
+
+        // Make sure the journal does not lag behind the snapshot
+        journal.sync();
+        final long sequence = journal.getLastSequence();
+        SnapshotFile.write(config.getDirectory(), sequence, delegate.takeSnapshot()
+            .readNode(YangInstanceIdentifier.EMPTY));
+        journal.compact(sequence);
+        snapshotSequence = sequence;
+    }
+
+    /**
+     * Force all journal entries to disk.
+     */
+    public void sync() {
+        journal.sync();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (!closed) {
+            closed = true;
+            if (syncExecutor != null) {
+                syncExecutor.shutdown();
+            }
+            journal.close();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this).add("delegate", delegate).add("journal", journal).toString();
+    }
+
+    private static byte[] encode(final DataTreeCandidate candidate) throws IOException {
+        final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try (NormalizedNodeDataOutput out = NormalizedNodeDataOutput.newDataOutput(new DataOutputStream(bos))) {
+            DataTreeCandidateInputOutput.writeDataTreeCandidate(out, candidate);
+        }
+        return bos.toByteArray();
+    }
+
+    private static void recoverCommit(final DataTree tree, final DataTreeModification mod, final long sequence)
+            throws IOException {
+        mod.ready();
+        try {
+            tree.validate(mod);
+        } catch (DataValidationFailedException e) {
+            throw new IOException("Failed to recover journal entry " + sequence, e);
+        }
+        tree.commit(tree.prepare(mod));
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ * Copyright (c) 2018 Pantheon Technologies, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.journal;
+
+import static java.util.Objects.requireNonNull;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Verify;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import javax.annotation.concurrent.GuardedBy;
+import org.opendaylight.yangtools.yang.data.journal.JournalSegment.EntryConsumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A journal composed of a sequence of {@link JournalSegment}s. Entries are appended to the last segment, a new one
+ * is started when it fills up. Segments whose entries are covered by a snapshot can be deleted.
+ */
+final class SegmentedJournal implements AutoCloseable {
+    private static final Logger LOG = LoggerFactory.getLogger(SegmentedJournal.class);
+
+    private final Path directory;
+    private final int segmentSize;
+    private final int maxUnsyncedEntries;
+
+    @GuardedBy("this")
+    private final List<JournalSegment> segments;
+    @GuardedBy("this")
+    private long lastSequence;
+    @GuardedBy("this")
+    private int unsyncedEntries;
+
+    private SegmentedJournal(final JournalConfiguration config, final List<JournalSegment> segments,
+            final long lastSequence) {
+        this.directory = config.getDirectory();
+        this.segmentSize = config.getSegmentSize();
+        this.maxUnsyncedEntries = config.getMaxUnsyncedEntries();
+        this.segments = requireNonNull(segments);
+        this.lastSequence = lastSequence;
+    }
+
+    /**
+     * Open the journal in configured directory.
+     *
+     * @param config Journal configuration
+     * @param snapshotSequence Sequence number of the last entry covered by the latest snapshot, 0 if there is none
+     * @return Open journal
+     * @throws IOException if an I/O error occurs
+     */
+    static SegmentedJournal open(final JournalConfiguration config, final long snapshotSequence)
+            throws IOException {
+        final List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(config.getDirectory())) {
+            for (Path file : stream) {
+                if (JournalSegment.parseFirstSequence(file).isPresent()) {
+                    files.add(file);
+                }
+            }
+        }
+        files.sort(Comparator.comparingLong(file -> JournalSegment.parseFirstSequence(file).getAsLong()));
+
+        final List<JournalSegment> segments = new ArrayList<>(files.size());
+        long lastSequence = snapshotSequence;
+        for (Path file : files) {
+            final JournalSegment segment = JournalSegment.open(file);
+            if (!segments.isEmpty() && segment.getFirstSequence() != lastSequence + 1) {
+                // The previous segment has been truncated, hence this segment cannot be used
+                LOG.warn("Discarding journal segment {}, expected first entry {}", segment, lastSequence + 1);
+                segment.delete();
+                continue;
+            }
+
+            segments.add(segment);
+            lastSequence = segment.getLastSequence();
+        }
+
+        if (!segments.isEmpty() && (lastSequence < snapshotSequence
+                || segments.get(0).getFirstSequence() > snapshotSequence + 1)) {
+            // The journal does not connect to the snapshot, start a fresh one
+            LOG.warn("Journal segments {} do not match snapshot at {}, discarding them", segments, snapshotSequence);
+            for (JournalSegment segment : segments) {
+                segment.delete();
+            }
+            segments.clear();
+            lastSequence = snapshotSequence;
+        }
+
+        return new SegmentedJournal(config, segments, lastSequence);
+    }
+
+    synchronized long getLastSequence() {
+        return lastSequence;
+    }
+
+    /**
+     * Append an entry to the journal, syncing it if the maximum number of unsynced entries has been reached.
+     *
+     * @param payload Entry payload
+     * @return Sequence number of the entry
+     * @throws IOException if an I/O error occurs
+     */
+    synchronized long append(final byte[] payload) throws IOException {
+        JournalSegment segment = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+        long sequence = segment == null ? -1 : segment.tryAppend(payload);
+        if (sequence == -1) {
+            if (segment != null) {
+                segment.force();
+            }
+            segment = JournalSegment.create(directory, lastSequence + 1,
+                Math.max(segmentSize, JournalSegment.HEADER_SIZE + payload.length));
+            segments.add(segment);
+            sequence = segment.tryAppend(payload);
+            Verify.verify(sequence != -1, "Failed to append %s bytes to new segment %s", payload.length, segment);
+        }
+
+        lastSequence = sequence;
+        if (++unsyncedEntries >= maxUnsyncedEntries) {
+            sync();
+        }
+        return sequence;
+    }
+
+    /**
+     * Force all appended entries to disk.
+     */
+    synchronized void sync() {
+        if (unsyncedEntries != 0) {
+            // Previous segments were forced when we moved past them
+            segments.get(segments.size() - 1).force();
+            unsyncedEntries = 0;
+        }
+    }
+
+    /**
+     * Replay entries following specified sequence number.
+     *
+     * @param afterSequence Sequence number of the last entry which should not be replayed
+     * @param consumer Entry consumer
+     * @throws IOException if an I/O error occurs or the consumer fails
+     */
+    synchronized void replay(final long afterSequence, final EntryConsumer consumer) throws IOException {
+        for (JournalSegment segment : segments) {
+            if (segment.getLastSequence() > afterSequence) {
+                segment.replay(afterSequence, consumer);
+            }
+        }
+    }
+
+    /**
+     * Delete segments containing only entries up to specified sequence number. The last segment is always retained.
+     *
+     * @param sequence Sequence number of the last entry which is no longer needed
+     * @throws IOException if an I/O error occurs
+     */
+    synchronized void compact(final long sequence) throws IOException {
+        while (segments.size() > 1 && segments.get(1).getFirstSequence() <= sequence + 1) {
+            final JournalSegment segment = segments.remove(0);
+            LOG.debug("Deleting journal segment {}", segment);
+            segment.delete();
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        sync();
+        for (JournalSegment segment : segments) {
+            segment.close();
+        }
+        segments.clear();
+    }
+
+    @Override
+    public synchronized String toString() {
+        return MoreObjects.toStringHelper(this).add("directory", directory).add("last", lastSequence)
+                .add("segments", segments.size()).toString();
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2018 Pantheon Technologies, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.journal;
+
+import static java.util.Objects.requireNonNull;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalLong;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.codec.binfmt.InvalidNormalizedNodeStreamException;
+import org.opendaylight.yangtools.yang.data.codec.binfmt.NormalizedNodeDataInput;
+import org.opendaylight.yangtools.yang.data.codec.binfmt.NormalizedNodeDataOutput;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A snapshot of data tree contents, stored in a file named after the sequence number of the last journal entry it
+ * covers. The file holds the sequence number followed by the binary encoding of the root node, which is absent if
+ * the tree is empty.
+ */
+final class SnapshotFile {
+    private static final Logger LOG = LoggerFactory.getLogger(SnapshotFile.class);
+    private static final String PREFIX = "snapshot-";
+    private static final String SUFFIX = ".bin";
+    private static final String TEMP_FILE = "snapshot.tmp";
+
+    private final long sequence;
+    private final Optional<NormalizedNode<?, ?>> root;
+
+    private SnapshotFile(final long sequence, final Optional<NormalizedNode<?, ?>> root) {
+        this.sequence = sequence;
+        this.root = requireNonNull(root);
+    }
+
+    long getSequence() {
+        return sequence;
+    }
+
+    Optional<NormalizedNode<?, ?>> getRoot() {
+        return root;
+    }
+
+    /**
+     * Write a snapshot, replacing any previous snapshots once it has been safely stored.
+     *
+     * @param directory Target directory
+     * @param sequence Sequence number of the last journal entry covered by the snapshot
+     * @param root Root node
+     * @throws IOException if an I/O error occurs
+     */
+    static void write(final Path directory, final long sequence, final Optional<NormalizedNode<?, ?>> root)
+            throws IOException {
+        final Path temp = directory.resolve(TEMP_FILE);
+        try (FileOutputStream fos = new FileOutputStream(temp.toFile())) {
+            final DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(fos));
+            dos.writeLong(sequence);
+            try (NormalizedNodeDataOutput out = NormalizedNodeDataOutput.newDataOutput(dos)) {
+                out.writeBoolean(root.isPresent());
+                if (root.isPresent()) {
+                    out.writeNormalizedNode(root.get());
+                }
+            }
+            dos.flush();
+            fos.getChannel().force(true);
+        }
+
+        final Path file = directory.resolve(String.format("%s%020d%s", PREFIX, sequence, SUFFIX));
+        Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+        for (Path prev : listSnapshots(directory)) {
+            if (!prev.equals(file)) {
+                LOG.debug("Deleting superseded snapshot {}", prev);
+                Files.deleteIfExists(prev);
+            }
+        }
+    }
+
+    /**
+     * Read the latest readable snapshot.
+     *
+     * @param directory Source directory
+     * @return Latest snapshot, or empty if there is none
+     * @throws IOException if an I/O error occurs
+     */
+    static Optional<SnapshotFile> readLatest(final Path directory) throws IOException {
+        final List<Path> snapshots = listSnapshots(directory);
+        for (int i = snapshots.size() - 1; i >= 0; --i) {
+            final Path file = snapshots.get(i);
+            try (DataInputStream dis = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+                final long sequence = dis.readLong();
+                if (sequence != parseSequence(file).getAsLong()) {
+                    throw new InvalidNormalizedNodeStreamException("Snapshot contains sequence " + sequence);
+                }
+
+                final NormalizedNodeDataInput in = NormalizedNodeDataInput.newDataInput(dis);
+                return Optional.of(new SnapshotFile(sequence, in.readBoolean() ? Optional.of(in.readNormalizedNode())
+                        : Optional.empty()));
+            } catch (IOException e) {
+                LOG.warn("Failed to read snapshot {}, ignoring it", file, e);
+            }
+        }
+        return Optional.empty();
+    }
+
+    private static List<Path> listSnapshots(final Path directory) throws IOException {
+        final List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+            for (Path file : stream) {
+                if (parseSequence(file).isPresent()) {
+                    files.add(file);
+                }
+            }
+        }
+        files.sort(Comparator.comparingLong(file -> parseSequence(file).getAsLong()));
+        return files;
+    }
+
+    private static OptionalLong parseSequence(final Path file) {
+        final String name = file.getFileName().toString();
+        if (!name.startsWith(PREFIX) || !name.endsWith(SUFFIX)) {
+            return OptionalLong.empty();
+        }
+
+        try {
+            return OptionalLong.of(Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length())));
+        } catch (NumberFormatException e) {
+            return OptionalLong.empty();
+        }
+    }
+}
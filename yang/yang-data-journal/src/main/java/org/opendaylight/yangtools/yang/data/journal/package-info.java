@@ -0,0 +1,13 @@
+/*
+ * Copyright (c) 2018 Pantheon Technologies, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+/**
+ * Persistence of {@link org.opendaylight.yangtools.yang.data.api.schema.tree.DataTree}s through a write-ahead journal
+ * of committed candidates and periodic snapshots, see
+ * {@link org.opendaylight.yangtools.yang.data.journal.JournaledDataTree}.
+ */
+package org.opendaylight.yangtools.yang.data.journal;
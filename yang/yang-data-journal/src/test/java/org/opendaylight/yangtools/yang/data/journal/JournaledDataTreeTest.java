@@ -0,0 +1,281 @@
+/*
+ * Copyright (c) 2018 Pantheon Technologies, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.journal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes.leafNode;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifierWithPredicates;
+import org.opendaylight.yangtools.yang.data.api.schema.MapEntryNode;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTree;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidate;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeConfiguration;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeModification;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataValidationFailedException;
+import org.opendaylight.yangtools.yang.data.impl.schema.Builders;
+import org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes;
+import org.opendaylight.yangtools.yang.data.impl.schema.tree.InMemoryDataTreeFactory;
+import org.opendaylight.yangtools.yang.model.api.SchemaContext;
+import org.opendaylight.yangtools.yang.test.util.YangParserTestUtils;
+
+public class JournaledDataTreeTest {
+    private static final QName ROOT = QName.create("urn:opendaylight:params:xml:ns:yang:journal-test", "2018-09-17",
+        "root");
+    private static final QName ITEM = QName.create(ROOT, "item");
+    private static final QName ID = QName.create(ROOT, "id");
+    private static final QName NAME = QName.create(ROOT, "name");
+
+    private static final YangInstanceIdentifier ROOT_PATH = YangInstanceIdentifier.of(ROOT);
+    private static final YangInstanceIdentifier ITEM_PATH = ROOT_PATH.node(ITEM);
+
+    private static SchemaContext schemaContext;
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private Path directory;
+
+    @BeforeClass
+    public static void beforeClass() {
+        schemaContext = YangParserTestUtils.parseYangResource("/journal-test.yang");
+    }
+
+    @Before
+    public void before() throws IOException {
+        directory = folder.newFolder().toPath();
+    }
+
+    @Test
+    public void testRecoverJournal() throws Exception {
+        final JournalConfiguration config = JournalConfiguration.builder(directory).setSnapshotInterval(0).build();
+        final Optional<NormalizedNode<?, ?>> expected;
+        try (JournaledDataTree tree = open(config)) {
+            populate(tree, 50);
+            expected = readRoot(tree);
+        }
+
+        try (JournaledDataTree tree = open(config)) {
+            assertEquals(expected, readRoot(tree));
+            assertEquals(0, listFiles("snapshot-").size());
+
+            // Continue appending to the journal
+            commitItem(tree, 50, "fifty");
+            final Optional<NormalizedNode<?, ?>> updated = readRoot(tree);
+            tree.close();
+            try (JournaledDataTree reopened = open(config)) {
+                assertEquals(updated, readRoot(reopened));
+            }
+        }
+    }
+
+    @Test
+    public void testSnapshotsAndSegments() throws Exception {
+        final JournalConfiguration config = JournalConfiguration.builder(directory).setSegmentSize(4096)
+                .setSnapshotInterval(100).build();
+        final Optional<NormalizedNode<?, ?>> expected;
+        try (JournaledDataTree tree = open(config)) {
+            populate(tree, 250);
+            expected = readRoot(tree);
+        }
+
+        // Snapshots replace each other and segments covered by them are deleted
+        assertEquals(1, listFiles("snapshot-").size());
+        assertTrue(Files.exists(directory.resolve(String.format("snapshot-%020d.bin", 200))));
+        final List<Path> segments = listFiles("journal-");
+        segments.sort(null);
+        assertTrue("Unexpected segments " + segments, segments.size() > 1);
+        assertTrue("Unexpected segments " + segments,
+            JournalSegment.parseFirstSequence(segments.get(0)).getAsLong() <= 201);
+        assertTrue("Unexpected segments " + segments,
+            JournalSegment.parseFirstSequence(segments.get(1)).getAsLong() > 201);
+
+        try (JournaledDataTree tree = open(config)) {
+            assertEquals(expected, readRoot(tree));
+        }
+    }
+
+    @Test
+    public void testExplicitSnapshot() throws Exception {
+        final JournalConfiguration config = JournalConfiguration.builder(directory).setSnapshotInterval(0).build();
+        final Optional<NormalizedNode<?, ?>> expected;
+        try (JournaledDataTree tree = open(config)) {
+            populate(tree, 10);
+            tree.snapshot();
+            commitItem(tree, 3, "changed");
+            expected = readRoot(tree);
+        }
+
+        try (JournaledDataTree tree = open(config)) {
+            assertEquals(expected, readRoot(tree));
+        }
+    }
+
+    @Test
+    public void testTornEntry() throws Exception {
+        final JournalConfiguration config = JournalConfiguration.builder(directory).setSnapshotInterval(0).build();
+        final Optional<NormalizedNode<?, ?>> expected;
+        try (JournaledDataTree tree = open(config)) {
+            populate(tree, 5);
+            expected = readRoot(tree);
+            commitItem(tree, 5, "torn");
+        }
+
+        // Corrupt the last byte of the last entry's payload
+        final Path segment = listFiles("journal-").get(0);
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            long offset = 0;
+            long last = 0;
+            while (true) {
+                file.seek(offset);
+                final int length = file.readInt();
+                if (length == 0) {
+                    break;
+                }
+                last = offset + JournalSegment.HEADER_SIZE + length - 1;
+                offset += JournalSegment.HEADER_SIZE + length;
+            }
+            file.seek(last);
+            final int value = file.read();
+            file.seek(last);
+            file.write(value ^ 0xff);
+        }
+
+        try (JournaledDataTree tree = open(config)) {
+            assertEquals(expected, readRoot(tree));
+
+            // The torn entry is overwritten
+            commitItem(tree, 6, "six");
+        }
+        try (JournaledDataTree tree = open(config)) {
+            assertTrue(tree.takeSnapshot().readNode(itemPath(6)).isPresent());
+            assertFalse(tree.takeSnapshot().readNode(itemPath(5)).isPresent());
+        }
+    }
+
+    @Test
+    public void testBatchedSync() throws Exception {
+        final JournalConfiguration config = JournalConfiguration.builder(directory).setMaxUnsyncedEntries(16)
+                .setSyncInterval(5, TimeUnit.MILLISECONDS).build();
+        final Optional<NormalizedNode<?, ?>> expected;
+        try (JournaledDataTree tree = open(config)) {
+            populate(tree, 40);
+            tree.sync();
+            expected = readRoot(tree);
+        }
+
+        try (JournaledDataTree tree = open(config)) {
+            assertEquals(expected, readRoot(tree));
+        }
+    }
+
+    private static JournaledDataTree open(final JournalConfiguration config) throws IOException {
+        return JournaledDataTree.open(new InMemoryDataTreeFactory().create(DataTreeConfiguration.DEFAULT_CONFIGURATION,
+            schemaContext), config);
+    }
+
+    @Test
+    public void testStaleCandidateNotJournaled() throws Exception {
+        final JournalConfiguration config = JournalConfiguration.builder(directory).setSnapshotInterval(0).build();
+        final Optional<NormalizedNode<?, ?>> expected;
+        try (JournaledDataTree tree = open(config)) {
+            populate(tree, 5);
+
+            // Two candidates prepared against the same state, only the first one can be committed
+            final DataTreeModification first = itemModification(tree, 10, "first");
+            final DataTreeModification second = itemModification(tree, 11, "second");
+            final DataTreeCandidate current = tree.prepare(first);
+            final DataTreeCandidate stale = tree.prepare(second);
+            tree.commit(current);
+            try {
+                tree.commit(stale);
+                fail("Stale candidate should have been rejected");
+            } catch (IllegalStateException e) {
+                assertTrue(e.getMessage().contains("does not apply"));
+            }
+            expected = readRoot(tree);
+        }
+
+        try (JournaledDataTree tree = open(config)) {
+            assertEquals(expected, readRoot(tree));
+            assertFalse(tree.takeSnapshot().readNode(itemPath(11)).isPresent());
+        }
+    }
+
+    private static DataTreeModification itemModification(final DataTree tree, final int id, final String name)
+            throws DataValidationFailedException {
+        final DataTreeModification mod = tree.takeSnapshot().newModification();
+        mod.write(itemPath(id), ImmutableNodes.mapEntryBuilder(ITEM, ID, id).withChild(leafNode(NAME, name)).build());
+        mod.ready();
+        tree.validate(mod);
+        return mod;
+    }
+
+    private static void populate(final DataTree tree, final int count) throws DataValidationFailedException {
+        final DataTreeModification mod = tree.takeSnapshot().newModification();
+        mod.write(ROOT_PATH, Builders.containerBuilder().withNodeIdentifier(new NodeIdentifier(ROOT))
+            .withChild(ImmutableNodes.mapNodeBuilder(ITEM).build()).build());
+        commit(tree, mod);
+
+        for (int i = 1; i < count; ++i) {
+            commitItem(tree, i, "item-" + i);
+        }
+    }
+
+    private static void commitItem(final DataTree tree, final int id, final String name)
+            throws DataValidationFailedException {
+        final DataTreeModification mod = tree.takeSnapshot().newModification();
+        final MapEntryNode item = ImmutableNodes.mapEntryBuilder(ITEM, ID, id).withChild(leafNode(NAME, name))
+                .build();
+        mod.write(itemPath(id), item);
+        commit(tree, mod);
+    }
+
+    private static void commit(final DataTree tree, final DataTreeModification mod)
+            throws DataValidationFailedException {
+        mod.ready();
+        tree.validate(mod);
+        tree.commit(tree.prepare(mod));
+    }
+
+    private static YangInstanceIdentifier itemPath(final int id) {
+        return ITEM_PATH.node(new NodeIdentifierWithPredicates(ITEM, ID, id));
+    }
+
+    private static Optional<NormalizedNode<?, ?>> readRoot(final DataTree tree) {
+        return tree.takeSnapshot().readNode(ROOT_PATH);
+    }
+
+    private List<Path> listFiles(final String prefix) throws IOException {
+        final List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, prefix + "*")) {
+            stream.forEach(files::add);
+        }
+        return files;
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2018 Pantheon Technologies, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.xpath;
+
+import static java.util.Objects.requireNonNull;
+
+import org.opendaylight.yangtools.yang.xpath.api.YangBinaryOperator;
+
+/**
+ * An additive or multiplicative expression.
+ */
+final class ArithmeticExpr extends Expr {
+    private final YangBinaryOperator operator;
+    private final Expr left;
+    private final Expr right;
+
+    ArithmeticExpr(final YangBinaryOperator operator, final Expr left, final Expr right) {
+        this.operator = requireNonNull(operator);
+        this.left = requireNonNull(left);
+        this.right = requireNonNull(right);
+    }
+
+    @Override
+    Object evaluate(final EvalContext ctx, final NodeHandle node) {
+        return evaluateNumber(ctx, node);
+    }
+
+    @Override
+    double evaluateNumber(final EvalContext ctx, final NodeHandle node) {
+        final double lhs = left.evaluateNumber(ctx, node);
+        final double rhs = right.evaluateNumber(ctx, node);
+        switch (operator) {
+            case PLUS:
+                return lhs + rhs;
+            case MINUS:
+                return lhs - rhs;
+            case MUL:
+                return lhs * rhs;
+            case DIV:
+                return lhs / rhs;
+            case MOD:
+                return lhs % rhs;
+            default:
+                throw new IllegalStateException("Unhandled operator " + operator);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2018 Pantheon Technologies, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.xpath;
+
+import static java.util.Objects.requireNonNull;
+
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.xpath.api.YangBinaryOperator;
+
+/**
+ * An equality or relational expression.
+ */
+class ComparisonExpr extends Expr {
+    /**
+     * Comparison of a single-node path with a constant. This is the shape of most {@code when} and {@code must}
+     * statements, which we evaluate without materializing a node-set.
+     */
+    private static final class FastPath extends ComparisonExpr {
+        private final FastPathExpr path;
+        private final Object value;
+
+        FastPath(final YangBinaryOperator operator, final FastPathExpr path, final ConstantExpr value) {
+            super(operator, path, value);
+            this.path = path;
+            this.value = value.value();
+        }
+
+        @Override
+        boolean evaluateBoolean(final EvalContext ctx, final NodeHandle node) {
+            if (value instanceof Boolean) {
+                return XPathValues.compareValues(operator, path.evaluateBoolean(ctx, node), value);
+            }
+            final NormalizedNode<?, ?> resolved = path.resolve(ctx, node);
+            return resolved != null && XPathValues.compareNode(operator, resolved, value);
+        }
+    }
+
+    final YangBinaryOperator operator;
+    private final Expr left;
+    private final Expr right;
+
+    ComparisonExpr(final YangBinaryOperator operator, final Expr left, final Expr right) {
+        this.operator = requireNonNull(operator);
+        this.left = requireNonNull(left);
+        this.right = requireNonNull(right);
+    }
+
+    static ComparisonExpr of(final YangBinaryOperator operator, final Expr left, final Expr right) {
+        if (left instanceof FastPathExpr && right instanceof ConstantExpr) {
+            return new FastPath(operator, (FastPathExpr) left, (ConstantExpr) right);
+        }
+        if (right instanceof FastPathExpr && left instanceof ConstantExpr) {
+            return new FastPath(XPathValues.swap(operator), (FastPathExpr) right, (ConstantExpr) left);
+        }
+        return new ComparisonExpr(operator, left, right);
+    }
+
+    @Override
+    final Object evaluate(final EvalContext ctx, final NodeHandle node) {
+        return evaluateBoolean(ctx, node);
+    }
+
+    @Override
+    boolean evaluateBoolean(final EvalContext ctx, final NodeHandle node) {
+        return XPathValues.compare(operator, left.evaluate(ctx, node), right.evaluate(ctx, node));
+    }
+}
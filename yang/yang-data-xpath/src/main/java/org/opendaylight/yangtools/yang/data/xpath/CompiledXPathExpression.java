@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2018 Pantheon Technologies, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.xpath;
+
+import static java.util.Objects.requireNonNull;
+
+import com.google.common.annotations.Beta;
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.Lists;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.List;
+import java.util.Optional;
+import javax.xml.xpath.XPathExpressionException;
+import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.jdt.annotation.Nullable;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
+import org.opendaylight.yangtools.yang.data.api.schema.MixinNode;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNodes;
+import org.opendaylight.yangtools.yang.data.api.schema.xpath.XPathBooleanResult;
+import org.opendaylight.yangtools.yang.data.api.schema.xpath.XPathDocument;
+import org.opendaylight.yangtools.yang.data.api.schema.xpath.XPathExpression;
+import org.opendaylight.yangtools.yang.data.api.schema.xpath.XPathNodesetResult;
+import org.opendaylight.yangtools.yang.data.api.schema.xpath.XPathNumberResult;
+import org.opendaylight.yangtools.yang.data.api.schema.xpath.XPathResult;
+import org.opendaylight.yangtools.yang.data.api.schema.xpath.XPathStringResult;
+import org.opendaylight.yangtools.yang.model.api.SchemaPath;
+
+/**
+ * An XPath expression compiled by {@link YangXPathCompiler}. The document's root node is the XPath root node, its
+ * children being the top-level data nodes. Instances are immutable and thread-safe.
+ */
+@Beta
+public final class CompiledXPathExpression implements XPathExpression {
+    private final @NonNull SchemaPath evaluationPath;
+    private final @NonNull SchemaPath apexPath;
+    private final @NonNull Expr expr;
+
+    CompiledXPathExpression(final SchemaPath evaluationPath, final SchemaPath apexPath, final Expr expr) {
+        this.evaluationPath = requireNonNull(evaluationPath);
+        this.apexPath = requireNonNull(apexPath);
+        this.expr = requireNonNull(expr);
+    }
+
+    @Override
+    public Optional<? extends XPathResult<?>> evaluate(final XPathDocument document,
+            final YangInstanceIdentifier path) throws XPathExpressionException {
+        final EvalContext ctx = createContext(document, path);
+        if (ctx == null) {
+            return Optional.empty();
+        }
+
+        final Object result;
+        try {
+            result = expr.evaluate(ctx, ctx.current);
+        } catch (IllegalArgumentException e) {
+            throw new XPathExpressionException(e);
+        }
+
+        if (result instanceof String) {
+            return Optional.of((XPathStringResult) () -> (String) result);
+        } else if (result instanceof Double) {
+            return Optional.of((XPathNumberResult) () -> (Number) result);
+        } else if (result instanceof Boolean) {
+            return Optional.of((XPathBooleanResult) () -> (Boolean) result);
+        }
+
+        final List<NodeHandle> nodes = XPathValues.toNodeSet(result);
+        return Optional.of((XPathNodesetResult) () -> Lists.transform(nodes,
+            handle -> new SimpleImmutableEntry<>(handle.toPath(), handle.node())));
+    }
+
+    /**
+     * Evaluate this expression and convert the result to a boolean, as is done for {@code must} and {@code when}
+     * statements. This method does not allocate result objects and for the usual shapes of such expressions does not
+     * materialize any node-sets.
+     *
+     * @param document Document to evaluate
+     * @param path Path to the context node
+     * @return Boolean result of the evaluation
+     * @throws XPathExpressionException if the context node does not exist or the expression fails to evaluate
+     */
+    public boolean evaluateBoolean(final @NonNull XPathDocument document, final @NonNull YangInstanceIdentifier path)
+            throws XPathExpressionException {
+        final EvalContext ctx = createContext(document, path);
+        if (ctx == null) {
+            throw new XPathExpressionException("Context node " + path + " does not exist");
+        }
+
+        try {
+            return expr.evaluateBoolean(ctx, ctx.current);
+        } catch (IllegalArgumentException e) {
+            throw new XPathExpressionException(e);
+        }
+    }
+
+    private static @Nullable EvalContext createContext(final XPathDocument document,
+            final YangInstanceIdentifier path) {
+        final NodeHandle root = new NodeHandle(null, document.getRootNode());
+        NodeHandle current = root;
+        NormalizedNode<?, ?> data = root.node();
+        for (PathArgument arg : path.getPathArguments()) {
+            final Optional<NormalizedNode<?, ?>> child = NormalizedNodes.getDirectChild(data, arg);
+            if (!child.isPresent()) {
+                return null;
+            }
+            data = child.get();
+            if (!(data instanceof MixinNode)) {
+                current = new NodeHandle(current, data);
+            }
+        }
+        return new EvalContext(root, current);
+    }
+
+    @Override
+    public SchemaPath getEvaluationPath() {
+        return evaluationPath;
+    }
+
+    @Override
+    public SchemaPath getApexPath() {
+        return apexPath;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this).add("evaluationPath", evaluationPath).add("apexPath", apexPath)
+                .toString();
+    }
+}
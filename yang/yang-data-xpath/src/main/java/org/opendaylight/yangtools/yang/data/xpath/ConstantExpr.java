@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2018 Pantheon Technologies, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.xpath;
+
+import static java.util.Objects.requireNonNull;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * An expression with a value known at compile time.
+ */
+final class ConstantExpr extends Expr {
+    static final ConstantExpr TRUE = new ConstantExpr(Boolean.TRUE);
+    static final ConstantExpr FALSE = new ConstantExpr(Boolean.FALSE);
+    static final ConstantExpr EMPTY_NODESET = new ConstantExpr(ImmutableList.of());
+
+    private final Object value;
+
+    private ConstantExpr(final Object value) {
+        this.value = requireNonNull(value);
+    }
+
+    static ConstantExpr of(final boolean value) {
+        return value ? TRUE : FALSE;
+    }
+
+    static ConstantExpr of(final double value) {
+        return new ConstantExpr(value);
+    }
+
+    static ConstantExpr of(final String value) {
+        return new ConstantExpr(value);
+    }
+
+    Object value() {
+        return value;
+    }
+
+    @Override
+    Object evaluate(final EvalContext ctx, final NodeHandle node) {
+        return value;
+    }
+}
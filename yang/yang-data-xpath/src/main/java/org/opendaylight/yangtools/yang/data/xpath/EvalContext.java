@@ -0,0 +1,27 @@
+/*
+ * Copyright (c) 2018 Pantheon Technologies, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.xpath;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * State of a single evaluation. It holds the document root, the initial context node, which is accessible via
+ * {@code current()}, and the context position and size, which are updated while predicates are evaluated.
+ */
+final class EvalContext {
+    final NodeHandle root;
+    final NodeHandle current;
+
+    int position = 1;
+    int size = 1;
+
+    EvalContext(final NodeHandle root, final NodeHandle current) {
+        this.root = requireNonNull(root);
+        this.current = requireNonNull(current);
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2018 Pantheon Technologies, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.xpath;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A compiled expression. The result of {@link #evaluate(EvalContext, NodeHandle)} is one of the value types described
+ * in {@link XPathValues}. Subclasses are encouraged to override the typed evaluation methods when they can produce
+ * the result without an intermediate value.
+ */
+abstract class Expr {
+    abstract Object evaluate(EvalContext ctx, NodeHandle node);
+
+    boolean evaluateBoolean(final EvalContext ctx, final NodeHandle node) {
+        return XPathValues.toBoolean(evaluate(ctx, node));
+    }
+
+    double evaluateNumber(final EvalContext ctx, final NodeHandle node) {
+        return XPathValues.toNumber(evaluate(ctx, node));
+    }
+
+    String evaluateString(final EvalContext ctx, final NodeHandle node) {
+        return XPathValues.toString(evaluate(ctx, node));
+    }
+
+    List<NodeHandle> evaluateNodeSet(final EvalContext ctx, final NodeHandle node) {
+        return XPathValues.toNodeSet(evaluate(ctx, node));
+    }
+
+    /**
+     * Filter a node-set through a predicate, as specified by
+     * <a href="https://www.w3.org/TR/1999/REC-xpath-19991116/#predicates">XPath 1.0 Predicates</a>.
+     *
+     * @param ctx Evaluation context
+     * @param nodes Nodes to filter, in proximity order
+     * @param predicate Predicate expression
+     * @return Nodes matching the predicate
+     */
+    static List<NodeHandle> filter(final EvalContext ctx, final List<NodeHandle> nodes, final Expr predicate) {
+        final int savedPosition = ctx.position;
+        final int savedSize = ctx.size;
+        final int size = nodes.size();
+        final List<NodeHandle> ret = new ArrayList<>(size);
+        try {
+            for (int i = 0; i < size; ++i) {
+                final NodeHandle node = nodes.get(i);
+                ctx.position = i + 1;
+                ctx.size = size;
+                final Object result = predicate.evaluate(ctx, node);
+                if (result instanceof Double ? (Double) result == i + 1 : XPathValues.toBoolean(result)) {
+                    ret.add(node);
+                }
+            }
+        } finally {
+            ctx.position = savedPosition;
+            ctx.size = savedSize;
+        }
+        return ret;
+    }
+}
@@ -0,0 +1,617 @@
+/*
+ * Copyright (c) 2018 Pantheon Technologies, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.xpath;
+
+import static java.util.Objects.requireNonNull;
+
+import com.google.common.collect.ImmutableList;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.regex.PatternSyntaxException;
+import javax.xml.xpath.XPathExpressionException;
+import org.eclipse.jdt.annotation.Nullable;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifierWithPredicates;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
+import org.opendaylight.yangtools.yang.data.util.DataSchemaContextNode;
+import org.opendaylight.yangtools.yang.data.xpath.LocationPathExpr.NodeTest;
+import org.opendaylight.yangtools.yang.model.api.ChoiceSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.DataSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.IdentitySchemaNode;
+import org.opendaylight.yangtools.yang.model.api.LeafListSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.LeafSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.ListSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.Module;
+import org.opendaylight.yangtools.yang.model.api.SchemaContext;
+import org.opendaylight.yangtools.yang.model.api.SchemaPath;
+import org.opendaylight.yangtools.yang.model.api.type.StringTypeDefinition;
+import org.opendaylight.yangtools.yang.xpath.api.YangBinaryExpr;
+import org.opendaylight.yangtools.yang.xpath.api.YangBinaryOperator;
+import org.opendaylight.yangtools.yang.xpath.api.YangBooleanConstantExpr;
+import org.opendaylight.yangtools.yang.xpath.api.YangExpr;
+import org.opendaylight.yangtools.yang.xpath.api.YangFilterExpr;
+import org.opendaylight.yangtools.yang.xpath.api.YangFunction;
+import org.opendaylight.yangtools.yang.xpath.api.YangFunctionCallExpr;
+import org.opendaylight.yangtools.yang.xpath.api.YangLiteralExpr;
+import org.opendaylight.yangtools.yang.xpath.api.YangLocationPath;
+import org.opendaylight.yangtools.yang.xpath.api.YangLocationPath.AxisStep;
+import org.opendaylight.yangtools.yang.xpath.api.YangLocationPath.NamespaceStep;
+import org.opendaylight.yangtools.yang.xpath.api.YangLocationPath.NodeTypeStep;
+import org.opendaylight.yangtools.yang.xpath.api.YangLocationPath.ProcessingInstructionStep;
+import org.opendaylight.yangtools.yang.xpath.api.YangLocationPath.QNameStep;
+import org.opendaylight.yangtools.yang.xpath.api.YangLocationPath.Step;
+import org.opendaylight.yangtools.yang.xpath.api.YangNaryExpr;
+import org.opendaylight.yangtools.yang.xpath.api.YangNaryOperator;
+import org.opendaylight.yangtools.yang.xpath.api.YangNegateExpr;
+import org.opendaylight.yangtools.yang.xpath.api.YangNumberExpr;
+import org.opendaylight.yangtools.yang.xpath.api.YangPathExpr;
+import org.opendaylight.yangtools.yang.xpath.api.YangQNameExpr;
+import org.opendaylight.yangtools.yang.xpath.api.YangXPathAxis;
+import org.opendaylight.yangtools.yang.xpath.api.YangXPathExpression;
+import org.opendaylight.yangtools.yang.xpath.api.YangXPathNodeType;
+
+/**
+ * Compiler translating a {@link YangXPathExpression} into a tree of {@link Expr}s. Location paths which select at most
+ * a single node and can be resolved against the schema are compiled into {@link FastPathExpr}s, everything else is
+ * evaluated generically. While compiling, location steps are also followed through the schema to find the apex of the
+ * expression, i.e. the topmost node any of its paths can reach.
+ */
+final class ExprCompiler {
+    private final SchemaContext schemaContext;
+    private final YangXPathExpression expression;
+    private final DataSchemaContextNode<?> root;
+    private final @Nullable List<DataSchemaContextNode<?>> contextStack;
+    private final List<DataSchemaContextNode<?>> rootStack;
+
+    // Non-mixin nodes leading to the context node of relative paths being compiled, null if it is not known
+    private @Nullable List<DataSchemaContextNode<?>> context;
+    // Non-mixin nodes leading to the apex, null if no node has been referenced yet
+    private @Nullable List<DataSchemaContextNode<?>> apex;
+
+    ExprCompiler(final SchemaContext schemaContext, final DataSchemaContextNode<?> root,
+            final SchemaPath evaluationPath, final YangXPathExpression expression) {
+        this.schemaContext = requireNonNull(schemaContext);
+        this.root = requireNonNull(root);
+        this.expression = requireNonNull(expression);
+        this.contextStack = resolveContext(root, evaluationPath);
+        this.rootStack = ImmutableList.of(root);
+        this.context = contextStack;
+    }
+
+    /**
+     * Resolve the non-mixin schema nodes leading to the context node.
+     *
+     * @param root Schema root
+     * @param path Evaluation path
+     * @return Non-mixin nodes, starting with root, or null if the path cannot be resolved
+     */
+    private static @Nullable List<DataSchemaContextNode<?>> resolveContext(final DataSchemaContextNode<?> root,
+            final SchemaPath path) {
+        final List<DataSchemaContextNode<?>> ret = new ArrayList<>();
+        ret.add(root);
+
+        DataSchemaContextNode<?> current = root;
+        for (QName qname : path.getPathFromRoot()) {
+            DataSchemaContextNode<?> child = current.getChild(qname);
+            if (child == null) {
+                if (current.getDataSchemaNode() instanceof ChoiceSchemaNode) {
+                    // Case statements are not part of the data tree
+                    continue;
+                }
+                return null;
+            }
+            while (child.isMixin() && !(child.getDataSchemaNode() instanceof ChoiceSchemaNode)) {
+                child = child.getChild(qname);
+                if (child == null) {
+                    return null;
+                }
+            }
+
+            current = child;
+            if (!child.isMixin()) {
+                ret.add(child);
+            }
+        }
+        return ret;
+    }
+
+    /**
+     * Return the schema path of the topmost node referenced by the expressions compiled so far. If no node has been
+     * referenced, this is the context node.
+     *
+     * @return Apex schema path, {@link SchemaPath#ROOT} if it cannot be determined
+     */
+    SchemaPath getApexPath() {
+        final List<DataSchemaContextNode<?>> nodes = apex != null ? apex : contextStack;
+        return nodes == null || nodes.size() < 2 ? SchemaPath.ROOT
+                : nodes.get(nodes.size() - 1).getDataSchemaNode().getPath();
+    }
+
+    Expr compile(final YangExpr expr) throws XPathExpressionException {
+        if (expr instanceof YangLocationPath) {
+            return compileLocationPath((YangLocationPath) expr);
+        }
+        if (expr instanceof YangBinaryExpr) {
+            return compileBinary((YangBinaryExpr) expr);
+        }
+        if (expr instanceof YangNaryExpr) {
+            return compileNary((YangNaryExpr) expr);
+        }
+        if (expr instanceof YangLiteralExpr) {
+            return ConstantExpr.of(((YangLiteralExpr) expr).getLiteral());
+        }
+        if (expr instanceof YangNumberExpr) {
+            return ConstantExpr.of(((YangNumberExpr<?, ?>) expr).getNumber().doubleValue());
+        }
+        if (expr instanceof YangBooleanConstantExpr) {
+            return ConstantExpr.of(((YangBooleanConstantExpr) expr).getValue());
+        }
+        if (expr instanceof YangFunctionCallExpr) {
+            return compileFunction((YangFunctionCallExpr) expr);
+        }
+        if (expr instanceof YangFilterExpr) {
+            final YangFilterExpr filter = (YangFilterExpr) expr;
+            final Expr primary = compile(filter.getExpr());
+            final List<DataSchemaContextNode<?>> saved = context;
+            final List<Expr> predicates;
+            context = null;
+            try {
+                predicates = compilePredicates(filter.getPredicates());
+            } finally {
+                context = saved;
+            }
+            return predicates.isEmpty() ? primary : new FilterExpr(primary, predicates, null);
+        }
+        if (expr instanceof YangPathExpr) {
+            final YangPathExpr path = (YangPathExpr) expr;
+            final Expr primary = compile(path.getFilterExpr());
+            final Optional<YangLocationPath> location = path.getLocationPath();
+            if (!location.isPresent()) {
+                return primary;
+            }
+
+            // current()/foo is a common idiom, we know where it starts
+            final List<DataSchemaContextNode<?>> start = isCurrent(path.getFilterExpr()) ? contextStack : null;
+            return new FilterExpr(primary, new ArrayList<>(), compileGenericPath(location.get(), start));
+        }
+        if (expr instanceof YangNegateExpr) {
+            return new NegateExpr(compile(((YangNegateExpr) expr).getSubExpr()));
+        }
+        if (expr instanceof YangQNameExpr) {
+            // Instance-identifier predicates refer to child nodes by their QName
+            return compileLocationPath(YangLocationPath.of(false,
+                YangXPathAxis.CHILD.asStep(((YangQNameExpr) expr).getQName(), new ArrayList<>())));
+        }
+        throw new XPathExpressionException("Unsupported expression " + expr);
+    }
+
+    private static boolean isCurrent(final YangExpr expr) {
+        return expr instanceof YangFunctionCallExpr
+                && YangFunction.CURRENT.getIdentifier().equals(((YangFunctionCallExpr) expr).getName());
+    }
+
+    private List<Expr> compilePredicates(final Set<YangExpr> predicates) throws XPathExpressionException {
+        final List<Expr> ret = new ArrayList<>(predicates.size());
+        for (YangExpr predicate : predicates) {
+            ret.add(compile(predicate));
+        }
+        return ret;
+    }
+
+    private Expr compileBinary(final YangBinaryExpr expr) throws XPathExpressionException {
+        final YangBinaryOperator operator = expr.getOperator();
+        final Expr left = compile(expr.getLeftExpr());
+        final Expr right = compile(expr.getRightExpr());
+        switch (operator) {
+            case EQUALS:
+            case NOT_EQUALS:
+            case GT:
+            case GTE:
+            case LT:
+            case LTE:
+                return ComparisonExpr.of(operator, left, right);
+            default:
+                return new ArithmeticExpr(operator, left, right);
+        }
+    }
+
+    private Expr compileNary(final YangNaryExpr expr) throws XPathExpressionException {
+        final Set<YangExpr> exprs = expr.getExpressions();
+        final Expr[] compiled = new Expr[exprs.size()];
+        int offset = 0;
+        for (YangExpr sub : exprs) {
+            compiled[offset++] = compile(sub);
+        }
+
+        final YangNaryOperator operator = expr.getOperator();
+        switch (operator) {
+            case AND:
+                return new LogicalExpr(false, compiled);
+            case OR:
+                return new LogicalExpr(true, compiled);
+            case UNION:
+                return new UnionExpr(compiled);
+            default:
+                throw new XPathExpressionException("Unhandled operator " + operator);
+        }
+    }
+
+    private Expr compileFunction(final YangFunctionCallExpr expr) throws XPathExpressionException {
+        final YangFunction function = lookupFunction(expr.getName());
+        final List<YangExpr> arguments = expr.getArguments();
+        if (!FunctionExpr.isValidArgumentCount(function, arguments.size())) {
+            throw new XPathExpressionException("Invalid number of arguments " + arguments.size() + " to "
+                    + expr.getName());
+        }
+        if (function == YangFunction.CURRENT) {
+            reach(contextStack != null ? contextStack : rootStack);
+        } else if (arguments.isEmpty() && function != YangFunction.TRUE && function != YangFunction.FALSE) {
+            // Implicit context node argument, position() and last() also depend on its siblings
+            reach(context != null ? context.subList(0, Math.max(1, context.size() - 1)) : rootStack);
+        }
+
+        final List<Expr> args = new ArrayList<>(arguments.size());
+        for (YangExpr arg : arguments) {
+            args.add(compile(arg));
+        }
+
+        switch (function) {
+            case DERIVED_FROM:
+                return new FunctionExpr.DerivedFrom(function, args, derivedIdentities(arguments.get(1), false));
+            case DERIVED_FROM_OR_SELF:
+                return new FunctionExpr.DerivedFrom(function, args, derivedIdentities(arguments.get(1), true));
+            case RE_MATCH:
+                try {
+                    return new FunctionExpr.RegexMatch(args);
+                } catch (PatternSyntaxException e) {
+                    throw new XPathExpressionException(e);
+                }
+            default:
+                return new FunctionExpr(function, args);
+        }
+    }
+
+    private static YangFunction lookupFunction(final QName name) throws XPathExpressionException {
+        for (YangFunction function : YangFunction.values()) {
+            if (function.getIdentifier().equals(name)) {
+                switch (function) {
+                    case DEREF:
+                    case ENUM_VALUE:
+                    case ID:
+                    case LANG:
+                        throw new XPathExpressionException("Function " + name + " is not supported");
+                    default:
+                        return function;
+                }
+            }
+        }
+        throw new XPathExpressionException("Unknown function " + name);
+    }
+
+    private Set<QName> derivedIdentities(final YangExpr arg, final boolean includeSelf)
+            throws XPathExpressionException {
+        final QName qname;
+        if (arg instanceof YangLiteralExpr) {
+            qname = expression.interpretAsQName((YangLiteralExpr) arg);
+        } else if (arg instanceof YangQNameExpr) {
+            qname = ((YangQNameExpr) arg).getQName();
+        } else {
+            throw new XPathExpressionException("Identity argument " + arg + " is not a constant");
+        }
+
+        final Optional<Module> module = schemaContext.findModule(qname.getModule());
+        if (module.isPresent()) {
+            for (IdentitySchemaNode identity : module.get().getIdentities()) {
+                if (qname.equals(identity.getQName())) {
+                    final Set<QName> ret = new HashSet<>();
+                    if (includeSelf) {
+                        ret.add(qname);
+                    }
+                    addDerivedIdentities(ret, identity);
+                    return ret;
+                }
+            }
+        }
+        throw new XPathExpressionException("Unknown identity " + qname);
+    }
+
+    private static void addDerivedIdentities(final Set<QName> set, final IdentitySchemaNode identity) {
+        for (IdentitySchemaNode derived : identity.getDerivedIdentities()) {
+            if (set.add(derived.getQName())) {
+                addDerivedIdentities(set, derived);
+            }
+        }
+    }
+
+    private Expr compileLocationPath(final YangLocationPath path) throws XPathExpressionException {
+        final FastPathExpr fast = compileFastPath(path);
+        if (fast == null) {
+            return compileGenericPath(path, context);
+        }
+
+        List<DataSchemaContextNode<?>> nodes = startNodes(path, context);
+        for (Step step : path.getSteps()) {
+            nodes = followStep(nodes, step);
+        }
+        if (nodes != null) {
+            reach(nodes);
+        }
+        return fast;
+    }
+
+    private @Nullable FastPathExpr compileFastPath(final YangLocationPath path) {
+        final Deque<DataSchemaContextNode<?>> stack = new ArrayDeque<>();
+        if (path.isAbsolute()) {
+            stack.push(root);
+        } else if (contextStack != null) {
+            contextStack.forEach(stack::push);
+        } else {
+            return null;
+        }
+
+        final List<PathArgument> arguments = new ArrayList<>();
+        int parentSteps = 0;
+        for (Step step : path.getSteps()) {
+            if (step instanceof QNameStep && step.getAxis() == YangXPathAxis.CHILD) {
+                final DataSchemaContextNode<?> child = lookupChild(stack.peek(), (QNameStep) step, arguments);
+                if (child == null) {
+                    return null;
+                }
+                stack.push(child);
+            } else if (step.getClass() == AxisStep.class && arguments.isEmpty() && !path.isAbsolute()) {
+                // Plain '.' and '..' steps, without predicates, leading the path
+                if (step.getAxis() == YangXPathAxis.PARENT) {
+                    if (stack.size() < 2) {
+                        return null;
+                    }
+                    stack.pop();
+                    parentSteps++;
+                } else if (step.getAxis() != YangXPathAxis.SELF) {
+                    return null;
+                }
+            } else {
+                return null;
+            }
+        }
+        return new FastPathExpr(path.isAbsolute(), parentSteps, arguments);
+    }
+
+    private static @Nullable DataSchemaContextNode<?> lookupChild(final DataSchemaContextNode<?> parent,
+            final QNameStep step, final List<PathArgument> arguments) {
+        final QName qname = step.getQName();
+        DataSchemaContextNode<?> child = parent.getChild(qname);
+        while (child != null && child.isMixin()) {
+            arguments.add(child.getIdentifier());
+            child = child.getChild(qname);
+        }
+        if (child == null) {
+            return null;
+        }
+
+        final DataSchemaNode schema = child.getDataSchemaNode();
+        if (schema instanceof ListSchemaNode) {
+            final Map<QName, Object> keys = keyValues((ListSchemaNode) schema, step.getPredicates());
+            if (keys == null) {
+                return null;
+            }
+            arguments.add(new NodeIdentifierWithPredicates(qname, keys));
+        } else if (schema instanceof LeafListSchemaNode || !step.getPredicates().isEmpty()) {
+            return null;
+        } else {
+            arguments.add(child.getIdentifier());
+        }
+        return child;
+    }
+
+    /**
+     * Extract key values from predicates, if they fully specify a list entry with string keys.
+     *
+     * @param list List schema
+     * @param predicates Step predicates
+     * @return Key values, or null if the predicates do not match the expected form
+     */
+    private static @Nullable Map<QName, Object> keyValues(final ListSchemaNode list, final Set<YangExpr> predicates) {
+        final List<QName> keyDef = list.getKeyDefinition();
+        if (keyDef.isEmpty()) {
+            return null;
+        }
+
+        final List<YangExpr> terms = new ArrayList<>();
+        for (YangExpr predicate : predicates) {
+            if (predicate instanceof YangNaryExpr && ((YangNaryExpr) predicate).getOperator() == YangNaryOperator.AND) {
+                terms.addAll(((YangNaryExpr) predicate).getExpressions());
+            } else {
+                terms.add(predicate);
+            }
+        }
+
+        final Map<QName, Object> ret = new HashMap<>();
+        for (YangExpr term : terms) {
+            if (!(term instanceof YangBinaryExpr)) {
+                return null;
+            }
+            final YangBinaryExpr binary = (YangBinaryExpr) term;
+            if (binary.getOperator() != YangBinaryOperator.EQUALS) {
+                return null;
+            }
+
+            final QName key;
+            final YangExpr value;
+            if (binary.getRightExpr() instanceof YangLiteralExpr) {
+                key = keyStep(binary.getLeftExpr());
+                value = binary.getRightExpr();
+            } else {
+                key = keyStep(binary.getRightExpr());
+                value = binary.getLeftExpr();
+            }
+            if (key == null || !(value instanceof YangLiteralExpr) || !keyDef.contains(key) || !isStringLeaf(list, key)
+                    || ret.put(key, ((YangLiteralExpr) value).getLiteral()) != null) {
+                return null;
+            }
+        }
+        return ret.size() == keyDef.size() ? ret : null;
+    }
+
+    private static @Nullable QName keyStep(final YangExpr expr) {
+        if (!(expr instanceof YangLocationPath)) {
+            return null;
+        }
+        final YangLocationPath path = (YangLocationPath) expr;
+        if (path.isAbsolute() || path.getSteps().size() != 1) {
+            return null;
+        }
+        final Step step = path.getSteps().get(0);
+        return step instanceof QNameStep && step.getAxis() == YangXPathAxis.CHILD && step.getPredicates().isEmpty()
+                ? ((QNameStep) step).getQName() : null;
+    }
+
+    private static boolean isStringLeaf(final ListSchemaNode list, final QName qname) {
+        final Optional<DataSchemaNode> child = list.findDataChildByName(qname);
+        return child.isPresent() && child.get() instanceof LeafSchemaNode
+                && ((LeafSchemaNode) child.get()).getType() instanceof StringTypeDefinition;
+    }
+
+    private LocationPathExpr compileGenericPath(final YangLocationPath path,
+            final @Nullable List<DataSchemaContextNode<?>> start) throws XPathExpressionException {
+        final List<DataSchemaContextNode<?>> saved = context;
+        final List<LocationPathExpr.Step> steps = new ArrayList<>();
+        List<DataSchemaContextNode<?>> nodes = startNodes(path, start);
+        try {
+            for (Step step : path.getSteps()) {
+                final YangXPathAxis axis = step.getAxis();
+                if (axis == YangXPathAxis.FOLLOWING || axis == YangXPathAxis.PRECEDING) {
+                    throw new XPathExpressionException("Axis " + axis + " is not supported");
+                }
+
+                // Predicates are evaluated relative to the nodes selected by the step
+                nodes = followStep(nodes, step);
+                context = nodes;
+                steps.add(new LocationPathExpr.Step(axis, nodeTest(step), compilePredicates(step.getPredicates())));
+            }
+        } finally {
+            context = saved;
+        }
+
+        if (nodes != null) {
+            reach(nodes);
+        }
+        return new LocationPathExpr(path.isAbsolute(), steps);
+    }
+
+    private @Nullable List<DataSchemaContextNode<?>> startNodes(final YangLocationPath path,
+            final @Nullable List<DataSchemaContextNode<?>> start) {
+        if (path.isAbsolute()) {
+            return rootStack;
+        }
+        if (start == null) {
+            // Unknown starting point, we can reach anywhere
+            reach(rootStack);
+        }
+        return start;
+    }
+
+    /**
+     * Follow a step through the schema, recording the apex of any nodes it can reach beyond the selected node.
+     *
+     * @param nodes Non-mixin nodes leading to the step's context node, null if they are not known
+     * @param step Step to follow
+     * @return Non-mixin nodes leading to the node selected by the step, null if it cannot be determined
+     */
+    private @Nullable List<DataSchemaContextNode<?>> followStep(final @Nullable List<DataSchemaContextNode<?>> nodes,
+            final Step step) {
+        if (nodes == null) {
+            return null;
+        }
+
+        final int size = nodes.size();
+        switch (step.getAxis()) {
+            case SELF:
+                return nodes;
+            case PARENT:
+                if (size > 1) {
+                    return nodes.subList(0, size - 1);
+                }
+                break;
+            case CHILD:
+                if (step instanceof QNameStep) {
+                    final DataSchemaContextNode<?> child = schemaChild(nodes.get(size - 1),
+                        ((QNameStep) step).getQName());
+                    if (child != null) {
+                        final List<DataSchemaContextNode<?>> ret = new ArrayList<>(size + 1);
+                        ret.addAll(nodes);
+                        ret.add(child);
+                        return ret;
+                    }
+                }
+                break;
+            case FOLLOWING_SIBLING:
+            case PRECEDING_SIBLING:
+                reach(nodes.subList(0, Math.max(1, size - 1)));
+                return null;
+            case ANCESTOR:
+            case ANCESTOR_OR_SELF:
+                reach(rootStack);
+                return null;
+            default:
+                break;
+        }
+
+        // Descendants or an unresolvable child: anything in this subtree
+        reach(nodes);
+        return null;
+    }
+
+    private static @Nullable DataSchemaContextNode<?> schemaChild(final DataSchemaContextNode<?> parent,
+            final QName qname) {
+        DataSchemaContextNode<?> child = parent.getChild(qname);
+        while (child != null && child.isMixin()) {
+            child = child.getChild(qname);
+        }
+        return child;
+    }
+
+    private void reach(final List<DataSchemaContextNode<?>> nodes) {
+        if (apex == null) {
+            apex = nodes;
+            return;
+        }
+
+        final int limit = Math.min(apex.size(), nodes.size());
+        int common = 0;
+        while (common < limit && apex.get(common).getIdentifier().equals(nodes.get(common).getIdentifier())) {
+            common++;
+        }
+        if (common < apex.size()) {
+            apex = apex.subList(0, common);
+        }
+    }
+
+    private static @Nullable NodeTest nodeTest(final Step step) {
+        if (step instanceof QNameStep) {
+            return NodeTest.forQName(((QNameStep) step).getQName());
+        }
+        if (step instanceof NamespaceStep) {
+            return NodeTest.forNamespace(((NamespaceStep) step).getNamespace());
+        }
+        if (step instanceof ProcessingInstructionStep) {
+            return null;
+        }
+        if (step instanceof NodeTypeStep) {
+            // Text and comment nodes are not part of the data model
+            return ((NodeTypeStep) step).getNodeType() == YangXPathNodeType.NODE ? NodeTest.ANY : null;
+        }
+        return NodeTest.ANY;
+    }
+}
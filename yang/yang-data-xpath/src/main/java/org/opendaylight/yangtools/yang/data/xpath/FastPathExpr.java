@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2018 Pantheon Technologies, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.xpath;
+
+import com.google.common.collect.ImmutableList;
+import java.util.List;
+import java.util.Optional;
+import org.eclipse.jdt.annotation.Nullable;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
+import org.opendaylight.yangtools.yang.data.api.schema.MixinNode;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNodes;
+
+/**
+ * A location path which selects at most a single node. Such paths are resolved at compile time into a sequence of
+ * {@link PathArgument}s, including any intervening mixin nodes, so that evaluation is a series of direct child
+ * lookups, without enumerating any siblings.
+ */
+final class FastPathExpr extends Expr {
+    private final PathArgument[] arguments;
+    private final boolean absolute;
+    private final int parentSteps;
+
+    /**
+     * Create a new path.
+     *
+     * @param absolute True if the path starts at document root
+     * @param parentSteps Number of parent steps to take before looking up children, ignored for absolute paths
+     * @param arguments Child lookup arguments, including mixin nodes
+     */
+    FastPathExpr(final boolean absolute, final int parentSteps, final List<PathArgument> arguments) {
+        this.absolute = absolute;
+        this.parentSteps = parentSteps;
+        this.arguments = arguments.toArray(new PathArgument[0]);
+    }
+
+    private @Nullable NodeHandle start(final EvalContext ctx, final NodeHandle node) {
+        if (absolute) {
+            return ctx.root;
+        }
+
+        NodeHandle current = node;
+        for (int i = 0; i < parentSteps && current != null; ++i) {
+            current = current.parent();
+        }
+        return current;
+    }
+
+    /**
+     * Resolve the selected node.
+     *
+     * @param ctx Evaluation context
+     * @param node Context node
+     * @return Selected node, or null if it does not exist
+     */
+    @Nullable NormalizedNode<?, ?> resolve(final EvalContext ctx, final NodeHandle node) {
+        final NodeHandle start = start(ctx, node);
+        if (start == null) {
+            return null;
+        }
+
+        NormalizedNode<?, ?> current = start.node();
+        for (PathArgument arg : arguments) {
+            final Optional<NormalizedNode<?, ?>> child = NormalizedNodes.getDirectChild(current, arg);
+            if (!child.isPresent()) {
+                return null;
+            }
+            current = child.get();
+        }
+        return current;
+    }
+
+    @Override
+    Object evaluate(final EvalContext ctx, final NodeHandle node) {
+        NodeHandle current = start(ctx, node);
+        if (current == null) {
+            return ImmutableList.of();
+        }
+
+        NormalizedNode<?, ?> data = current.node();
+        for (PathArgument arg : arguments) {
+            final Optional<NormalizedNode<?, ?>> child = NormalizedNodes.getDirectChild(data, arg);
+            if (!child.isPresent()) {
+                return ImmutableList.of();
+            }
+            data = child.get();
+            if (!(data instanceof MixinNode)) {
+                current = new NodeHandle(current, data);
+            }
+        }
+        return ImmutableList.of(current);
+    }
+
+    @Override
+    boolean evaluateBoolean(final EvalContext ctx, final NodeHandle node) {
+        return resolve(ctx, node) != null;
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright (c) 2018 Pantheon Technologies, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.xpath;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.List;
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * A filter expression, optionally followed by a relative location path.
+ */
+final class FilterExpr extends Expr {
+    private final Expr primary;
+    private final Expr[] predicates;
+    private final @Nullable LocationPathExpr path;
+
+    FilterExpr(final Expr primary, final List<Expr> predicates, final @Nullable LocationPathExpr path) {
+        this.primary = requireNonNull(primary);
+        this.predicates = predicates.toArray(new Expr[0]);
+        this.path = path;
+    }
+
+    @Override
+    Object evaluate(final EvalContext ctx, final NodeHandle node) {
+        final Object value = primary.evaluate(ctx, node);
+        if (predicates.length == 0 && path == null) {
+            return value;
+        }
+
+        List<NodeHandle> nodes = XPathValues.toNodeSet(value);
+        for (Expr predicate : predicates) {
+            nodes = filter(ctx, nodes, predicate);
+        }
+        return path == null ? nodes : path.select(ctx, nodes);
+    }
+}
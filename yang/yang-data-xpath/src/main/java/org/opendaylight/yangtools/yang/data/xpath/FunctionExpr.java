@@ -0,0 +1,337 @@
+/*
+ * Copyright (c) 2018 Pantheon Technologies, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.xpath;
+
+import static java.util.Objects.requireNonNull;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+import org.eclipse.jdt.annotation.Nullable;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.model.util.RegexUtils;
+import org.opendaylight.yangtools.yang.xpath.api.YangFunction;
+
+/**
+ * An invocation of one of the XPath 1.0 core functions or the functions defined in
+ * <a href="https://tools.ietf.org/html/rfc7950#section-10">RFC7950 section 10</a>.
+ */
+class FunctionExpr extends Expr {
+    /**
+     * The {@code re-match()} function. If the pattern is a constant, it is compiled only once.
+     */
+    static final class RegexMatch extends FunctionExpr {
+        private final @Nullable Pattern pattern;
+
+        RegexMatch(final List<Expr> args) {
+            super(YangFunction.RE_MATCH, args);
+            final Expr regex = args.get(1);
+            pattern = regex instanceof ConstantExpr ? compile(XPathValues.toString(((ConstantExpr) regex).value()))
+                    : null;
+        }
+
+        @Override
+        boolean evaluateBoolean(final EvalContext ctx, final NodeHandle node) {
+            final Pattern compiled = pattern != null ? pattern : compile(arg(1).evaluateString(ctx, node));
+            return compiled.matcher(arg(0).evaluateString(ctx, node)).matches();
+        }
+
+        private static Pattern compile(final String xsdRegex) {
+            return Pattern.compile(RegexUtils.getJavaRegexFromXSD(xsdRegex));
+        }
+    }
+
+    /**
+     * The {@code derived-from()} and {@code derived-from-or-self()} functions. The set of matching identities is
+     * computed at compile time.
+     */
+    static final class DerivedFrom extends FunctionExpr {
+        private final Set<QName> identities;
+
+        DerivedFrom(final YangFunction function, final List<Expr> args, final Set<QName> identities) {
+            super(function, args);
+            this.identities = ImmutableSet.copyOf(identities);
+        }
+
+        @Override
+        boolean evaluateBoolean(final EvalContext ctx, final NodeHandle node) {
+            for (NodeHandle handle : arg(0).evaluateNodeSet(ctx, node)) {
+                if (identities.contains(handle.node().getValue())) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private final YangFunction function;
+    private final Expr[] args;
+
+    FunctionExpr(final YangFunction function, final List<Expr> args) {
+        this.function = requireNonNull(function);
+        this.args = args.toArray(new Expr[0]);
+    }
+
+    final Expr arg(final int index) {
+        return args[index];
+    }
+
+    /**
+     * Check whether a function accepts specified number of arguments.
+     *
+     * @param function Function to check
+     * @param count Number of arguments
+     * @return True if the number of arguments is acceptable
+     */
+    static boolean isValidArgumentCount(final YangFunction function, final int count) {
+        switch (function) {
+            case FALSE:
+            case LAST:
+            case POSITION:
+            case TRUE:
+            case CURRENT:
+                return count == 0;
+            case LOCAL_NAME:
+            case NAME:
+            case NAMESPACE_URI:
+            case NORMALIZE_SPACE:
+            case NUMBER:
+            case STRING:
+            case STRING_LENGTH:
+                return count <= 1;
+            case BOOLEAN:
+            case CEILING:
+            case COUNT:
+            case FLOOR:
+            case NOT:
+            case ROUND:
+            case SUM:
+                return count == 1;
+            case CONTAINS:
+            case STARTS_WITH:
+            case SUBSTRING_AFTER:
+            case SUBSTRING_BEFORE:
+            case BIT_IS_SET:
+            case DERIVED_FROM:
+            case DERIVED_FROM_OR_SELF:
+            case RE_MATCH:
+                return count == 2;
+            case SUBSTRING:
+                return count == 2 || count == 3;
+            case TRANSLATE:
+                return count == 3;
+            case CONCAT:
+                return count >= 2;
+            default:
+                return false;
+        }
+    }
+
+    @Override
+    Object evaluate(final EvalContext ctx, final NodeHandle node) {
+        switch (function) {
+            case BOOLEAN:
+            case CONTAINS:
+            case FALSE:
+            case NOT:
+            case STARTS_WITH:
+            case TRUE:
+            case BIT_IS_SET:
+            case DERIVED_FROM:
+            case DERIVED_FROM_OR_SELF:
+            case RE_MATCH:
+                return evaluateBoolean(ctx, node);
+            case CEILING:
+            case COUNT:
+            case FLOOR:
+            case LAST:
+            case NUMBER:
+            case POSITION:
+            case ROUND:
+            case STRING_LENGTH:
+            case SUM:
+                return evaluateNumber(ctx, node);
+            case CURRENT:
+                return ImmutableList.of(ctx.current);
+            default:
+                return evaluateString(ctx, node);
+        }
+    }
+
+    @Override
+    boolean evaluateBoolean(final EvalContext ctx, final NodeHandle node) {
+        switch (function) {
+            case BOOLEAN:
+                return args[0].evaluateBoolean(ctx, node);
+            case CONTAINS:
+                return args[0].evaluateString(ctx, node).contains(args[1].evaluateString(ctx, node));
+            case FALSE:
+                return false;
+            case NOT:
+                return !args[0].evaluateBoolean(ctx, node);
+            case STARTS_WITH:
+                return args[0].evaluateString(ctx, node).startsWith(args[1].evaluateString(ctx, node));
+            case TRUE:
+                return true;
+            case BIT_IS_SET:
+                final List<NodeHandle> nodes = args[0].evaluateNodeSet(ctx, node);
+                if (nodes.isEmpty()) {
+                    return false;
+                }
+                final Object value = nodes.get(0).node().getValue();
+                return value instanceof Set && ((Set<?>) value).contains(args[1].evaluateString(ctx, node));
+            default:
+                return super.evaluateBoolean(ctx, node);
+        }
+    }
+
+    @Override
+    double evaluateNumber(final EvalContext ctx, final NodeHandle node) {
+        switch (function) {
+            case CEILING:
+                return Math.ceil(args[0].evaluateNumber(ctx, node));
+            case COUNT:
+                return args[0].evaluateNodeSet(ctx, node).size();
+            case FLOOR:
+                return Math.floor(args[0].evaluateNumber(ctx, node));
+            case LAST:
+                return ctx.size;
+            case NUMBER:
+                return args.length == 0 ? XPathValues.numberValue(node.node()) : args[0].evaluateNumber(ctx, node);
+            case POSITION:
+                return ctx.position;
+            case ROUND:
+                return round(args[0].evaluateNumber(ctx, node));
+            case STRING_LENGTH:
+                return stringArgument(ctx, node).length();
+            case SUM:
+                double sum = 0;
+                for (NodeHandle handle : args[0].evaluateNodeSet(ctx, node)) {
+                    sum += XPathValues.numberValue(handle.node());
+                }
+                return sum;
+            default:
+                return super.evaluateNumber(ctx, node);
+        }
+    }
+
+    @Override
+    String evaluateString(final EvalContext ctx, final NodeHandle node) {
+        switch (function) {
+            case CONCAT:
+                final StringBuilder sb = new StringBuilder();
+                for (Expr arg : args) {
+                    sb.append(arg.evaluateString(ctx, node));
+                }
+                return sb.toString();
+            case LOCAL_NAME:
+            case NAME:
+                final NormalizedNode<?, ?> named = nodeArgument(ctx, node);
+                return named == null ? "" : named.getNodeType().getLocalName();
+            case NAMESPACE_URI:
+                final NormalizedNode<?, ?> namespaced = nodeArgument(ctx, node);
+                return namespaced == null ? "" : namespaced.getNodeType().getNamespace().toString();
+            case NORMALIZE_SPACE:
+                return normalizeSpace(stringArgument(ctx, node));
+            case STRING:
+                return stringArgument(ctx, node);
+            case SUBSTRING:
+                return substring(ctx, node);
+            case SUBSTRING_AFTER:
+                final String after = args[0].evaluateString(ctx, node);
+                final String afterSep = args[1].evaluateString(ctx, node);
+                final int afterIdx = after.indexOf(afterSep);
+                return afterIdx == -1 ? "" : after.substring(afterIdx + afterSep.length());
+            case SUBSTRING_BEFORE:
+                final String before = args[0].evaluateString(ctx, node);
+                final int beforeIdx = before.indexOf(args[1].evaluateString(ctx, node));
+                return beforeIdx == -1 ? "" : before.substring(0, beforeIdx);
+            case TRANSLATE:
+                return translate(args[0].evaluateString(ctx, node), args[1].evaluateString(ctx, node),
+                    args[2].evaluateString(ctx, node));
+            default:
+                return super.evaluateString(ctx, node);
+        }
+    }
+
+    private String stringArgument(final EvalContext ctx, final NodeHandle node) {
+        return args.length == 0 ? XPathValues.stringValue(node.node()) : args[0].evaluateString(ctx, node);
+    }
+
+    private @Nullable NormalizedNode<?, ?> nodeArgument(final EvalContext ctx, final NodeHandle node) {
+        final NodeHandle target;
+        if (args.length == 0) {
+            target = node;
+        } else {
+            final List<NodeHandle> nodes = args[0].evaluateNodeSet(ctx, node);
+            if (nodes.isEmpty()) {
+                return null;
+            }
+            target = nodes.get(0);
+        }
+
+        // Document root does not have a name
+        return target.parent() == null ? null : target.node();
+    }
+
+    private String substring(final EvalContext ctx, final NodeHandle node) {
+        final String str = args[0].evaluateString(ctx, node);
+        final double start = round(args[1].evaluateNumber(ctx, node));
+        final double end = args.length == 3 ? start + round(args[2].evaluateNumber(ctx, node))
+                : Double.POSITIVE_INFINITY;
+
+        final StringBuilder sb = new StringBuilder();
+        final int length = str.length();
+        for (int i = 0; i < length; ++i) {
+            final int position = i + 1;
+            if (position >= start && position < end) {
+                sb.append(str.charAt(i));
+            }
+        }
+        return sb.toString();
+    }
+
+    private static double round(final double number) {
+        return Double.isNaN(number) || Double.isInfinite(number) ? number : Math.floor(number + 0.5);
+    }
+
+    private static String normalizeSpace(final String str) {
+        final StringBuilder sb = new StringBuilder(str.length());
+        boolean space = false;
+        for (int i = 0; i < str.length(); ++i) {
+            final char ch = str.charAt(i);
+            if (ch == ' ' || ch == '\t' || ch == '\n' || ch == '\r') {
+                space = sb.length() != 0;
+            } else {
+                if (space) {
+                    sb.append(' ');
+                    space = false;
+                }
+                sb.append(ch);
+            }
+        }
+        return sb.toString();
+    }
+
+    private static String translate(final String str, final String from, final String to) {
+        final StringBuilder sb = new StringBuilder(str.length());
+        for (int i = 0; i < str.length(); ++i) {
+            final char ch = str.charAt(i);
+            final int idx = from.indexOf(ch);
+            if (idx == -1) {
+                sb.append(ch);
+            } else if (idx < to.length()) {
+                sb.append(to.charAt(idx));
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,206 @@
+/*
+ * Copyright (c) 2018 Pantheon Technologies, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.xpath;
+
+import static java.util.Objects.requireNonNull;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import org.eclipse.jdt.annotation.Nullable;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.common.QNameModule;
+import org.opendaylight.yangtools.yang.xpath.api.YangXPathAxis;
+
+/**
+ * A generic location path, evaluated by walking the specified axes and filtering the result through node tests and
+ * predicates.
+ */
+final class LocationPathExpr extends Expr {
+    /**
+     * A node test. A {@code null} QName and namespace matches any node.
+     */
+    static final class NodeTest {
+        static final NodeTest ANY = new NodeTest(null, null);
+
+        private final @Nullable QName qname;
+        private final @Nullable QNameModule namespace;
+
+        private NodeTest(final @Nullable QName qname, final @Nullable QNameModule namespace) {
+            this.qname = qname;
+            this.namespace = namespace;
+        }
+
+        static NodeTest forQName(final QName qname) {
+            return new NodeTest(requireNonNull(qname), null);
+        }
+
+        static NodeTest forNamespace(final QNameModule namespace) {
+            return new NodeTest(null, requireNonNull(namespace));
+        }
+
+        boolean matches(final NodeHandle handle) {
+            if (qname != null) {
+                return qname.equals(handle.node().getNodeType());
+            }
+            if (namespace != null) {
+                return namespace.equals(handle.node().getNodeType().getModule());
+            }
+            return true;
+        }
+    }
+
+    static final class Step {
+        private final YangXPathAxis axis;
+        private final @Nullable NodeTest test;
+        private final Expr[] predicates;
+
+        /**
+         * Create a new step.
+         *
+         * @param axis Step axis
+         * @param test Node test, null if the step cannot match any node
+         * @param predicates Step predicates
+         */
+        Step(final YangXPathAxis axis, final @Nullable NodeTest test, final List<Expr> predicates) {
+            this.axis = requireNonNull(axis);
+            this.test = test;
+            this.predicates = predicates.toArray(new Expr[0]);
+        }
+
+        List<NodeHandle> select(final EvalContext ctx, final NodeHandle node) {
+            if (test == null) {
+                return ImmutableList.of();
+            }
+
+            final List<NodeHandle> candidates = axisNodes(node);
+            List<NodeHandle> ret = new ArrayList<>(candidates.size());
+            for (NodeHandle candidate : candidates) {
+                if (test.matches(candidate)) {
+                    ret.add(candidate);
+                }
+            }
+            for (Expr predicate : predicates) {
+                ret = filter(ctx, ret, predicate);
+            }
+            return isReverse() ? Lists.reverse(ret) : ret;
+        }
+
+        private boolean isReverse() {
+            switch (axis) {
+                case ANCESTOR:
+                case ANCESTOR_OR_SELF:
+                case PRECEDING_SIBLING:
+                    return true;
+                default:
+                    return false;
+            }
+        }
+
+        /**
+         * Return nodes along the axis, in proximity order.
+         */
+        private List<NodeHandle> axisNodes(final NodeHandle node) {
+            final List<NodeHandle> ret;
+            switch (axis) {
+                case CHILD:
+                    return node.children();
+                case DESCENDANT:
+                    ret = new ArrayList<>();
+                    node.addDescendants(ret);
+                    return ret;
+                case DESCENDANT_OR_SELF:
+                    ret = new ArrayList<>();
+                    ret.add(node);
+                    node.addDescendants(ret);
+                    return ret;
+                case SELF:
+                    return ImmutableList.of(node);
+                case PARENT:
+                    final NodeHandle parent = node.parent();
+                    return parent == null ? ImmutableList.of() : ImmutableList.of(parent);
+                case ANCESTOR:
+                    return ancestors(node.parent());
+                case ANCESTOR_OR_SELF:
+                    return ancestors(node);
+                case FOLLOWING_SIBLING:
+                    return siblings(node, true);
+                case PRECEDING_SIBLING:
+                    return siblings(node, false);
+                case ATTRIBUTE:
+                case NAMESPACE:
+                    // Attributes and namespaces are not part of the data model
+                    return ImmutableList.of();
+                default:
+                    throw new IllegalStateException("Unhandled axis " + axis);
+            }
+        }
+
+        private static List<NodeHandle> ancestors(final @Nullable NodeHandle start) {
+            final List<NodeHandle> ret = new ArrayList<>();
+            for (NodeHandle current = start; current != null; current = current.parent()) {
+                ret.add(current);
+            }
+            return ret;
+        }
+
+        private static List<NodeHandle> siblings(final NodeHandle node, final boolean following) {
+            final NodeHandle parent = node.parent();
+            if (parent == null) {
+                return ImmutableList.of();
+            }
+
+            final List<NodeHandle> children = parent.children();
+            final int index = children.indexOf(node);
+            return following ? children.subList(index + 1, children.size())
+                    : Lists.reverse(children.subList(0, index));
+        }
+    }
+
+    private final Step[] steps;
+    private final boolean absolute;
+
+    LocationPathExpr(final boolean absolute, final List<Step> steps) {
+        this.absolute = absolute;
+        this.steps = steps.toArray(new Step[0]);
+    }
+
+    @Override
+    Object evaluate(final EvalContext ctx, final NodeHandle node) {
+        return select(ctx, ImmutableList.of(absolute ? ctx.root : node));
+    }
+
+    /**
+     * Apply the steps of this path to a node-set.
+     *
+     * @param ctx Evaluation context
+     * @param input Input nodes
+     * @return Selected nodes
+     */
+    List<NodeHandle> select(final EvalContext ctx, final List<NodeHandle> input) {
+        List<NodeHandle> current = input;
+        for (Step step : steps) {
+            if (current.isEmpty()) {
+                break;
+            }
+            if (current.size() == 1) {
+                current = step.select(ctx, current.get(0));
+            } else {
+                final Set<NodeHandle> merged = new LinkedHashSet<>();
+                for (NodeHandle node : current) {
+                    merged.addAll(step.select(ctx, node));
+                }
+                current = new ArrayList<>(merged);
+            }
+        }
+        return current;
+    }
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright (c) 2018 Pantheon Technologies, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.xpath;
+
+/**
+ * An {@code and} or {@code or} expression. Operands are evaluated left-to-right until the result is known.
+ */
+final class LogicalExpr extends Expr {
+    private final Expr[] exprs;
+    private final boolean or;
+
+    LogicalExpr(final boolean or, final Expr[] exprs) {
+        this.or = or;
+        this.exprs = exprs.clone();
+    }
+
+    @Override
+    Object evaluate(final EvalContext ctx, final NodeHandle node) {
+        return evaluateBoolean(ctx, node);
+    }
+
+    @Override
+    boolean evaluateBoolean(final EvalContext ctx, final NodeHandle node) {
+        for (Expr expr : exprs) {
+            if (expr.evaluateBoolean(ctx, node) == or) {
+                return or;
+            }
+        }
+        return !or;
+    }
+}
@@ -0,0 +1,31 @@
+/*
+ * Copyright (c) 2018 Pantheon Technologies, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.xpath;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * An unary minus expression.
+ */
+final class NegateExpr extends Expr {
+    private final Expr expr;
+
+    NegateExpr(final Expr expr) {
+        this.expr = requireNonNull(expr);
+    }
+
+    @Override
+    Object evaluate(final EvalContext ctx, final NodeHandle node) {
+        return evaluateNumber(ctx, node);
+    }
+
+    @Override
+    double evaluateNumber(final EvalContext ctx, final NodeHandle node) {
+        return -expr.evaluateNumber(ctx, node);
+    }
+}
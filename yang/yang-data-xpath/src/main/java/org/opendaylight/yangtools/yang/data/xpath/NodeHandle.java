@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2018 Pantheon Technologies, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.xpath;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import org.eclipse.jdt.annotation.Nullable;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
+import org.opendaylight.yangtools.yang.data.api.schema.MixinNode;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNodeContainer;
+import org.opendaylight.yangtools.yang.data.api.schema.OrderedNodeContainer;
+
+/**
+ * A node in the XPath data model. It pairs a non-mixin {@link NormalizedNode} with its XPath parent, which is the
+ * closest non-mixin ancestor. Handles are compared by identity of the nodes along their parent chain, hence two handles
+ * are equal if they were reached via the same nodes, irrespective of the navigation steps used.
+ */
+final class NodeHandle {
+    private final @Nullable NodeHandle parent;
+    private final NormalizedNode<?, ?> node;
+    private final int hashCode;
+
+    NodeHandle(final @Nullable NodeHandle parent, final NormalizedNode<?, ?> node) {
+        this.parent = parent;
+        this.node = requireNonNull(node);
+        this.hashCode = System.identityHashCode(node) * 31 + (parent == null ? 0 : parent.hashCode);
+    }
+
+    @Nullable NodeHandle parent() {
+        return parent;
+    }
+
+    NormalizedNode<?, ?> node() {
+        return node;
+    }
+
+    /**
+     * Return the children of this node, with all intervening mixin nodes flattened.
+     *
+     * @return Children of this node
+     */
+    List<NodeHandle> children() {
+        final List<NodeHandle> ret = new ArrayList<>();
+        addChildren(node, ret);
+        return ret;
+    }
+
+    /**
+     * Add all descendants of this node to specified collection, in document order.
+     *
+     * @param out Output collection
+     */
+    void addDescendants(final Collection<NodeHandle> out) {
+        for (NodeHandle child : children()) {
+            out.add(child);
+            child.addDescendants(out);
+        }
+    }
+
+    YangInstanceIdentifier toPath() {
+        final List<PathArgument> args = new ArrayList<>();
+        appendPath(args);
+        return YangInstanceIdentifier.create(args);
+    }
+
+    private void appendPath(final List<PathArgument> args) {
+        if (parent != null) {
+            parent.appendPath(args);
+            final boolean found = findPath(parent.node, node, args);
+            if (!found) {
+                throw new IllegalStateException("Node " + node + " is not a child of " + parent.node);
+            }
+        }
+    }
+
+    private static boolean findPath(final NormalizedNode<?, ?> container, final NormalizedNode<?, ?> target,
+            final List<PathArgument> args) {
+        for (NormalizedNode<?, ?> child : childNodes(container)) {
+            if (child == target) {
+                args.add(child.getIdentifier());
+                return true;
+            }
+            if (child instanceof MixinNode) {
+                args.add(child.getIdentifier());
+                if (findPath(child, target, args)) {
+                    return true;
+                }
+                args.remove(args.size() - 1);
+            }
+        }
+        return false;
+    }
+
+    private void addChildren(final NormalizedNode<?, ?> container, final List<NodeHandle> out) {
+        for (NormalizedNode<?, ?> child : childNodes(container)) {
+            if (child instanceof MixinNode) {
+                addChildren(child, out);
+            } else {
+                out.add(new NodeHandle(this, child));
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    static Collection<? extends NormalizedNode<?, ?>> childNodes(final NormalizedNode<?, ?> node) {
+        if (node instanceof NormalizedNodeContainer) {
+            return ((NormalizedNodeContainer<?, ?, ? extends NormalizedNode<?, ?>>) node).getValue();
+        }
+        if (node instanceof OrderedNodeContainer) {
+            return ((OrderedNodeContainer<? extends NormalizedNode<?, ?>>) node).getValue();
+        }
+        return Collections.emptyList();
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+
+    @Override
+    public boolean equals(final @Nullable Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof NodeHandle)) {
+            return false;
+        }
+        final NodeHandle other = (NodeHandle) obj;
+        if (hashCode != other.hashCode || node != other.node) {
+            return false;
+        }
+        return parent == null ? other.parent == null : parent.equals(other.parent);
+    }
+
+    @Override
+    public String toString() {
+        return node.getIdentifier().toString();
+    }
+}
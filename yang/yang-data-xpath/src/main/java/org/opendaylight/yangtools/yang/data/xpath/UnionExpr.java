@@ -0,0 +1,32 @@
+/*
+ * Copyright (c) 2018 Pantheon Technologies, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.xpath;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * A union of node-sets.
+ */
+final class UnionExpr extends Expr {
+    private final Expr[] exprs;
+
+    UnionExpr(final Expr[] exprs) {
+        this.exprs = exprs.clone();
+    }
+
+    @Override
+    Object evaluate(final EvalContext ctx, final NodeHandle node) {
+        final Set<NodeHandle> ret = new LinkedHashSet<>();
+        for (Expr expr : exprs) {
+            ret.addAll(expr.evaluateNodeSet(ctx, node));
+        }
+        return new ArrayList<>(ret);
+    }
+}
@@ -0,0 +1,291 @@
+/*
+ * Copyright (c) 2018 Pantheon Technologies, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.xpath;
+
+import com.google.common.base.Joiner;
+import com.google.common.io.BaseEncoding;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+import org.opendaylight.yangtools.yang.data.api.schema.LeafNode;
+import org.opendaylight.yangtools.yang.data.api.schema.LeafSetEntryNode;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.xpath.api.YangBinaryOperator;
+
+/**
+ * Conversions between XPath 1.0 value types and comparison rules, as defined in
+ * <a href="https://www.w3.org/TR/1999/REC-xpath-19991116/#section-Basics">XPath 1.0</a>. Values are represented as
+ * {@link Boolean}, {@link Double}, {@link String} and {@link List} of {@link NodeHandle}s.
+ */
+final class XPathValues {
+    private static final Joiner JOINER = Joiner.on(' ');
+
+    private XPathValues() {
+        throw new UnsupportedOperationException();
+    }
+
+    static boolean isNodeSet(final Object value) {
+        return value instanceof List;
+    }
+
+    @SuppressWarnings("unchecked")
+    static List<NodeHandle> toNodeSet(final Object value) {
+        if (value instanceof List) {
+            return (List<NodeHandle>) value;
+        }
+        throw new IllegalArgumentException("Value " + value + " is not a node-set");
+    }
+
+    static boolean toBoolean(final Object value) {
+        if (value instanceof Boolean) {
+            return (Boolean) value;
+        }
+        if (value instanceof Double) {
+            final double dbl = (Double) value;
+            return dbl != 0 && !Double.isNaN(dbl);
+        }
+        if (value instanceof String) {
+            return !((String) value).isEmpty();
+        }
+        return !toNodeSet(value).isEmpty();
+    }
+
+    static double toNumber(final Object value) {
+        if (value instanceof Double) {
+            return (Double) value;
+        }
+        if (value instanceof Boolean) {
+            return (Boolean) value ? 1 : 0;
+        }
+        if (value instanceof String) {
+            return stringToNumber((String) value);
+        }
+        final List<NodeHandle> nodes = toNodeSet(value);
+        return nodes.isEmpty() ? Double.NaN : numberValue(nodes.get(0).node());
+    }
+
+    static String toString(final Object value) {
+        if (value instanceof String) {
+            return (String) value;
+        }
+        if (value instanceof Boolean) {
+            return value.toString();
+        }
+        if (value instanceof Double) {
+            return numberToString((Double) value);
+        }
+        final List<NodeHandle> nodes = toNodeSet(value);
+        return nodes.isEmpty() ? "" : stringValue(nodes.get(0).node());
+    }
+
+    /**
+     * Return the string-value of a node. Leaf values are converted without consulting their type, hence the result is
+     * an approximation of their canonical representation.
+     *
+     * @param node Node to convert
+     * @return String value
+     */
+    static String stringValue(final NormalizedNode<?, ?> node) {
+        if (node instanceof LeafNode || node instanceof LeafSetEntryNode) {
+            return valueToString(node.getValue());
+        }
+
+        final StringBuilder sb = new StringBuilder();
+        appendStringValue(sb, node);
+        return sb.toString();
+    }
+
+    private static void appendStringValue(final StringBuilder sb, final NormalizedNode<?, ?> node) {
+        if (node instanceof LeafNode || node instanceof LeafSetEntryNode) {
+            sb.append(valueToString(node.getValue()));
+        } else {
+            for (NormalizedNode<?, ?> child : NodeHandle.childNodes(node)) {
+                appendStringValue(sb, child);
+            }
+        }
+    }
+
+    static double numberValue(final NormalizedNode<?, ?> node) {
+        if (node instanceof LeafNode || node instanceof LeafSetEntryNode) {
+            final Object value = node.getValue();
+            if (value instanceof Number) {
+                return ((Number) value).doubleValue();
+            }
+        }
+        return stringToNumber(stringValue(node));
+    }
+
+    private static String valueToString(final Object value) {
+        if (value instanceof String) {
+            return (String) value;
+        }
+        if (value instanceof byte[]) {
+            // Binary
+            return BaseEncoding.base64().encode((byte[]) value);
+        }
+        if (value instanceof Set) {
+            // Bits
+            return JOINER.join((Set<?>) value);
+        }
+        return value == null ? "" : value.toString();
+    }
+
+    static double stringToNumber(final String str) {
+        final String trimmed = str.trim();
+        final int length = trimmed.length();
+        if (length == 0) {
+            return Double.NaN;
+        }
+
+        // XPath 1.0 Number production: '-'? (Digits ('.' Digits?)? | '.' Digits)
+        boolean digits = false;
+        boolean dot = false;
+        for (int i = trimmed.charAt(0) == '-' ? 1 : 0; i < length; ++i) {
+            final char ch = trimmed.charAt(i);
+            if (ch >= '0' && ch <= '9') {
+                digits = true;
+            } else if (ch == '.' && !dot) {
+                dot = true;
+            } else {
+                return Double.NaN;
+            }
+        }
+        return digits ? Double.parseDouble(trimmed) : Double.NaN;
+    }
+
+    static String numberToString(final double number) {
+        if (Double.isNaN(number)) {
+            return "NaN";
+        }
+        if (Double.isInfinite(number)) {
+            return number > 0 ? "Infinity" : "-Infinity";
+        }
+        if (number == Math.rint(number) && Math.abs(number) < 1E15) {
+            return Long.toString((long) number);
+        }
+        return BigDecimal.valueOf(number).stripTrailingZeros().toPlainString();
+    }
+
+    /**
+     * Compare two values according to XPath 1.0 rules.
+     *
+     * @param operator One of the comparison operators
+     * @param left Left-hand operand
+     * @param right Right-hand operand
+     * @return Result of comparison
+     */
+    static boolean compare(final YangBinaryOperator operator, final Object left, final Object right) {
+        if (isNodeSet(left)) {
+            final List<NodeHandle> leftNodes = toNodeSet(left);
+            if (isNodeSet(right)) {
+                final List<NodeHandle> rightNodes = toNodeSet(right);
+                for (NodeHandle leftNode : leftNodes) {
+                    for (NodeHandle rightNode : rightNodes) {
+                        if (compareNodes(operator, leftNode.node(), rightNode.node())) {
+                            return true;
+                        }
+                    }
+                }
+                return false;
+            }
+            if (right instanceof Boolean) {
+                return compareValues(operator, !leftNodes.isEmpty(), right);
+            }
+            for (NodeHandle leftNode : leftNodes) {
+                if (compareNode(operator, leftNode.node(), right)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        if (isNodeSet(right)) {
+            return compare(swap(operator), right, left);
+        }
+        return compareValues(operator, left, right);
+    }
+
+    /**
+     * Compare a single node with a value, which is not a node-set nor a boolean.
+     *
+     * @param operator One of the comparison operators
+     * @param node Left-hand node
+     * @param value Right-hand value
+     * @return Result of comparison
+     */
+    static boolean compareNode(final YangBinaryOperator operator, final NormalizedNode<?, ?> node,
+            final Object value) {
+        if (value instanceof Double) {
+            return compareNumbers(operator, numberValue(node), (Double) value);
+        }
+        if (isEquality(operator)) {
+            return stringValue(node).equals(value) == (operator == YangBinaryOperator.EQUALS);
+        }
+        return compareNumbers(operator, numberValue(node), toNumber(value));
+    }
+
+    private static boolean compareNodes(final YangBinaryOperator operator, final NormalizedNode<?, ?> left,
+            final NormalizedNode<?, ?> right) {
+        if (isEquality(operator)) {
+            return stringValue(left).equals(stringValue(right)) == (operator == YangBinaryOperator.EQUALS);
+        }
+        return compareNumbers(operator, numberValue(left), numberValue(right));
+    }
+
+    static boolean compareValues(final YangBinaryOperator operator, final Object left, final Object right) {
+        if (isEquality(operator)) {
+            final boolean equal;
+            if (left instanceof Boolean || right instanceof Boolean) {
+                equal = toBoolean(left) == toBoolean(right);
+            } else if (left instanceof Double || right instanceof Double) {
+                equal = toNumber(left) == toNumber(right);
+            } else {
+                equal = toString(left).equals(toString(right));
+            }
+            return equal == (operator == YangBinaryOperator.EQUALS);
+        }
+        return compareNumbers(operator, toNumber(left), toNumber(right));
+    }
+
+    private static boolean compareNumbers(final YangBinaryOperator operator, final double left, final double right) {
+        switch (operator) {
+            case EQUALS:
+                return left == right;
+            case NOT_EQUALS:
+                return left != right;
+            case GT:
+                return left > right;
+            case GTE:
+                return left >= right;
+            case LT:
+                return left < right;
+            case LTE:
+                return left <= right;
+            default:
+                throw new IllegalArgumentException("Unhandled operator " + operator);
+        }
+    }
+
+    private static boolean isEquality(final YangBinaryOperator operator) {
+        return operator == YangBinaryOperator.EQUALS || operator == YangBinaryOperator.NOT_EQUALS;
+    }
+
+    static YangBinaryOperator swap(final YangBinaryOperator operator) {
+        switch (operator) {
+            case GT:
+                return YangBinaryOperator.LT;
+            case GTE:
+                return YangBinaryOperator.LTE;
+            case LT:
+                return YangBinaryOperator.GT;
+            case LTE:
+                return YangBinaryOperator.GTE;
+            default:
+                return operator;
+        }
+    }
+}
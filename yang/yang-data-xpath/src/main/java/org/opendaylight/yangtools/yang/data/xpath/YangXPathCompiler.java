@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2018 Pantheon Technologies, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.xpath;
+
+import static java.util.Objects.requireNonNull;
+
+import com.google.common.annotations.Beta;
+import javax.xml.xpath.XPathExpressionException;
+import org.eclipse.jdt.annotation.NonNull;
+import org.opendaylight.yangtools.yang.data.util.DataSchemaContextTree;
+import org.opendaylight.yangtools.yang.model.api.SchemaContext;
+import org.opendaylight.yangtools.yang.model.api.SchemaPath;
+import org.opendaylight.yangtools.yang.xpath.api.YangXPathExpression;
+
+/**
+ * Compiler of {@link YangXPathExpression}s into {@link CompiledXPathExpression}s, which are evaluated directly over
+ * {@link org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode} trees. Instances are bound to a particular
+ * {@link SchemaContext} and are thread-safe.
+ *
+ * <p>
+ * Location paths are resolved against the schema at compile time. Paths which select at most a single node, such as
+ * {@code ../foo/bar} or {@code /foo/bar[name='baz']/value}, are evaluated as a sequence of direct child lookups,
+ * without materializing the intermediate node-sets.
+ */
+@Beta
+public final class YangXPathCompiler {
+    private final @NonNull SchemaContext schemaContext;
+    private final @NonNull DataSchemaContextTree tree;
+
+    private YangXPathCompiler(final SchemaContext schemaContext) {
+        this.schemaContext = requireNonNull(schemaContext);
+        this.tree = DataSchemaContextTree.from(schemaContext);
+    }
+
+    /**
+     * Create a new compiler for specified {@link SchemaContext}.
+     *
+     * @param schemaContext Schema context
+     * @return A new compiler
+     * @throws NullPointerException if {@code schemaContext} is null
+     */
+    public static @NonNull YangXPathCompiler create(final @NonNull SchemaContext schemaContext) {
+        return new YangXPathCompiler(schemaContext);
+    }
+
+    /**
+     * Compile an expression for evaluation at a particular schema node.
+     *
+     * @param evaluationPath Schema path of the context node
+     * @param expression Parsed expression
+     * @return A compiled expression
+     * @throws XPathExpressionException if the expression uses features which are not supported
+     * @throws NullPointerException if any argument is null
+     */
+    public @NonNull CompiledXPathExpression compile(final @NonNull SchemaPath evaluationPath,
+            final @NonNull YangXPathExpression expression) throws XPathExpressionException {
+        final ExprCompiler compiler = new ExprCompiler(schemaContext, tree.getRoot(), evaluationPath, expression);
+        final Expr expr = compiler.compile(expression.getRootExpr());
+        return new CompiledXPathExpression(evaluationPath, compiler.getApexPath(), expr);
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2018 Pantheon Technologies, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.xpath;
+
+import static java.util.Objects.requireNonNull;
+
+import com.google.common.base.Converter;
+import javax.xml.xpath.XPathExpressionException;
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.common.QNameModule;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.xpath.XPathDocument;
+import org.opendaylight.yangtools.yang.data.api.schema.xpath.XPathSchemaContext;
+import org.opendaylight.yangtools.yang.model.api.SchemaPath;
+import org.opendaylight.yangtools.yang.xpath.api.YangXPathParserFactory;
+
+/**
+ * {@link XPathSchemaContext} created by {@link YangXPathSchemaContextFactory}. Unprefixed names in expressions belong
+ * to the namespace of the node at which they are compiled, as specified by
+ * <a href="https://tools.ietf.org/html/rfc7950#section-6.4.1">RFC7950</a>.
+ */
+@NonNullByDefault
+final class YangXPathSchemaContext implements XPathSchemaContext {
+    private final YangXPathCompiler compiler;
+    private final YangXPathParserFactory parserFactory;
+
+    YangXPathSchemaContext(final YangXPathCompiler compiler, final YangXPathParserFactory parserFactory) {
+        this.compiler = requireNonNull(compiler);
+        this.parserFactory = requireNonNull(parserFactory);
+    }
+
+    @Override
+    public CompiledXPathExpression compileExpression(final SchemaPath schemaPath,
+            final Converter<String, QNameModule> prefixes, final String xpath) throws XPathExpressionException {
+        final QName current = schemaPath.getLastComponent();
+        if (current == null) {
+            throw new XPathExpressionException("Cannot compile " + xpath + " at schema root");
+        }
+
+        return compiler.compile(schemaPath, parserFactory.newParser(current.getModule(), prefix -> {
+            // Converters created by PrefixConverters reject unknown prefixes, parsers expect null
+            try {
+                return prefixes.convert(prefix);
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }).parseExpression(xpath));
+    }
+
+    @Override
+    public XPathDocument createDocument(final NormalizedNode<?, ?> documentRoot) {
+        requireNonNull(documentRoot);
+        return () -> documentRoot;
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) 2018 Pantheon Technologies, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.xpath;
+
+import static com.google.common.base.Preconditions.checkState;
+import static java.util.Objects.requireNonNull;
+
+import com.google.common.annotations.Beta;
+import java.util.Iterator;
+import java.util.ServiceLoader;
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.kohsuke.MetaInfServices;
+import org.opendaylight.yangtools.yang.data.api.schema.xpath.XPathSchemaContext;
+import org.opendaylight.yangtools.yang.data.api.schema.xpath.XPathSchemaContextFactory;
+import org.opendaylight.yangtools.yang.model.api.SchemaContext;
+import org.opendaylight.yangtools.yang.xpath.api.YangXPathParserFactory;
+
+/**
+ * {@link XPathSchemaContextFactory} backed by {@link YangXPathCompiler}. Expressions are parsed by a
+ * {@link YangXPathParserFactory} and compiled against the schema, so that users of the generic XPath API, such as
+ * must/when enforcement in {@code InMemoryDataTree}, evaluate them without going through a generic XPath engine.
+ */
+@Beta
+@MetaInfServices
+@NonNullByDefault
+public final class YangXPathSchemaContextFactory implements XPathSchemaContextFactory {
+    private final YangXPathParserFactory parserFactory;
+
+    /**
+     * Create a new factory using the first {@link YangXPathParserFactory} available via {@link ServiceLoader}.
+     *
+     * @throws IllegalStateException if no {@link YangXPathParserFactory} is available
+     */
+    public YangXPathSchemaContextFactory() {
+        final Iterator<YangXPathParserFactory> it = ServiceLoader.load(YangXPathParserFactory.class,
+            YangXPathSchemaContextFactory.class.getClassLoader()).iterator();
+        checkState(it.hasNext(), "No YangXPathParserFactory found");
+        this.parserFactory = it.next();
+    }
+
+    /**
+     * Create a new factory using specified {@link YangXPathParserFactory}.
+     *
+     * @param parserFactory Factory of parsers of expressions
+     * @throws NullPointerException if {@code parserFactory} is null
+     */
+    public YangXPathSchemaContextFactory(final YangXPathParserFactory parserFactory) {
+        this.parserFactory = requireNonNull(parserFactory);
+    }
+
+    @Override
+    public XPathSchemaContext createContext(final SchemaContext context) {
+        return new YangXPathSchemaContext(YangXPathCompiler.create(context), parserFactory);
+    }
+}
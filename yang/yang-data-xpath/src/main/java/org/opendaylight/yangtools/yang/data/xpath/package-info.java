@@ -0,0 +1,23 @@
+/*
+ * Copyright (c) 2018 Pantheon Technologies, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+/**
+ * Native evaluation of {@link org.opendaylight.yangtools.yang.xpath.api.YangXPathExpression}s over
+ * {@link org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode} trees. Expressions are compiled against
+ * a {@link org.opendaylight.yangtools.yang.model.api.SchemaContext} by
+ * {@link org.opendaylight.yangtools.yang.data.xpath.YangXPathCompiler} into reusable
+ * {@link org.opendaylight.yangtools.yang.data.xpath.CompiledXPathExpression}s, which implement the
+ * {@link org.opendaylight.yangtools.yang.data.api.schema.xpath.XPathExpression} contract.
+ * {@link org.opendaylight.yangtools.yang.data.xpath.YangXPathSchemaContextFactory} exposes the compiler as
+ * an {@link org.opendaylight.yangtools.yang.data.api.schema.xpath.XPathSchemaContextFactory}, which is available via
+ * {@link java.util.ServiceLoader}.
+ *
+ * <p>
+ * The data model exposed to XPath follows <a href="https://tools.ietf.org/html/rfc7950#section-6.4.1">RFC7950</a>:
+ * choices, cases and augmentations are transparent, and each list or leaf-list entry is a node named after its list.
+ */
+package org.opendaylight.yangtools.yang.data.xpath;
@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) 2018 Pantheon Technologies, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.xpath;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes.leafNode;
+
+import java.net.URI;
+import java.util.Iterator;
+import java.util.ServiceLoader;
+import org.hamcrest.CoreMatchers;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.common.QNameModule;
+import org.opendaylight.yangtools.yang.common.Revision;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.schema.MapEntryNode;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTree;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeConfiguration;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeModification;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataValidationFailedException;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.TreeType;
+import org.opendaylight.yangtools.yang.data.api.schema.xpath.XPathSchemaContextFactory;
+import org.opendaylight.yangtools.yang.data.impl.schema.Builders;
+import org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes;
+import org.opendaylight.yangtools.yang.data.impl.schema.tree.InMemoryDataTreeFactory;
+import org.opendaylight.yangtools.yang.model.api.SchemaContext;
+import org.opendaylight.yangtools.yang.test.util.YangParserTestUtils;
+
+/**
+ * Must/when enforcement in InMemoryDataTree with expressions compiled by {@link YangXPathSchemaContextFactory}, which
+ * is discovered via {@link ServiceLoader}.
+ */
+public class MustWhenEnforcementTest {
+    private static final QNameModule MODULE = QNameModule.create(URI.create("urn:opendaylight:must-when"),
+        Revision.of("2018-10-01"));
+    private static final QName ROOT = QName.create(MODULE, "root");
+    private static final QName ENABLED = QName.create(MODULE, "enabled");
+    private static final QName MAX = QName.create(MODULE, "max");
+    private static final QName LIMIT = QName.create(MODULE, "limit");
+    private static final QName ITEM = QName.create(MODULE, "item");
+    private static final QName NAME = QName.create(MODULE, "name");
+    private static final QName VALUE = QName.create(MODULE, "value");
+    private static final QName FEATURE = QName.create(MODULE, "feature");
+    private static final QName MODE = QName.create(MODULE, "mode");
+    private static final QName TURBO = QName.create(MODULE, "turbo");
+
+    private static final YangInstanceIdentifier ROOT_PATH = YangInstanceIdentifier.of(ROOT);
+    private static final YangInstanceIdentifier LIMIT_PATH = ROOT_PATH.node(LIMIT);
+    private static final YangInstanceIdentifier ITEM_PATH = ROOT_PATH.node(ITEM);
+
+    private static SchemaContext schemaContext;
+
+    private DataTree dataTree;
+
+    @BeforeClass
+    public static void beforeClass() {
+        schemaContext = YangParserTestUtils.parseYangResourceDirectory("/must-when");
+    }
+
+    @Before
+    public void before() throws DataValidationFailedException {
+        dataTree = new InMemoryDataTreeFactory().create(new DataTreeConfiguration.Builder(TreeType.CONFIGURATION)
+            .setMustWhenValidation(true).build(), schemaContext);
+        commit(ROOT_PATH, Builders.containerBuilder()
+            .withNodeIdentifier(new NodeIdentifier(ROOT))
+            .withChild(leafNode(ENABLED, Boolean.TRUE))
+            .withChild(leafNode(MAX, 10L))
+            .withChild(ImmutableNodes.mapNodeBuilder(LIMIT)
+                .withChild(limit("small", 5L))
+                .withChild(limit("big", 20L))
+                .build())
+            .withChild(ImmutableNodes.mapNodeBuilder(ITEM)
+                .withChild(item("a", 3L, "small"))
+                .withChild(item("b", 10L, "big"))
+                .build())
+            .withChild(Builders.containerBuilder().withNodeIdentifier(new NodeIdentifier(FEATURE))
+                .withChild(leafNode(NAME, "feature"))
+                .build())
+            .withChild(Builders.choiceBuilder().withNodeIdentifier(new NodeIdentifier(MODE))
+                .withChild(leafNode(TURBO, "on"))
+                .build())
+            .build());
+    }
+
+    @Test
+    public void testServiceLoader() {
+        final Iterator<XPathSchemaContextFactory> it = ServiceLoader.load(XPathSchemaContextFactory.class).iterator();
+        assertTrue(it.hasNext());
+        assertThat(it.next(), CoreMatchers.instanceOf(YangXPathSchemaContextFactory.class));
+    }
+
+    @Test
+    public void testParentPath() throws DataValidationFailedException {
+        commit(ITEM_PATH.node(item("c", 7L, "big").getIdentifier()), item("c", 7L, "big"));
+        assertFailure(ITEM_PATH.node(item("d", 11L, "big").getIdentifier()), item("d", 11L, "big"),
+            "Item value exceeds maximum");
+        assertFailure(ROOT_PATH.node(MAX), leafNode(MAX, 9L), "Item value exceeds maximum");
+    }
+
+    @Test
+    public void testCurrent() throws DataValidationFailedException {
+        commit(LIMIT_PATH.node(limit("small", 3L).getIdentifier()), limit("small", 3L));
+        assertFailure(LIMIT_PATH.node(limit("small", 2L).getIdentifier()), limit("small", 2L),
+            "Item value exceeds its limit");
+        assertFailure(ITEM_PATH.node(item("b", 10L, "small").getIdentifier()).node(LIMIT), leafNode(LIMIT, "small"),
+            "Item value exceeds its limit");
+    }
+
+    @Test
+    public void testAbsolutePath() throws DataValidationFailedException {
+        final DataTreeModification modification = dataTree.takeSnapshot().newModification();
+        modification.delete(ROOT_PATH.node(MODE));
+        modification.ready();
+        dataTree.validate(modification);
+        dataTree.commit(dataTree.prepare(modification));
+
+        assertFailure(ROOT_PATH.node(ENABLED), leafNode(ENABLED, Boolean.FALSE),
+            "When condition \"/root/enabled = 'true'\" is not satisfied by " + ROOT_PATH.node(FEATURE));
+    }
+
+    @Test
+    public void testInheritedWhen() throws DataValidationFailedException {
+        commit(ROOT_PATH.node(FEATURE), Builders.containerBuilder().withNodeIdentifier(new NodeIdentifier(FEATURE))
+            .build());
+        final DataTreeModification modification = dataTree.takeSnapshot().newModification();
+        modification.delete(ROOT_PATH.node(FEATURE));
+        modification.write(ROOT_PATH.node(ENABLED), leafNode(ENABLED, Boolean.FALSE));
+        modification.ready();
+        try {
+            dataTree.validate(modification);
+            dataTree.prepare(modification);
+            fail("Constraint violation should have been detected");
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), CoreMatchers.startsWith("When condition \"enabled = 'true'\""));
+        }
+    }
+
+    private void assertFailure(final YangInstanceIdentifier path, final NormalizedNode<?, ?> data,
+            final String message) throws DataValidationFailedException {
+        try {
+            commit(path, data);
+            fail("Constraint violation should have been detected");
+        } catch (IllegalArgumentException e) {
+            assertEquals(message, e.getMessage());
+        }
+    }
+
+    private void commit(final YangInstanceIdentifier path, final NormalizedNode<?, ?> data)
+            throws DataValidationFailedException {
+        final DataTreeModification modification = dataTree.takeSnapshot().newModification();
+        modification.write(path, data);
+        modification.ready();
+        dataTree.validate(modification);
+        dataTree.commit(dataTree.prepare(modification));
+    }
+
+    private static MapEntryNode limit(final String name, final long value) {
+        return ImmutableNodes.mapEntryBuilder(LIMIT, NAME, name).withChild(leafNode(VALUE, value)).build();
+    }
+
+    private static MapEntryNode item(final String name, final long value, final String limit) {
+        return ImmutableNodes.mapEntryBuilder(ITEM, NAME, name).withChild(leafNode(VALUE, value))
+                .withChild(leafNode(LIMIT, limit)).build();
+    }
+}
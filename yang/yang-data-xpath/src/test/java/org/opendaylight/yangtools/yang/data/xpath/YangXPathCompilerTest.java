@@ -0,0 +1,357 @@
+/*
+ * Copyright (c) 2018 Pantheon Technologies, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.xpath;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import java.net.URI;
+import java.util.Collection;
+import java.util.Map.Entry;
+import java.util.Optional;
+import javax.xml.xpath.XPathExpressionException;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.common.QNameModule;
+import org.opendaylight.yangtools.yang.common.Revision;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifierWithPredicates;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.xpath.XPathBooleanResult;
+import org.opendaylight.yangtools.yang.data.api.schema.xpath.XPathDocument;
+import org.opendaylight.yangtools.yang.data.api.schema.xpath.XPathNodesetResult;
+import org.opendaylight.yangtools.yang.data.api.schema.xpath.XPathNumberResult;
+import org.opendaylight.yangtools.yang.data.api.schema.xpath.XPathResult;
+import org.opendaylight.yangtools.yang.data.api.schema.xpath.XPathStringResult;
+import org.opendaylight.yangtools.yang.data.impl.schema.Builders;
+import org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes;
+import org.opendaylight.yangtools.yang.model.api.SchemaContext;
+import org.opendaylight.yangtools.yang.model.api.SchemaPath;
+import org.opendaylight.yangtools.yang.test.util.YangParserTestUtils;
+import org.opendaylight.yangtools.yang.xpath.api.YangBinaryOperator;
+import org.opendaylight.yangtools.yang.xpath.api.YangExpr;
+import org.opendaylight.yangtools.yang.xpath.api.YangFunction;
+import org.opendaylight.yangtools.yang.xpath.api.YangFunctionCallExpr;
+import org.opendaylight.yangtools.yang.xpath.api.YangLiteralExpr;
+import org.opendaylight.yangtools.yang.xpath.api.YangLocationPath;
+import org.opendaylight.yangtools.yang.xpath.api.YangLocationPath.Step;
+import org.opendaylight.yangtools.yang.xpath.api.YangNaryOperator;
+import org.opendaylight.yangtools.yang.xpath.api.YangNumberExpr;
+import org.opendaylight.yangtools.yang.xpath.api.YangPathExpr;
+import org.opendaylight.yangtools.yang.xpath.api.YangXPathAxis;
+import org.opendaylight.yangtools.yang.xpath.api.YangXPathExpression;
+
+public class YangXPathCompilerTest {
+    private static final QNameModule MODULE = QNameModule.create(URI.create("urn:opendaylight:xpath-test"),
+        Revision.of("2018-10-01"));
+    private static final QName ROOT = QName.create(MODULE, "root");
+    private static final QName LEAF_C = QName.create(MODULE, "leaf-c");
+    private static final QName LIST_A = QName.create(MODULE, "list-a");
+    private static final QName LEAF_A = QName.create(MODULE, "leaf-a");
+    private static final QName COUNT = QName.create(MODULE, "count");
+    private static final QName CHOICE_A = QName.create(MODULE, "choice-a");
+    private static final QName ONE = QName.create(MODULE, "one");
+    private static final QName TWO = QName.create(MODULE, "two");
+    private static final QName IDENT = QName.create(MODULE, "ident");
+    private static final QName CONTAINER_A = QName.create(MODULE, "container-a");
+    private static final QName CONTAINER_B = QName.create(MODULE, "container-b");
+    private static final QName LEAF_D = QName.create(MODULE, "leaf-d");
+
+    private static final SchemaPath ROOT_PATH = SchemaPath.create(true, ROOT);
+    private static final SchemaPath LIST_A_PATH = SchemaPath.create(true, ROOT, LIST_A);
+    private static final YangInstanceIdentifier FOO_PATH = YangInstanceIdentifier.builder().node(ROOT).node(LIST_A)
+            .nodeWithKey(LIST_A, LEAF_A, "foo").build();
+
+    private static YangXPathCompiler compiler;
+    private static XPathDocument document;
+
+    @BeforeClass
+    public static void beforeClass() {
+        final SchemaContext schemaContext = YangParserTestUtils.parseYangResourceDirectory("/xpath-test");
+        compiler = YangXPathCompiler.create(schemaContext);
+
+        final NormalizedNode<?, ?> data = Builders.containerBuilder()
+                .withNodeIdentifier(new NodeIdentifier(SchemaContext.NAME))
+                .withChild(Builders.containerBuilder()
+                    .withNodeIdentifier(new NodeIdentifier(ROOT))
+                    .withChild(ImmutableNodes.leafNode(LEAF_C, "foo"))
+                    .withChild(ImmutableNodes.mapNodeBuilder(LIST_A)
+                        .withChild(ImmutableNodes.mapEntryBuilder(LIST_A, LEAF_A, "foo")
+                            .withChild(ImmutableNodes.leafNode(COUNT, 3L))
+                            .withChild(Builders.choiceBuilder().withNodeIdentifier(new NodeIdentifier(CHOICE_A))
+                                .withChild(ImmutableNodes.leafNode(ONE, "one-foo")).build())
+                            .withChild(ImmutableNodes.leafNode(IDENT, QName.create(MODULE, "derived")))
+                            .build())
+                        .withChild(ImmutableNodes.mapEntryBuilder(LIST_A, LEAF_A, "bar")
+                            .withChild(ImmutableNodes.leafNode(COUNT, 7L))
+                            .withChild(Builders.choiceBuilder().withNodeIdentifier(new NodeIdentifier(CHOICE_A))
+                                .withChild(ImmutableNodes.leafNode(TWO, "two-bar")).build())
+                            .withChild(ImmutableNodes.leafNode(IDENT, QName.create(MODULE, "base")))
+                            .build())
+                        .build())
+                    .withChild(Builders.containerBuilder()
+                        .withNodeIdentifier(new NodeIdentifier(CONTAINER_A))
+                        .withChild(Builders.containerBuilder()
+                            .withNodeIdentifier(new NodeIdentifier(CONTAINER_B))
+                            .withChild(ImmutableNodes.leafNode(LEAF_D, "12.5"))
+                            .build())
+                        .build())
+                    .build())
+                .build();
+        document = () -> data;
+    }
+
+    @Test
+    public void testFastPathComparison() throws XPathExpressionException {
+        final YangExpr path = absolute(child(ROOT), child(CONTAINER_A), child(CONTAINER_B), child(LEAF_D));
+        assertTrue(evaluateBoolean(YangBinaryOperator.EQUALS.exprWith(path, YangLiteralExpr.of("12.5"))));
+        assertTrue(evaluateBoolean(YangBinaryOperator.GT.exprWith(path, YangNumberExpr.of(12))));
+        assertFalse(evaluateBoolean(YangBinaryOperator.LT.exprWith(YangNumberExpr.of(13), path)));
+        assertFalse(evaluateBoolean(YangBinaryOperator.EQUALS.exprWith(
+            absolute(child(ROOT), child(CONTAINER_A), child(LEAF_D)), YangLiteralExpr.of("12.5"))));
+    }
+
+    @Test
+    public void testKeyedListLookup() throws XPathExpressionException {
+        final XPathResult<?> result = evaluate(ROOT_PATH, YangInstanceIdentifier.of(ROOT), relative(
+            child(LIST_A, YangBinaryOperator.EQUALS.exprWith(relative(child(LEAF_A)), YangLiteralExpr.of("foo"))),
+            child(ONE)));
+        final Collection<Entry<YangInstanceIdentifier, NormalizedNode<?, ?>>> nodes =
+                ((XPathNodesetResult) result).getValue();
+        assertEquals(1, nodes.size());
+
+        final Entry<YangInstanceIdentifier, NormalizedNode<?, ?>> entry = nodes.iterator().next();
+        assertEquals("one-foo", entry.getValue().getValue());
+        assertEquals(FOO_PATH.node(CHOICE_A).node(ONE), entry.getKey());
+    }
+
+    @Test
+    public void testRelativePaths() throws XPathExpressionException {
+        final YangInstanceIdentifier barPath = YangInstanceIdentifier.builder().node(ROOT).node(LIST_A)
+                .node(new NodeIdentifierWithPredicates(LIST_A, ImmutableMap.of(LEAF_A, "bar"))).build();
+
+        assertEquals("foo", stringValue(evaluate(LIST_A_PATH, barPath, relative(parent(), child(LEAF_C)))));
+        assertEquals("two-bar", stringValue(evaluate(LIST_A_PATH, barPath, relative(child(TWO)))));
+        assertEquals("", stringValue(evaluate(LIST_A_PATH, barPath, relative(child(ONE)))));
+        assertEquals("bar", stringValue(evaluate(LIST_A_PATH, barPath,
+            function(YangFunction.STRING, relative(YangXPathAxis.SELF.asStep(), child(LEAF_A))))));
+    }
+
+    @Test
+    public void testGenericPaths() throws XPathExpressionException {
+        assertEquals(2.0, numberValue(evaluate(ROOT_PATH, YangInstanceIdentifier.of(ROOT),
+            function(YangFunction.COUNT, relative(child(LIST_A))))), 0);
+        assertEquals(10.0, numberValue(evaluate(ROOT_PATH, YangInstanceIdentifier.of(ROOT),
+            function(YangFunction.SUM, relative(child(LIST_A), child(COUNT))))), 0);
+
+        final XPathResult<?> result = evaluate(ROOT_PATH, YangInstanceIdentifier.of(ROOT), relative(
+            child(LIST_A, YangBinaryOperator.GT.exprWith(relative(child(COUNT)), YangNumberExpr.of(5))),
+            child(LEAF_A)));
+        assertEquals("bar", stringValue(result));
+
+        assertEquals("bar", stringValue(evaluate(ROOT_PATH, YangInstanceIdentifier.of(ROOT), relative(
+            child(LIST_A, function(YangFunction.LAST)), child(LEAF_A)))));
+        assertEquals(4.0, numberValue(evaluate(ROOT_PATH, YangInstanceIdentifier.of(ROOT),
+            function(YangFunction.COUNT, YangNaryOperator.UNION.exprWith(ImmutableList.of(
+                absolute(child(ROOT), child(LIST_A)), absolute(child(ROOT), child(LIST_A), child(COUNT)),
+                absolute(YangXPathAxis.DESCENDANT.asStep(COUNT, ImmutableList.of()))))))), 0);
+    }
+
+    @Test
+    public void testFunctions() throws XPathExpressionException {
+        assertEquals("foo-bar", stringValue(evaluate(ROOT_PATH, YangInstanceIdentifier.of(ROOT),
+            function(YangFunction.CONCAT, relative(child(LEAF_C)), YangLiteralExpr.of("-"),
+                YangLiteralExpr.of("bar")))));
+        assertEquals("234", stringValue(evaluate(ROOT_PATH, YangInstanceIdentifier.of(ROOT),
+            function(YangFunction.SUBSTRING, YangLiteralExpr.of("12345"), YangNumberExpr.of(1.5),
+                YangNumberExpr.of(2.6)))));
+        assertEquals("a b", stringValue(evaluate(ROOT_PATH, YangInstanceIdentifier.of(ROOT),
+            function(YangFunction.NORMALIZE_SPACE, YangLiteralExpr.of("  a \n b ")))));
+        assertEquals(Boolean.TRUE, evaluate(ROOT_PATH, YangInstanceIdentifier.of(ROOT),
+            function(YangFunction.RE_MATCH, relative(child(LEAF_C)), YangLiteralExpr.of("f.*"))).getValue());
+        assertEquals("list-a", stringValue(evaluate(LIST_A_PATH, FOO_PATH, function(YangFunction.LOCAL_NAME))));
+        assertEquals("foo", stringValue(evaluate(LIST_A_PATH, FOO_PATH, relative(
+            YangXPathAxis.ANCESTOR.asStep(ROOT, ImmutableList.of()), child(LEAF_C)))));
+    }
+
+    @Test
+    public void testDerivedFrom() throws XPathExpressionException {
+        final YangExpr derivedFrom = function(YangFunction.DERIVED_FROM, relative(child(IDENT)),
+            YangLiteralExpr.of("base"));
+        assertTrue(evaluateBoolean(LIST_A_PATH, FOO_PATH, derivedFrom));
+        assertFalse(evaluateBoolean(LIST_A_PATH, barPath(), derivedFrom));
+        assertTrue(evaluateBoolean(LIST_A_PATH, barPath(), function(YangFunction.DERIVED_FROM_OR_SELF,
+            relative(child(IDENT)), YangLiteralExpr.of("base"))));
+    }
+
+    @Test
+    public void testCurrent() throws XPathExpressionException {
+        // /root/list-a[leaf-a = current()/leaf-a]/count
+        final YangExpr expr = absolute(child(ROOT), child(LIST_A, YangBinaryOperator.EQUALS.exprWith(
+            relative(child(LEAF_A)), YangPathExpr.of(function(YangFunction.CURRENT), relative(child(LEAF_A))))),
+            child(COUNT));
+        assertEquals("7", stringValue(evaluate(LIST_A_PATH, barPath(), expr)));
+    }
+
+    @Test
+    public void testApexPath() throws XPathExpressionException {
+        assertEquals(LIST_A_PATH, apexPath(LIST_A_PATH, function(YangFunction.TRUE)));
+        assertEquals(SchemaPath.create(true, ROOT, LEAF_C), apexPath(LIST_A_PATH, relative(parent(), child(LEAF_C))));
+        assertEquals(SchemaPath.create(true, ROOT, LIST_A, CHOICE_A, TWO, TWO),
+            apexPath(LIST_A_PATH, relative(child(TWO))));
+        assertEquals(SchemaPath.create(true, ROOT, LIST_A, COUNT), apexPath(ROOT_PATH, function(YangFunction.SUM,
+            relative(child(LIST_A), child(COUNT)))));
+        assertEquals(ROOT_PATH, apexPath(LIST_A_PATH, YangNaryOperator.UNION.exprWith(ImmutableList.of(
+            absolute(child(ROOT), child(CONTAINER_A), child(CONTAINER_B), child(LEAF_D)),
+            absolute(child(ROOT), child(LEAF_C))))));
+        assertEquals(LIST_A_PATH, apexPath(LIST_A_PATH, absolute(child(ROOT), child(LIST_A,
+            YangBinaryOperator.EQUALS.exprWith(relative(child(LEAF_A)),
+                YangPathExpr.of(function(YangFunction.CURRENT), relative(child(LEAF_A))))), child(COUNT))));
+
+        // Predicates referring to the parent
+        assertEquals(ROOT_PATH, apexPath(ROOT_PATH, relative(child(LIST_A,
+            YangBinaryOperator.EQUALS.exprWith(relative(child(LEAF_A)), relative(parent(), child(LEAF_C)))))));
+        assertEquals(LIST_A_PATH, apexPath(LIST_A_PATH, relative(child(COUNT, function(YangFunction.POSITION)))));
+
+        // Axes which reach beyond the schema tree
+        assertEquals(SchemaPath.ROOT, apexPath(LIST_A_PATH,
+            absolute(YangXPathAxis.DESCENDANT.asStep(COUNT, ImmutableList.of()))));
+        assertEquals(SchemaPath.ROOT, apexPath(LIST_A_PATH,
+            relative(YangXPathAxis.ANCESTOR.asStep(ROOT, ImmutableList.of()), child(LEAF_C))));
+    }
+
+    @Test
+    public void testMissingContext() throws XPathExpressionException {
+        final CompiledXPathExpression expr = compiler.compile(LIST_A_PATH, new TestExpression(relative(child(ONE))));
+        assertFalse(expr.evaluate(document, YangInstanceIdentifier.builder().node(ROOT).node(LIST_A)
+            .nodeWithKey(LIST_A, LEAF_A, "baz").build()).isPresent());
+    }
+
+    @Test(expected = XPathExpressionException.class)
+    public void testMissingContextBoolean() throws XPathExpressionException {
+        evaluateBoolean(LIST_A_PATH, YangInstanceIdentifier.builder().node(ROOT).node(LIST_A)
+            .nodeWithKey(LIST_A, LEAF_A, "baz").build(), relative(child(ONE)));
+    }
+
+    @Test(expected = XPathExpressionException.class)
+    public void testUnsupportedFunction() throws XPathExpressionException {
+        compiler.compile(LIST_A_PATH, new TestExpression(function(YangFunction.DEREF, relative(child(LEAF_A)))));
+    }
+
+    @Test(expected = XPathExpressionException.class)
+    public void testInvalidArgumentCount() throws XPathExpressionException {
+        compiler.compile(LIST_A_PATH, new TestExpression(function(YangFunction.CONTAINS, relative(child(LEAF_A)))));
+    }
+
+    private static YangInstanceIdentifier barPath() {
+        return YangInstanceIdentifier.builder().node(ROOT).node(LIST_A).nodeWithKey(LIST_A, LEAF_A, "bar").build();
+    }
+
+    private static boolean evaluateBoolean(final YangExpr expr) throws XPathExpressionException {
+        return evaluateBoolean(ROOT_PATH, YangInstanceIdentifier.of(ROOT), expr);
+    }
+
+    private static boolean evaluateBoolean(final SchemaPath schemaPath, final YangInstanceIdentifier path,
+            final YangExpr expr) throws XPathExpressionException {
+        final CompiledXPathExpression compiled = compiler.compile(schemaPath, new TestExpression(expr));
+        final boolean ret = compiled.evaluateBoolean(document, path);
+        final Optional<? extends XPathResult<?>> result = compiled.evaluate(document, path);
+        assertTrue(result.isPresent());
+        assertEquals(ret, XPathValues.toBoolean(unwrap(result.get())));
+        return ret;
+    }
+
+    private static XPathResult<?> evaluate(final SchemaPath schemaPath, final YangInstanceIdentifier path,
+            final YangExpr expr) throws XPathExpressionException {
+        final Optional<? extends XPathResult<?>> result = compiler.compile(schemaPath, new TestExpression(expr))
+                .evaluate(document, path);
+        assertTrue(result.isPresent());
+        return result.get();
+    }
+
+    private static SchemaPath apexPath(final SchemaPath schemaPath, final YangExpr expr)
+            throws XPathExpressionException {
+        return compiler.compile(schemaPath, new TestExpression(expr)).getApexPath();
+    }
+
+    private static Object unwrap(final XPathResult<?> result) {
+        if (result instanceof XPathNumberResult) {
+            return ((XPathNumberResult) result).getValue().doubleValue();
+        }
+        if (result instanceof XPathNodesetResult) {
+            return ((XPathNodesetResult) result).getValue().isEmpty() ? ImmutableList.of() : ImmutableList.of(1);
+        }
+        return result.getValue();
+    }
+
+    private static String stringValue(final XPathResult<?> result) {
+        if (result instanceof XPathStringResult) {
+            return ((XPathStringResult) result).getValue();
+        }
+        final Collection<Entry<YangInstanceIdentifier, NormalizedNode<?, ?>>> nodes =
+                ((XPathNodesetResult) result).getValue();
+        return nodes.isEmpty() ? "" : XPathValues.stringValue(nodes.iterator().next().getValue());
+    }
+
+    private static double numberValue(final XPathResult<?> result) {
+        if (result instanceof XPathNumberResult) {
+            return ((XPathNumberResult) result).getValue().doubleValue();
+        }
+        assertTrue(result instanceof XPathBooleanResult);
+        return ((XPathBooleanResult) result).getValue() ? 1 : 0;
+    }
+
+    private static Step child(final QName qname, final YangExpr... predicates) {
+        return YangXPathAxis.CHILD.asStep(qname, ImmutableList.copyOf(predicates));
+    }
+
+    private static Step parent() {
+        return YangXPathAxis.PARENT.asStep();
+    }
+
+    private static YangLocationPath absolute(final Step... steps) {
+        return YangLocationPath.of(true, steps);
+    }
+
+    private static YangLocationPath relative(final Step... steps) {
+        return YangLocationPath.of(false, steps);
+    }
+
+    private static YangFunctionCallExpr function(final YangFunction function, final YangExpr... args) {
+        return YangFunctionCallExpr.of(function.getIdentifier(), ImmutableList.copyOf(args));
+    }
+
+    private static final class TestExpression implements YangXPathExpression {
+        private final YangExpr rootExpr;
+
+        TestExpression(final YangExpr rootExpr) {
+            this.rootExpr = rootExpr;
+        }
+
+        @Override
+        public YangExpr getRootExpr() {
+            return rootExpr;
+        }
+
+        @Override
+        public QName interpretAsQName(final YangLiteralExpr expr) {
+            return QName.create(MODULE, expr.getLiteral());
+        }
+
+        @Override
+        public YangLocationPath interpretAsInstanceIdentifier(final YangLiteralExpr expr)
+                throws XPathExpressionException {
+            throw new XPathExpressionException("Not implemented");
+        }
+    }
+}
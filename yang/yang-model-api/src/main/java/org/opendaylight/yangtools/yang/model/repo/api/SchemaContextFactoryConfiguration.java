@@ -14,9 +14,11 @@ import com.google.common.base.MoreObjects;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSetMultimap;
 import com.google.common.collect.SetMultimap;
+import java.nio.file.Path;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.Executor;
 import org.eclipse.jdt.annotation.NonNull;
 import org.eclipse.jdt.annotation.Nullable;
 import org.opendaylight.yangtools.concepts.Immutable;
@@ -33,6 +35,8 @@ import org.opendaylight.yangtools.yang.common.QNameModule;
  * <li>statement parser mode</li>
  * <li>supported features</li>
  * <li>supported deviations</li>
+ * <li>source parsing executor</li>
+ * <li>persistent source cache directory</li>
  * </ul>
  */
 @Beta
@@ -43,14 +47,19 @@ public final class SchemaContextFactoryConfiguration implements Immutable {
     private final @NonNull StatementParserMode statementParserMode;
     private final @Nullable Set<QName> supportedFeatures;
     private final @Nullable SetMultimap<QNameModule, QNameModule> modulesDeviatedByModules;
+    private final @Nullable Executor parsingExecutor;
+    private final @Nullable Path persistentCacheDirectory;
 
     private SchemaContextFactoryConfiguration(final @NonNull SchemaSourceFilter filter,
             final @NonNull StatementParserMode statementParserMode, final @Nullable Set<QName> supportedFeatures,
-            final @Nullable SetMultimap<QNameModule, QNameModule> modulesDeviatedByModules) {
+            final @Nullable SetMultimap<QNameModule, QNameModule> modulesDeviatedByModules,
+            final @Nullable Executor parsingExecutor, final @Nullable Path persistentCacheDirectory) {
         this.filter = requireNonNull(filter);
         this.statementParserMode = requireNonNull(statementParserMode);
         this.supportedFeatures = supportedFeatures;
         this.modulesDeviatedByModules = modulesDeviatedByModules;
+        this.parsingExecutor = parsingExecutor;
+        this.persistentCacheDirectory = persistentCacheDirectory;
     }
 
     public @NonNull SchemaSourceFilter getSchemaSourceFilter() {
@@ -69,6 +78,14 @@ public final class SchemaContextFactoryConfiguration implements Immutable {
         return Optional.ofNullable(modulesDeviatedByModules);
     }
 
+    public Optional<Executor> getParsingExecutor() {
+        return Optional.ofNullable(parsingExecutor);
+    }
+
+    public Optional<Path> getPersistentCacheDirectory() {
+        return Optional.ofNullable(persistentCacheDirectory);
+    }
+
     public static @NonNull SchemaContextFactoryConfiguration getDefault() {
         return DEFAULT_CONFIGURATION;
     }
@@ -79,7 +96,8 @@ public final class SchemaContextFactoryConfiguration implements Immutable {
 
     @Override
     public int hashCode() {
-        return Objects.hash(filter, statementParserMode, supportedFeatures, modulesDeviatedByModules);
+        return Objects.hash(filter, statementParserMode, supportedFeatures, modulesDeviatedByModules,
+            parsingExecutor, persistentCacheDirectory);
     }
 
     @Override
@@ -93,14 +111,17 @@ public final class SchemaContextFactoryConfiguration implements Immutable {
         final SchemaContextFactoryConfiguration other = (SchemaContextFactoryConfiguration) obj;
         return filter.equals(other.filter) && statementParserMode.equals(other.statementParserMode)
                 && Objects.equals(supportedFeatures, other.supportedFeatures)
-                && Objects.equals(modulesDeviatedByModules, other.modulesDeviatedByModules);
+                && Objects.equals(modulesDeviatedByModules, other.modulesDeviatedByModules)
+                && Objects.equals(parsingExecutor, other.parsingExecutor)
+                && Objects.equals(persistentCacheDirectory, other.persistentCacheDirectory);
     }
 
     @Override
     public String toString() {
         return MoreObjects.toStringHelper(this).omitNullValues().add("schemaSourceFilter", filter)
                 .add("statementParserMode", statementParserMode).add("supportedFeatures", supportedFeatures)
-                .add("modulesDeviatedByModules", modulesDeviatedByModules).toString();
+                .add("modulesDeviatedByModules", modulesDeviatedByModules).add("parsingExecutor", parsingExecutor)
+                .add("persistentCacheDirectory", persistentCacheDirectory).toString();
     }
 
     public static class Builder
@@ -109,6 +130,8 @@ public final class SchemaContextFactoryConfiguration implements Immutable {
         private StatementParserMode statementParserMode = StatementParserMode.DEFAULT_MODE;
         private SetMultimap<QNameModule, QNameModule> modulesDeviatedByModules;
         private Set<QName> supportedFeatures;
+        private Executor parsingExecutor;
+        private Path persistentCacheDirectory;
 
         /**
          * Set schema source filter which will filter available schema sources using the provided filter.
@@ -162,10 +185,40 @@ public final class SchemaContextFactoryConfiguration implements Immutable {
             return this;
         }
 
+        /**
+         * Set the executor used to obtain and parse sources. Sources required by a SchemaContext are then parsed
+         * and have their dependency information extracted concurrently, before they are handed over to the statement
+         * reactor.
+         *
+         * @param parsingExecutor Executor to parse sources in. If null, sources are parsed one by one in the thread
+         *                        requesting the SchemaContext.
+         * @return this builder
+         */
+        public @NonNull Builder setParsingExecutor(final @Nullable Executor parsingExecutor) {
+            this.parsingExecutor = parsingExecutor;
+            return this;
+        }
+
+        /**
+         * Set the directory holding a persistent cache of parsed sources. Sets of sources required by a SchemaContext
+         * are stored there in a binary form, keyed by their source identifiers, digests of their YANG texts and this
+         * configuration. Subsequent requests for the same set, even from another process, then load the parsed sources
+         * from the cache instead of parsing them. Source texts still need to be read to compute the key and the
+         * SchemaContext is still assembled from the loaded sources. Sources which are not available as YANG text are
+         * not cached.
+         *
+         * @param persistentCacheDirectory Directory to store sources in. If null, sources are not cached persistently.
+         * @return this builder
+         */
+        public @NonNull Builder setPersistentCacheDirectory(final @Nullable Path persistentCacheDirectory) {
+            this.persistentCacheDirectory = persistentCacheDirectory;
+            return this;
+        }
+
         @Override
         public @NonNull SchemaContextFactoryConfiguration build() {
             return new SchemaContextFactoryConfiguration(filter, statementParserMode, supportedFeatures,
-                    modulesDeviatedByModules);
+                    modulesDeviatedByModules, parsingExecutor, persistentCacheDirectory);
         }
     }
 }
@@ -0,0 +1,190 @@
+/*
+ * Copyright (c) 2018 Pantheon Technologies, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.parser.repo;
+
+import static java.util.Objects.requireNonNull;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import org.opendaylight.yangtools.yang.common.QNameModule;
+import org.opendaylight.yangtools.yang.model.repo.api.SchemaContextFactoryConfiguration;
+import org.opendaylight.yangtools.yang.model.repo.api.SemVerSourceIdentifier;
+import org.opendaylight.yangtools.yang.model.repo.api.SourceIdentifier;
+import org.opendaylight.yangtools.yang.model.repo.api.YangTextSchemaSource;
+import org.opendaylight.yangtools.yang.parser.rfc7950.repo.ASTSchemaSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Persistent cache of sets of {@link ASTSchemaSource}s required to assemble a SchemaContext. Each set is stored in
+ * a single file in the cache directory, named after a hash of the requested source identifiers, of digests of their
+ * contents and of the parts of {@link SchemaContextFactoryConfiguration} which affect the resulting SchemaContext.
+ *
+ * <p>
+ * Failures to access the cache are logged and treated as cache misses. Files which cannot be read back are deleted.
+ */
+final class PersistentSourceSetCache {
+    private static final Logger LOG = LoggerFactory.getLogger(PersistentSourceSetCache.class);
+    private static final int MAGIC = 0x59414e47;
+    private static final int VERSION = 1;
+    private static final String SUFFIX = ".ast";
+
+    private final Path directory;
+
+    PersistentSourceSetCache(final Path directory) {
+        this.directory = requireNonNull(directory);
+    }
+
+    /**
+     * Compute the cache key of a set of sources.
+     *
+     * @param sources Requested source identifiers, mapped to digests of their contents
+     * @param config Configuration used to assemble the SchemaContext
+     * @return Cache key
+     */
+    static String cacheKey(final Map<SourceIdentifier, HashCode> sources,
+            final SchemaContextFactoryConfiguration config) {
+        final StringBuilder sb = new StringBuilder().append(VERSION).append('\n')
+                .append(config.getStatementParserMode()).append('\n');
+        sources.entrySet().stream().map(entry -> sourceKey(entry.getKey()) + '=' + entry.getValue()).sorted()
+            .forEach(str -> sb.append(str).append('\n'));
+
+        sb.append(config.getSupportedFeatures().map(PersistentSourceSetCache::sortedString).orElse("*")).append('\n');
+        sb.append(config.getModulesDeviatedByModules().map(deviations -> sortedString(deviations.entries()))
+            .orElse("*"));
+
+        return Hashing.sha256().hashString(sb, StandardCharsets.UTF_8).toString();
+    }
+
+    /**
+     * Compute the digest of the contents of a source, as used in cache keys.
+     *
+     * @param source Source text
+     * @return Source digest
+     * @throws IOException if the source cannot be read
+     */
+    static HashCode sourceDigest(final YangTextSchemaSource source) throws IOException {
+        return source.hash(Hashing.sha256());
+    }
+
+    /**
+     * Load a set of sources.
+     *
+     * @param key Cache key
+     * @return Sources, or empty if the set is not cached
+     */
+    @SuppressWarnings("checkstyle:IllegalCatch")
+    Optional<List<ASTSchemaSource>> load(final String key) {
+        final Path file = directory.resolve(key + SUFFIX);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                LOG.debug("Ignoring incompatible cache file {}", file);
+                return Optional.empty();
+            }
+
+            final int size = in.readInt();
+            final ImmutableList.Builder<ASTSchemaSource> builder = ImmutableList.builder();
+            for (int i = 0; i < size; ++i) {
+                builder.add(ASTSchemaSource.readFrom(in));
+            }
+            final List<ASTSchemaSource> ret = builder.build();
+            LOG.debug("Loaded {} sources from {}", ret.size(), file);
+            return Optional.of(ret);
+        } catch (NoSuchFileException e) {
+            LOG.debug("Cache file {} does not exist", file, e);
+            return Optional.empty();
+        } catch (IOException | RuntimeException e) {
+            LOG.warn("Failed to load sources from {}, discarding it", file, e);
+            discard(file);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Store a set of sources. The file is replaced atomically, so concurrent readers observe either the previous
+     * or the new contents.
+     *
+     * @param key Cache key
+     * @param sources Sources to store
+     */
+    void store(final String key, final List<ASTSchemaSource> sources) {
+        final Path file = directory.resolve(key + SUFFIX);
+        try {
+            Files.createDirectories(directory);
+            final Path tmp = Files.createTempFile(directory, key, ".tmp");
+            try {
+                try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                        Files.newOutputStream(tmp)))) {
+                    out.writeInt(MAGIC);
+                    out.writeInt(VERSION);
+                    out.writeInt(sources.size());
+                    for (ASTSchemaSource source : sources) {
+                        source.writeTo(out);
+                    }
+                }
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+            LOG.debug("Stored {} sources in {}", sources.size(), file);
+        } catch (IOException e) {
+            LOG.warn("Failed to store sources in {}", file, e);
+        }
+    }
+
+    private static void discard(final Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            LOG.warn("Failed to delete {}", file, e);
+        }
+    }
+
+    private static String sourceKey(final SourceIdentifier source) {
+        final StringBuilder sb = new StringBuilder(source.getName());
+        source.getRevision().ifPresent(rev -> sb.append('@').append(rev));
+        if (source instanceof SemVerSourceIdentifier) {
+            ((SemVerSourceIdentifier) source).getSemanticVersion().ifPresent(semVer -> sb.append('#').append(semVer));
+        }
+        return sb.toString();
+    }
+
+    private static String sortedString(final Collection<?> items) {
+        return items.stream().map(PersistentSourceSetCache::itemString).sorted()
+                .collect(Collectors.joining(",", "[", "]"));
+    }
+
+    private static String itemString(final Object item) {
+        if (item instanceof Entry) {
+            final Entry<?, ?> entry = (Entry<?, ?>) item;
+            return itemString(entry.getKey()) + "->" + itemString(entry.getValue());
+        }
+        if (item instanceof QNameModule) {
+            final QNameModule module = (QNameModule) item;
+            return module.getNamespace() + module.getRevision().map(rev -> "@" + rev).orElse("");
+        }
+        return item.toString();
+    }
+}
@@ -7,7 +7,6 @@
  */
 package org.opendaylight.yangtools.yang.parser.repo;
 
-import static com.google.common.base.Preconditions.checkArgument;
 import static java.util.Objects.requireNonNull;
 import static org.opendaylight.yangtools.util.concurrent.FluentFutures.immediateFluentFuture;
 
@@ -16,35 +15,44 @@ import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.Collections2;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.common.hash.HashCode;
 import com.google.common.util.concurrent.AsyncFunction;
 import com.google.common.util.concurrent.FluentFuture;
 import com.google.common.util.concurrent.FutureCallback;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.MoreExecutors;
+import java.io.IOException;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Optional;
 import java.util.Set;
-import org.antlr.v4.runtime.ParserRuleContext;
+import java.util.concurrent.Executor;
 import org.eclipse.jdt.annotation.NonNull;
-import org.opendaylight.yangtools.antlrv4.code.gen.YangStatementParser.StatementContext;
+import org.eclipse.jdt.annotation.Nullable;
 import org.opendaylight.yangtools.yang.common.QName;
 import org.opendaylight.yangtools.yang.model.api.SchemaContext;
 import org.opendaylight.yangtools.yang.model.repo.api.SchemaContextFactory;
 import org.opendaylight.yangtools.yang.model.repo.api.SchemaContextFactoryConfiguration;
 import org.opendaylight.yangtools.yang.model.repo.api.SchemaRepository;
 import org.opendaylight.yangtools.yang.model.repo.api.SchemaResolutionException;
+import org.opendaylight.yangtools.yang.model.repo.api.SchemaSourceException;
 import org.opendaylight.yangtools.yang.model.repo.api.SchemaSourceFilter;
 import org.opendaylight.yangtools.yang.model.repo.api.SourceIdentifier;
 import org.opendaylight.yangtools.yang.model.repo.api.StatementParserMode;
+import org.opendaylight.yangtools.yang.model.repo.api.YangTextSchemaSource;
 import org.opendaylight.yangtools.yang.parser.impl.DefaultReactors;
 import org.opendaylight.yangtools.yang.parser.rfc7950.repo.ASTSchemaSource;
+import org.opendaylight.yangtools.yang.parser.rfc7950.repo.TextToASTTransformer;
 import org.opendaylight.yangtools.yang.parser.rfc7950.repo.YangModelDependencyInfo;
 import org.opendaylight.yangtools.yang.parser.rfc7950.repo.YangStatementStreamSource;
 import org.opendaylight.yangtools.yang.parser.spi.meta.ReactorException;
@@ -61,6 +69,10 @@ final class SharedSchemaContextFactory implements SchemaContextFactory {
             .weakValues().build();
     private final @NonNull SchemaRepository repository;
     private final @NonNull SchemaContextFactoryConfiguration config;
+    private final @Nullable PersistentSourceSetCache persistentCache;
+    // Number of invalidations, guarded by this, used to prevent assemblies which started before an invalidation from
+    // populating the cache with stale contexts
+    private long invalidations;
 
     // FIXME SchemaRepository should be the type for repository parameter instead of SharedSchemaRepository
     //       (final implementation)
@@ -74,6 +86,7 @@ final class SharedSchemaContextFactory implements SchemaContextFactory {
         final @NonNull SchemaContextFactoryConfiguration config) {
         this.repository = requireNonNull(repository);
         this.config = requireNonNull(config);
+        this.persistentCache = config.getPersistentCacheDirectory().map(PersistentSourceSetCache::new).orElse(null);
     }
 
     @Override
@@ -83,9 +96,10 @@ final class SharedSchemaContextFactory implements SchemaContextFactory {
             final StatementParserMode statementParserMode, final Set<QName> supportedFeatures) {
         return createSchemaContext(requiredSources,
                 statementParserMode == StatementParserMode.SEMVER_MODE ? semVerCache : revisionCache,
-                new AssembleSources(SchemaContextFactoryConfiguration.builder()
+                SchemaContextFactoryConfiguration.builder()
                         .setFilter(config.getSchemaSourceFilter()).setStatementParserMode(statementParserMode)
-                        .setSupportedFeatures(supportedFeatures).build()));
+                        .setSupportedFeatures(supportedFeatures)
+                        .setParsingExecutor(config.getParsingExecutor().orElse(null)).build());
     }
 
     @Override
@@ -93,41 +107,46 @@ final class SharedSchemaContextFactory implements SchemaContextFactory {
             final @NonNull Collection<SourceIdentifier> requiredSources) {
         return createSchemaContext(requiredSources,
                 config.getStatementParserMode() == StatementParserMode.SEMVER_MODE ? semVerCache : revisionCache,
-                new AssembleSources(config));
+                config);
     }
 
     private @NonNull ListenableFuture<SchemaContext> createSchemaContext(
             final Collection<SourceIdentifier> requiredSources,
             final Cache<Collection<SourceIdentifier>, SchemaContext> cache,
-            final AsyncFunction<List<ASTSchemaSource>, SchemaContext> assembleSources) {
+            final SchemaContextFactoryConfiguration assembleConfig) {
         // Make sources unique
         final List<SourceIdentifier> uniqueSourceIdentifiers = deDuplicateSources(requiredSources);
 
-        final SchemaContext existing = cache.getIfPresent(uniqueSourceIdentifiers);
+        // The resulting context does not depend on the order in which sources were requested, hence the same set of
+        // sources requested in a different order, for example after a source has been removed and added back, can
+        // reuse a previously-assembled context
+        final Set<SourceIdentifier> cacheKey = ImmutableSet.copyOf(uniqueSourceIdentifiers);
+        final SchemaContext existing = cache.getIfPresent(cacheKey);
         if (existing != null) {
             LOG.debug("Returning cached context {}", existing);
             return immediateFluentFuture(existing);
         }
+        final long generation = currentGeneration();
 
-        // Request all sources be loaded
-        ListenableFuture<List<ASTSchemaSource>> sf = Futures.allAsList(Collections2.transform(uniqueSourceIdentifiers,
-            this::requestSource));
-
-        // Detect mismatch between requested Source IDs and IDs that are extracted from parsed source
-        // Also remove duplicates if present
-        // We are relying on preserved order of uniqueSourceIdentifiers as well as sf
-        sf = Futures.transform(sf, new SourceIdMismatchDetector(uniqueSourceIdentifiers),
-            MoreExecutors.directExecutor());
+        // Try to load sources from the persistent cache
+        final PersistentSourceSetCache persistent = persistentCache;
+        final ListenableFuture<List<ASTSchemaSource>> sf = persistent != null
+                ? loadSources(persistent, uniqueSourceIdentifiers, assembleConfig)
+                : requestSources(uniqueSourceIdentifiers);
 
         // Assemble sources into a schema context
-        final ListenableFuture<SchemaContext> cf = Futures.transformAsync(sf, assembleSources,
+        final ListenableFuture<SchemaContext> cf = Futures.transformAsync(sf, new AssembleSources(assembleConfig),
             MoreExecutors.directExecutor());
 
         // Populate cache when successful
         Futures.addCallback(cf, new FutureCallback<SchemaContext>() {
             @Override
             public void onSuccess(final SchemaContext result) {
-                cache.put(uniqueSourceIdentifiers, result);
+                synchronized (SharedSchemaContextFactory.this) {
+                    if (invalidations == generation) {
+                        cache.put(cacheKey, result);
+                    }
+                }
             }
 
             @Override
@@ -139,8 +158,106 @@ final class SharedSchemaContextFactory implements SchemaContextFactory {
         return cf;
     }
 
+    /**
+     * Invalidate all cached contexts which have been assembled from a particular source. This needs to be invoked when
+     * the contents of a source change while its identifier stays the same.
+     *
+     * @param sourceId Source identifier
+     */
+    synchronized void invalidateSource(final SourceIdentifier sourceId) {
+        invalidations++;
+        revisionCache.asMap().keySet().removeIf(key -> key.contains(sourceId));
+        semVerCache.asMap().keySet().removeIf(key -> key.contains(sourceId));
+    }
+
+    private synchronized long currentGeneration() {
+        return invalidations;
+    }
+
+    private ListenableFuture<List<ASTSchemaSource>> loadSources(final PersistentSourceSetCache persistent,
+            final List<SourceIdentifier> sourceIdentifiers, final SchemaContextFactoryConfiguration assembleConfig) {
+        // The cache key covers the contents of the sources, hence we need their text. Sources which are not available
+        // as text, for example because they have been registered as ASTs only, are not cached.
+        final ListenableFuture<List<YangTextSchemaSource>> tf = Futures.catching(
+            Futures.allAsList(Collections2.transform(sourceIdentifiers,
+                id -> repository.getSchemaSource(id, YangTextSchemaSource.class))),
+            SchemaSourceException.class, ex -> {
+                LOG.debug("Source texts of {} are not available, not using persistent cache", sourceIdentifiers, ex);
+                return null;
+            }, MoreExecutors.directExecutor());
+
+        return Futures.transformAsync(tf, texts -> {
+            if (texts == null) {
+                return requestSources(sourceIdentifiers);
+            }
+
+            final Map<SourceIdentifier, HashCode> digests = new HashMap<>();
+            try {
+                for (int i = 0; i < texts.size(); ++i) {
+                    digests.put(sourceIdentifiers.get(i), PersistentSourceSetCache.sourceDigest(texts.get(i)));
+                }
+            } catch (IOException e) {
+                LOG.debug("Failed to read source texts of {}, not using persistent cache", sourceIdentifiers, e);
+                return requestSources(sourceIdentifiers);
+            }
+
+            final String key = PersistentSourceSetCache.cacheKey(digests, assembleConfig);
+            final Optional<List<ASTSchemaSource>> persisted = persistent.load(key);
+            if (persisted.isPresent()) {
+                return Futures.immediateFuture(persisted.get());
+            }
+
+            // We already have the texts, parse them directly rather than requesting them from the repository again
+            final ListenableFuture<List<ASTSchemaSource>> sf = parseSources(sourceIdentifiers, texts);
+            Futures.addCallback(sf, new FutureCallback<List<ASTSchemaSource>>() {
+                @Override
+                public void onSuccess(final List<ASTSchemaSource> result) {
+                    persistent.store(key, result);
+                }
+
+                @Override
+                public void onFailure(final Throwable cause) {
+                    // Nothing to store
+                }
+            }, MoreExecutors.directExecutor());
+            return sf;
+        }, MoreExecutors.directExecutor());
+    }
+
+    private ListenableFuture<List<ASTSchemaSource>> parseSources(final List<SourceIdentifier> sourceIdentifiers,
+            final List<YangTextSchemaSource> texts) {
+        final ListenableFuture<List<ASTSchemaSource>> sf = Futures.allAsList(Lists.transform(texts,
+            this::parseSource));
+        return Futures.transform(sf, new SourceIdMismatchDetector(sourceIdentifiers), MoreExecutors.directExecutor());
+    }
+
+    private ListenableFuture<ASTSchemaSource> parseSource(final YangTextSchemaSource text) {
+        // Same as with requestSource(), texts are parsed concurrently if we have an executor
+        return Futures.submitAsync(() -> Futures.immediateFuture(TextToASTTransformer.transformText(text)),
+            config.getParsingExecutor().orElse(MoreExecutors.directExecutor()));
+    }
+
+    private ListenableFuture<List<ASTSchemaSource>> requestSources(final List<SourceIdentifier> sourceIdentifiers) {
+        // Request all sources be loaded
+        final ListenableFuture<List<ASTSchemaSource>> sf = Futures.allAsList(Collections2.transform(sourceIdentifiers,
+            this::requestSource));
+
+        // Detect mismatch between requested Source IDs and IDs that are extracted from parsed source
+        // Also remove duplicates if present
+        // We are relying on preserved order of sourceIdentifiers as well as sf
+        return Futures.transform(sf, new SourceIdMismatchDetector(sourceIdentifiers), MoreExecutors.directExecutor());
+    }
+
     private ListenableFuture<ASTSchemaSource> requestSource(final @NonNull SourceIdentifier identifier) {
-        return repository.getSchemaSource(identifier, ASTSchemaSource.class);
+        final Optional<Executor> executor = config.getParsingExecutor();
+        if (!executor.isPresent()) {
+            return repository.getSchemaSource(identifier, ASTSchemaSource.class);
+        }
+
+        // Sources are transformed into ASTs by the thread requesting them, hence requesting them from the executor
+        // results in all of them being parsed concurrently
+        return Futures.submitAsync(() -> repository.getSchemaSource(identifier, ASTSchemaSource.class),
+            executor.get());
     }
 
     /**
@@ -233,13 +350,7 @@ final class SharedSchemaContextFactory implements SchemaContextFactory {
             config.getModulesDeviatedByModules().ifPresent(reactor::setModulesWithSupportedDeviations);
 
             for (final Entry<SourceIdentifier, ASTSchemaSource> e : srcs.entrySet()) {
-                final ASTSchemaSource ast = e.getValue();
-                final ParserRuleContext parserRuleCtx = ast.getAST();
-                checkArgument(parserRuleCtx instanceof StatementContext, "Unsupported context class %s for source %s",
-                    parserRuleCtx.getClass(), e.getKey());
-
-                reactor.addSource(YangStatementStreamSource.create(e.getKey(), (StatementContext) parserRuleCtx,
-                    ast.getSymbolicName().orElse(null)));
+                reactor.addSource(YangStatementStreamSource.create(e.getKey(), e.getValue()));
             }
 
             final SchemaContext schemaContext;
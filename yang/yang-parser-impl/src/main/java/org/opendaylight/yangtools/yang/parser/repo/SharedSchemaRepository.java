@@ -34,19 +34,19 @@ import org.opendaylight.yangtools.yang.model.repo.util.AbstractSchemaRepository;
 @MetaInfServices(value = SchemaRepository.class)
 public final class SharedSchemaRepository extends AbstractSchemaRepository implements Identifiable<String> {
     @Deprecated
-    private final LoadingCache<SchemaSourceFilter, SchemaContextFactory> cacheByFilter = CacheBuilder.newBuilder()
-            .softValues().build(new CacheLoader<SchemaSourceFilter, SchemaContextFactory>() {
+    private final LoadingCache<SchemaSourceFilter, SharedSchemaContextFactory> cacheByFilter = CacheBuilder
+            .newBuilder().softValues().build(new CacheLoader<SchemaSourceFilter, SharedSchemaContextFactory>() {
                 @Override
-                public SchemaContextFactory load(final SchemaSourceFilter key) {
+                public SharedSchemaContextFactory load(final SchemaSourceFilter key) {
                     return new SharedSchemaContextFactory(SharedSchemaRepository.this, key);
                 }
             });
 
-    private final LoadingCache<SchemaContextFactoryConfiguration, SchemaContextFactory> cacheByConfig = CacheBuilder
-            .newBuilder().softValues()
-            .build(new CacheLoader<SchemaContextFactoryConfiguration, SchemaContextFactory>() {
+    private final LoadingCache<SchemaContextFactoryConfiguration, SharedSchemaContextFactory> cacheByConfig =
+            CacheBuilder.newBuilder().softValues()
+            .build(new CacheLoader<SchemaContextFactoryConfiguration, SharedSchemaContextFactory>() {
                 @Override
-                public SchemaContextFactory load(final SchemaContextFactoryConfiguration key) {
+                public SharedSchemaContextFactory load(final SchemaContextFactoryConfiguration key) {
                     return new SharedSchemaContextFactory(SharedSchemaRepository.this, key);
                 }
             });
@@ -74,6 +74,17 @@ public final class SharedSchemaRepository extends AbstractSchemaRepository imple
         return cacheByConfig.getUnchecked(config);
     }
 
+    /**
+     * Invalidate all cached SchemaContexts which have been assembled from a particular source. This needs to be invoked
+     * when the contents of a source change while its identifier stays the same.
+     *
+     * @param sourceId Source identifier
+     */
+    void invalidateSource(final @NonNull SourceIdentifier sourceId) {
+        cacheByFilter.asMap().values().forEach(factory -> factory.invalidateSource(sourceId));
+        cacheByConfig.asMap().values().forEach(factory -> factory.invalidateSource(sourceId));
+    }
+
     @Override
     public String toString() {
         return "SchemaRepository: " + id;
@@ -18,17 +18,23 @@ import com.google.common.base.Verify;
 import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Multimap;
+import com.google.common.hash.Funnels;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
 import com.google.common.util.concurrent.FluentFuture;
 import com.google.common.util.concurrent.ListenableFuture;
+import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ConcurrentLinkedDeque;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 import org.eclipse.jdt.annotation.NonNull;
 import org.opendaylight.yangtools.yang.common.Revision;
@@ -37,7 +43,6 @@ import org.opendaylight.yangtools.yang.model.parser.api.YangSyntaxErrorException
 import org.opendaylight.yangtools.yang.model.repo.api.MissingSchemaSourceException;
 import org.opendaylight.yangtools.yang.model.repo.api.RevisionSourceIdentifier;
 import org.opendaylight.yangtools.yang.model.repo.api.SchemaContextFactory;
-import org.opendaylight.yangtools.yang.model.repo.api.SchemaRepository;
 import org.opendaylight.yangtools.yang.model.repo.api.SchemaResolutionException;
 import org.opendaylight.yangtools.yang.model.repo.api.SchemaSourceException;
 import org.opendaylight.yangtools.yang.model.repo.api.SchemaSourceFilter;
@@ -50,7 +55,6 @@ import org.opendaylight.yangtools.yang.model.repo.spi.SchemaListenerRegistration
 import org.opendaylight.yangtools.yang.model.repo.spi.SchemaSourceProvider;
 import org.opendaylight.yangtools.yang.model.repo.spi.SchemaSourceRegistration;
 import org.opendaylight.yangtools.yang.model.repo.spi.SchemaSourceRegistry;
-import org.opendaylight.yangtools.yang.model.repo.util.InMemorySchemaSourceCache;
 import org.opendaylight.yangtools.yang.parser.rfc7950.repo.ASTSchemaSource;
 import org.opendaylight.yangtools.yang.parser.rfc7950.repo.TextToASTTransformer;
 import org.slf4j.Logger;
@@ -58,28 +62,26 @@ import org.slf4j.LoggerFactory;
 
 public final class YangTextSchemaContextResolver implements AutoCloseable, SchemaSourceProvider<YangTextSchemaSource> {
     private static final Logger LOG = LoggerFactory.getLogger(YangTextSchemaContextResolver.class);
-    private static final long SOURCE_LIFETIME_SECONDS = 60;
 
     private final Collection<SourceIdentifier> requiredSources = new ConcurrentLinkedDeque<>();
     private final Multimap<SourceIdentifier, YangTextSchemaSource> texts = ArrayListMultimap.create();
     private final AtomicReference<Optional<SchemaContext>> currentSchemaContext =
             new AtomicReference<>(Optional.empty());
-    private final InMemorySchemaSourceCache<ASTSchemaSource> cache;
     private final SchemaListenerRegistration transReg;
+    // Digests of the last contents registered for each source identifier, guarded by this
+    private final Map<SourceIdentifier, HashCode> digests = new HashMap<>();
     private final SchemaSourceRegistry registry;
-    private final SchemaRepository repository;
+    private final SharedSchemaRepository repository;
     private volatile Object version = new Object();
     private volatile Object contextVersion = version;
 
-    private YangTextSchemaContextResolver(final SchemaRepository repository, final SchemaSourceRegistry registry) {
+    private YangTextSchemaContextResolver(final SharedSchemaRepository repository,
+            final SchemaSourceRegistry registry) {
         this.repository = Preconditions.checkNotNull(repository);
         this.registry = Preconditions.checkNotNull(registry);
 
         final TextToASTTransformer t = TextToASTTransformer.create(repository, registry);
         transReg = registry.registerSchemaSourceListener(t);
-
-        cache = InMemorySchemaSourceCache.createSoftCache(registry, ASTSchemaSource.class, SOURCE_LIFETIME_SECONDS,
-            TimeUnit.SECONDS);
     }
 
     public static YangTextSchemaContextResolver create(final String name) {
@@ -130,14 +132,28 @@ public final class YangTextSchemaContextResolver implements AutoCloseable, Schem
             text = source;
         }
 
+        final HashCode digest = digest(ast);
         synchronized (this) {
+            // Contexts are shared based on source identifiers, hence any contexts assembled from different contents
+            // registered under the same identifier are no longer valid
+            final HashCode prevDigest = digests.put(parsedId, digest);
+            if (prevDigest != null && !prevDigest.equals(digest)) {
+                LOG.debug("Contents of {} changed, invalidating cached contexts", parsedId);
+                repository.invalidateSource(parsedId);
+            }
+
             texts.put(parsedId, text);
             LOG.debug("Populated {} with text", parsedId);
 
             final SchemaSourceRegistration<YangTextSchemaSource> reg = registry.registerSchemaSource(this,
                 PotentialSchemaSource.create(parsedId, YangTextSchemaSource.class, Costs.IMMEDIATE.getValue()));
+
+            // The AST is retained for as long as the source is registered, so that assembling a schema context after
+            // other sources have been added or removed does not need to parse this source again
+            final SchemaSourceRegistration<ASTSchemaSource> astReg = registry.registerSchemaSource(
+                id -> immediateFluentFuture(ast),
+                PotentialSchemaSource.create(parsedId, ASTSchemaSource.class, Costs.IMMEDIATE.getValue()));
             requiredSources.add(parsedId);
-            cache.schemaSourceEncountered(ast);
             LOG.debug("Added source {} to schema context requirements", parsedId);
             version = new Object();
 
@@ -148,6 +164,7 @@ public final class YangTextSchemaContextResolver implements AutoCloseable, Schem
                         requiredSources.remove(parsedId);
                         LOG.trace("Removed source {} from schema context requirements", parsedId);
                         version = new Object();
+                        astReg.close();
                         reg.close();
                         texts.remove(parsedId, text);
                     }
@@ -185,6 +202,12 @@ public final class YangTextSchemaContextResolver implements AutoCloseable, Schem
         });
     }
 
+    private static HashCode digest(final ASTSchemaSource ast) throws IOException {
+        final Hasher hasher = Hashing.sha256().newHasher();
+        ast.writeTo(new DataOutputStream(Funnels.asOutputStream(hasher)));
+        return hasher.hash();
+    }
+
     private static SourceIdentifier guessSourceIdentifier(final @NonNull String fileName) {
         try {
             return YangTextSchemaSource.identifierFromFilename(fileName);
@@ -7,19 +7,36 @@
  */
 package org.opendaylight.yangtools.yang.parser.repo;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 import static org.opendaylight.yangtools.util.concurrent.FluentFutures.immediateFluentFuture;
 
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.hash.HashCode;
 import com.google.common.util.concurrent.ListenableFuture;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.opendaylight.yangtools.yang.common.Revision;
 import org.opendaylight.yangtools.yang.model.api.SchemaContext;
 import org.opendaylight.yangtools.yang.model.repo.api.RevisionSourceIdentifier;
+import org.opendaylight.yangtools.yang.model.repo.api.SchemaContextFactoryConfiguration;
 import org.opendaylight.yangtools.yang.model.repo.api.SchemaSourceFilter;
 import org.opendaylight.yangtools.yang.model.repo.api.SourceIdentifier;
 import org.opendaylight.yangtools.yang.model.repo.api.YangTextSchemaSource;
@@ -31,6 +48,9 @@ public class SharedSchemaContextFactoryTest {
 
     private final SharedSchemaRepository repository = new SharedSchemaRepository("test");
 
+    @Rule
+    public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
     @Mock
     private SchemaSourceFilter filter;
     private SourceIdentifier s1;
@@ -64,6 +84,99 @@ public class SharedSchemaContextFactoryTest {
         assertNotNull(schemaContext.get());
     }
 
+    @Test
+    public void testParallelParsing() throws InterruptedException, ExecutionException {
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        final AtomicInteger submitted = new AtomicInteger();
+        try {
+            final SharedSchemaContextFactory sharedSchemaContextFactory = new SharedSchemaContextFactory(repository,
+                SchemaContextFactoryConfiguration.builder().setParsingExecutor(command -> {
+                    submitted.incrementAndGet();
+                    executor.execute(command);
+                }).build());
+            final SchemaContext schemaContext = sharedSchemaContextFactory.createSchemaContext(Arrays.asList(s1, s2))
+                    .get();
+            assertEquals(2, schemaContext.getModules().size());
+            assertEquals(2, submitted.get());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testCachedContext() throws InterruptedException, ExecutionException {
+        final AtomicInteger requested = new AtomicInteger();
+        final SharedSchemaContextFactory sharedSchemaContextFactory = new SharedSchemaContextFactory(repository,
+            SchemaContextFactoryConfiguration.builder().setParsingExecutor(command -> {
+                requested.incrementAndGet();
+                command.run();
+            }).build());
+        final SchemaContext schemaContext = sharedSchemaContextFactory.createSchemaContext(Arrays.asList(s1, s2)).get();
+        assertEquals(2, requested.get());
+
+        // The same set of sources is served from cache without requesting any sources
+        assertSame(schemaContext, sharedSchemaContextFactory.createSchemaContext(Arrays.asList(s2, s1)).get());
+        assertEquals(2, requested.get());
+
+        // Invalidating a source results in a new context
+        sharedSchemaContextFactory.invalidateSource(s1);
+        assertNotSame(schemaContext, sharedSchemaContextFactory.createSchemaContext(Arrays.asList(s1, s2)).get());
+        assertEquals(4, requested.get());
+    }
+
+    @Test
+    public void testPersistentCache() throws Exception {
+        final Path directory = temporaryFolder.getRoot().toPath();
+        final SchemaContextFactoryConfiguration config = SchemaContextFactoryConfiguration.builder()
+                .setPersistentCacheDirectory(directory).build();
+        final SchemaContext schemaContext = new SharedSchemaContextFactory(repository, config)
+                .createSchemaContext(Arrays.asList(s1, s2)).get();
+
+        final YangTextSchemaSource source1 = YangTextSchemaSource.forResource("/ietf/ietf-inet-types@2010-09-24.yang");
+        final YangTextSchemaSource source2 = YangTextSchemaSource.forResource("/ietf/iana-timezones@2012-07-09.yang");
+        final HashCode digest1 = PersistentSourceSetCache.sourceDigest(source1);
+        final HashCode digest2 = PersistentSourceSetCache.sourceDigest(source2);
+        final String key = PersistentSourceSetCache.cacheKey(ImmutableMap.of(s2, digest2, s1, digest1), config);
+        final Path file = directory.resolve(key + ".ast");
+        assertTrue(Files.isRegularFile(file));
+
+        // A repository which cannot parse sources can be used with cached source sets
+        final SharedSchemaRepository textOnly = new SharedSchemaRepository("text-only");
+        textOnly.registerSchemaSource(sourceIdentifier -> immediateFluentFuture(source1),
+            PotentialSchemaSource.create(s1, YangTextSchemaSource.class, 1));
+        textOnly.registerSchemaSource(sourceIdentifier -> immediateFluentFuture(source2),
+            PotentialSchemaSource.create(s2, YangTextSchemaSource.class, 1));
+        final SchemaContext cached = new SharedSchemaContextFactory(textOnly, config)
+                .createSchemaContext(Arrays.asList(s2, s1)).get();
+        assertEquals(schemaContext.getModules(), cached.getModules());
+
+        // Sources missing from the cache are parsed from the texts used to compute the key, hence they need not be
+        // available as ASTs
+        final SchemaContextFactoryConfiguration otherConfig = SchemaContextFactoryConfiguration.builder()
+                .setPersistentCacheDirectory(temporaryFolder.newFolder().toPath()).build();
+        final SchemaContext parsed = new SharedSchemaContextFactory(textOnly, otherConfig)
+                .createSchemaContext(Arrays.asList(s1, s2)).get();
+        assertEquals(schemaContext.getModules(), parsed.getModules());
+
+        // Different configuration results in a different cache entry
+        assertNotEquals(key, PersistentSourceSetCache.cacheKey(ImmutableMap.of(s1, digest1, s2, digest2),
+            SchemaContextFactoryConfiguration.builder().setSupportedFeatures(ImmutableSet.of()).build()));
+
+        // Different contents under the same identifier result in a different cache entry
+        assertNotEquals(key, PersistentSourceSetCache.cacheKey(ImmutableMap.of(s1, digest2, s2, digest2), config));
+
+        // Damaged files are discarded
+        Files.write(file, new byte[] { 1, 2, 3 });
+        assertFalse(new PersistentSourceSetCache(directory).load(key).isPresent());
+        assertFalse(Files.exists(file));
+
+        // ... and replaced
+        final SchemaContext rebuilt = new SharedSchemaContextFactory(repository, config)
+                .createSchemaContext(Arrays.asList(s1, s2)).get();
+        assertEquals(schemaContext.getModules(), rebuilt.getModules());
+        assertTrue(Files.size(file) > 3);
+    }
+
     @Test
     public void testSourceRegisteredWithDifferentSI() throws Exception {
         final YangTextSchemaSource source1 = YangTextSchemaSource.forResource("/ietf/ietf-inet-types@2010-09-24.yang");
@@ -10,16 +10,26 @@ package org.opendaylight.yangtools.yang.parser.repo;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import com.google.common.base.MoreObjects.ToStringHelper;
 import com.google.common.util.concurrent.ListenableFuture;
 import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
 import java.net.URL;
 import java.util.Optional;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.Test;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.common.QNameModule;
 import org.opendaylight.yangtools.yang.common.Revision;
+import org.opendaylight.yangtools.yang.model.api.ContainerSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.DataSchemaNode;
 import org.opendaylight.yangtools.yang.model.api.SchemaContext;
 import org.opendaylight.yangtools.yang.model.parser.api.YangSyntaxErrorException;
 import org.opendaylight.yangtools.yang.model.repo.api.RevisionSourceIdentifier;
@@ -98,4 +108,59 @@ public class YangTextSchemaContextResolverTest {
         schemaContext = schemaContextOptional.get();
         assertEquals(0, schemaContext.getModules().size());
     }
+
+    @Test
+    public void testSourceChanges() throws SchemaSourceException, IOException, YangSyntaxErrorException {
+        final YangTextSchemaContextResolver resolver = YangTextSchemaContextResolver.create("test-bundle");
+        final AtomicInteger opened = new AtomicInteger();
+
+        final YangTextSchemaSourceRegistration foo = resolver.registerSource(countingSource("foo", opened));
+        resolver.registerSource(countingSource("bar", opened));
+        assertEquals(2, opened.get());
+        assertEquals(2, resolver.getSchemaContext().get().getModules().size());
+
+        // Only the new source is parsed
+        resolver.registerSource(countingSource("baz", opened));
+        final SchemaContext schemaContext = resolver.getSchemaContext().get();
+        assertEquals(3, schemaContext.getModules().size());
+        assertEquals(3, opened.get());
+
+        // Removing a source and adding it back with the same contents results in the same set of sources, hence
+        // the same context
+        foo.close();
+        assertEquals(2, resolver.getSchemaContext().get().getModules().size());
+        final YangTextSchemaSourceRegistration sameFoo = resolver.registerSource(countingSource("foo", opened));
+        assertSame(schemaContext, resolver.getSchemaContext().get());
+        assertEquals(4, opened.get());
+
+        // Changed contents under the same source identifier result in a new context
+        sameFoo.close();
+        resolver.registerSource(countingSource("changed/foo", opened));
+        final SchemaContext changed = resolver.getSchemaContext().get();
+        assertNotSame(schemaContext, changed);
+        assertEquals(3, changed.getModules().size());
+        assertEquals(5, opened.get());
+
+        final QNameModule fooModule = QNameModule.create(URI.create("foo-namespace"), Revision.of("2016-09-26"));
+        final DataSchemaNode container = changed.findDataChildByName(QName.create(fooModule, "foo-container")).get();
+        assertTrue(((ContainerSchemaNode) container).findDataChildByName(
+            QName.create(fooModule, "foo-changed-leaf")).isPresent());
+    }
+
+    private YangTextSchemaSource countingSource(final String name, final AtomicInteger opened) {
+        final URL url = getClass().getResource("/yang-text-schema-context-resolver-test/" + name + ".yang");
+        final String moduleName = name.substring(name.lastIndexOf('/') + 1);
+        return new YangTextSchemaSource(RevisionSourceIdentifier.create(moduleName, Revision.of("2016-09-26"))) {
+            @Override
+            public InputStream openStream() throws IOException {
+                opened.incrementAndGet();
+                return url.openStream();
+            }
+
+            @Override
+            protected ToStringHelper addToStringAttributes(final ToStringHelper toStringHelper) {
+                return toStringHelper.add("url", url);
+            }
+        };
+    }
 }
@@ -11,10 +11,17 @@ import static java.util.Objects.requireNonNull;
 
 import com.google.common.annotations.Beta;
 import com.google.common.base.MoreObjects;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Optional;
-import org.antlr.v4.runtime.ParserRuleContext;
 import org.eclipse.jdt.annotation.NonNull;
 import org.eclipse.jdt.annotation.Nullable;
+import org.opendaylight.yangtools.concepts.SemVer;
+import org.opendaylight.yangtools.yang.common.Revision;
 import org.opendaylight.yangtools.yang.model.parser.api.YangSyntaxErrorException;
 import org.opendaylight.yangtools.yang.model.repo.api.RevisionSourceIdentifier;
 import org.opendaylight.yangtools.yang.model.repo.api.SchemaSourceRepresentation;
@@ -23,7 +30,7 @@ import org.opendaylight.yangtools.yang.model.repo.api.SourceIdentifier;
 
 /**
  * Abstract Syntax Tree representation of a schema source. This representation is internal to the YANG parser
- * implementation, as it relies on ANTLR types.
+ * implementation. It retains a compact tree of declared statements, not the ANTLR parse tree it was created from.
  *
  * <p>
  * Instances of this representation are used for caching purposes, as they are a natural intermediate step in YANG text
@@ -35,11 +42,11 @@ public final class ASTSchemaSource implements SchemaSourceRepresentation {
     private final @NonNull YangModelDependencyInfo depInfo;
     private final @NonNull SemVerSourceIdentifier semVerId;
     private final @NonNull SourceIdentifier identifier;
-    private final @NonNull ParserRuleContext tree;
+    private final @NonNull YangTextStatement tree;
     private final @Nullable String symbolicName;
 
     private ASTSchemaSource(final @NonNull SourceIdentifier identifier, final @NonNull SemVerSourceIdentifier semVerId,
-            final @NonNull ParserRuleContext tree, final @NonNull YangModelDependencyInfo depInfo,
+            final @NonNull YangTextStatement tree, final @NonNull YangModelDependencyInfo depInfo,
             @Nullable final String symbolicName) {
         this.depInfo = requireNonNull(depInfo);
         this.tree = requireNonNull(tree);
@@ -57,13 +64,13 @@ public final class ASTSchemaSource implements SchemaSourceRepresentation {
      * @param identifier
      *            SourceIdentifier of YANG schema source.
      * @param tree
-     *            ANTLR abstract syntax tree
+     *            Abstract syntax tree
      * @return A new representation instance.
      * @throws YangSyntaxErrorException
      *             if we fail to extract dependency information.
      */
     static @NonNull ASTSchemaSource create(final @NonNull SourceIdentifier identifier,
-            final @Nullable String symbolicName, final @NonNull ParserRuleContext tree)
+            final @Nullable String symbolicName, final @NonNull YangTextStatement tree)
                     throws YangSyntaxErrorException {
         final YangModelDependencyInfo depInfo = YangModelDependencyInfo.fromAST(identifier, tree);
         final SourceIdentifier id = getSourceId(depInfo);
@@ -78,6 +85,45 @@ public final class ASTSchemaSource implements SchemaSourceRepresentation {
         return new ASTSchemaSource(id, semVerId, tree, depInfo, symbolicName);
     }
 
+    /**
+     * Read an AST representation previously written by {@link #writeTo(DataOutput)}. Dependency information is
+     * extracted from the AST again.
+     *
+     * @param in Data input
+     * @return A new representation instance.
+     * @throws IOException if an I/O error occurs or the data does not contain a valid AST representation
+     */
+    public static @NonNull ASTSchemaSource readFrom(final DataInput in) throws IOException {
+        final String name = in.readUTF();
+        final String revision = readNullableUTF(in);
+        final String semVer = readNullableUTF(in);
+        final String symbolicName = readNullableUTF(in);
+        final YangTextStatement tree = YangTextStatement.readFrom(in, new ArrayList<>());
+
+        final SemVerSourceIdentifier identifier;
+        try {
+            identifier = SemVerSourceIdentifier.create(name, Revision.ofNullable(revision),
+                semVer == null ? null : SemVer.valueOf(semVer));
+            return create(identifier, symbolicName, tree);
+        } catch (YangSyntaxErrorException | IllegalArgumentException | DateTimeParseException e) {
+            throw new IOException("Invalid AST representation of " + name, e);
+        }
+    }
+
+    /**
+     * Write this AST representation in a binary form, which can be read back by {@link #readFrom(DataInput)}.
+     *
+     * @param out Data output
+     * @throws IOException if an I/O error occurs
+     */
+    public void writeTo(final DataOutput out) throws IOException {
+        out.writeUTF(semVerId.getName());
+        writeNullableUTF(out, semVerId.getRevision().map(Revision::toString).orElse(null));
+        writeNullableUTF(out, semVerId.getSemanticVersion().map(SemVer::toString).orElse(null));
+        writeNullableUTF(out, symbolicName);
+        tree.writeTo(out, new HashMap<>());
+    }
+
     @Override
     public SourceIdentifier getIdentifier() {
         return identifier;
@@ -102,7 +148,7 @@ public final class ASTSchemaSource implements SchemaSourceRepresentation {
      *
      * @return Underlying AST.
      */
-    public @NonNull ParserRuleContext getAST() {
+    @NonNull YangTextStatement getRoot() {
         return tree;
     }
 
@@ -122,6 +168,17 @@ public final class ASTSchemaSource implements SchemaSourceRepresentation {
         return MoreObjects.toStringHelper(this).add("identifier", identifier).toString();
     }
 
+    private static void writeNullableUTF(final DataOutput out, final @Nullable String str) throws IOException {
+        out.writeBoolean(str != null);
+        if (str != null) {
+            out.writeUTF(str);
+        }
+    }
+
+    private static @Nullable String readNullableUTF(final DataInput in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
     private static @NonNull SourceIdentifier getSourceId(final @NonNull YangModelDependencyInfo depInfo) {
         final String name = depInfo.getName();
         return depInfo.getFormattedRevision() == null ? RevisionSourceIdentifier.create(name)
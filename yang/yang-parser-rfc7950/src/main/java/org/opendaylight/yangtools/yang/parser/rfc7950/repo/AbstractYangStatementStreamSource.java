@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2018 Pantheon Technologies, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.parser.rfc7950.repo;
+
+import static java.util.Objects.requireNonNull;
+
+import com.google.common.base.MoreObjects;
+import org.opendaylight.yangtools.yang.common.YangVersion;
+import org.opendaylight.yangtools.yang.model.repo.api.SourceIdentifier;
+import org.opendaylight.yangtools.yang.parser.spi.source.PrefixToModule;
+import org.opendaylight.yangtools.yang.parser.spi.source.QNameToStatementDefinition;
+import org.opendaylight.yangtools.yang.parser.spi.source.StatementStreamSource;
+import org.opendaylight.yangtools.yang.parser.spi.source.StatementWriter;
+
+/**
+ * Common base for StatementStreamSources emitting statements from a {@link YangTextStatement} tree.
+ */
+abstract class AbstractYangStatementStreamSource implements StatementStreamSource {
+    private final SourceIdentifier identifier;
+    private final YangTextStatement root;
+    private final String sourceName;
+
+    AbstractYangStatementStreamSource(final SourceIdentifier identifier, final YangTextStatement root,
+            final String sourceName) {
+        this.identifier = requireNonNull(identifier);
+        this.root = requireNonNull(root);
+        this.sourceName = sourceName;
+    }
+
+    @Override
+    public final void writePreLinkage(final StatementWriter writer, final QNameToStatementDefinition stmtDef) {
+        new StatementContextVisitor(sourceName, writer, stmtDef, null, YangVersion.VERSION_1).visit(root);
+    }
+
+    @Override
+    public final void writeLinkage(final StatementWriter writer, final QNameToStatementDefinition stmtDef,
+            final PrefixToModule preLinkagePrefixes) {
+        writeLinkage(writer, stmtDef, preLinkagePrefixes, YangVersion.VERSION_1);
+    }
+
+    @Override
+    public final void writeLinkage(final StatementWriter writer, final QNameToStatementDefinition stmtDef,
+            final PrefixToModule preLinkagePrefixes, final YangVersion yangVersion) {
+        StatementContextVisitor.linkage(sourceName, writer, stmtDef, preLinkagePrefixes, yangVersion).visit(root);
+    }
+
+    @Override
+    public final void writeLinkageAndStatementDefinitions(final StatementWriter writer,
+            final QNameToStatementDefinition stmtDef, final PrefixToModule prefixes) {
+        writeLinkageAndStatementDefinitions(writer, stmtDef, prefixes, YangVersion.VERSION_1);
+    }
+
+    @Override
+    public final void writeLinkageAndStatementDefinitions(final StatementWriter writer,
+            final QNameToStatementDefinition stmtDef, final PrefixToModule prefixes, final YangVersion yangVersion) {
+        new StatementContextVisitor(sourceName, writer, stmtDef, prefixes, yangVersion).visit(root);
+    }
+
+    @Override
+    public final void writeFull(final StatementWriter writer, final QNameToStatementDefinition stmtDef,
+            final PrefixToModule prefixes) {
+        writeFull(writer, stmtDef, prefixes, YangVersion.VERSION_1);
+    }
+
+    @Override
+    public final void writeFull(final StatementWriter writer, final QNameToStatementDefinition stmtDef,
+            final PrefixToModule prefixes, final YangVersion yangVersion) {
+        StatementContextVisitor.full(sourceName, writer, stmtDef, prefixes, yangVersion).visit(root);
+    }
+
+    @Override
+    public final SourceIdentifier getIdentifier() {
+        return identifier;
+    }
+
+    final YangTextStatement getRoot() {
+        return root;
+    }
+
+    @Override
+    public final String toString() {
+        return MoreObjects.toStringHelper(this).add("identifier", identifier).toString();
+    }
+}
@@ -13,6 +13,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.regex.Pattern;
 import org.antlr.v4.runtime.tree.TerminalNode;
+import org.eclipse.jdt.annotation.Nullable;
 import org.opendaylight.yangtools.antlrv4.code.gen.YangStatementParser.ArgumentContext;
 import org.opendaylight.yangtools.yang.common.YangVersion;
 import org.opendaylight.yangtools.yang.parser.spi.source.SourceException;
@@ -48,16 +49,7 @@ final class ArgumentContextUtils {
                  * in the inner string and trim the result.
                  */
                 checkDoubleQuotedString(innerStr, yangVersion, ref);
-
-                sb.append(ESCAPED_TAB.matcher(
-                    ESCAPED_LF.matcher(
-                        ESCAPED_BACKSLASH.matcher(
-                            ESCAPED_DQUOT.matcher(
-                                trimWhitespace(innerStr, stringNode.getSymbol().getCharPositionInLine()))
-                            .replaceAll("\\\""))
-                        .replaceAll("\\\\"))
-                    .replaceAll("\\\n"))
-                    .replaceAll("\\\t"));
+                sb.append(unescapeDoubleQuoted(innerStr, stringNode.getSymbol().getCharPositionInLine()));
             } else if (firstChar == '\'' && lastChar == '\'') {
                 /*
                  * According to RFC6020 a single quote character cannot occur in
@@ -72,32 +64,102 @@ final class ArgumentContextUtils {
         return sb.toString();
     }
 
-    private static void checkUnquotedString(final String str, final YangVersion yangVersion,
+    /**
+     * Find the first string in an argument which is not valid in YANG 1.1.
+     *
+     * @param context Argument context
+     * @return Text of the offending string, including quotes, or null if all strings are valid
+     */
+    static @Nullable String findStrictViolation(final ArgumentContext context) {
+        List<TerminalNode> strings = context.STRING();
+        if (strings.isEmpty()) {
+            strings = Collections.singletonList(context.IDENTIFIER());
+        }
+        for (final TerminalNode stringNode : strings) {
+            final String str = stringNode.getText();
+            final char firstChar = str.charAt(0);
+            final char lastChar = str.charAt(str.length() - 1);
+            if (firstChar == '"' && lastChar == '"') {
+                if (findIllegalEscape(str.substring(1, str.length() - 1)) != -1) {
+                    return str;
+                }
+            } else if ((firstChar != '\'' || lastChar != '\'') && !isValidUnquotedString(str)) {
+                return str;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Unescape escaped double quotes, tabs, new line and backslash in the contents of a double-quoted string and trim
+     * whitespace around its line breaks.
+     *
+     * @param innerStr String contents, without the quotes
+     * @param dquot Column of the opening double quote
+     * @return Unescaped string
+     */
+    static String unescapeDoubleQuoted(final String innerStr, final int dquot) {
+        return ESCAPED_TAB.matcher(
+            ESCAPED_LF.matcher(
+                ESCAPED_BACKSLASH.matcher(
+                    ESCAPED_DQUOT.matcher(trimWhitespace(innerStr, dquot))
+                    .replaceAll("\\\""))
+                .replaceAll("\\\\"))
+            .replaceAll("\\\n"))
+            .replaceAll("\\\t");
+    }
+
+    /**
+     * Check whether an unquoted string is valid in YANG 1.1.
+     *
+     * @param str Unquoted string
+     * @return True if the string does not contain any quotes
+     */
+    static boolean isValidUnquotedString(final String str) {
+        return !ANYQUOTE_MATCHER.matchesAnyOf(str);
+    }
+
+    /**
+     * Find the first backslash in the contents of a double-quoted string which does not start an escape sequence
+     * allowed by YANG 1.1.
+     *
+     * @param str String contents, without the quotes
+     * @return Offset of the backslash, or -1 if all escape sequences are allowed
+     */
+    static int findIllegalEscape(final String str) {
+        for (int i = 0; i < str.length() - 1; i++) {
+            if (str.charAt(i) == '\\') {
+                switch (str.charAt(i + 1)) {
+                    case 'n':
+                    case 't':
+                    case '\\':
+                    case '\"':
+                        i++;
+                        break;
+                    default:
+                        return i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    static void checkUnquotedString(final String str, final YangVersion yangVersion,
             final StatementSourceReference ref) {
         if (yangVersion == YangVersion.VERSION_1_1) {
-            SourceException.throwIf(ANYQUOTE_MATCHER.matchesAnyOf(str), ref,
+            SourceException.throwIf(!isValidUnquotedString(str), ref,
                 "YANG 1.1: unquoted string (%s) contains illegal characters", str);
         }
     }
 
-    private static void checkDoubleQuotedString(final String str, final YangVersion yangVersion,
+    static void checkDoubleQuotedString(final String str, final YangVersion yangVersion,
             final StatementSourceReference ref) {
         if (yangVersion == YangVersion.VERSION_1_1) {
-            for (int i = 0; i < str.length() - 1; i++) {
-                if (str.charAt(i) == '\\') {
-                    switch (str.charAt(i + 1)) {
-                        case 'n':
-                        case 't':
-                        case '\\':
-                        case '\"':
-                            i++;
-                            break;
-                        default:
-                            throw new SourceException(ref, "YANG 1.1: illegal double quoted string (%s). In double "
-                                    + "quoted string the backslash must be followed by one of the following character "
-                                    + "[n,t,\",\\], but was '%s'.", str, str.charAt(i + 1));
-                    }
-                }
+            final int illegal = findIllegalEscape(str);
+            if (illegal != -1) {
+                throw new SourceException(ref, "YANG 1.1: illegal double quoted string (%s). In double "
+                        + "quoted string the backslash must be followed by one of the following character "
+                        + "[n,t,\",\\], but was '%s'.", str, str.charAt(illegal + 1));
             }
         }
     }
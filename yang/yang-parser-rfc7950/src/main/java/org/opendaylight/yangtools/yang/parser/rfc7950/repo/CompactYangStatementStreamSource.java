@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2018 Pantheon Technologies, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.parser.rfc7950.repo;
+
+import com.google.common.annotations.Beta;
+import java.io.IOException;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import org.eclipse.jdt.annotation.Nullable;
+import org.opendaylight.yangtools.yang.model.parser.api.YangSyntaxErrorException;
+import org.opendaylight.yangtools.yang.model.repo.api.SourceIdentifier;
+import org.opendaylight.yangtools.yang.model.repo.api.YangTextSchemaSource;
+
+/**
+ * A StatementStreamSource emitting YANG statements parsed by a hand-written tokenizer rather than by ANTLR. It accepts
+ * the same language as {@link YangStatementStreamSource} and emits the same statements, but it does not create token
+ * objects and retains only a compact tree of statements, holding their keywords, processed arguments and source
+ * positions, instead of a full parse tree.
+ */
+@Beta
+public final class CompactYangStatementStreamSource extends AbstractYangStatementStreamSource {
+    private CompactYangStatementStreamSource(final SourceIdentifier identifier, final YangTextStatement root,
+            final String sourceName) {
+        super(identifier, root, sourceName);
+    }
+
+    /**
+     * Create a {@link CompactYangStatementStreamSource} for a {@link YangTextSchemaSource}.
+     *
+     * @param source YangTextSchemaSource, must not be null
+     * @return A new {@link CompactYangStatementStreamSource}
+     * @throws IOException When we fail to read the source
+     * @throws YangSyntaxErrorException If the source fails basic parsing
+     */
+    public static CompactYangStatementStreamSource create(final YangTextSchemaSource source) throws IOException,
+            YangSyntaxErrorException {
+        return create(source.getIdentifier(), source.asCharSource(StandardCharsets.UTF_8).read(),
+            source.getSymbolicName().orElse(null));
+    }
+
+    /**
+     * Create a {@link CompactYangStatementStreamSource} for YANG text held in memory, for example in
+     * a {@link CharBuffer}. The text is not retained.
+     *
+     * @param identifier Source identifier
+     * @param text YANG text
+     * @param symbolicName Symbolic name of the source, used in source references, may be null
+     * @return A new {@link CompactYangStatementStreamSource}
+     * @throws YangSyntaxErrorException If the source fails basic parsing
+     */
+    public static CompactYangStatementStreamSource create(final SourceIdentifier identifier, final CharSequence text,
+            final @Nullable String symbolicName) throws YangSyntaxErrorException {
+        return new CompactYangStatementStreamSource(identifier, YangTextTokenizer.parse(identifier, text),
+            symbolicName);
+    }
+
+    /**
+     * Create a {@link CompactYangStatementStreamSource} for a UTF-8 encoded YANG file. The file is mapped into memory
+     * and decoded in a single pass.
+     *
+     * @param identifier Source identifier
+     * @param file YANG file
+     * @return A new {@link CompactYangStatementStreamSource}
+     * @throws IOException When we fail to read the file
+     * @throws YangSyntaxErrorException If the source fails basic parsing
+     */
+    public static CompactYangStatementStreamSource create(final SourceIdentifier identifier, final Path file)
+            throws IOException, YangSyntaxErrorException {
+        final CharBuffer text;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            final MappedByteBuffer mapped = channel.map(MapMode.READ_ONLY, 0, channel.size());
+            text = StandardCharsets.UTF_8.newDecoder().decode(mapped);
+        }
+        return create(identifier, text, file.toString());
+    }
+}
@@ -7,14 +7,9 @@
  */
 package org.opendaylight.yangtools.yang.parser.rfc7950.repo;
 
-import static com.google.common.base.Verify.verifyNotNull;
 import static java.util.Objects.requireNonNull;
 
 import java.util.Optional;
-import org.antlr.v4.runtime.tree.ParseTree;
-import org.opendaylight.yangtools.antlrv4.code.gen.YangStatementParser.ArgumentContext;
-import org.opendaylight.yangtools.antlrv4.code.gen.YangStatementParser.KeywordContext;
-import org.opendaylight.yangtools.antlrv4.code.gen.YangStatementParser.StatementContext;
 import org.opendaylight.yangtools.yang.common.QName;
 import org.opendaylight.yangtools.yang.common.QNameModule;
 import org.opendaylight.yangtools.yang.common.YangConstants;
@@ -44,8 +39,35 @@ class StatementContextVisitor {
         this.prefixes = prefixes;
     }
 
-    void visit(final StatementContext context) {
-        processStatement(0, context);
+    /**
+     * Create a visitor which resolves statements using only namespaces and local names, for use in the linkage phase.
+     */
+    static StatementContextVisitor linkage(final String sourceName, final StatementWriter writer,
+            final QNameToStatementDefinition stmtDef, final PrefixToModule prefixes, final YangVersion yangVersion) {
+        return new StatementContextVisitor(sourceName, writer, stmtDef, prefixes, yangVersion) {
+            @Override
+            StatementDefinition resolveStatement(final QNameModule module, final String localName) {
+                return stmtDef.getByNamespaceAndLocalName(module.getNamespace(), localName);
+            }
+        };
+    }
+
+    /**
+     * Create a visitor which requires all statements to be resolved, for use in the full declaration phase.
+     */
+    static StatementContextVisitor full(final String sourceName, final StatementWriter writer,
+            final QNameToStatementDefinition stmtDef, final PrefixToModule prefixes, final YangVersion yangVersion) {
+        return new StatementContextVisitor(sourceName, writer, stmtDef, prefixes, yangVersion) {
+            @Override
+            QName getValidStatementDefinition(final String keywordText, final StatementSourceReference ref) {
+                return SourceException.throwIfNull(super.getValidStatementDefinition(keywordText, ref), ref,
+                    "%s is not a YANG statement or use of extension.", keywordText);
+            }
+        };
+    }
+
+    void visit(final YangTextStatement statement) {
+        processStatement(0, statement);
     }
 
     /**
@@ -90,7 +112,7 @@ class StatementContextVisitor {
         return stmtDef.get(QName.create(module, localName));
     }
 
-    private boolean processStatement(final int myOffset, final StatementContext ctx) {
+    private boolean processStatement(final int myOffset, final YangTextStatement stmt) {
         final Optional<? extends ResumedStatement> optResumed = writer.resumeStatement(myOffset);
         final StatementSourceReference ref;
         if (optResumed.isPresent()) {
@@ -101,29 +123,20 @@ class StatementContextVisitor {
 
             ref = resumed.getSourceReference();
         } else {
-            final String keywordTxt = verifyNotNull(ctx.getChild(KeywordContext.class, 0)).getText();
-            ref = DeclarationInTextSource.atPosition(sourceName, ctx.getStart().getLine(),
-                ctx.getStart().getCharPositionInLine());
-            final QName def = getValidStatementDefinition(keywordTxt, ref);
+            ref = DeclarationInTextSource.atPosition(sourceName, stmt.line(), stmt.column());
+            final QName def = getValidStatementDefinition(stmt.keyword(), ref);
             if (def == null) {
                 return false;
             }
 
-            final ArgumentContext argumentCtx = ctx.getChild(ArgumentContext.class, 0);
-            final String argument = argumentCtx == null ? null
-                    : ArgumentContextUtils.stringFromStringContext(argumentCtx, yangVersion, ref);
-            writer.startStatement(myOffset, def, argument, ref);
+            writer.startStatement(myOffset, def, stmt.argument(yangVersion, ref), ref);
         }
 
         int childOffset = 0;
         boolean fullyDefined = true;
-        if (ctx.children != null) {
-            for (ParseTree s : ctx.children) {
-                if (s instanceof StatementContext) {
-                    if (!processStatement(childOffset++, (StatementContext) s)) {
-                        fullyDefined = false;
-                    }
-                }
+        for (YangTextStatement child : stmt.children()) {
+            if (!processStatement(childOffset++, child)) {
+                fullyDefined = false;
             }
         }
 
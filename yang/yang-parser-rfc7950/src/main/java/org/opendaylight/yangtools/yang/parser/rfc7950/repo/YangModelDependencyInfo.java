@@ -20,10 +20,8 @@ import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
-import org.antlr.v4.runtime.ParserRuleContext;
 import org.eclipse.jdt.annotation.NonNull;
 import org.eclipse.jdt.annotation.Nullable;
-import org.opendaylight.yangtools.antlrv4.code.gen.YangStatementParser.ArgumentContext;
 import org.opendaylight.yangtools.antlrv4.code.gen.YangStatementParser.StatementContext;
 import org.opendaylight.yangtools.concepts.SemVer;
 import org.opendaylight.yangtools.openconfig.model.api.OpenConfigStatements;
@@ -169,22 +167,14 @@ public abstract class YangModelDependencyInfo {
      * @param source Source identifier
      * @param tree Abstract syntax tree
      * @return {@link YangModelDependencyInfo}
-     * @throws YangSyntaxErrorException If the AST is not a valid YANG module/submodule
      */
-    static @NonNull YangModelDependencyInfo fromAST(final SourceIdentifier source, final ParserRuleContext tree)
-            throws YangSyntaxErrorException {
-
-        if (tree instanceof StatementContext) {
-            final StatementContext rootStatement = (StatementContext) tree;
-            return parseAST(rootStatement, source);
-        }
-
-        throw new YangSyntaxErrorException(source, 0, 0, "Unknown YANG text type");
+    static @NonNull YangModelDependencyInfo fromAST(final SourceIdentifier source, final YangTextStatement tree) {
+        return parseAST(tree, source);
     }
 
-    private static @NonNull YangModelDependencyInfo parseAST(final StatementContext rootStatement,
+    private static @NonNull YangModelDependencyInfo parseAST(final YangTextStatement rootStatement,
             final SourceIdentifier source) {
-        final String keyWordText = rootStatement.keyword().getText();
+        final String keyWordText = rootStatement.keyword();
         if (MODULE.equals(keyWordText)) {
             return parseModuleContext(rootStatement, source);
         }
@@ -211,12 +201,10 @@ public abstract class YangModelDependencyInfo {
             throws IOException, YangSyntaxErrorException {
         final YangStatementStreamSource source = YangStatementStreamSource.create(
             YangTextSchemaSource.forResource(refClass, resourceName));
-        final ParserRuleContext ast = source.getYangAST();
-        checkArgument(ast instanceof StatementContext);
-        return parseAST((StatementContext) ast, source.getIdentifier());
+        return parseAST(source.getRoot(), source.getIdentifier());
     }
 
-    private static @NonNull YangModelDependencyInfo parseModuleContext(final StatementContext module,
+    private static @NonNull YangModelDependencyInfo parseModuleContext(final YangTextStatement module,
             final SourceIdentifier source) {
         final String name = safeStringArgument(source, module, "module name");
         final String latestRevision = getLatestRevision(module, source);
@@ -227,26 +215,26 @@ public abstract class YangModelDependencyInfo {
         return new ModuleDependencyInfo(name, latestRevision, imports, includes, semVer);
     }
 
-    private static ImmutableSet<ModuleImport> parseImports(final StatementContext module,
+    private static ImmutableSet<ModuleImport> parseImports(final YangTextStatement module,
             final SourceIdentifier source) {
         final Set<ModuleImport> result = new HashSet<>();
-        for (final StatementContext subStatementContext : module.statement()) {
-            if (IMPORT.equals(subStatementContext.keyword().getText())) {
-                final String importedModuleName = safeStringArgument(source, subStatementContext,
+        for (final YangTextStatement subYangTextStatement : module.children()) {
+            if (IMPORT.equals(subYangTextStatement.keyword())) {
+                final String importedModuleName = safeStringArgument(source, subYangTextStatement,
                     "imported module name");
-                final String revisionDateStr = getRevisionDateString(subStatementContext, source);
+                final String revisionDateStr = getRevisionDateString(subYangTextStatement, source);
                 final Revision revisionDate = Revision.ofNullable(revisionDateStr).orElse(null);
-                final SemVer importSemVer = findSemanticVersion(subStatementContext, source);
+                final SemVer importSemVer = findSemanticVersion(subYangTextStatement, source);
                 result.add(new ModuleImportImpl(importedModuleName, revisionDate, importSemVer));
             }
         }
         return ImmutableSet.copyOf(result);
     }
 
-    private static SemVer findSemanticVersion(final StatementContext statement, final SourceIdentifier source) {
+    private static SemVer findSemanticVersion(final YangTextStatement statement, final SourceIdentifier source) {
         String semVerString = null;
-        for (final StatementContext subStatement : statement.statement()) {
-            final String subStatementName = trimPrefix(subStatement.keyword().getText());
+        for (final YangTextStatement subStatement : statement.children()) {
+            final String subStatementName = trimPrefix(subStatement.keyword());
             if (OPENCONFIG_VERSION.equals(subStatementName)) {
                 semVerString = safeStringArgument(source,  subStatement, "version string");
                 break;
@@ -266,13 +254,13 @@ public abstract class YangModelDependencyInfo {
     }
 
 
-    private static ImmutableSet<ModuleImport> parseIncludes(final StatementContext module,
+    private static ImmutableSet<ModuleImport> parseIncludes(final YangTextStatement module,
             final SourceIdentifier source) {
         final Set<ModuleImport> result = new HashSet<>();
-        for (final StatementContext subStatementContext : module.statement()) {
-            if (INCLUDE.equals(subStatementContext.keyword().getText())) {
-                final String revisionDateStr = getRevisionDateString(subStatementContext, source);
-                final String IncludeModuleName = safeStringArgument(source, subStatementContext,
+        for (final YangTextStatement subYangTextStatement : module.children()) {
+            if (INCLUDE.equals(subYangTextStatement.keyword())) {
+                final String revisionDateStr = getRevisionDateString(subYangTextStatement, source);
+                final String IncludeModuleName = safeStringArgument(source, subYangTextStatement,
                     "included submodule name");
                 final Revision revisionDate = Revision.ofNullable(revisionDateStr).orElse(null);
                 result.add(new ModuleImportImpl(IncludeModuleName, revisionDate));
@@ -281,10 +269,11 @@ public abstract class YangModelDependencyInfo {
         return ImmutableSet.copyOf(result);
     }
 
-    private static String getRevisionDateString(final StatementContext importStatement, final SourceIdentifier source) {
+    private static String getRevisionDateString(final YangTextStatement importStatement,
+            final SourceIdentifier source) {
         String revisionDateStr = null;
-        for (final StatementContext importSubStatement : importStatement.statement()) {
-            if (REVISION_DATE.equals(importSubStatement.keyword().getText())) {
+        for (final YangTextStatement importSubStatement : importStatement.children()) {
+            if (REVISION_DATE.equals(importSubStatement.keyword())) {
                 revisionDateStr = safeStringArgument(source, importSubStatement, "imported module revision-date");
             }
         }
@@ -292,10 +281,14 @@ public abstract class YangModelDependencyInfo {
     }
 
     public static String getLatestRevision(final StatementContext module, final SourceIdentifier source) {
+        return getLatestRevision(YangTextStatement.fromParseTree(module), source);
+    }
+
+    private static String getLatestRevision(final YangTextStatement module, final SourceIdentifier source) {
         String latestRevision = null;
-        for (final StatementContext subStatementContext : module.statement()) {
-            if (REVISION.equals(subStatementContext.keyword().getText())) {
-                final String currentRevision = safeStringArgument(source, subStatementContext, "revision date");
+        for (final YangTextStatement subYangTextStatement : module.children()) {
+            if (REVISION.equals(subYangTextStatement.keyword())) {
+                final String currentRevision = safeStringArgument(source, subYangTextStatement, "revision date");
                 if (latestRevision == null || latestRevision.compareTo(currentRevision) < 0) {
                     latestRevision = currentRevision;
                 }
@@ -304,7 +297,7 @@ public abstract class YangModelDependencyInfo {
         return latestRevision;
     }
 
-    private static @NonNull YangModelDependencyInfo parseSubmoduleContext(final StatementContext submodule,
+    private static @NonNull YangModelDependencyInfo parseSubmoduleContext(final YangTextStatement submodule,
             final SourceIdentifier source) {
         final String name = safeStringArgument(source, submodule, "submodule name");
         final String belongsTo = parseBelongsTo(submodule, source);
@@ -316,27 +309,26 @@ public abstract class YangModelDependencyInfo {
         return new SubmoduleDependencyInfo(name, latestRevision, belongsTo, imports, includes);
     }
 
-    private static String parseBelongsTo(final StatementContext submodule, final SourceIdentifier source) {
-        for (final StatementContext subStatementContext : submodule.statement()) {
-            if (BELONGS_TO.equals(subStatementContext.keyword().getText())) {
-                return safeStringArgument(source, subStatementContext, "belongs-to module name");
+    private static String parseBelongsTo(final YangTextStatement submodule, final SourceIdentifier source) {
+        for (final YangTextStatement subYangTextStatement : submodule.children()) {
+            if (BELONGS_TO.equals(subYangTextStatement.keyword())) {
+                return safeStringArgument(source, subYangTextStatement, "belongs-to module name");
             }
         }
         return null;
     }
 
-    private static String safeStringArgument(final SourceIdentifier source, final StatementContext stmt,
+    private static String safeStringArgument(final SourceIdentifier source, final YangTextStatement stmt,
             final String desc) {
         final StatementSourceReference ref = getReference(source, stmt);
-        final ArgumentContext arg = stmt.argument();
+        final String arg = stmt.argument(YangVersion.VERSION_1, ref);
         checkArgument(arg != null, "Missing %s at %s", desc, ref);
-        return ArgumentContextUtils.stringFromStringContext(arg, YangVersion.VERSION_1, ref);
+        return arg;
     }
 
     private static StatementSourceReference getReference(final SourceIdentifier source,
-            final StatementContext context) {
-        return DeclarationInTextSource.atPosition(source.getName(), context.getStart().getLine(),
-            context.getStart().getCharPositionInLine());
+            final YangTextStatement context) {
+        return DeclarationInTextSource.atPosition(source.getName(), context.line(), context.column());
     }
 
     /**
@@ -7,77 +7,30 @@
  */
 package org.opendaylight.yangtools.yang.parser.rfc7950.repo;
 
-import static com.google.common.base.Preconditions.checkArgument;
-
 import com.google.common.annotations.Beta;
-import com.google.common.base.MoreObjects;
-import com.google.common.base.Preconditions;
-import com.google.common.collect.ImmutableList;
 import java.io.IOException;
 import java.io.InputStream;
 import org.antlr.v4.runtime.CharStreams;
 import org.antlr.v4.runtime.CommonTokenStream;
-import org.antlr.v4.runtime.ParserRuleContext;
-import org.antlr.v4.runtime.tree.ErrorNode;
-import org.antlr.v4.runtime.tree.ParseTreeListener;
-import org.antlr.v4.runtime.tree.ParseTreeWalker;
-import org.antlr.v4.runtime.tree.TerminalNode;
 import org.opendaylight.yangtools.antlrv4.code.gen.YangStatementLexer;
 import org.opendaylight.yangtools.antlrv4.code.gen.YangStatementParser;
 import org.opendaylight.yangtools.antlrv4.code.gen.YangStatementParser.StatementContext;
-import org.opendaylight.yangtools.yang.common.QName;
-import org.opendaylight.yangtools.yang.common.QNameModule;
-import org.opendaylight.yangtools.yang.common.YangVersion;
-import org.opendaylight.yangtools.yang.model.api.meta.StatementDefinition;
 import org.opendaylight.yangtools.yang.model.parser.api.YangSyntaxErrorException;
 import org.opendaylight.yangtools.yang.model.repo.api.SourceIdentifier;
 import org.opendaylight.yangtools.yang.model.repo.api.YangTextSchemaSource;
-import org.opendaylight.yangtools.yang.parser.spi.source.PrefixToModule;
-import org.opendaylight.yangtools.yang.parser.spi.source.QNameToStatementDefinition;
-import org.opendaylight.yangtools.yang.parser.spi.source.SourceException;
-import org.opendaylight.yangtools.yang.parser.spi.source.StatementSourceReference;
-import org.opendaylight.yangtools.yang.parser.spi.source.StatementStreamSource;
-import org.opendaylight.yangtools.yang.parser.spi.source.StatementWriter;
 
 /**
  * This class represents implementation of StatementStreamSource in order to emit YANG statements using supplied
- * StatementWriter.
+ * StatementWriter. Sources are parsed using ANTLR, but only a compact representation of the resulting parse tree is
+ * retained.
  *
  * @author Robert Varga
  */
 @Beta
-public final class YangStatementStreamSource implements StatementStreamSource {
-    private static final ParseTreeListener MAKE_IMMUTABLE_LISTENER = new ParseTreeListener() {
-        @Override
-        public void enterEveryRule(final ParserRuleContext ctx) {
-            // No-op
-        }
-
-        @Override
-        public void exitEveryRule(final ParserRuleContext ctx) {
-            ctx.children = ctx.children == null ? ImmutableList.of() : ImmutableList.copyOf(ctx.children);
-        }
-
-        @Override
-        public void visitTerminal(final TerminalNode node) {
-            // No-op
-        }
-
-        @Override
-        public void visitErrorNode(final ErrorNode node) {
-            // No-op
-        }
-    };
-
-    private final SourceIdentifier identifier;
-    private final StatementContext context;
-    private final String sourceName;
-
-    private YangStatementStreamSource(final SourceIdentifier identifier,  final StatementContext context,
+public final class YangStatementStreamSource extends AbstractYangStatementStreamSource {
+    private YangStatementStreamSource(final SourceIdentifier identifier, final YangTextStatement root,
             final String sourceName) {
-        this.identifier = Preconditions.checkNotNull(identifier);
-        this.context = Preconditions.checkNotNull(context);
-        this.sourceName = sourceName;
+        super(identifier, root, sourceName);
     }
 
     /**
@@ -90,12 +43,12 @@ public final class YangStatementStreamSource implements StatementStreamSource {
      */
     public static YangStatementStreamSource create(final YangTextSchemaSource source) throws IOException,
             YangSyntaxErrorException {
-        final StatementContext context;
+        final YangTextStatement root;
         try (InputStream stream = source.openStream()) {
-            context = parseYangSource(source.getIdentifier(), stream);
+            root = parseYangSource(source.getIdentifier(), stream);
         }
 
-        return new YangStatementStreamSource(source.getIdentifier(), context, source.getSymbolicName().orElse(null));
+        return new YangStatementStreamSource(source.getIdentifier(), root, source.getSymbolicName().orElse(null));
     }
 
     /**
@@ -105,79 +58,27 @@ public final class YangStatementStreamSource implements StatementStreamSource {
      * @return A new {@link YangStatementStreamSource}
      */
     public static YangStatementStreamSource create(final ASTSchemaSource source) {
-        final ParserRuleContext ast = source.getAST();
-        checkArgument(ast instanceof StatementContext,
-                "Unsupported context class %s for source %s", ast.getClass(), source.getIdentifier());
-        return create(source.getIdentifier(), (StatementContext) ast, source.getSymbolicName().orElse(null));
-    }
-
-    public static YangStatementStreamSource create(final SourceIdentifier identifier, final StatementContext context,
-        final String symbolicName) {
-        return new YangStatementStreamSource(identifier, context, symbolicName);
-    }
-
-    @Override
-    public void writePreLinkage(final StatementWriter writer, final QNameToStatementDefinition stmtDef) {
-        new StatementContextVisitor(sourceName, writer, stmtDef, null, YangVersion.VERSION_1).visit(context);
-    }
-
-    @Override
-    public void writeLinkage(final StatementWriter writer, final QNameToStatementDefinition stmtDef,
-            final PrefixToModule preLinkagePrefixes) {
-        writeLinkage(writer, stmtDef, preLinkagePrefixes, YangVersion.VERSION_1);
-    }
-
-    @Override
-    public void writeLinkage(final StatementWriter writer, final QNameToStatementDefinition stmtDef,
-            final PrefixToModule preLinkagePrefixes, final YangVersion yangVersion) {
-        new StatementContextVisitor(sourceName, writer, stmtDef, preLinkagePrefixes, yangVersion) {
-            @Override
-            StatementDefinition resolveStatement(final QNameModule module, final String localName) {
-                return stmtDef.getByNamespaceAndLocalName(module.getNamespace(), localName);
-            }
-        }.visit(context);
-    }
-
-    @Override
-    public void writeLinkageAndStatementDefinitions(final StatementWriter writer,
-            final QNameToStatementDefinition stmtDef, final PrefixToModule prefixes) {
-        writeLinkageAndStatementDefinitions(writer, stmtDef, prefixes, YangVersion.VERSION_1);
-    }
-
-    @Override
-    public void writeLinkageAndStatementDefinitions(final StatementWriter writer,
-            final QNameToStatementDefinition stmtDef, final PrefixToModule prefixes, final YangVersion yangVersion) {
-        new StatementContextVisitor(sourceName, writer, stmtDef, prefixes, yangVersion).visit(context);
+        return create(source.getIdentifier(), source);
     }
 
-    @Override
-    public void writeFull(final StatementWriter writer, final QNameToStatementDefinition stmtDef,
-            final PrefixToModule prefixes) {
-        writeFull(writer, stmtDef, prefixes, YangVersion.VERSION_1);
-    }
-
-    @Override
-    public void writeFull(final StatementWriter writer, final QNameToStatementDefinition stmtDef,
-            final PrefixToModule prefixes, final YangVersion yangVersion) {
-        new StatementContextVisitor(sourceName, writer, stmtDef, prefixes, yangVersion) {
-            @Override
-            QName getValidStatementDefinition(final String keywordText, final StatementSourceReference ref) {
-                return SourceException.throwIfNull(super.getValidStatementDefinition(keywordText, ref), ref,
-                    "%s is not a YANG statement or use of extension.", keywordText);
-            }
-        }.visit(context);
-    }
-
-    @Override
-    public SourceIdentifier getIdentifier() {
-        return identifier;
+    /**
+     * Create a {@link YangStatementStreamSource} for a {@link ASTSchemaSource}, identifying it by a different
+     * identifier, such as its semantic version identifier.
+     *
+     * @param identifier Source identifier
+     * @param source YangTextSchemaSource, must not be null
+     * @return A new {@link YangStatementStreamSource}
+     */
+    public static YangStatementStreamSource create(final SourceIdentifier identifier, final ASTSchemaSource source) {
+        return new YangStatementStreamSource(identifier, source.getRoot(), source.getSymbolicName().orElse(null));
     }
 
-    public ParserRuleContext getYangAST() {
-        return context;
+    public static YangStatementStreamSource create(final SourceIdentifier identifier, final StatementContext context,
+        final String symbolicName) {
+        return new YangStatementStreamSource(identifier, YangTextStatement.fromParseTree(context), symbolicName);
     }
 
-    private static StatementContext parseYangSource(final SourceIdentifier source, final InputStream stream)
+    private static YangTextStatement parseYangSource(final SourceIdentifier source, final InputStream stream)
             throws IOException, YangSyntaxErrorException {
         final YangStatementLexer lexer = new YangStatementLexer(CharStreams.fromStream(stream));
         final YangStatementParser parser = new YangStatementParser(new CommonTokenStream(lexer));
@@ -192,16 +93,8 @@ public final class YangStatementStreamSource implements StatementStreamSource {
         final StatementContext result = parser.statement();
         errorListener.validate();
 
-        // Walk the resulting tree and replace each children with an immutable list, lowering memory requirements
-        // and making sure the resulting tree will not get accidentally modified. An alternative would be to use
-        // org.antlr.v4.runtime.Parser.TrimToSizeListener, but that does not make the tree immutable.
-        ParseTreeWalker.DEFAULT.walk(MAKE_IMMUTABLE_LISTENER, result);
-
-        return result;
-    }
-
-    @Override
-    public String toString() {
-        return MoreObjects.toStringHelper(this).add("identifier", getIdentifier()).toString();
+        // Convert the resulting tree into its compact form, so that the parse tree, along with all the tokens, can be
+        // released as soon as we return.
+        return YangTextStatement.fromParseTree(result);
     }
 }
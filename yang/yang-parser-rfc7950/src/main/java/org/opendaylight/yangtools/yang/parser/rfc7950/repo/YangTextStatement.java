@@ -0,0 +1,244 @@
+/*
+ * Copyright (c) 2018 Pantheon Technologies, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.parser.rfc7950.repo;
+
+import static java.util.Objects.requireNonNull;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableList;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.antlr.v4.runtime.Token;
+import org.eclipse.jdt.annotation.Nullable;
+import org.opendaylight.yangtools.antlrv4.code.gen.YangStatementParser.ArgumentContext;
+import org.opendaylight.yangtools.antlrv4.code.gen.YangStatementParser.StatementContext;
+import org.opendaylight.yangtools.concepts.Immutable;
+import org.opendaylight.yangtools.yang.common.YangVersion;
+import org.opendaylight.yangtools.yang.parser.spi.source.StatementSourceReference;
+
+/**
+ * A compact, immutable declared statement, as parsed by {@link YangTextTokenizer} or converted from an ANTLR parse
+ * tree. Unlike an ANTLR parse tree, it retains only the keyword, the argument with quoting and escaping already
+ * resolved, and the position of the statement in its source. Keywords and arguments are shared across a single source
+ * tree.
+ */
+final class YangTextStatement implements Immutable {
+    private static final int NULL_STRING = -1;
+    private static final int NEW_STRING = -2;
+
+    private final String keyword;
+    private final @Nullable String argument;
+    private final @Nullable String strictViolation;
+    private final ImmutableList<YangTextStatement> children;
+    private final int line;
+    private final int column;
+
+    YangTextStatement(final String keyword, final @Nullable String argument, final @Nullable String strictViolation,
+            final ImmutableList<YangTextStatement> children, final int line, final int column) {
+        this.keyword = requireNonNull(keyword);
+        this.argument = argument;
+        this.strictViolation = strictViolation;
+        this.children = requireNonNull(children);
+        this.line = line;
+        this.column = column;
+    }
+
+    /**
+     * Convert an ANTLR parse tree. The resulting tree does not retain any references to the parse tree.
+     *
+     * @param root Top-level statement context
+     * @return Top-level statement
+     */
+    static YangTextStatement fromParseTree(final StatementContext root) {
+        return fromParseTree(root, new HashMap<>());
+    }
+
+    private static YangTextStatement fromParseTree(final StatementContext ctx, final Map<String, String> strings) {
+        final Token keyword = ctx.keyword().getStart();
+        final ArgumentContext argumentCtx = ctx.argument();
+        final String argument;
+        final String violation;
+        if (argumentCtx != null) {
+            // Arguments are processed without version-specific checks, which are deferred until they are retrieved
+            argument = intern(strings, ArgumentContextUtils.stringFromStringContext(argumentCtx,
+                YangVersion.VERSION_1, null));
+            violation = ArgumentContextUtils.findStrictViolation(argumentCtx);
+        } else {
+            argument = null;
+            violation = null;
+        }
+
+        final List<StatementContext> statements = ctx.statement();
+        final ImmutableList<YangTextStatement> children;
+        if (statements.isEmpty()) {
+            children = ImmutableList.of();
+        } else {
+            final ImmutableList.Builder<YangTextStatement> builder = ImmutableList.builderWithExpectedSize(
+                statements.size());
+            for (StatementContext child : statements) {
+                builder.add(fromParseTree(child, strings));
+            }
+            children = builder.build();
+        }
+
+        return new YangTextStatement(intern(strings, ctx.keyword().getText()), argument, violation, children,
+            keyword.getLine(), keyword.getCharPositionInLine());
+    }
+
+    static String intern(final Map<String, String> strings, final String str) {
+        final String existing = strings.putIfAbsent(str, str);
+        return existing != null ? existing : str;
+    }
+
+    /**
+     * Write this statement and its substatements. Strings already written are replaced by references to their first
+     * occurrence.
+     *
+     * @param out Data output
+     * @param strings Offsets of strings already written to the output
+     * @throws IOException if an I/O error occurs
+     */
+    void writeTo(final DataOutput out, final Map<String, Integer> strings) throws IOException {
+        writeString(out, strings, keyword);
+        writeString(out, strings, argument);
+        writeString(out, strings, strictViolation);
+        out.writeInt(line);
+        out.writeInt(column);
+        out.writeInt(children.size());
+        for (YangTextStatement child : children) {
+            child.writeTo(out, strings);
+        }
+    }
+
+    /**
+     * Read a statement previously written by {@link #writeTo(DataOutput, Map)}.
+     *
+     * @param in Data input
+     * @param strings Strings already read from the input
+     * @return Statement
+     * @throws IOException if an I/O error occurs or the data is malformed
+     */
+    static YangTextStatement readFrom(final DataInput in, final List<String> strings) throws IOException {
+        final String keyword = readString(in, strings);
+        if (keyword == null) {
+            throw new IOException("Missing statement keyword");
+        }
+        final String argument = readString(in, strings);
+        final String violation = readString(in, strings);
+        final int line = in.readInt();
+        final int column = in.readInt();
+        final int size = in.readInt();
+        if (size < 0) {
+            throw new IOException("Invalid substatement count " + size);
+        }
+
+        final ImmutableList<YangTextStatement> children;
+        if (size == 0) {
+            children = ImmutableList.of();
+        } else {
+            final ImmutableList.Builder<YangTextStatement> builder = ImmutableList.builderWithExpectedSize(size);
+            for (int i = 0; i < size; ++i) {
+                builder.add(readFrom(in, strings));
+            }
+            children = builder.build();
+        }
+        return new YangTextStatement(keyword, argument, violation, children, line, column);
+    }
+
+    private static void writeString(final DataOutput out, final Map<String, Integer> strings, final String str)
+            throws IOException {
+        if (str == null) {
+            out.writeInt(NULL_STRING);
+            return;
+        }
+
+        final Integer offset = strings.get(str);
+        if (offset != null) {
+            out.writeInt(offset);
+            return;
+        }
+
+        strings.put(str, strings.size());
+        final byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(NEW_STRING);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(final DataInput in, final List<String> strings) throws IOException {
+        final int offset = in.readInt();
+        switch (offset) {
+            case NULL_STRING:
+                return null;
+            case NEW_STRING:
+                final int length = in.readInt();
+                if (length < 0) {
+                    throw new IOException("Invalid string length " + length);
+                }
+                final byte[] bytes = new byte[length];
+                in.readFully(bytes);
+                final String str = new String(bytes, StandardCharsets.UTF_8);
+                strings.add(str);
+                return str;
+            default:
+                if (offset < 0 || offset >= strings.size()) {
+                    throw new IOException("Invalid string reference " + offset);
+                }
+                return strings.get(offset);
+        }
+    }
+
+    String keyword() {
+        return keyword;
+    }
+
+    /**
+     * Return the argument of this statement, as interpreted by a particular YANG version.
+     *
+     * @param yangVersion YANG version
+     * @param ref Source reference of this statement
+     * @return Statement argument, or null if the statement does not have one
+     * @throws org.opendaylight.yangtools.yang.parser.spi.source.SourceException if the argument is not valid in
+     *         the specified YANG version
+     */
+    @Nullable String argument(final YangVersion yangVersion, final StatementSourceReference ref) {
+        if (strictViolation != null) {
+            // The argument was processed without checks, re-check the offending string
+            if (strictViolation.charAt(0) == '"') {
+                ArgumentContextUtils.checkDoubleQuotedString(
+                    strictViolation.substring(1, strictViolation.length() - 1), yangVersion, ref);
+            } else {
+                ArgumentContextUtils.checkUnquotedString(strictViolation, yangVersion, ref);
+            }
+        }
+        return argument;
+    }
+
+    ImmutableList<YangTextStatement> children() {
+        return children;
+    }
+
+    int line() {
+        return line;
+    }
+
+    int column() {
+        return column;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this).omitNullValues().add("keyword", keyword).add("argument", argument)
+                .add("line", line).add("column", column).toString();
+    }
+}
@@ -0,0 +1,311 @@
+/*
+ * Copyright (c) 2018 Pantheon Technologies, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.parser.rfc7950.repo;
+
+import static java.util.Objects.requireNonNull;
+
+import com.google.common.collect.ImmutableList;
+import java.util.HashMap;
+import java.util.Map;
+import org.opendaylight.yangtools.yang.model.parser.api.YangSyntaxErrorException;
+import org.opendaylight.yangtools.yang.model.repo.api.SourceIdentifier;
+
+/**
+ * Hand-written tokenizer and parser of YANG text, accepting the same language as YangStatementLexer and
+ * YangStatementParser grammars. It operates directly on a {@link CharSequence}, allocating only the strings it retains
+ * in the resulting {@link YangTextStatement} tree. Statement keywords and arguments are shared across the tree.
+ *
+ * <p>
+ * Arguments are processed as they are parsed. Checks which depend on the YANG version of the source are performed
+ * when the argument is retrieved from the tree.
+ */
+final class YangTextTokenizer {
+    private final Map<String, String> strings = new HashMap<>();
+    private final SourceIdentifier source;
+    private final CharSequence text;
+    private final int length;
+
+    private String strictViolation;
+    private int pos;
+    private int line = 1;
+    private int lineStart;
+
+    private YangTextTokenizer(final SourceIdentifier source, final CharSequence text) {
+        this.source = requireNonNull(source);
+        this.text = requireNonNull(text);
+        this.length = text.length();
+    }
+
+    /**
+     * Parse YANG text.
+     *
+     * @param source Source identifier, used for reporting errors
+     * @param text YANG text
+     * @return Top-level statement
+     * @throws YangSyntaxErrorException if the text is not syntactically valid
+     */
+    static YangTextStatement parse(final SourceIdentifier source, final CharSequence text)
+            throws YangSyntaxErrorException {
+        return new YangTextTokenizer(source, text).parseSource();
+    }
+
+    private YangTextStatement parseSource() throws YangSyntaxErrorException {
+        skipSeparators();
+        final YangTextStatement ret = parseStatement();
+        skipSeparators();
+        if (pos != length) {
+            throw syntaxError("extraneous input after top-level statement");
+        }
+        return ret;
+    }
+
+    private YangTextStatement parseStatement() throws YangSyntaxErrorException {
+        final int stmtLine = line;
+        final int stmtColumn = pos - lineStart;
+        final String keyword = parseKeyword();
+        skipSeparators();
+
+        final String argument;
+        final String violation;
+        char ch = peek();
+        if (ch != ';' && ch != '{') {
+            strictViolation = null;
+            argument = YangTextStatement.intern(strings, parseArgument());
+            violation = strictViolation;
+            skipSeparators();
+            ch = peek();
+        } else {
+            argument = null;
+            violation = null;
+        }
+
+        final ImmutableList<YangTextStatement> children;
+        switch (ch) {
+            case ';':
+                pos++;
+                children = ImmutableList.of();
+                break;
+            case '{':
+                pos++;
+                children = parseChildren();
+                break;
+            default:
+                throw syntaxError("expected ';' or '{' after statement '" + keyword + "', found '" + ch + "'");
+        }
+
+        return new YangTextStatement(keyword, argument, violation, children, stmtLine, stmtColumn);
+    }
+
+    private ImmutableList<YangTextStatement> parseChildren() throws YangSyntaxErrorException {
+        skipSeparators();
+        if (peek() == '}') {
+            pos++;
+            return ImmutableList.of();
+        }
+
+        final ImmutableList.Builder<YangTextStatement> builder = ImmutableList.builder();
+        do {
+            builder.add(parseStatement());
+            skipSeparators();
+        } while (peek() != '}');
+        pos++;
+        return builder.build();
+    }
+
+    private String parseKeyword() throws YangSyntaxErrorException {
+        final int start = pos;
+        if (pos < length && isIdentifierStart(text.charAt(pos))) {
+            do {
+                pos++;
+            } while (pos < length && isIdentifierPart(text.charAt(pos)));
+        }
+        if (pos == start) {
+            throw syntaxError("expected statement keyword, found '" + peek() + "'");
+        }
+        if (pos < length && !isTokenEnd(text.charAt(pos))) {
+            throw syntaxError("invalid character '" + text.charAt(pos) + "' in statement keyword");
+        }
+
+        return YangTextStatement.intern(strings, text.subSequence(start, pos).toString());
+    }
+
+    private String parseArgument() throws YangSyntaxErrorException {
+        final char ch = text.charAt(pos);
+        if (ch != '"' && ch != '\'') {
+            return parseUnquoted();
+        }
+
+        // Quoted strings may be concatenated using '+'
+        String ret = parseQuoted();
+        while (true) {
+            skipSeparators();
+            if (pos == length || text.charAt(pos) != '+') {
+                return ret;
+            }
+
+            pos++;
+            skipSeparators();
+            final char next = peek();
+            if (next != '"' && next != '\'') {
+                throw syntaxError("expected quoted string after '+', found '" + next + "'");
+            }
+            ret = ret.concat(parseQuoted());
+        }
+    }
+
+    private String parseUnquoted() throws YangSyntaxErrorException {
+        final int start = pos;
+        final char first = text.charAt(pos);
+        if (first == '}' || first == '+') {
+            throw syntaxError("unexpected '" + first + "'");
+        }
+
+        do {
+            pos++;
+        } while (pos < length && !isTokenEnd(text.charAt(pos)));
+
+        final String ret = text.subSequence(start, pos).toString();
+        if (strictViolation == null && !ArgumentContextUtils.isValidUnquotedString(ret)) {
+            strictViolation = ret;
+        }
+        return ret;
+    }
+
+    private String parseQuoted() throws YangSyntaxErrorException {
+        final int quoteLine = line;
+        final int quoteColumn = pos - lineStart;
+        final char quote = text.charAt(pos++);
+        final int start = pos;
+        while (true) {
+            if (pos == length) {
+                throw new YangSyntaxErrorException(source, quoteLine, quoteColumn, "unterminated string");
+            }
+
+            final char ch = text.charAt(pos);
+            if (ch == quote) {
+                break;
+            }
+            if (ch == '\\' && quote == '"' && pos + 1 < length) {
+                // Skip the escaped character, but keep track of lines
+                pos++;
+                if (text.charAt(pos) == '\n') {
+                    newLine();
+                }
+            } else if (ch == '\n') {
+                newLine();
+            }
+            pos++;
+        }
+
+        final String inner = text.subSequence(start, pos).toString();
+        pos++;
+        if (quote == '\'') {
+            // RFC6020: a single quote character cannot occur in a single-quoted string, even when preceded by
+            // a backslash
+            return inner;
+        }
+
+        if (strictViolation == null && ArgumentContextUtils.findIllegalEscape(inner) != -1) {
+            strictViolation = '"' + inner + '"';
+        }
+        return ArgumentContextUtils.unescapeDoubleQuoted(inner, quoteColumn);
+    }
+
+    private void skipSeparators() {
+        while (pos < length) {
+            final char ch = text.charAt(pos);
+            switch (ch) {
+                case '\n':
+                    newLine();
+                    pos++;
+                    break;
+                case ' ':
+                case '\t':
+                case '\r':
+                    pos++;
+                    break;
+                case '/':
+                    if (pos + 1 < length) {
+                        final char next = text.charAt(pos + 1);
+                        if (next == '/') {
+                            skipLineComment();
+                            break;
+                        }
+                        if (next == '*') {
+                            skipBlockComment();
+                            break;
+                        }
+                    }
+                    return;
+                default:
+                    return;
+            }
+        }
+    }
+
+    private void skipLineComment() {
+        pos += 2;
+        while (pos < length && text.charAt(pos) != '\n' && text.charAt(pos) != '\r') {
+            pos++;
+        }
+    }
+
+    private void skipBlockComment() {
+        pos += 2;
+        while (pos < length) {
+            final char ch = text.charAt(pos);
+            if (ch == '*' && pos + 1 < length && text.charAt(pos + 1) == '/') {
+                pos += 2;
+                return;
+            }
+            if (ch == '\n') {
+                newLine();
+            }
+            pos++;
+        }
+    }
+
+    private void newLine() {
+        line++;
+        lineStart = pos + 1;
+    }
+
+    private char peek() throws YangSyntaxErrorException {
+        if (pos == length) {
+            throw syntaxError("unexpected end of input");
+        }
+        return text.charAt(pos);
+    }
+
+    private YangSyntaxErrorException syntaxError(final String message) {
+        return new YangSyntaxErrorException(source, line, pos - lineStart, message);
+    }
+
+    private static boolean isIdentifierStart(final char ch) {
+        return ch >= 'a' && ch <= 'z' || ch >= 'A' && ch <= 'Z' || ch == '_' || ch == '/';
+    }
+
+    private static boolean isIdentifierPart(final char ch) {
+        return isIdentifierStart(ch) || ch >= '0' && ch <= '9' || ch == '-' || ch == '.' || ch == ':';
+    }
+
+    private static boolean isTokenEnd(final char ch) {
+        switch (ch) {
+            case ' ':
+            case '\t':
+            case '\n':
+            case '\r':
+            case ';':
+            case '{':
+            case '}':
+                return true;
+            default:
+                return false;
+        }
+    }
+}
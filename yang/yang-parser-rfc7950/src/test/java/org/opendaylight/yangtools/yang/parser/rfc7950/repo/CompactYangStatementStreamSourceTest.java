@@ -0,0 +1,184 @@
+/*
+ * Copyright (c) 2018 Pantheon Technologies, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.parser.rfc7950.repo;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.Test;
+import org.opendaylight.yangtools.yang.common.YangVersion;
+import org.opendaylight.yangtools.yang.model.api.SchemaContext;
+import org.opendaylight.yangtools.yang.model.parser.api.YangSyntaxErrorException;
+import org.opendaylight.yangtools.yang.model.repo.api.RevisionSourceIdentifier;
+import org.opendaylight.yangtools.yang.model.repo.api.SourceIdentifier;
+import org.opendaylight.yangtools.yang.model.repo.api.YangTextSchemaSource;
+import org.opendaylight.yangtools.yang.parser.rfc7950.reactor.RFC7950Reactors;
+import org.opendaylight.yangtools.yang.parser.spi.meta.ReactorException;
+import org.opendaylight.yangtools.yang.parser.spi.source.DeclarationInTextSource;
+import org.opendaylight.yangtools.yang.parser.spi.source.SourceException;
+import org.opendaylight.yangtools.yang.parser.spi.source.StatementSourceReference;
+
+public class CompactYangStatementStreamSourceTest {
+    private static final SourceIdentifier ID = RevisionSourceIdentifier.create("foo");
+
+    @Test
+    public void testConformance() throws IOException, URISyntaxException {
+        final List<Path> files;
+        try (Stream<Path> stream = Files.walk(Paths.get(getClass().getResource("/").toURI()))) {
+            files = stream.filter(file -> file.toString().endsWith(".yang")).collect(Collectors.toList());
+        }
+        assertTrue(files.size() > 100);
+
+        for (Path file : files) {
+            final YangTextSchemaSource source = YangTextSchemaSource.forFile(file.toFile());
+            YangTextStatement expected;
+            try {
+                expected = YangStatementStreamSource.create(source).getRoot();
+            } catch (YangSyntaxErrorException e) {
+                expected = null;
+            }
+
+            final CompactYangStatementStreamSource actual;
+            try {
+                actual = CompactYangStatementStreamSource.create(source.getIdentifier(), file);
+            } catch (YangSyntaxErrorException e) {
+                assertNull("Unexpected failure parsing " + file + ": " + e.getMessage(), expected);
+                continue;
+            }
+            if (expected == null) {
+                fail("Unexpected success parsing " + file);
+            }
+            assertEquivalent(file.toString(), expected, actual.getRoot());
+        }
+    }
+
+    @Test
+    public void testReactorParity() throws IOException, YangSyntaxErrorException, ReactorException {
+        for (String resource : new String[] {
+            "/constraint-definitions-test/foo.yang", "/semantic-statement-parser/foobar.yang",
+            "/semantic-statement-parser/importedtest.yang"
+        }) {
+            final YangTextSchemaSource source = YangTextSchemaSource.forResource(resource);
+            final SchemaContext expected = RFC7950Reactors.defaultReactor().newBuild()
+                    .addSource(YangStatementStreamSource.create(source)).buildEffective();
+            final SchemaContext actual = RFC7950Reactors.defaultReactor().newBuild()
+                    .addSource(CompactYangStatementStreamSource.create(source)).buildEffective();
+            assertEquals(expected.getModules(), actual.getModules());
+            assertEquals(expected.getChildNodes(), actual.getChildNodes());
+        }
+    }
+
+    @Test
+    public void testArguments() throws YangSyntaxErrorException {
+        final YangTextStatement root = parse("module foo {\n"
+                + "    // comment\n"
+                + "    description \"first\n"
+                + "                 second\\t\\\"quoted\\\"\" /* comment */ + 'single\\n';\n"
+                + "    reference /**/ref;\n"
+                + "}\n");
+        assertEquals("module", root.keyword());
+        assertEquals("foo", root.argument(YangVersion.VERSION_1, null));
+        assertEquals(1, root.line());
+        assertEquals(0, root.column());
+        assertEquals(2, root.children().size());
+
+        final YangTextStatement description = root.children().get(0);
+        assertEquals("description", description.keyword());
+        assertEquals("first\nsecond\t\"quoted\"single\\n", description.argument(YangVersion.VERSION_1_1, null));
+        assertEquals(3, description.line());
+        assertEquals(4, description.column());
+
+        final YangTextStatement reference = root.children().get(1);
+        assertEquals("ref", reference.argument(YangVersion.VERSION_1, null));
+        assertEquals(5, reference.line());
+    }
+
+    @Test
+    public void testSyntaxErrors() {
+        assertSyntaxError("module foo {", 1, 12);
+        assertSyntaxError("module foo { leaf bar }", 1, 22);
+        assertSyntaxError("module foo {\n  description \"unterminated;\n}", 2, 14);
+        assertSyntaxError("module foo { description 'a' + b; }", 1, 31);
+        assertSyntaxError("module foo; bar;", 1, 12);
+        assertSyntaxError("module foo { \"bar\"; }", 1, 13);
+    }
+
+    @Test
+    public void testStrictArguments() throws YangSyntaxErrorException {
+        final YangTextStatement root = parse("module foo {\n  prefix f\"o\";\n  description \"a\\b\";\n}");
+        final YangTextStatement prefix = root.children().get(0);
+        final YangTextStatement description = root.children().get(1);
+        final StatementSourceReference ref = DeclarationInTextSource.atPosition("foo", prefix.line(),
+            prefix.column());
+
+        assertEquals("f\"o\"", prefix.argument(YangVersion.VERSION_1, ref));
+        assertEquals("a\\b", description.argument(YangVersion.VERSION_1, ref));
+        try {
+            prefix.argument(YangVersion.VERSION_1_1, ref);
+            fail("Unquoted string with quotes should be rejected");
+        } catch (SourceException e) {
+            assertTrue(e.getMessage().startsWith("YANG 1.1: unquoted string (f\"o\") contains illegal characters"));
+        }
+        try {
+            description.argument(YangVersion.VERSION_1_1, ref);
+            fail("Illegal escape should be rejected");
+        } catch (SourceException e) {
+            assertTrue(e.getMessage().startsWith("YANG 1.1: illegal double quoted string (a\\b)"));
+        }
+    }
+
+    private static YangTextStatement parse(final String text) throws YangSyntaxErrorException {
+        return CompactYangStatementStreamSource.create(ID, text, null).getRoot();
+    }
+
+    private static void assertSyntaxError(final String text, final int line, final int column) {
+        try {
+            parse(text);
+            fail("Syntax error expected in " + text);
+        } catch (YangSyntaxErrorException e) {
+            assertEquals(text, line, e.getLine());
+            assertEquals(text, column, e.getCharPositionInLine());
+        }
+    }
+
+    private static void assertEquivalent(final String file, final YangTextStatement expected,
+            final YangTextStatement actual) {
+        final String where = file + ":" + actual.line() + ":" + actual.column();
+        assertEquals(where, expected.keyword(), actual.keyword());
+        assertEquals(where, expected.line(), actual.line());
+        assertEquals(where, expected.column(), actual.column());
+
+        final StatementSourceReference ref = DeclarationInTextSource.atPosition(file, actual.line(), actual.column());
+        assertEquals(where, expected.argument(YangVersion.VERSION_1, ref), actual.argument(YangVersion.VERSION_1, ref));
+        assertEquals(where, strictArgument(expected, ref), strictArgument(actual, ref));
+
+        final List<YangTextStatement> children = expected.children();
+        assertEquals(where, children.size(), actual.children().size());
+        for (int i = 0; i < children.size(); i++) {
+            assertEquivalent(file, children.get(i), actual.children().get(i));
+        }
+    }
+
+    private static String strictArgument(final YangTextStatement stmt, final StatementSourceReference ref) {
+        try {
+            return stmt.argument(YangVersion.VERSION_1_1, ref);
+        } catch (SourceException e) {
+            return e.getMessage();
+        }
+    }
+}
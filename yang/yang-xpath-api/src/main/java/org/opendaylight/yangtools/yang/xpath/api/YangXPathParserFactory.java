@@ -57,22 +57,27 @@ public interface YangXPathParserFactory {
     /**
      * Return a {@link YangXPathParser} compliant with {@link MathMode#IEEE754}.
      *
+     * @param implicitNamespace Namespace of unprefixed names, i.e. the namespace of the context node
      * @param prefixResolver Prefix-to-namespace resolver function
      * @return An XPathParser
+     * @throws NullPointerException if any argument is null
      * @throws IllegalArgumentException if {@code IEEE754} is not supported.
      */
-    default YangXPathParser newParser(final Function<String, QNameModule> prefixResolver) {
-        return newParser(prefixResolver, MathMode.IEEE754);
+    default YangXPathParser newParser(final QNameModule implicitNamespace,
+            final Function<String, QNameModule> prefixResolver) {
+        return newParser(implicitNamespace, prefixResolver, MathMode.IEEE754);
     }
 
     /**
      * Return a {@link YangXPathParser} compliant with {@link MathMode}.
      *
+     * @param implicitNamespace Namespace of unprefixed names, i.e. the namespace of the context node
      * @param prefixResolver Prefix-to-namespace resolver function
      * @param mathMode Requested XPath number compliance
      * @return An XPathParser
-     * @throws NullPointerException if {@code mathMode} is null
+     * @throws NullPointerException if any argument is null
      * @throws IllegalArgumentException if {@code mathMode} is not supported.
      */
-    YangXPathParser newParser(Function<String, QNameModule> prefixResolver, MathMode mathMode);
+    YangXPathParser newParser(QNameModule implicitNamespace, Function<String, QNameModule> prefixResolver,
+            MathMode mathMode);
 }
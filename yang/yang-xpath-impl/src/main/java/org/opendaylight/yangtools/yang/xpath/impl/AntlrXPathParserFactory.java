@@ -0,0 +1,47 @@
+/*
+ * Copyright (c) 2018 Pantheon Technologies, s.r.o. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.xpath.impl;
+
+import static java.util.Objects.requireNonNull;
+
+import com.google.common.annotations.Beta;
+import com.google.common.collect.Sets;
+import java.util.Set;
+import java.util.function.Function;
+import org.kohsuke.MetaInfServices;
+import org.opendaylight.yangtools.yang.common.QNameModule;
+import org.opendaylight.yangtools.yang.xpath.api.YangXPathParser;
+import org.opendaylight.yangtools.yang.xpath.api.YangXPathParserFactory;
+
+/**
+ * {@link YangXPathParserFactory} providing ANTLR-based {@link YangXPathParser}s.
+ */
+@Beta
+@MetaInfServices
+public final class AntlrXPathParserFactory implements YangXPathParserFactory {
+    private static final Set<MathMode> SUPPORTED_MATH_MODES = Sets.immutableEnumSet(MathMode.IEEE754,
+        MathMode.EXACT);
+
+    @Override
+    public Set<MathMode> getSupportedMathModes() {
+        return SUPPORTED_MATH_MODES;
+    }
+
+    @Override
+    public YangXPathParser newParser(final QNameModule implicitNamespace,
+            final Function<String, QNameModule> prefixResolver, final MathMode mathMode) {
+        switch (requireNonNull(mathMode)) {
+            case EXACT:
+                return new BigDecimalXPathParser(implicitNamespace, prefixResolver);
+            case IEEE754:
+                return new DoubleXPathParser(implicitNamespace, prefixResolver);
+            default:
+                throw new IllegalArgumentException("Unsupported math mode " + mathMode);
+        }
+    }
+}
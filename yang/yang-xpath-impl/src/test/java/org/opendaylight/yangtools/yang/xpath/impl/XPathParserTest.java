@@ -17,6 +17,8 @@ import org.eclipse.jdt.annotation.Nullable;
 import org.junit.Before;
 import org.junit.Test;
 import org.opendaylight.yangtools.yang.common.QNameModule;
+import org.opendaylight.yangtools.yang.xpath.api.YangBinaryExpr;
+import org.opendaylight.yangtools.yang.xpath.api.YangBinaryOperator;
 import org.opendaylight.yangtools.yang.xpath.api.YangBooleanConstantExpr;
 import org.opendaylight.yangtools.yang.xpath.api.YangExpr;
 
@@ -97,6 +99,13 @@ public class XPathParserTest {
         assertEquals(YangBooleanConstantExpr.TRUE, parseExpr("2 = (1 + 1)"));
     }
 
+    @Test
+    public void testRelational() throws XPathExpressionException {
+        assertEquals(YangBinaryOperator.LTE, ((YangBinaryExpr) parseExpr("a <= ../b")).getOperator());
+        assertEquals(YangBinaryOperator.GT, ((YangBinaryExpr) parseExpr("/a > b")).getOperator());
+        assertEquals(YangBooleanConstantExpr.TRUE, parseExpr("1 < 2"));
+    }
+
     private YangExpr parseExpr(final String xpath) throws XPathExpressionException {
         return parser.parseExpression(xpath).getRootExpr();
     }